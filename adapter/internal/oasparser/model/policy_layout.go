@@ -53,7 +53,7 @@ var supportedPoliciesMap = map[string]policyLayout{
 	"OPA": {
 		// Following parameters are not required (optional)
 		// "rule", token", "additionalProperties", "sendAccessToken", "maxOpenConnections", "maxPerRoute"
-		// "connectionTimeout", "requestGenerator"
+		// "connectionTimeout", "requestGenerator", "decisionCacheTTL", "evaluationTimeout", "failOpen"
 		RequiredParams:   []string{"serverURL", "policy"},
 		IsPassToEnforcer: true,
 	},
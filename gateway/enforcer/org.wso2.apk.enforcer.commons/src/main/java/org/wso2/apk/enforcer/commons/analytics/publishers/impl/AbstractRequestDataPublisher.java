@@ -25,7 +25,15 @@ import org.wso2.am.analytics.publisher.exception.MetricReportingException;
 import org.wso2.am.analytics.publisher.reporter.CounterMetric;
 import org.wso2.am.analytics.publisher.reporter.MetricEventBuilder;
 import org.wso2.apk.enforcer.commons.analytics.publishers.RequestDataPublisher;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.API;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Application;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Error;
 import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Event;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.ExtendedAPI;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Latencies;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.MetaInfo;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Operation;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Target;
 import java.util.List;
 import java.util.Map;
 
@@ -34,7 +42,15 @@ import java.util.Map;
  */
 public abstract class AbstractRequestDataPublisher implements RequestDataPublisher {
 
+    /**
+     * @deprecated Events are no longer converted to a map before publishing. Kept for subclasses that use it.
+     */
+    @Deprecated
     protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    /**
+     * @deprecated Events are no longer converted to a map before publishing. Kept for subclasses that use it.
+     */
+    @Deprecated
     protected static final TypeReference<Map<String, Object>> MAP_TYPE_REFERENCE =
             new TypeReference<Map<String, Object>>() {
             };
@@ -43,7 +59,6 @@ public abstract class AbstractRequestDataPublisher implements RequestDataPublish
     @Override
     public void publish(Event analyticsEvent) {
 
-        Map<String, Object> dataMap = OBJECT_MAPPER.convertValue(analyticsEvent, MAP_TYPE_REFERENCE);
         List<CounterMetric> multipleCounterMetrics = this.getMultipleCounterMetrics();
         if (multipleCounterMetrics == null) {
             log.error("All the counterMetrics are invalid. Event will be dropped.");
@@ -54,28 +69,95 @@ public abstract class AbstractRequestDataPublisher implements RequestDataPublish
             if (counterMetric == null) {
                 log.error("counterMetric cannot be null.");
             } else {
-                String counterMetricClassName = counterMetric.getClass().toString().
-                        replaceAll("[\r\n]", "").split(" ")[1];
-                boolean caughtException = false;
                 MetricEventBuilder builder = counterMetric.getEventBuilder();
-                for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
-                    try {
-                        builder.addAttribute(entry.getKey(), entry.getValue());
-                    } catch (MetricReportingException e) {
-                        caughtException = true;
-                        log.error("Error adding data to the event stream. counterMetric: " + counterMetricClassName
-                                , e);
-                        break;
-                    }
+                try {
+                    addAttributes(builder::addAttribute, analyticsEvent);
+                } catch (MetricReportingException e) {
+                    log.error("Error adding data to the event stream. counterMetric: " +
+                            counterMetric.getClass().getName(), e);
+                    continue;
                 }
-                if (!caughtException) {
-                    try {
-                        counterMetric.incrementCount(builder);
-                    } catch (MetricReportingException e) {
-                        log.error("Error occurred when publishing event.", e);
-                    }
+                try {
+                    counterMetric.incrementCount(builder);
+                } catch (MetricReportingException e) {
+                    log.error("Error occurred when publishing event.", e);
                 }
             }
         }
     }
+
+    /**
+     * Adds the fields of the event to the builder as attributes. The attributes are the same as the properties of
+     * the event serialized as JSON (the nested objects are unwrapped), but are added without converting the event
+     * to an intermediate map.
+     */
+    static void addAttributes(AttributeSink builder, Event event) throws MetricReportingException {
+
+        API api = event.getApi();
+        if (api != null) {
+            builder.addAttribute("apiId", api.getApiId());
+            builder.addAttribute("apiType", api.getApiType());
+            builder.addAttribute("apiName", api.getApiName());
+            builder.addAttribute("apiVersion", api.getApiVersion());
+            builder.addAttribute("apiCreator", api.getApiCreator());
+            builder.addAttribute("apiCreatorTenantDomain", api.getApiCreatorTenantDomain());
+            if (api instanceof ExtendedAPI) {
+                builder.addAttribute("organizationId", ((ExtendedAPI) api).getOrganizationId());
+                builder.addAttribute("apiContext", ((ExtendedAPI) api).getApiContext());
+            }
+        }
+        Operation operation = event.getOperation();
+        if (operation != null) {
+            builder.addAttribute("apiMethod", operation.getApiMethod());
+            builder.addAttribute("apiResourceTemplate", operation.getApiResourceTemplate());
+        }
+        Target target = event.getTarget();
+        if (target != null) {
+            builder.addAttribute("targetResponseCode", target.getTargetResponseCode());
+            builder.addAttribute("responseCacheHit", target.isResponseCacheHit());
+            builder.addAttribute("destination", target.getDestination());
+        }
+        Application application = event.getApplication();
+        if (application != null) {
+            builder.addAttribute("keyType", application.getKeyType());
+            builder.addAttribute("applicationId", application.getApplicationId());
+            builder.addAttribute("applicationName", application.getApplicationName());
+            builder.addAttribute("applicationOwner", application.getApplicationOwner());
+        }
+        Latencies latencies = event.getLatencies();
+        if (latencies != null) {
+            builder.addAttribute("responseLatency", latencies.getResponseLatency());
+            builder.addAttribute("backendLatency", latencies.getBackendLatency());
+            builder.addAttribute("requestMediationLatency", latencies.getRequestMediationLatency());
+            builder.addAttribute("responseMediationLatency", latencies.getResponseMediationLatency());
+        }
+        MetaInfo metaInfo = event.getMetaInfo();
+        if (metaInfo != null) {
+            builder.addAttribute("correlationId", metaInfo.getCorrelationId());
+            builder.addAttribute("regionId", metaInfo.getRegionId());
+            builder.addAttribute("gatewayType", metaInfo.getGatewayType());
+        }
+        Error error = event.getError();
+        if (error != null) {
+            builder.addAttribute("errorCode", error.getErrorCode());
+            // Fault sub categories are enums, which are serialized by their names.
+            builder.addAttribute("errorMessage", error.getErrorMessage() instanceof Enum
+                    ? ((Enum<?>) error.getErrorMessage()).name() : error.getErrorMessage());
+        }
+        builder.addAttribute("proxyResponseCode", event.getProxyResponseCode());
+        builder.addAttribute("requestTimestamp", event.getRequestTimestamp());
+        builder.addAttribute("userAgentHeader", event.getUserAgentHeader());
+        builder.addAttribute("userName", event.getUserName());
+        builder.addAttribute("userIp", event.getUserIp());
+        builder.addAttribute("errorType", event.getErrorType());
+        builder.addAttribute("properties", event.getProperties());
+    }
+
+    /**
+     * Receives the attributes of an event, i.e. {@link MetricEventBuilder#addAttribute(String, Object)}.
+     */
+    interface AttributeSink {
+
+        void addAttribute(String key, Object value) throws MetricReportingException;
+    }
 }
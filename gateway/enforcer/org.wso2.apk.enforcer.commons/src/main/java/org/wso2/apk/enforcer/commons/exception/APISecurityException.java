@@ -39,6 +39,21 @@ public class APISecurityException extends Exception {
         this.errorCode = errorCode;
     }
 
+    /**
+     * Creates an exception without a stack trace. Such an exception is cheap to create and can be shared, hence is
+     * used for the authentication failures that are expected during normal operation (i.e. expired tokens).
+     *
+     * @param statusCode         HTTP status code
+     * @param errorCode          error code
+     * @param message            error message
+     * @param writableStackTrace whether the stack trace should be captured
+     */
+    public APISecurityException(int statusCode, int errorCode, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.statusCode = statusCode;
+        this.errorCode = errorCode;
+    }
+
     public int getErrorCode() {
         return errorCode;
     }
@@ -38,6 +38,7 @@ import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -49,6 +50,8 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
     public static final String NONE = "NONE";
     public static final String SHA256_WITH_RSA = "SHA256withRSA";
     public static final String API_GATEWAY_ID = "wso2.org/products/am";
+    // Object mapper is thread safe once configured, so a single instance is shared by all the generators.
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     public JWTConfigurationDto jwtConfigurationDto;
 
     private static volatile long ttl = -1L;
@@ -56,7 +59,14 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
 
     public String signatureAlgorithm;
 
+    // Base64url encoded JWT header, built once per signing certificate and signature algorithm.
+    private volatile EncodedHeader encodedHeader;
+    // A generator overriding how the header is built may add values that change per token, so its header is not
+    // cached.
+    private final boolean headerCacheable;
+
     public AbstractAPIMgtGatewayJWTGenerator() {
+        headerCacheable = !isOverridden("buildHeader") && !isOverridden("addCertToHeader");
     }
 
     public void setJWTConfigurationDto(JWTConfigurationDto jwtConfigurationDto) {
@@ -77,12 +87,8 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
     }
     public String generateToken(JWTInfoDto jwtInfoDto) throws JWTGeneratorException {
 
-        String jwtHeader = buildHeader();
+        String base64UrlEncodedHeader = getEncodedHeader();
         String jwtBody = buildBody(jwtInfoDto);
-        String base64UrlEncodedHeader = "";
-        if (jwtHeader != null) {
-            base64UrlEncodedHeader = encode(jwtHeader.getBytes(Charset.defaultCharset()));
-        }
         String base64UrlEncodedBody = "";
         try {
             base64UrlEncodedBody = encode(jwtBody.getBytes("UTF-8"));
@@ -106,6 +112,48 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
         }
     }
 
+    /**
+     * Get the base64url encoded JWT header. The header built by this class depends only on the signing certificate
+     * and the signature algorithm, so it is built and encoded once and rebuilt only when either of them changes. If
+     * a subclass overrides {@link #buildHeader()} or {@link #addCertToHeader()}, the header is built for every token.
+     *
+     * @return base64url encoded JWT header
+     * @throws JWTGeneratorException if an error occurs while building the header
+     */
+    protected String getEncodedHeader() throws JWTGeneratorException {
+        if (!headerCacheable) {
+            return encodeHeader(buildHeader());
+        }
+        Certificate publicCert = jwtConfigurationDto.getPublicCert();
+        boolean useKid = jwtConfigurationDto.useKid();
+        EncodedHeader header = encodedHeader;
+        if (header == null || !header.isBuiltFor(publicCert, signatureAlgorithm, useKid)) {
+            header = new EncodedHeader(publicCert, signatureAlgorithm, useKid, encodeHeader(buildHeader()));
+            encodedHeader = header;
+        }
+        return header.value;
+    }
+
+    private String encodeHeader(String jwtHeader) throws JWTGeneratorException {
+        if (jwtHeader == null) {
+            return "";
+        }
+        return encode(jwtHeader.getBytes(Charset.defaultCharset()));
+    }
+
+    private boolean isOverridden(String methodName) {
+        for (Class<?> type = getClass(); type != AbstractAPIMgtGatewayJWTGenerator.class;
+             type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod(methodName);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not declared by this class, check its superclass.
+            }
+        }
+        return false;
+    }
+
     public String buildHeader() throws JWTGeneratorException {
         String jwtHeader = null;
 
@@ -188,7 +236,7 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
                 claims.replace(claimEntry.getKey(), claim);
             }
         }
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = OBJECT_MAPPER;
         for (Map.Entry<String, Object> claimEntry : claims.entrySet()) {
             Object claimVal = claimEntry.getValue();
             if (claimVal instanceof String && claimEntry.toString().contains("{")) {
@@ -239,5 +287,27 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
     public abstract Map<String, Object> populateStandardClaims(JWTInfoDto jwtInfoDto);
 
     public abstract Map<String, ClaimValueDTO> populateCustomClaims(JWTInfoDto jwtInfoDto);
+
+    /**
+     * Encoded JWT header along with the signing certificate and signature algorithm it is built for.
+     */
+    private static final class EncodedHeader {
+        private final Certificate publicCert;
+        private final String signatureAlgorithm;
+        private final boolean useKid;
+        private final String value;
+
+        private EncodedHeader(Certificate publicCert, String signatureAlgorithm, boolean useKid, String value) {
+            this.publicCert = publicCert;
+            this.signatureAlgorithm = signatureAlgorithm;
+            this.useKid = useKid;
+            this.value = value;
+        }
+
+        private boolean isBuiltFor(Certificate publicCert, String signatureAlgorithm, boolean useKid) {
+            return this.publicCert == publicCert && this.useKid == useKid
+                    && Objects.equals(this.signatureAlgorithm, signatureAlgorithm);
+        }
+    }
 }
 
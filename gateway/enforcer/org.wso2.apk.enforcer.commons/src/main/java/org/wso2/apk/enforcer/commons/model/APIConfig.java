@@ -47,6 +47,7 @@ public class APIConfig {
     private boolean isMockedApi;
     private KeyStore trustStore;
     private Map<String, String> mtlsCertificateTiers = new HashMap<>();
+    private Map<String, String> mtlsCertificateAliases;
     private String mutualSSL;
     private boolean applicationSecurity;
     private GraphQLSchemaDTO graphQLSchemaDTO;
@@ -192,6 +193,16 @@ public class APIConfig {
         return mtlsCertificateTiers;
     }
 
+    /**
+     * Returns the aliases of the mutual ssl certificates in the truststore of the corresponding API, keyed by the
+     * SHA-256 fingerprint of the certificate.
+     *
+     * @return Alias Map, or null if the truststore is not indexed
+     */
+    public Map<String, String> getMtlsCertificateAliases() {
+        return mtlsCertificateAliases;
+    }
+
     /**
      * Returns the mTLS optionality for the corresponding API.
      *
@@ -256,6 +267,7 @@ public class APIConfig {
         private boolean isMockedApi;
         private KeyStore trustStore;
         private Map<String, String> mtlsCertificateTiers;
+        private Map<String, String> mtlsCertificateAliases;
         private String mutualSSL;
         private boolean applicationSecurity;
         private GraphQLSchemaDTO graphQLSchemaDTO;
@@ -346,6 +358,11 @@ public class APIConfig {
             return this;
         }
 
+        public Builder mtlsCertificateAliases(Map<String, String> mtlsCertificateAliases) {
+            this.mtlsCertificateAliases = mtlsCertificateAliases;
+            return this;
+        }
+
         public Builder mutualSSL(String mutualSSL) {
             this.mutualSSL = mutualSSL;
             return this;
@@ -386,6 +403,7 @@ public class APIConfig {
             apiConfig.isMockedApi = this.isMockedApi;
             apiConfig.trustStore = this.trustStore;
             apiConfig.mtlsCertificateTiers = this.mtlsCertificateTiers;
+            apiConfig.mtlsCertificateAliases = this.mtlsCertificateAliases;
             apiConfig.mutualSSL = this.mutualSSL;
             apiConfig.applicationSecurity = this.applicationSecurity;
             apiConfig.graphQLSchemaDTO = this.graphQLSchemaDTO;
@@ -27,59 +27,225 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-class ParameterResolver {
+/**
+ * Resolves the path parameters of a request path against a path template. The template is compiled once, so that it
+ * can be shared by all the requests of a resource. Templates where each segment has at most one parameter, with an
+ * optional trailing wildcard (ex: /pet/{petId}/image{imageId}/*), are matched segment by segment without regular
+ * expressions. Other templates fall back to a regular expression.
+ */
+abstract class ParameterResolver {
 
     private static final Pattern PARAMETER_PATTERN = Pattern.compile("(\\{[a-zA-Z0-9]+[a-z-_A-Z0-9]*\\})");
+    private static final String WILDCARD_SUFFIX = "/*";
     private static final Logger logger = LogManager.getLogger(ParameterResolver.class);
-    private final List<String> parameterNames = new ArrayList<>();
-    private final Pattern pattern;
-    private String pathTemplate;
 
-    public ParameterResolver(final String parameterTemplate) {
+    protected final String pathTemplate;
+
+    private ParameterResolver(String pathTemplate) {
+        this.pathTemplate = pathTemplate;
+    }
+
+    /**
+     * Compile the given path template.
+     *
+     * @param pathTemplate complete path template, including the base path of the API
+     * @return resolver for the template
+     */
+    static ParameterResolver compile(final String pathTemplate) {
         // This formatting is required since /foo and /foo/ are considered to be equal
-        this.pathTemplate = parameterTemplate;
-        String formattedPathParamTemplate = parameterTemplate.endsWith("/") ?
-                parameterTemplate.substring(0, parameterTemplate.length() - 1) : parameterTemplate;
-        final Matcher matcher = PARAMETER_PATTERN.matcher(formattedPathParamTemplate);
-
-        while (matcher.find()) {
-            if (matcher.groupCount() == 1) {
-                final String group = matcher.group(1);
-                if (group.length() > 2) {
-                    parameterNames.add(group.substring(1, group.length() - 1));
+        String formattedPathTemplate = removeTrailingSlash(pathTemplate);
+        boolean wildcard = formattedPathTemplate.endsWith(WILDCARD_SUFFIX);
+        String segmentsTemplate = wildcard ?
+                formattedPathTemplate.substring(0, formattedPathTemplate.length() - WILDCARD_SUFFIX.length()) :
+                formattedPathTemplate;
+        if (segmentsTemplate.endsWith("*")) {
+            return new RegexParameterResolver(pathTemplate);
+        }
+        String[] segments = segmentsTemplate.split("/", -1);
+        String[] prefixes = new String[segments.length];
+        String[] suffixes = new String[segments.length];
+        String[] parameterNames = new String[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            Matcher matcher = PARAMETER_PATTERN.matcher(segments[i]);
+            if (!matcher.find()) {
+                prefixes[i] = segments[i];
+                continue;
+            }
+            prefixes[i] = segments[i].substring(0, matcher.start());
+            suffixes[i] = segments[i].substring(matcher.end());
+            parameterNames[i] = matcher.group(1).substring(1, matcher.group(1).length() - 1);
+            if (matcher.find()) {
+                // Multiple parameters within a segment cannot be separated without a regular expression.
+                return new RegexParameterResolver(pathTemplate);
+            }
+        }
+        return new SegmentParameterResolver(pathTemplate, prefixes, suffixes, parameterNames, wildcard);
+    }
+
+    /**
+     * Format the base path of an API, so that it starts with a slash and does not end with one.
+     *
+     * @param basePath base path of the API
+     * @return formatted base path
+     */
+    static String formatBasePath(String basePath) {
+        String formattedBasePath = basePath.startsWith("/") ? basePath : "/" + basePath;
+        return removeTrailingSlash(formattedBasePath);
+    }
+
+    /**
+     * Get the complete path template of a resource.
+     *
+     * @param formattedBasePath base path of the API, formatted with {@link #formatBasePath(String)}
+     * @param resourceTemplate  resourceTemplate (as listed in OpenAPI)
+     * @param defaultAPIRequest whether the template is for the requests to the default version of the API, which do
+     *                          not have the version in the path
+     * @return complete path template
+     */
+    static String getCompletePathTemplate(String formattedBasePath, String resourceTemplate,
+                                          boolean defaultAPIRequest) {
+        String formattedResourcePathTemplate = resourceTemplate.startsWith("/") ?
+                resourceTemplate : "/" + resourceTemplate;
+        if (defaultAPIRequest) {
+            // formatted basePath does not have a trailing slash. Hence the last slash appears right
+            // before the version.
+            String apiContext = formattedBasePath.substring(0, formattedBasePath.lastIndexOf("/"));
+            return apiContext + formattedResourcePathTemplate;
+        }
+        return formattedBasePath + formattedResourcePathTemplate;
+    }
+
+    /**
+     * Resolve the path parameters of the given request path.
+     *
+     * @param uriString request path without the query parameters
+     * @return map of path parameters, which is empty if the path does not match the template
+     */
+    abstract Map<String, String> parametersByName(final String uriString);
+
+    private static String removeTrailingSlash(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    protected Map<String, String> mismatch(String uriString) {
+        // Unlikely to occur as this pair is already matched within router.
+        logger.debug("PathTemplate: {}  and RawPath: {} is mismatched.", pathTemplate, uriString);
+        return new HashMap<>();
+    }
+
+    /**
+     * Matches the request path segment by segment. A segment of the template is either a literal, or a parameter
+     * with an optional literal prefix and suffix.
+     */
+    private static final class SegmentParameterResolver extends ParameterResolver {
+
+        private final String[] prefixes;
+        // Suffixes and parameter names are null for literal segments.
+        private final String[] suffixes;
+        private final String[] parameterNames;
+        private final boolean wildcard;
+
+        private SegmentParameterResolver(String pathTemplate, String[] prefixes, String[] suffixes,
+                                         String[] parameterNames, boolean wildcard) {
+            super(pathTemplate);
+            this.prefixes = prefixes;
+            this.suffixes = suffixes;
+            this.parameterNames = parameterNames;
+            this.wildcard = wildcard;
+        }
+
+        @Override
+        Map<String, String> parametersByName(final String uriString) {
+            // This formatting is required since /foo and /foo/ are considered to be equal
+            int length = uriString.endsWith("/") ? uriString.length() - 1 : uriString.length();
+            Map<String, String> parameters = new HashMap<>();
+            int position = 0;
+            for (int i = 0; i < prefixes.length; i++) {
+                if (i > 0) {
+                    if (position >= length || uriString.charAt(position) != '/') {
+                        return mismatch(uriString);
+                    }
+                    position++;
+                }
+                int end = uriString.indexOf('/', position);
+                if (end < 0 || end > length) {
+                    end = length;
+                }
+                String prefix = prefixes[i];
+                if (parameterNames[i] == null) {
+                    if (end - position != prefix.length()
+                            || !uriString.regionMatches(position, prefix, 0, prefix.length())) {
+                        return mismatch(uriString);
+                    }
                 } else {
-                    parameterNames.add(group);
+                    String suffix = suffixes[i];
+                    if (end - position < prefix.length() + suffix.length()
+                            || !uriString.regionMatches(position, prefix, 0, prefix.length())
+                            || !uriString.regionMatches(end - suffix.length(), suffix, 0, suffix.length())) {
+                        return mismatch(uriString);
+                    }
+                    parameters.put(parameterNames[i],
+                            uriString.substring(position + prefix.length(), end - suffix.length()));
                 }
+                position = end;
+            }
+            // A trailing wildcard matches the rest of the path, if any.
+            if (position < length && !(wildcard && uriString.charAt(position) == '/')) {
+                return mismatch(uriString);
             }
+            return parameters;
         }
-        String regex = Pattern.quote(matcher.replaceAll("_____PARAM_____"))
-                .replace("_____PARAM_____", "\\E([^/]*)\\Q");
-        regex = regex.endsWith("*\\E") ? regex.substring(0, regex.length() - 4) + "\\E($|([/]{1}(.*)))" : regex;
-        pattern = Pattern.compile(regex);
     }
 
-    public Map<String, String> parametersByName(final String uriString) throws IllegalArgumentException {
-        // This formatting is required since /foo and /foo/ are considered to be equal
-        String formattedURI = uriString.endsWith("/") ?
-                uriString.substring(0, uriString.length() - 1) : uriString;
-        final Matcher matcher = pattern.matcher(formattedURI);
-        if (!matcher.matches()) {
-            // Unlikely to occur as this pair is already matched within router.
-            logger.debug("PathTemplate: {}  and RawPath: {} is mismatched.", pathTemplate, uriString);
-            return new HashMap<>();
+    /**
+     * Matches the request path with a regular expression built from the template.
+     */
+    private static final class RegexParameterResolver extends ParameterResolver {
+
+        private final List<String> parameterNames = new ArrayList<>();
+        private final Pattern pattern;
+
+        private RegexParameterResolver(final String parameterTemplate) {
+            super(parameterTemplate);
+            // This formatting is required since /foo and /foo/ are considered to be equal
+            String formattedPathParamTemplate = removeTrailingSlash(parameterTemplate);
+            final Matcher matcher = PARAMETER_PATTERN.matcher(formattedPathParamTemplate);
+
+            while (matcher.find()) {
+                if (matcher.groupCount() == 1) {
+                    final String group = matcher.group(1);
+                    if (group.length() > 2) {
+                        parameterNames.add(group.substring(1, group.length() - 1));
+                    } else {
+                        parameterNames.add(group);
+                    }
+                }
+            }
+            String regex = Pattern.quote(matcher.replaceAll("_____PARAM_____"))
+                    .replace("_____PARAM_____", "\\E([^/]*)\\Q");
+            regex = regex.endsWith("*\\E") ? regex.substring(0, regex.length() - 4) + "\\E($|([/]{1}(.*)))" : regex;
+            pattern = Pattern.compile(regex);
         }
-        final Map<String, String> map = new HashMap<>();
-        for (int i = 1; i <= matcher.groupCount(); i++) {
-            // There can be multiple match for trailing wildcard (if available.)
-            // Those matches will appear in the end. Hence those can be discarded.
-            // ex: /pet/{id}/*
-            if (i == parameterNames.size() + 1) {
-                break;
+
+        @Override
+        Map<String, String> parametersByName(final String uriString) {
+            // This formatting is required since /foo and /foo/ are considered to be equal
+            String formattedURI = removeTrailingSlash(uriString);
+            final Matcher matcher = pattern.matcher(formattedURI);
+            if (!matcher.matches()) {
+                return mismatch(uriString);
+            }
+            final Map<String, String> map = new HashMap<>();
+            for (int i = 1; i <= matcher.groupCount(); i++) {
+                // There can be multiple match for trailing wildcard (if available.)
+                // Those matches will appear in the end. Hence those can be discarded.
+                // ex: /pet/{id}/*
+                if (i == parameterNames.size() + 1) {
+                    break;
+                }
+                map.put(parameterNames.get(i - 1), matcher.group(i));
             }
-            map.put(parameterNames.get(i - 1), matcher.group(i));
+            return map;
         }
-        return map;
     }
-//
-//    private String preProcessPath(String path)
 }
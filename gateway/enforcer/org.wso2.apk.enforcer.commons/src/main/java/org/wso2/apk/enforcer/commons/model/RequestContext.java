@@ -472,17 +472,23 @@ public class RequestContext {
             requestContext.queryParamsToRemove = new ArrayList<>();
             requestContext.removeAllQueryParams = false;
             requestContext.queryParamsToAdd = new HashMap<>();
-            String[] queryParts = this.requestPath.split("\\?");
-            String queryParamsString = queryParts.length > 1 ? queryParts[1] : "";
+            int queryIndex = this.requestPath.indexOf('?');
+            String rawPath = queryIndex < 0 ? this.requestPath : this.requestPath.substring(0, queryIndex);
 
             requestContext.queryParameters = new HashMap<>();
-            List<NameValuePair> queryParams = URLEncodedUtils.parse(queryParamsString, StandardCharsets.UTF_8);
-            for (NameValuePair param : queryParams) {
-                requestContext.queryParameters.put(param.getName(), param.getValue());
+            if (queryIndex >= 0) {
+                // Anything after a second '?' is not a part of the query, as with splitting the path by '?'.
+                int queryEnd = this.requestPath.indexOf('?', queryIndex + 1);
+                String queryParamsString = queryEnd < 0 ? this.requestPath.substring(queryIndex + 1) :
+                        this.requestPath.substring(queryIndex + 1, queryEnd);
+                List<NameValuePair> queryParams = URLEncodedUtils.parse(queryParamsString, StandardCharsets.UTF_8);
+                for (NameValuePair param : queryParams) {
+                    requestContext.queryParameters.put(param.getName(), param.getValue());
+                }
             }
 
             requestContext.pathParameters = populatePathParameters(
-                    matchedAPI.getBasePath(), requestPathTemplate, this.requestPath);
+                    matchedAPI.getBasePath(), requestPathTemplate, rawPath);
 
 //            if (this.webSocketFrameContext != null) {
 //                requestContext.webSocketFrameContext = this.webSocketFrameContext;
@@ -496,11 +502,12 @@ public class RequestContext {
         }
 
         /**
-         * Create and populate path parameters map.
+         * Create and populate path parameters map. The path template compiled for the matched resource is used if
+         * available.
          *
          * @param basePath         basePath of the API
          * @param resourceTemplate resourceTemplate (as listed in OpenAPI)
-         * @param rawPath          raw request Path
+         * @param rawPath          raw request Path, without the query parameters
          * @return map which contains path parameters
          */
         private Map<String, String> populatePathParameters(String basePath, String resourceTemplate,
@@ -510,25 +517,25 @@ public class RequestContext {
                         rawPath);
                 return null;
             }
-            // Format the basePath and resourcePath to maintain consistency
-            String formattedBasePath = basePath.startsWith("/") ? basePath : "/" + basePath;
-            formattedBasePath = formattedBasePath.endsWith("/") ?
-                    formattedBasePath.substring(0, formattedBasePath.length() - 1) : formattedBasePath;
-            String formattedResourcePathTemplate = resourceTemplate.startsWith("/") ?
-                    resourceTemplate : "/" + resourceTemplate;
-            String formattedRawPath = rawPath.split("\\?")[0];
-
-            String completeResourcePathTemplate = formattedBasePath + formattedResourcePathTemplate;
+            ResourceConfig compiledResource = null;
+            if (matchedResourceConfigs != null && matchedResourceConfigs.size() == 1
+                    && resourceTemplate.equals(matchedResourceConfigs.get(0).getPath())
+                    && matchedResourceConfigs.get(0).getCompiledBasePath() != null) {
+                compiledResource = matchedResourceConfigs.get(0);
+            }
+            // Format the basePath to maintain consistency
+            String formattedBasePath = compiledResource != null ? compiledResource.getCompiledBasePath() :
+                    ParameterResolver.formatBasePath(basePath);
             // rawPath would not have the prefix <formattedBasePath> only when it is a default api
             // request.
-            if (!formattedRawPath.startsWith(formattedBasePath)) {
-                // formatted basePath does not have a trailing slash. Hence the last slash appears right
-                // before the version.
-                String apiContext = formattedBasePath.substring(0, formattedBasePath.lastIndexOf("/"));
-                completeResourcePathTemplate = apiContext + formattedResourcePathTemplate;
+            boolean defaultAPIRequest = !rawPath.startsWith(formattedBasePath);
+            if (compiledResource != null) {
+                return compiledResource.getParameterResolver(defaultAPIRequest).parametersByName(rawPath);
             }
-            final ParameterResolver parameterResolver = new ParameterResolver(completeResourcePathTemplate);
-            return parameterResolver.parametersByName(formattedRawPath);
+            final ParameterResolver parameterResolver = ParameterResolver.compile(
+                    ParameterResolver.getCompletePathTemplate(formattedBasePath, resourceTemplate,
+                            defaultAPIRequest));
+            return parameterResolver.parametersByName(rawPath);
         }
     }
 }
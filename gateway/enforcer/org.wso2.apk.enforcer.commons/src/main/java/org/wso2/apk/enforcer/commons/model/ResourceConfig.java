@@ -35,6 +35,10 @@ public class ResourceConfig {
     private MockedApiConfig mockedApiConfig;
     private AuthenticationConfig authenticationConfig;
     private String[] scopes;
+    // Path parameter resolvers compiled for the path template, along with the base path they are compiled for.
+    private String compiledBasePath;
+    private ParameterResolver parameterResolver;
+    private ParameterResolver defaultAPIParameterResolver;
 
     /**
      * ENUM to hold http operations.
@@ -64,6 +68,29 @@ public class ResourceConfig {
         this.path = path;
     }
 
+    /**
+     * Compile the path template of the resource, so that the path parameters of the requests are resolved without
+     * parsing the template for each request. This should be called after the path is set.
+     *
+     * @param basePath base path of the API the resource belongs to
+     */
+    public void compilePathTemplate(String basePath) {
+        String formattedBasePath = ParameterResolver.formatBasePath(basePath);
+        this.parameterResolver = ParameterResolver.compile(
+                ParameterResolver.getCompletePathTemplate(formattedBasePath, path, false));
+        this.defaultAPIParameterResolver = ParameterResolver.compile(
+                ParameterResolver.getCompletePathTemplate(formattedBasePath, path, true));
+        this.compiledBasePath = formattedBasePath;
+    }
+
+    String getCompiledBasePath() {
+        return compiledBasePath;
+    }
+
+    ParameterResolver getParameterResolver(boolean defaultAPIRequest) {
+        return defaultAPIRequest ? defaultAPIParameterResolver : parameterResolver;
+    }
+
     /**
      * Get the matching HTTP Method.
      *
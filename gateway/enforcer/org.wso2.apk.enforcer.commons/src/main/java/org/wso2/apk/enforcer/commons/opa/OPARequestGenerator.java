@@ -40,6 +40,24 @@ public interface OPARequestGenerator {
     String generateRequest(String policyName, String rule, Map<String, String> additionalParameters,
                            RequestContext requestContext) throws OPASecurityException;
 
+    /**
+     * Generate the key to cache the OPA decision for the request, when the policy enables the decision cache.
+     * Requests with the same key share the cached decision, hence the key should include every part of the request
+     * the decision depends on, but leave out the parts unique to each request (i.e. request IDs). The default
+     * implementation returns null, in which case the OPA request payload is used as the key.
+     *
+     * @param policyName           Name of the policy validated.
+     * @param rule                 Rule of the policy.
+     * @param additionalParameters Advanced properties that can be used to construct the opa payload.
+     * @param requestContext       Request context details to be validated.
+     * @return key to cache the OPA decision, or null to use the OPA request payload.
+     * @throws OPASecurityException If an authentication failure or system error occurs.
+     */
+    default String generateDecisionCacheKey(String policyName, String rule, Map<String, String> additionalParameters,
+                                            RequestContext requestContext) throws OPASecurityException {
+        return null;
+    }
+
     /**
      * Validate the OPA response and handle request context based on the response.
      *
@@ -55,6 +55,8 @@ public final class JWTUtil {
     private static final Log log = LogFactory.getLog(JWTUtil.class);
     private static final String NONE = "NONE";
     private static final String SHA256_WITH_RSA = "SHA256withRSA";
+    // Signature instances are reused per thread, as looking them up from the JCA providers is costly.
+    private static final ThreadLocal<Map<String, Signature>> SIGNATURES = ThreadLocal.withInitial(HashMap::new);
 
     /**
      * Get the JWS compliant signature algorithm code of the algorithm used to sign the JWT.
@@ -171,7 +173,7 @@ public final class JWTUtil {
 
         try {
             //initialize signature with private key and algorithm
-            Signature signature = Signature.getInstance(signatureAlgorithm);
+            Signature signature = getSignature(signatureAlgorithm);
             signature.initSign(privateKey);
 
             //update signature with data to be signed
@@ -192,6 +194,16 @@ public final class JWTUtil {
         }
     }
 
+    private static Signature getSignature(String signatureAlgorithm) throws NoSuchAlgorithmException {
+        Map<String, Signature> signatures = SIGNATURES.get();
+        Signature signature = signatures.get(signatureAlgorithm);
+        if (signature == null) {
+            signature = Signature.getInstance(signatureAlgorithm);
+            signatures.put(signatureAlgorithm, signature);
+        }
+        return signature;
+    }
+
     /**
      * Parse a jwt assertion provided in string format and returns set of claims
      * defined in the assertion.
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.commons.analytics.publishers.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.API;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Application;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Error;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Event;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.ExtendedAPI;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Latencies;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.MetaInfo;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Operation;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.Target;
+import org.wso2.apk.enforcer.commons.analytics.publishers.dto.enums.FaultSubCategories;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The attributes of an event must match the JSON mapping of the event, which was used to publish it before.
+ */
+public class AbstractRequestDataPublisherTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE_REFERENCE =
+            new TypeReference<Map<String, Object>>() {
+            };
+
+    @Test
+    public void testSuccessEventAttributes() throws Exception {
+        Event event = new Event();
+        ExtendedAPI api = new ExtendedAPI();
+        api.setApiId("api-id");
+        api.setApiType("HTTP");
+        api.setApiName("PetStore");
+        api.setApiVersion("1.0.0");
+        api.setApiCreator("admin");
+        api.setApiCreatorTenantDomain("carbon.super");
+        api.setOrganizationId("org-1");
+        api.setApiContext("/petstore/1.0.0");
+        event.setApi(api);
+        Operation operation = new Operation();
+        operation.setApiMethod("GET");
+        operation.setApiResourceTemplate("/pet/{petId}");
+        event.setOperation(operation);
+        Target target = new Target();
+        target.setTargetResponseCode(200);
+        target.setResponseCacheHit(true);
+        target.setDestination("http://backend:8080");
+        event.setTarget(target);
+        Application application = new Application();
+        application.setKeyType("PRODUCTION");
+        application.setApplicationId("app-id");
+        application.setApplicationName("DefaultApplication");
+        application.setApplicationOwner("admin");
+        event.setApplication(application);
+        Latencies latencies = new Latencies();
+        latencies.setResponseLatency(25);
+        latencies.setBackendLatency(20);
+        latencies.setRequestMediationLatency(3);
+        latencies.setResponseMediationLatency(2);
+        event.setLatencies(latencies);
+        MetaInfo metaInfo = new MetaInfo();
+        metaInfo.setCorrelationId("correlation-id");
+        metaInfo.setRegionId("default");
+        metaInfo.setGatewayType("ENVOY");
+        event.setMetaInfo(metaInfo);
+        event.setProxyResponseCode(200);
+        event.setRequestTimestamp("2023-01-01T00:00:00.000Z");
+        event.setUserAgentHeader("curl/7.81.0");
+        event.setUserName("alice");
+        event.setUserIp("192.168.1.10");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("apiContext", "/petstore/1.0.0");
+        properties.put("commitId", null);
+        event.setProperties(properties);
+
+        assertSameAsJsonMapping(event);
+    }
+
+    @Test
+    public void testFaultEventAttributes() throws Exception {
+        Event event = new Event();
+        API api = new API();
+        api.setApiId("api-id");
+        api.setApiName("PetStore");
+        event.setApi(api);
+        Error error = new Error();
+        error.setErrorCode(900901);
+        error.setErrorMessage(FaultSubCategories.Authentication.AUTHENTICATION_FAILURE);
+        event.setError(error);
+        event.setErrorType("AUTH");
+        event.setProxyResponseCode(401);
+
+        assertSameAsJsonMapping(event);
+    }
+
+    @Test
+    public void testEmptyEventAttributes() throws Exception {
+        Event event = new Event();
+        event.setError(new Error());
+
+        assertSameAsJsonMapping(event);
+    }
+
+    private static void assertSameAsJsonMapping(Event event) throws Exception {
+        Map<String, Object> expected = OBJECT_MAPPER.convertValue(event, MAP_TYPE_REFERENCE);
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        AbstractRequestDataPublisher.addAttributes((key, value) -> {
+            Assert.assertFalse("Attribute " + key + " is added twice", attributes.containsKey(key));
+            attributes.put(key, value);
+        }, event);
+        Assert.assertEquals(expected, attributes);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.commons.jwtgenerator;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.dto.ClaimValueDTO;
+import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
+import org.wso2.apk.enforcer.commons.dto.JWTInfoDto;
+import org.wso2.apk.enforcer.commons.util.JWTUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AbstractAPIMgtGatewayJWTGeneratorTest {
+
+    @Test
+    public void testHeaderIsBuiltOnce() throws Exception {
+        KeyPair keyPair = generateKeyPair();
+        JWTConfigurationDto config = createConfig(keyPair, AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA);
+        AbstractAPIMgtGatewayJWTGenerator generator = createGenerator(config);
+
+        String header = generator.getEncodedHeader();
+        Assert.assertSame(header, generator.getEncodedHeader());
+        Assert.assertEquals(encode(JWTUtil.generateHeader(config.getPublicCert(),
+                AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA, false)), header);
+        Assert.assertEquals(header, generator.generateToken(new JWTInfoDto()).split("\\.")[0]);
+    }
+
+    @Test
+    public void testHeaderIsRebuiltWhenConfigurationChanges() throws Exception {
+        KeyPair keyPair = generateKeyPair();
+        JWTConfigurationDto config = createConfig(keyPair, AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA);
+        AbstractAPIMgtGatewayJWTGenerator generator = createGenerator(config);
+        String header = generator.getEncodedHeader();
+
+        config.setUseKid(true);
+        String kidHeader = generator.getEncodedHeader();
+        Assert.assertNotEquals(header, kidHeader);
+        Assert.assertEquals(encode(JWTUtil.generateHeader(config.getPublicCert(),
+                AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA, true)), kidHeader);
+
+        config.setPublicCert(createCertificate(generateKeyPair().getPublic(), new byte[]{2}));
+        String rotatedHeader = generator.getEncodedHeader();
+        Assert.assertNotEquals(kidHeader, rotatedHeader);
+        Assert.assertEquals(encode(JWTUtil.generateHeader(config.getPublicCert(),
+                AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA, true)), rotatedHeader);
+
+        config.setSignatureAlgorithm(AbstractAPIMgtGatewayJWTGenerator.NONE);
+        generator.setJWTConfigurationDto(config);
+        Assert.assertEquals(encode(generator.buildHeader()), generator.getEncodedHeader());
+        Assert.assertTrue(generator.generateToken(new JWTInfoDto()).endsWith("."));
+    }
+
+    @Test
+    public void testOverriddenHeaderIsBuiltPerToken() throws Exception {
+        AtomicInteger headers = new AtomicInteger();
+        AbstractAPIMgtGatewayJWTGenerator generator = new TestGenerator() {
+            @Override
+            public String buildHeader() {
+                return "{\"typ\":\"JWT\",\"alg\":\"none\",\"seq\":" + headers.incrementAndGet() + "}";
+            }
+        };
+        generator.setJWTConfigurationDto(createConfig(generateKeyPair(), AbstractAPIMgtGatewayJWTGenerator.NONE));
+
+        Assert.assertEquals(encode("{\"typ\":\"JWT\",\"alg\":\"none\",\"seq\":1}"),
+                generator.generateToken(new JWTInfoDto()).split("\\.")[0]);
+        Assert.assertEquals(encode("{\"typ\":\"JWT\",\"alg\":\"none\",\"seq\":2}"),
+                generator.generateToken(new JWTInfoDto()).split("\\.")[0]);
+    }
+
+    @Test
+    public void testOverriddenCertHeaderIsBuiltPerToken() throws Exception {
+        AtomicInteger headers = new AtomicInteger();
+        AbstractAPIMgtGatewayJWTGenerator generator = new TestGenerator() {
+            @Override
+            protected String addCertToHeader() {
+                return "{\"typ\":\"JWT\",\"alg\":\"RS256\",\"seq\":" + headers.incrementAndGet() + "}";
+            }
+        };
+        generator.setJWTConfigurationDto(createConfig(generateKeyPair(),
+                AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA));
+
+        Assert.assertNotEquals(generator.getEncodedHeader(), generator.getEncodedHeader());
+        Assert.assertEquals(2, headers.get());
+    }
+
+    @Test
+    public void testTokensAreSignedWithCurrentKey() throws Exception {
+        KeyPair keyPair = generateKeyPair();
+        JWTConfigurationDto config = createConfig(keyPair, AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA);
+        AbstractAPIMgtGatewayJWTGenerator generator = createGenerator(config);
+        String token = generator.generateToken(new JWTInfoDto());
+        Assert.assertTrue(verify(token, keyPair.getPublic()));
+
+        // The signature instance reused by the thread is initialized with the new key.
+        KeyPair rotatedKeyPair = generateKeyPair();
+        config.setPrivateKey(rotatedKeyPair.getPrivate());
+        config.setPublicCert(createCertificate(rotatedKeyPair.getPublic(), new byte[]{2}));
+        String rotatedToken = generator.generateToken(new JWTInfoDto());
+        Assert.assertTrue(verify(rotatedToken, rotatedKeyPair.getPublic()));
+        Assert.assertFalse(verify(rotatedToken, keyPair.getPublic()));
+    }
+
+    @Test
+    public void testConcurrentTokenGeneration() throws Exception {
+        KeyPair keyPair = generateKeyPair();
+        AbstractAPIMgtGatewayJWTGenerator generator = createGenerator(createConfig(keyPair,
+                AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> tokens = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                tokens.add(executor.submit(() -> generator.generateToken(new JWTInfoDto())));
+            }
+            for (Future<String> token : tokens) {
+                Assert.assertTrue(verify(token.get(), keyPair.getPublic()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static AbstractAPIMgtGatewayJWTGenerator createGenerator(JWTConfigurationDto config) {
+        AbstractAPIMgtGatewayJWTGenerator generator = new TestGenerator();
+        generator.setJWTConfigurationDto(config);
+        return generator;
+    }
+
+    private static class TestGenerator extends AbstractAPIMgtGatewayJWTGenerator {
+
+        @Override
+        public Map<String, Object> populateStandardClaims(JWTInfoDto jwtInfoDto) {
+            Map<String, Object> claims = new HashMap<>();
+            claims.put("sub", "admin");
+            claims.put("scope", "[\"read\",\"write\"]");
+            return claims;
+        }
+
+        @Override
+        public Map<String, ClaimValueDTO> populateCustomClaims(JWTInfoDto jwtInfoDto) {
+            return Collections.emptyMap();
+        }
+    }
+
+    private static JWTConfigurationDto createConfig(KeyPair keyPair, String signatureAlgorithm) {
+        JWTConfigurationDto config = new JWTConfigurationDto();
+        config.setSignatureAlgorithm(signatureAlgorithm);
+        config.setPrivateKey(keyPair.getPrivate());
+        config.setPublicCert(createCertificate(keyPair.getPublic(), new byte[]{1}));
+        return config;
+    }
+
+    private static Certificate createCertificate(PublicKey publicKey, byte[] encoded) {
+        return new Certificate("X.509") {
+            @Override
+            public byte[] getEncoded() {
+                return encoded.clone();
+            }
+
+            @Override
+            public void verify(PublicKey key) {
+            }
+
+            @Override
+            public void verify(PublicKey key, String sigProvider) {
+            }
+
+            @Override
+            public String toString() {
+                return "test certificate";
+            }
+
+            @Override
+            public PublicKey getPublicKey() {
+                return publicKey;
+            }
+        };
+    }
+
+    private static KeyPair generateKeyPair() throws NoSuchAlgorithmException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private static boolean verify(String token, PublicKey publicKey) throws Exception {
+        int signatureStart = token.lastIndexOf('.');
+        Signature signature = Signature.getInstance(AbstractAPIMgtGatewayJWTGenerator.SHA256_WITH_RSA);
+        signature.initVerify(publicKey);
+        signature.update(token.substring(0, signatureStart).getBytes(StandardCharsets.UTF_8));
+        return signature.verify(Base64.getUrlDecoder().decode(token.substring(signatureStart + 1)));
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
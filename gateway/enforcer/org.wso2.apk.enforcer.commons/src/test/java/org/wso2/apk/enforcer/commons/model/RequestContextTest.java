@@ -20,6 +20,8 @@ package org.wso2.apk.enforcer.commons.model;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+
 public class RequestContextTest {
 
     public RequestContextTest() {}
@@ -107,25 +109,57 @@ public class RequestContextTest {
                 "petId", "12");
     }
 
+    @Test
+    public void testPathParameterGenerationWithMultipleParamsInSegment() {
+        testPathParamValues("/v2/pet/12-available", "/v2", "/pet/{petId}-{statusType}",
+                "petId", "12");
+        testPathParamValues("/v2/pet/12-available", "/v2", "/pet/{petId}-{statusType}",
+                "statusType", "available");
+    }
+
+    @Test
+    public void testQueryParameters() {
+        RequestContext requestContext = buildRequestContext("/v2/pet/12?status=available&tag=dog", "/v2",
+                "/pet/{petId}", false);
+        Assert.assertEquals("available", requestContext.getQueryParameters().get("status"));
+        Assert.assertEquals("dog", requestContext.getQueryParameters().get("tag"));
+        Assert.assertEquals("12", requestContext.getPathParameters().get("petId"));
+    }
+
     private void testPathParamValues(String rawPath, String basePath, String pathTemplate, String pathParamName,
                                      String expectedValue) {
-        RequestContext.Builder builder = new RequestContext.Builder(rawPath);
-        builder.matchedAPI(new APIConfig.Builder("Petstore").basePath(basePath).build());
-        builder.pathTemplate(pathTemplate);
-        RequestContext requestContext = builder.build();
-        Assert.assertNotNull(requestContext.getPathParameters());
-        Assert.assertTrue(requestContext.getPathParameters().containsKey(pathParamName));
-        Assert.assertEquals("Path Parameter mismatch for the template" + pathTemplate,
-                requestContext.getPathParameters().get(pathParamName), expectedValue);
+        // Path parameters are resolved the same way with and without the compiled template of the resource.
+        for (boolean compiled : new boolean[]{false, true}) {
+            RequestContext requestContext = buildRequestContext(rawPath, basePath, pathTemplate, compiled);
+            Assert.assertNotNull(requestContext.getPathParameters());
+            Assert.assertTrue(requestContext.getPathParameters().containsKey(pathParamName));
+            Assert.assertEquals("Path Parameter mismatch for the template" + pathTemplate,
+                    requestContext.getPathParameters().get(pathParamName), expectedValue);
+        }
     }
 
     private void testMismatchedPaths(String rawPath, String basePath, String pathTemplate) {
+        for (boolean compiled : new boolean[]{false, true}) {
+            RequestContext requestContext = buildRequestContext(rawPath, basePath, pathTemplate, compiled);
+            Assert.assertNotNull(requestContext.getPathParameters());
+            Assert.assertEquals(0, requestContext.getPathParameters().size());
+        }
+    }
+
+    private RequestContext buildRequestContext(String rawPath, String basePath, String pathTemplate,
+                                               boolean compiled) {
         RequestContext.Builder builder = new RequestContext.Builder(rawPath);
         builder.matchedAPI(new APIConfig.Builder("Petstore").basePath(basePath).build());
         builder.pathTemplate(pathTemplate);
-        RequestContext requestContext = builder.build();
-        Assert.assertNotNull(requestContext.getPathParameters());
-        Assert.assertEquals(0, requestContext.getPathParameters().size());
+        if (compiled) {
+            ResourceConfig resourceConfig = new ResourceConfig();
+            resourceConfig.setPath(pathTemplate);
+            resourceConfig.compilePathTemplate(basePath);
+            ArrayList<ResourceConfig> resourceConfigs = new ArrayList<>();
+            resourceConfigs.add(resourceConfig);
+            builder.matchedResourceConfigs(resourceConfigs);
+        }
+        return builder.build();
     }
 
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.apk.enforcer.commons.Filter;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
+import org.wso2.apk.enforcer.discovery.api.Api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request cost of matching the API and the resource of a request, with the route table and with the String.format
+ * keys and the resource scan APIFactory used before it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class APIRouteTableBenchmark {
+
+    private static final int REQUESTS = 1024;
+    private static final ResourceConfig.HttpMethods[] METHODS = {ResourceConfig.HttpMethods.GET,
+            ResourceConfig.HttpMethods.POST, ResourceConfig.HttpMethods.PUT, ResourceConfig.HttpMethods.DELETE,
+            ResourceConfig.HttpMethods.PATCH};
+
+    @Param({"10000"})
+    private int apiCount;
+
+    @Param({"50"})
+    private int resourcesPerAPI;
+
+    private APIRouteTable routeTable;
+    private Map<String, API> apisByFormattedKey;
+    private final String[][] requests = new String[REQUESTS][];
+    private int next;
+
+    @Setup
+    public void setup() {
+        List<API> apis = new ArrayList<>(apiCount);
+        apisByFormattedKey = new ConcurrentHashMap<>();
+        for (int i = 0; i < apiCount; i++) {
+            API api = createAPI("vhost-" + (i % 10), "/api-" + i, "v" + (i % 3));
+            apis.add(api);
+            apisByFormattedKey.put(String.format("%s:%s:%s", api.getAPIConfig().getVhost(),
+                    api.getAPIConfig().getBasePath(), api.getAPIConfig().getVersion()), api);
+        }
+        routeTable = APIRouteTable.build(apis);
+        Random random = new Random(42);
+        for (int i = 0; i < REQUESTS; i++) {
+            APIConfig apiConfig = apis.get(random.nextInt(apiCount)).getAPIConfig();
+            ResourceConfig resource = apiConfig.getResources().get(random.nextInt(resourcesPerAPI));
+            // Copy the strings, as the strings of a request are not the instances held by the route table.
+            requests[i] = new String[]{new String(apiConfig.getVhost()), new String(apiConfig.getBasePath()),
+                    new String(apiConfig.getVersion()), new String(resource.getPath()),
+                    new String(resource.getMethod().name())};
+        }
+    }
+
+    @Benchmark
+    public ResourceConfig routeTable() {
+        String[] request = nextRequest();
+        API api = routeTable.getAPI(request[0], request[1], request[2]);
+        return routeTable.getResource(api, request[3], request[4]);
+    }
+
+    @Benchmark
+    public ResourceConfig formattedKeyAndScan() {
+        String[] request = nextRequest();
+        API api = apisByFormattedKey.get(String.format("%s:%s:%s", request[0], request[1], request[2]));
+        return api.getAPIConfig().getResources().stream()
+                .filter(resourceConfig -> resourceConfig.getPath().equals(request[3]))
+                .filter(resourceConfig -> resourceConfig.getMethod()
+                        .equals(ResourceConfig.HttpMethods.valueOf(request[4])))
+                .findFirst().orElse(null);
+    }
+
+    private String[] nextRequest() {
+        String[] request = requests[next];
+        next = (next + 1) & (REQUESTS - 1);
+        return request;
+    }
+
+    private API createAPI(String vhost, String basePath, String version) {
+        List<ResourceConfig> resources = new ArrayList<>(resourcesPerAPI);
+        for (int i = 0; i < resourcesPerAPI; i++) {
+            ResourceConfig resourceConfig = new ResourceConfig();
+            resourceConfig.setPath("/resource-" + (i / METHODS.length) + "/{id}");
+            resourceConfig.setMethod(METHODS[i % METHODS.length]);
+            resources.add(resourceConfig);
+        }
+        APIConfig apiConfig = new APIConfig.Builder("Benchmark").vhost(vhost).basePath(basePath).version(version)
+                .resources(resources).build();
+        return new API() {
+            @Override
+            public List<Filter> getFilters() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public String init(Api api) {
+                return null;
+            }
+
+            @Override
+            public ResponseObject process(RequestContext requestContext) {
+                return null;
+            }
+
+            @Override
+            public APIConfig getAPIConfig() {
+                return apiConfig;
+            }
+        };
+    }
+}
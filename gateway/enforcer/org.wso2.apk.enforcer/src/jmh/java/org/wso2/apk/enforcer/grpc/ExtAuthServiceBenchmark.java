@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.grpc;
+
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import io.envoyproxy.envoy.service.auth.v3.AttributeContext;
+import io.envoyproxy.envoy.service.auth.v3.CheckRequest;
+import io.envoyproxy.envoy.service.auth.v3.CheckResponse;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wso2.apk.enforcer.api.ResponseObject;
+import org.wso2.apk.enforcer.constants.APIConstants;
+import org.wso2.apk.enforcer.constants.AdapterConstants;
+import org.wso2.apk.enforcer.constants.HttpConstants;
+import org.wso2.apk.enforcer.constants.MetadataConstants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link ExtAuthService#check} for a request that is allowed to the backend, including building the
+ * {@link CheckResponse}. The filter chain is replaced by a handler returning a prepared {@link ResponseObject}, so
+ * the benchmark measures the gRPC service and the response building rather than the filters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtAuthServiceBenchmark {
+
+    private static final String REQUEST_PATH = "/pets-api/v1/pets/12?limit=10&apikey=abc123&offset=20";
+
+    // Whether the API key query parameter is removed from the path sent to the backend.
+    @Param({"false", "true"})
+    private boolean removeQueryParam;
+
+    private ExtAuthService extAuthService;
+    private CheckRequest request;
+
+    @Setup
+    public void setup() {
+        request = CheckRequest.newBuilder()
+                .setAttributes(AttributeContext.newBuilder()
+                        .setRequest(AttributeContext.Request.newBuilder()
+                                .setHttp(AttributeContext.HttpRequest.newBuilder()
+                                        .setId("8211906581218546425")
+                                        .setMethod("GET")
+                                        .setPath(REQUEST_PATH)
+                                        .setHost("gw.example.com")
+                                        .putHeaders(":authority", "gw.example.com")
+                                        .putHeaders(":method", "GET")
+                                        .putHeaders(":path", REQUEST_PATH)
+                                        .putHeaders("accept", "application/json")
+                                        .putHeaders("user-agent", "benchmark")
+                                        .putHeaders(HttpConstants.X_REQUEST_ID_HEADER,
+                                                "0b6c1f8e-1f5a-4cba-9c1e-2d6f8d1b7a42")))
+                        .putContextExtensions(APIConstants.GW_RES_PATH_PARAM, "/pets/{petId}")
+                        .putContextExtensions(AdapterConstants.CLUSTER_HEADER_KEY, "carbon.super_clusterProd_pets"))
+                .build();
+
+        // The metadata RestAPI builds once per API.
+        Struct apiMetadata = Struct.newBuilder()
+                .putFields(MetadataConstants.RATELIMIT_WSO2_ORG_PREFIX,
+                        Value.newBuilder().setStringValue("carbon.super").build())
+                .putFields(MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY,
+                        Value.newBuilder().setStringValue(MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY_OK).build())
+                .build();
+        extAuthService = new ExtAuthService(checkRequest -> {
+            ResponseObject responseObject = new ResponseObject("0b6c1f8e-1f5a-4cba-9c1e-2d6f8d1b7a42");
+            responseObject.setStatusCode(200);
+            responseObject.setRequestPath(checkRequest.getAttributes().getRequest().getHttp().getPath());
+            responseObject.setOrganizationId("carbon.super");
+            responseObject.setApiMetadata(apiMetadata);
+            Map<String, String> headers = new HashMap<>();
+            headers.put("x-jwt-assertion", "eyJhbGciOiJSUzI1NiJ9.e30.c2lnbmF0dXJl");
+            responseObject.setHeaderMap(headers);
+            Map<String, String> metadata = new HashMap<>();
+            metadata.put("apiName", "PetStore");
+            metadata.put("apiVersion", "v1");
+            metadata.put("keyType", "PRODUCTION");
+            responseObject.setMetaDataMap(metadata);
+            if (removeQueryParam) {
+                ArrayList<String> queryParamsToRemove = new ArrayList<>();
+                queryParamsToRemove.add("apikey");
+                responseObject.setQueryParamsToRemove(queryParamsToRemove);
+            }
+            return responseObject;
+        });
+    }
+
+    @Benchmark
+    public void check(Blackhole blackhole) {
+        extAuthService.check(request, new BlackholeObserver(blackhole));
+    }
+
+    private static final class BlackholeObserver implements StreamObserver<CheckResponse> {
+
+        private final Blackhole blackhole;
+
+        private BlackholeObserver(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onNext(CheckResponse response) {
+            blackhole.consume(response);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new IllegalStateException(t);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.BadJWTException;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding an API key that was validated before. The cache keyed by the raw API key is compared with the
+ * previous cache keyed by the jti, which had to split, decode and parse the API key to get the jti and verify the
+ * expiry of the claims on every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class APIKeyCacheBenchmark {
+
+    private static final int CACHED_KEYS = 10_000;
+    private static final int SKEW_SECONDS = 5;
+
+    private final Cache<String, TokenCacheEntry> rawKeyCache = Caffeine.newBuilder().build();
+    private final Cache<String, TokenCacheEntry> jtiCache = Caffeine.newBuilder().build();
+    private String apiKey;
+
+    @Setup
+    public void setup() throws JOSEException {
+        RSASSASigner signer = new RSASSASigner(new RSAKeyGenerator(2048).generate());
+        for (int i = 0; i < CACHED_KEYS; i++) {
+            JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                    .subject("admin")
+                    .jwtID("key-" + i)
+                    .claim("keytype", "PRODUCTION")
+                    .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                    .build();
+            SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+            signedJWT.sign(signer);
+            apiKey = signedJWT.serialize();
+            rawKeyCache.put(apiKey, AuthenticatorUtils.createApiKeyCacheEntry(apiKey, signedJWT, claims, true));
+            TokenCacheEntry jtiCacheEntry = new TokenCacheEntry(new SignedJWTInfo(apiKey, signedJWT, claims));
+            jtiCacheEntry.setValidationResult(true, null);
+            jtiCache.put(claims.getJWTID(), jtiCacheEntry);
+        }
+    }
+
+    @Benchmark
+    public TokenCacheEntry rawKeyLookup() {
+        TokenCacheEntry tokenCacheEntry = rawKeyCache.getIfPresent(apiKey);
+        if (tokenCacheEntry == null
+                || !SignedJWTInfo.ValidationStatus.VALID.equals(tokenCacheEntry.getValidationStatus())
+                || tokenCacheEntry.isExpired(TimeUnit.SECONDS.toMillis(SKEW_SECONDS))) {
+            throw new IllegalStateException("The API key is not served from the cache");
+        }
+        return tokenCacheEntry;
+    }
+
+    @Benchmark
+    public TokenCacheEntry jtiLookup() throws ParseException {
+        String[] splitToken = apiKey.split("\\.");
+        SignedJWT signedJWT = SignedJWT.parse(apiKey);
+        JWTClaimsSet payload = signedJWT.getJWTClaimsSet();
+        TokenCacheEntry tokenCacheEntry = jtiCache.getIfPresent(payload.getJWTID());
+        if (splitToken.length != 3 || tokenCacheEntry == null || !tokenCacheEntry.getToken().equals(apiKey)
+                || !SignedJWTInfo.ValidationStatus.VALID.equals(tokenCacheEntry.getValidationStatus())) {
+            throw new IllegalStateException("The API key is not served from the cache");
+        }
+        DefaultJWTClaimsVerifier jwtClaimsSetVerifier = new DefaultJWTClaimsVerifier();
+        jwtClaimsSetVerifier.setMaxClockSkew(SKEW_SECONDS);
+        try {
+            jwtClaimsSetVerifier.verify(payload);
+        } catch (BadJWTException e) {
+            throw new IllegalStateException("The API key is expired", e);
+        }
+        return tokenCacheEntry;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.security.jwt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking the client IP and the referer of a request against API key restrictions with 1,000 permitted
+ * entries each. The restrictions compiled once per API key are compared with the previous check, which split the
+ * claims and converted each CIDR block to a BigInteger, or each referer to a regular expression, on every request.
+ * The client is either permitted by the last entry or not permitted at all, so the previous check goes through every
+ * entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class APIKeyRestrictionsBenchmark {
+
+    private static final int IPV4_ADDRESS_BIT_LENGTH = 32;
+    private static final int ENTRIES = 1_000;
+
+    @Param({"true", "false"})
+    public boolean permitted;
+
+    private String permittedIPs;
+    private String permittedReferers;
+    private APIKeyRestrictions restrictions;
+    private String clientIp;
+    private String referer;
+
+    @Setup
+    public void setup() {
+        StringJoiner ips = new StringJoiner(",");
+        StringJoiner referers = new StringJoiner(",");
+        for (int i = 0; i < ENTRIES; i++) {
+            ips.add("10." + (i / 256) + "." + (i % 256) + ".0/24");
+            referers.add("https://app" + i + ".example.com/*");
+        }
+        permittedIPs = ips.toString();
+        permittedReferers = referers.toString();
+        restrictions = APIKeyRestrictions.compile(permittedIPs, permittedReferers);
+        int last = ENTRIES - 1;
+        clientIp = permitted ? "10." + (last / 256) + "." + (last % 256) + ".25" : "192.168.1.10";
+        referer = permitted ? "https://app" + last + ".example.com/pets" : "https://app.example.org/pets";
+        if (restrictions.isIpPermitted(clientIp) != permitted || previousIpCheck() != permitted
+                || restrictions.isRefererPermitted(referer) != permitted || previousRefererCheck() != permitted) {
+            throw new IllegalStateException("The restrictions do not agree with the previous check");
+        }
+    }
+
+    @Benchmark
+    public boolean compiledIpCheck() {
+        return restrictions.isIpPermitted(clientIp);
+    }
+
+    @Benchmark
+    public boolean previousIpCheck() {
+        for (String restrictedIP : permittedIPs.split(",")) {
+            if (isIpInNetwork(clientIp, restrictedIP.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean compiledRefererCheck() {
+        return restrictions.isRefererPermitted(referer);
+    }
+
+    @Benchmark
+    public boolean previousRefererCheck() {
+        for (String restrictedReferer : permittedReferers.split(",")) {
+            if (referer.matches(restrictedReferer.trim().replace("*", "[^ ]*"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIpInNetwork(String ip, String cidr) {
+        String[] cidrArr = cidr.split("/");
+        if (cidrArr.length < 2) {
+            return ip.equals(cidr);
+        }
+        int netBits = Integer.parseInt(cidrArr[1]);
+        BigInteger netAddress = ipToBigInteger(cidrArr[0]);
+        BigInteger givenIP = ipToBigInteger(ip);
+        return netAddress.shiftRight(IPV4_ADDRESS_BIT_LENGTH - netBits)
+                .shiftLeft(IPV4_ADDRESS_BIT_LENGTH - netBits).compareTo(
+                        givenIP.shiftRight(IPV4_ADDRESS_BIT_LENGTH - netBits)
+                                .shiftLeft(IPV4_ADDRESS_BIT_LENGTH - netBits)) == 0;
+    }
+
+    private static BigInteger ipToBigInteger(String ipAddress) {
+        try {
+            return new BigInteger(1, InetAddress.getByName(ipAddress).getAddress());
+        } catch (UnknownHostException e) {
+            return BigInteger.ZERO;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.security.jwt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
+import org.wso2.apk.enforcer.commons.exception.APISecurityException;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.AuthenticationConfig;
+import org.wso2.apk.enforcer.commons.model.JWTAuthenticationConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
+import org.wso2.apk.enforcer.constants.APIConstants;
+import org.wso2.apk.enforcer.constants.APISecurityConstants;
+import org.wso2.apk.enforcer.security.AuthenticationResult;
+import org.wso2.apk.enforcer.util.JWTUtils;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a request with an invalid JWT, as during a token spray. The token has the shape of a JWT, so it
+ * reaches the token decoding, but its header is not valid. The rejection is measured as the shared result the
+ * authenticator returns, through the exception based method kept for compatibility, and as a new exception with a
+ * stack trace, which is how the authenticators rejected tokens before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvalidTokenBenchmark {
+
+    private static final String INVALID_TOKEN = "bm90LWEtaGVhZGVy.eyJzdWIiOiJhZG1pbiJ9.c2lnbmF0dXJl";
+
+    private JWTAuthenticator authenticator;
+    private RequestContext requestContext;
+
+    @Setup
+    public void setup() {
+        // The gateway token cache is not initialized, so every token is decoded as with a cache miss.
+        authenticator = new JWTAuthenticator(new JWTConfigurationDto(), false);
+        JWTAuthenticationConfig jwtAuthenticationConfig = new JWTAuthenticationConfig();
+        jwtAuthenticationConfig.setHeader("authorization");
+        AuthenticationConfig authenticationConfig = new AuthenticationConfig();
+        authenticationConfig.setJwtAuthenticationConfig(jwtAuthenticationConfig);
+        ResourceConfig resourceConfig = new ResourceConfig();
+        resourceConfig.setPath("/pets");
+        resourceConfig.setMethod(ResourceConfig.HttpMethods.GET);
+        resourceConfig.setAuthenticationConfig(authenticationConfig);
+        ArrayList<ResourceConfig> resourceConfigs = new ArrayList<>();
+        resourceConfigs.add(resourceConfig);
+        APIConfig apiConfig = new APIConfig.Builder("PetStore").basePath("/pets-api").version("v1")
+                .envType("PRODUCTION").organizationId("carbon.super").build();
+        Map<String, String> headers = new HashMap<>();
+        headers.put("authorization", "Bearer " + INVALID_TOKEN);
+        requestContext = new RequestContext.Builder("/pets-api/v1/pets").matchedAPI(apiConfig)
+                .matchedResourceConfigs(resourceConfigs).requestMethod("GET").pathTemplate("/pets")
+                .headers(headers).build();
+        if (!authenticator.canAuthenticate(requestContext)
+                || authenticator.authenticateForResult(requestContext) != AuthenticationResult.MALFORMED_TOKEN) {
+            throw new IllegalStateException("The token is not rejected as malformed");
+        }
+    }
+
+    @Benchmark
+    public AuthenticationResult sharedResult() {
+        return authenticator.authenticateForResult(requestContext);
+    }
+
+    @Benchmark
+    public APISecurityException compatibilityException() {
+        try {
+            authenticator.authenticate(requestContext);
+        } catch (APISecurityException e) {
+            return e;
+        }
+        throw new IllegalStateException("The token is not rejected");
+    }
+
+    @Benchmark
+    public APISecurityException newException() {
+        try {
+            try {
+                JWTUtils.getTokenCacheEntry(INVALID_TOKEN, false);
+            } catch (ParseException | IllegalArgumentException e) {
+                throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
+                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
+                        "Not a JWT token. Failed to decode the token header", e);
+            }
+        } catch (APISecurityException e) {
+            return e;
+        }
+        throw new IllegalStateException("The token is not rejected");
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+import org.wso2.apk.enforcer.commons.jwttransformer.DefaultJWTTransformer;
+import org.wso2.apk.enforcer.config.dto.ExtendedTokenIssuerDto;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of verifying the signature of a JWT with a new Nimbus verifier per token, as JWTUtils did before the verifiers
+ * were cached, and with the verifier cached by {@link JWTValidator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JWTSignatureVerificationBenchmark {
+
+    private static final String ISSUER = "https://idp.example.com/oauth2/token";
+    private static final String KEY_ID = "signing-key-1";
+
+    @Param({"RS256", "ES256"})
+    private String algorithm;
+
+    private JWSAlgorithm jwsAlgorithm;
+    private KeyPair keyPair;
+    private SignedJWT signedJWT;
+    private JWTValidator validator;
+
+    @Setup
+    public void setup() throws Exception {
+        jwsAlgorithm = JWSAlgorithm.parse(algorithm);
+        JWSSigner signer;
+        if (JWSAlgorithm.RS256.equals(jwsAlgorithm)) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            keyPair = generator.generateKeyPair();
+            signer = new RSASSASigner(keyPair.getPrivate());
+        } else {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            keyPair = generator.generateKeyPair();
+            signer = new ECDSASigner((ECPrivateKey) keyPair.getPrivate());
+        }
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder().issuer(ISSUER).subject("admin")
+                .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1))).build();
+        signedJWT = new SignedJWT(new JWSHeader.Builder(jwsAlgorithm).keyID(KEY_ID).build(), claimsSet);
+        signedJWT.sign(signer);
+        validator = new JWTValidator(new ExtendedTokenIssuerDto(ISSUER), new DefaultJWTTransformer(), null);
+    }
+
+    @Benchmark
+    public boolean newVerifier() throws JOSEException {
+        JWSVerifier verifier = keyPair.getPublic() instanceof RSAPublicKey
+                ? new RSASSAVerifier((RSAPublicKey) keyPair.getPublic())
+                : new ECDSAVerifier((ECPublicKey) keyPair.getPublic());
+        return signedJWT.verify(verifier);
+    }
+
+    @Benchmark
+    public boolean cachedVerifier() throws EnforcerException, JOSEException {
+        return signedJWT.verify(validator.getVerifier(KEY_ID, jwsAlgorithm, keyPair.getPublic()));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.util;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
+import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
+import org.wso2.apk.enforcer.commons.dto.JWTInfoDto;
+import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
+import org.wso2.apk.enforcer.commons.exception.APISecurityException;
+import org.wso2.apk.enforcer.commons.jwtgenerator.APIMgtGatewayJWTGeneratorImpl;
+import org.wso2.apk.enforcer.commons.jwtgenerator.AbstractAPIMgtGatewayJWTGenerator;
+import org.wso2.apk.enforcer.security.jwt.SignedJWTInfo;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting the backend JWT of a request. Generating and signing a new backend JWT is compared with serving it
+ * from the token cache entry, and with the previous cache hit, which parsed the cached backend JWT to check its
+ * expiry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BackendJwtBenchmark {
+
+    private AbstractAPIMgtGatewayJWTGenerator jwtGenerator;
+    private JWTInfoDto jwtInfoDto;
+    private TokenCacheEntry tokenCacheEntry;
+    private String cachedBackendToken;
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException, APISecurityException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        JWTConfigurationDto jwtConfigurationDto = new JWTConfigurationDto();
+        jwtConfigurationDto.setEnabled(true);
+        jwtConfigurationDto.setPrivateKey(keyPair.getPrivate());
+        jwtConfigurationDto.setPublicCert(createCertificate(keyPair.getPublic()));
+        jwtConfigurationDto.setTtl(TimeUnit.HOURS.toSeconds(1));
+        jwtGenerator = new APIMgtGatewayJWTGeneratorImpl();
+        jwtGenerator.setJWTConfigurationDto(jwtConfigurationDto);
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "admin");
+        claims.put("email", "admin@wso2.com");
+        JWTValidationInfo jwtValidationInfo = new JWTValidationInfo();
+        jwtValidationInfo.setClaims(claims);
+        jwtInfoDto = new JWTInfoDto();
+        jwtInfoDto.setJwtValidationInfo(jwtValidationInfo);
+        jwtInfoDto.setApiContext("/pets-api");
+        jwtInfoDto.setVersion("v1");
+        jwtInfoDto.setApiName("PetStore");
+        jwtInfoDto.setApplicationName("DefaultApplication");
+        jwtInfoDto.setApplicationId("1");
+        jwtInfoDto.setApplicationUUId("8f1a2b3c-4d5e-6f70-8192-a3b4c5d6e7f8");
+        jwtInfoDto.setSubscriber("admin");
+        jwtInfoDto.setEndUser("admin@carbon.super");
+        jwtInfoDto.setKeyType("PRODUCTION");
+        jwtInfoDto.setSub("admin");
+
+        tokenCacheEntry = new TokenCacheEntry(new SignedJWTInfo("token", null, new JWTClaimsSet.Builder().build()));
+        cachedBackendToken = BackendJwtUtils.generateAndRetrieveJWTToken(jwtGenerator, tokenCacheEntry, jwtInfoDto,
+                true);
+        if (!cachedBackendToken.equals(cacheHit())) {
+            throw new IllegalStateException("The backend JWT is not served from the cache");
+        }
+    }
+
+    @Benchmark
+    public String generate() throws APISecurityException {
+        return BackendJwtUtils.generateAndRetrieveJWTToken(jwtGenerator, null, jwtInfoDto, false);
+    }
+
+    @Benchmark
+    public String cacheHit() throws APISecurityException {
+        return BackendJwtUtils.generateAndRetrieveJWTToken(jwtGenerator, tokenCacheEntry, jwtInfoDto, true);
+    }
+
+    @Benchmark
+    public String previousCacheHit() {
+        if (JWTUtils.isExpired(cachedBackendToken)) {
+            throw new IllegalStateException("The cached backend JWT is expired");
+        }
+        return cachedBackendToken;
+    }
+
+    private static Certificate createCertificate(PublicKey publicKey) {
+        // The certificate is only used for the thumbprint in the JWT header.
+        return new Certificate("X.509") {
+            @Override
+            public byte[] getEncoded() {
+                return publicKey.getEncoded();
+            }
+
+            @Override
+            public void verify(PublicKey key) {
+            }
+
+            @Override
+            public void verify(PublicKey key, String sigProvider) {
+            }
+
+            @Override
+            public String toString() {
+                return "benchmark certificate";
+            }
+
+            @Override
+            public PublicKey getPublicKey() {
+                return publicKey;
+            }
+        };
+    }
+}
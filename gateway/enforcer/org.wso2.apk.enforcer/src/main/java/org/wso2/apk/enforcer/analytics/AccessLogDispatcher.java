@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.envoyproxy.envoy.service.accesslog.v3.StreamAccessLogsMessage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
+import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.AccessLogMetrics;
+import org.wso2.apk.enforcer.server.Constants;
+import org.wso2.apk.enforcer.server.NativeThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hands the access log messages received from the router over to the analytics and metrics publishers through a
+ * bounded ring buffer, so that the gRPC threads only receive the messages. Each publisher consumes the buffer on its
+ * own thread. The messages available in the buffer are handed over to the publisher as a batch of at most
+ * {@link #MAX_BATCH_SIZE} messages, in the order they were received. When the buffer is full, the message is either
+ * dropped or handled on the receiving thread, based on the configuration.
+ */
+class AccessLogDispatcher {
+
+    private static final Logger logger = LogManager.getLogger(AccessLogDispatcher.class);
+    private static final EventTranslatorOneArg<AccessLogEvent, StreamAccessLogsMessage> TRANSLATOR =
+            (event, sequence, message) -> event.message = message;
+
+    static final int MAX_BATCH_SIZE = 256;
+
+    private final List<Consumer<List<StreamAccessLogsMessage>>> publishers;
+    private final boolean dropOnBackPressure;
+    private final AccessLogMetrics metrics;
+    private final Disruptor<AccessLogEvent> disruptor;
+    private final RingBuffer<AccessLogEvent> ringBuffer;
+
+    /**
+     * Create a dispatcher and start the publisher threads.
+     *
+     * @param publishers         publishers of the batches of access log messages. A publisher must not retain the
+     *                           batch, as it is reused for the next batch.
+     * @param bufferSize         size of the buffer, which is rounded up to a power of two
+     * @param dropOnBackPressure whether to drop the messages when the buffer is full. Otherwise, they are handled on
+     *                           the receiving thread.
+     */
+    AccessLogDispatcher(List<Consumer<List<StreamAccessLogsMessage>>> publishers, int bufferSize,
+                        boolean dropOnBackPressure) {
+        this(publishers, bufferSize, dropOnBackPressure,
+                JMXUtils.isJMXMetricsEnabled() ? AccessLogMetrics.getInstance() : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    AccessLogDispatcher(List<Consumer<List<StreamAccessLogsMessage>>> publishers, int bufferSize,
+                        boolean dropOnBackPressure, AccessLogMetrics metrics) {
+        this.publishers = publishers;
+        this.dropOnBackPressure = dropOnBackPressure;
+        this.metrics = metrics;
+        int ringSize = Integer.highestOneBit(Math.max(bufferSize - 1, 1)) << 1;
+        // The publishers block on an empty buffer rather than spinning, as they share the CPU with the ext_authz
+        // service.
+        disruptor = new Disruptor<>(AccessLogEvent::new, ringSize,
+                new NativeThreadFactory(new ThreadGroup(Constants.ANALYTICS_PUBLISHER_THREAD_GROUP),
+                        Constants.ANALYTICS_PUBLISHER_THREAD_ID), ProducerType.MULTI, new BlockingWaitStrategy());
+        disruptor.setDefaultExceptionHandler(new LoggingExceptionHandler());
+        EventHandler<AccessLogEvent>[] handlers = new EventHandler[publishers.size()];
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = new BatchingEventHandler(publishers.get(i));
+        }
+        // Once all the publishers have taken the message, it is released so that it is not retained by the buffer.
+        disruptor.handleEventsWith(handlers).then((event, sequence, endOfBatch) -> event.message = null);
+        ringBuffer = disruptor.start();
+        logger.info("Access log publishing buffer of size {} is started.", ringSize);
+    }
+
+    /**
+     * Hand the message over to the publishers without waiting for them.
+     *
+     * @param message access log message received from the router
+     */
+    void dispatch(StreamAccessLogsMessage message) {
+        if (metrics != null) {
+            metrics.recordReceivedMessage();
+        }
+        if (ringBuffer.tryPublishEvent(TRANSLATOR, message)) {
+            return;
+        }
+        if (dropOnBackPressure) {
+            logger.debug("Access log message is dropped as the publishing buffer is full.");
+            if (metrics != null) {
+                metrics.recordDroppedMessage(message.getHttpLogs().getLogEntryCount());
+            }
+            return;
+        }
+        logger.debug("Access log message is published on the receiving thread as the publishing buffer is full.");
+        if (metrics != null) {
+            metrics.recordSpilledMessage();
+        }
+        List<StreamAccessLogsMessage> batch = Collections.singletonList(message);
+        for (Consumer<List<StreamAccessLogsMessage>> publisher : publishers) {
+            publisher.accept(batch);
+        }
+    }
+
+    /**
+     * Stop the publisher threads. The messages that are not published yet are discarded.
+     */
+    void halt() {
+        disruptor.halt();
+    }
+
+    /**
+     * Collects the messages of a publisher and hands them over once the publisher has caught up with the buffer, or
+     * the batch is full.
+     */
+    private static final class BatchingEventHandler implements EventHandler<AccessLogEvent> {
+
+        private final Consumer<List<StreamAccessLogsMessage>> publisher;
+        private final List<StreamAccessLogsMessage> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+        private BatchingEventHandler(Consumer<List<StreamAccessLogsMessage>> publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void onEvent(AccessLogEvent event, long sequence, boolean endOfBatch) {
+            batch.add(event.message);
+            if (endOfBatch || batch.size() == MAX_BATCH_SIZE) {
+                try {
+                    publisher.accept(batch);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Slot of the ring buffer.
+     */
+    private static final class AccessLogEvent {
+        private StreamAccessLogsMessage message;
+    }
+
+    /**
+     * Logs the errors of the publishers, so that a failing message does not stop the publisher thread.
+     */
+    private static final class LoggingExceptionHandler implements ExceptionHandler<AccessLogEvent> {
+
+        @Override
+        public void handleEventException(Throwable throwable, long sequence, AccessLogEvent event) {
+            logger.error("Error while publishing the access log message.",
+                    ErrorDetails.errorLog(LoggingConstants.Severity.MAJOR, 5107), throwable);
+        }
+
+        @Override
+        public void handleOnStartException(Throwable throwable) {
+            logger.error("Error while starting the access log publisher.",
+                    ErrorDetails.errorLog(LoggingConstants.Severity.MAJOR, 5107), throwable);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable throwable) {
+            logger.error("Error while stopping the access log publisher.",
+                    ErrorDetails.errorLog(LoggingConstants.Severity.MAJOR, 5107), throwable);
+        }
+    }
+}
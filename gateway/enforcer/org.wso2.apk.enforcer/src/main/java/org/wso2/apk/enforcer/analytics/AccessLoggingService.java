@@ -23,27 +23,29 @@ import io.envoyproxy.envoy.service.accesslog.v3.StreamAccessLogsMessage;
 import io.envoyproxy.envoy.service.accesslog.v3.StreamAccessLogsResponse;
 import io.grpc.Server;
 import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
-import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
-import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
-import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 import org.wso2.apk.enforcer.config.ConfigHolder;
+import org.wso2.apk.enforcer.config.EnvVarConfig;
 import org.wso2.apk.enforcer.config.dto.AnalyticsReceiverConfigDTO;
 import org.wso2.apk.enforcer.metrics.MetricsUtils;
 import org.wso2.apk.enforcer.server.Constants;
 import org.wso2.apk.enforcer.server.EnforcerThreadPoolExecutor;
+import org.wso2.apk.enforcer.server.EventLoops;
 import org.wso2.apk.enforcer.server.NativeThreadFactory;
 import org.wso2.apk.enforcer.util.TLSUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * This is the gRPC streaming server written to match with the envoy grpc access logger filter proto file.
@@ -53,11 +55,29 @@ import java.util.concurrent.TimeUnit;
 public class AccessLoggingService extends AccessLogServiceGrpc.AccessLogServiceImplBase {
 
     private static final Logger logger = LogManager.getLogger(AccessLoggingService.class);
+    private AccessLogDispatcher accessLogDispatcher;
 
     public void init() throws IOException {
+        List<Consumer<List<StreamAccessLogsMessage>>> publishers = new ArrayList<>(2);
         // Initialize analytics Filter
         if (ConfigHolder.getInstance().getConfig().getAnalyticsConfig().isEnabled()) {
-            AnalyticsFilter.getInstance();
+            AnalyticsFilter analyticsFilter = AnalyticsFilter.getInstance();
+            publishers.add(analyticsFilter::handleGRPCLogMsg);
+        }
+        if (ConfigHolder.getInstance().getConfig().getMetricsConfig().isMetricsEnabled()) {
+            publishers.add(MetricsUtils::handlePublishingMetrics);
+        }
+        if (!publishers.isEmpty()) {
+            int bufferSize;
+            try {
+                bufferSize = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAnalyticsBufferSize());
+            } catch (NumberFormatException e) {
+                logger.error("Invalid value for {}. Proceeding with the default value {}.",
+                        EnvVarConfig.ANALYTICS_BUFFER_SIZE, EnvVarConfig.DEFAULT_ANALYTICS_BUFFER_SIZE);
+                bufferSize = Integer.parseInt(EnvVarConfig.DEFAULT_ANALYTICS_BUFFER_SIZE);
+            }
+            accessLogDispatcher = new AccessLogDispatcher(publishers, bufferSize,
+                    ConfigHolder.getInstance().getEnvVarConfig().isAnalyticsDropOnBackPressure());
         }
         startAccessLoggingServer();
     }
@@ -68,11 +88,8 @@ public class AccessLoggingService extends AccessLogServiceGrpc.AccessLogServiceI
         return new StreamObserver<>() {
             @Override
             public void onNext(StreamAccessLogsMessage message) {
-                if (ConfigHolder.getInstance().getConfig().getAnalyticsConfig().isEnabled()) {
-                    AnalyticsFilter.getInstance().handleGRPCLogMsg(message);
-                }
-                if (ConfigHolder.getInstance().getConfig().getMetricsConfig().isMetricsEnabled()) {
-                    MetricsUtils.handlePublishingMetrics(message);
+                if (accessLogDispatcher != null) {
+                    accessLogDispatcher.dispatch(message);
                 }
             }
 
@@ -95,8 +112,6 @@ public class AccessLoggingService extends AccessLogServiceGrpc.AccessLogServiceI
     private void startAccessLoggingServer() throws IOException {
         AnalyticsReceiverConfigDTO serverConfig =
                 ConfigHolder.getInstance().getConfig().getAnalyticsConfig().getServerConfig();
-        final EventLoopGroup bossGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors());
-        final EventLoopGroup workerGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors() * 2);
         int blockingQueueLength = serverConfig.getThreadPoolConfig().getQueueSize();
         final BlockingQueue<Runnable> blockingQueue = new LinkedBlockingQueue(blockingQueueLength);
         final Executor executor =
@@ -112,11 +127,11 @@ public class AccessLoggingService extends AccessLogServiceGrpc.AccessLogServiceI
                 .forPort(serverConfig.getPort())
                 .keepAliveTime(serverConfig.getKeepAliveTime(), TimeUnit.SECONDS)
                 .maxInboundMessageSize(serverConfig.getMaxMessageSize())
-                .bossEventLoopGroup(bossGroup)
-                .workerEventLoopGroup(workerGroup)
+                .bossEventLoopGroup(EventLoops.getBossGroup())
+                .workerEventLoopGroup(EventLoops.getWorkerGroup())
                 .addService(this)
                 .sslContext(TLSUtils.buildGRPCServerSSLContext())
-                .channelType(NioServerSocketChannel.class).executor(executor).build();
+                .channelType(EventLoops.getServerChannelType()).executor(executor).build();
 
         accessLoggerService.start();
         logger.info("Access log Receiver started Listening in port : " + serverConfig.getPort());
@@ -19,8 +19,12 @@
 package org.wso2.apk.enforcer.analytics;
 
 import io.envoyproxy.envoy.service.accesslog.v3.StreamAccessLogsMessage;
+import org.apache.logging.log4j.LogManager;
+import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
+import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 //import org.wso2.apk.enforcer.discovery.service.websocket.WebSocketFrameRequest;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -55,6 +59,28 @@ public interface AnalyticsEventPublisher {
      */
     void handleGRPCLogMsg(StreamAccessLogsMessage message);
 
+    /**
+     * Handle a batch of gRPC log messages received from the router, in the order they were received. The batch must
+     * not be retained, as it is reused once the method returns.
+     *
+     * The default implementation handles each message with {@link #handleGRPCLogMsg(StreamAccessLogsMessage)}, and
+     * a message that fails does not stop the rest of the batch. Publishers that can publish several events at once
+     * should override it.
+     *
+     * @param messages batch of gRPC Stream access log messages from router.
+     */
+    default void handleGRPCLogMsg(List<StreamAccessLogsMessage> messages) {
+        for (StreamAccessLogsMessage message : messages) {
+            try {
+                handleGRPCLogMsg(message);
+            } catch (RuntimeException e) {
+                LogManager.getLogger(AnalyticsEventPublisher.class).error(
+                        "Error while publishing the access log message.",
+                        ErrorDetails.errorLog(LoggingConstants.Severity.MAJOR, 5107), e);
+            }
+        }
+    }
+
 //    /**
 //     * The method body should include about how to handle the websocket framereqeust received from the router's
 //     * wasm filter for websockets.
@@ -46,6 +46,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -119,6 +120,15 @@ public class AnalyticsFilter {
         }
     }
 
+    public void handleGRPCLogMsg(List<StreamAccessLogsMessage> messages) {
+        if (publisher != null) {
+            publisher.handleGRPCLogMsg(messages);
+        } else {
+            logger.error("Cannot publish the analytics event as analytics publisher is null.",
+                    ErrorDetails.errorLog(LoggingConstants.Severity.CRITICAL, 5102));
+        }
+    }
+
 //    public void handleWebsocketFrameRequest(WebSocketFrameRequest frameRequest) {
 //        if (publisher != null) {
 //            publisher.handleWebsocketFrameRequest(frameRequest);
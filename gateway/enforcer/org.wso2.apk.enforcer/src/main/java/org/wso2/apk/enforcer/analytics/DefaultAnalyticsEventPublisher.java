@@ -36,6 +36,7 @@ import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AnalyticsConstants;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.wso2.apk.enforcer.analytics.AnalyticsConstants.ERROR_SCHEMA;
@@ -64,10 +65,26 @@ public class DefaultAnalyticsEventPublisher implements AnalyticsEventPublisher {
 
     @Override
     public void handleGRPCLogMsg(StreamAccessLogsMessage message) {
+        handleLogEntries(message);
+    }
+
+    /**
+     * Publishes the events of all the messages of the batch in one pass.
+     */
+    @Override
+    public void handleGRPCLogMsg(List<StreamAccessLogsMessage> messages) {
+        for (StreamAccessLogsMessage message : messages) {
+            handleLogEntries(message);
+        }
+    }
+
+    private void handleLogEntries(StreamAccessLogsMessage message) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("Received logEntries from Router " + message.getIdentifier().getNode() +
+                    " : " + message.toString());
+        }
         for (int i = 0; i < message.getHttpLogs().getLogEntryCount(); i++) {
             HTTPAccessLogEntry logEntry = message.getHttpLogs().getLogEntry(i);
-            logger.trace("Received logEntry from Router " + message.getIdentifier().getNode() +
-                    " : " + message.toString());
             if (doNotPublishEvent(logEntry)) {
                 logger.debug("LogEntry is ignored as it is already published by the enforcer.");
                 continue;
@@ -21,6 +21,9 @@ import org.wso2.apk.enforcer.discovery.api.Api;
 import org.wso2.apk.enforcer.commons.Filter;
 import org.wso2.apk.enforcer.commons.model.APIConfig;
 import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.MetricsManager;
+import org.wso2.apk.enforcer.metrics.jmx.impl.ExtAuthMetrics;
 
 import java.util.List;
 
@@ -38,8 +41,16 @@ public interface API {
 
     default boolean executeFilterChain(RequestContext requestContext) {
         boolean proceed;
+        boolean recordMetrics = JMXUtils.isJMXMetricsEnabled() || MetricsManager.isMetricsEnabled();
         for (Filter filter : getFilters()) {
-            proceed = filter.handleRequest(requestContext);
+            if (recordMetrics) {
+                long startTimeNanos = System.nanoTime();
+                proceed = filter.handleRequest(requestContext);
+                ExtAuthMetrics.getInstance().recordFilterMetric(filter.getClass().getSimpleName(),
+                        System.nanoTime() - startTimeNanos);
+            } else {
+                proceed = filter.handleRequest(requestContext);
+            }
             if (!proceed) {
                 return false;
             }
@@ -20,14 +20,27 @@ package org.wso2.apk.enforcer.api;
 import io.envoyproxy.envoy.service.auth.v3.CheckRequest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.discovery.api.Api;
 import org.wso2.apk.enforcer.commons.model.APIConfig;
 import org.wso2.apk.enforcer.commons.model.ResourceConfig;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.discovery.ApiDiscoveryClient;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.MetricsConstants;
+import org.wso2.apk.enforcer.metrics.MetricsExporter;
+import org.wso2.apk.enforcer.metrics.MetricsManager;
+import org.wso2.apk.enforcer.metrics.jmx.impl.APIUpdateMetrics;
+import org.wso2.apk.enforcer.metrics.jmx.impl.ExtAuthMetrics;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * Holds the meta data of all the APIS deployed in the gateway node. Adding/Updating API requires to register the
@@ -39,8 +52,29 @@ public class APIFactory {
 
     private static APIFactory apiFactory;
     private ConcurrentHashMap<String, API> apis = new ConcurrentHashMap<>();
+    // Discovery resources of the APIs in the map above, used to detect the APIs changed in a discovery update.
+    private Map<String, DeployedApi> deployedApis = new HashMap<>();
+    // Compiled routing index of the APIs in the map above. Rebuilt whenever the deployed API set changes.
+    private volatile APIRouteTable routeTable = APIRouteTable.EMPTY;
+
+    private final Function<Api, API> apiBuilder;
+    private final LongSupplier configGeneration;
+    private final APIUpdateMetrics updateMetrics;
 
     private APIFactory() {
+        this(APIFactory::buildApi, () -> ConfigHolder.getInstance().getGeneration(),
+                JMXUtils.isJMXMetricsEnabled() ? APIUpdateMetrics.getInstance() : null);
+    }
+
+    /**
+     * @param apiBuilder       builds an API from its discovery resource
+     * @param configGeneration generation of the enforcer configuration the APIs are built with
+     * @param updateMetrics    metrics to record the API updates in, or null if JMX metrics are disabled
+     */
+    APIFactory(Function<Api, API> apiBuilder, LongSupplier configGeneration, APIUpdateMetrics updateMetrics) {
+        this.apiBuilder = apiBuilder;
+        this.configGeneration = configGeneration;
+        this.updateMetrics = updateMetrics;
     }
 
     public static APIFactory getInstance() {
@@ -55,59 +89,85 @@ public class APIFactory {
         ads.watchApis();
     }
 
-    public void addApi(API api) {
+    public synchronized void addApi(API api) {
         String apiKey = getApiKey(api);
         apis.put(apiKey, api);
+        // The API is not backed by a discovery resource. Hence, it is rebuilt on the next discovery update.
+        deployedApis.remove(apiKey);
+        this.routeTable = APIRouteTable.build(apis.values());
     }
 
-    public void addApis(List<Api> apis) {
+    /**
+     * Apply the APIs received in a discovery response. Only the APIs that are new or changed since the previous
+     * response are built again; the rest are reused as they are. An API also copies values of the enforcer
+     * configuration (e.g. the custom filters and the backend JWT keys) when it is built, so all the APIs are built
+     * again if the configuration is loaded again. The resulting API set is swapped in at once, so a request either
+     * sees the previous set or the new one.
+     *
+     * @param apis all the APIs deployed in the gateway
+     */
+    public synchronized void addApis(List<Api> apis) {
         //TODO: (Praminda) Use apiId as the map key. Need to add the apiId to envoy context meta
+        long startTime = System.nanoTime();
         ConcurrentHashMap<String, API> newApis = new ConcurrentHashMap<>();
+        Map<String, DeployedApi> newDeployedApis = new HashMap<>();
+        int rebuiltCount = 0;
+        int reusedCount = 0;
+        long generation = configGeneration.getAsLong();
 
         for (Api api : apis) {
-//            if (APIConstants.ApiType.WEB_SOCKET.equals(api.getApiType())) {
-//                WebSocketAPI webSocketAPI = new WebSocketAPI();
-//                webSocketAPI.init(api);
-//                String apiKey = getApiKey(webSocketAPI);
-//                newApis.put(apiKey, webSocketAPI);
-//            } else if (APIConstants.ApiType.GRAPHQL.equals(api.getApiType())) {
-//                GraphQLAPI graphQLAPI = new GraphQLAPI();
-//                graphQLAPI.init(api);
-//                String apiKey = getApiKey(graphQLAPI);
-//                newApis.put(apiKey, graphQLAPI);
-//            } else {
-            RestAPI enforcerApi = new RestAPI();
-            enforcerApi.init(api);
-            String apiKey = getApiKey(enforcerApi);
-            newApis.put(apiKey, enforcerApi);
-//            }
+            String apiKey = getApiKey(api.getVhost(), api.getBasePath(), api.getVersion());
+            DeployedApi deployedApi = deployedApis.get(apiKey);
+            if (deployedApi != null && deployedApi.isSameAs(api, generation)) {
+                reusedCount++;
+            } else {
+                deployedApi = new DeployedApi(api, apiBuilder.apply(api), generation);
+                rebuiltCount++;
+            }
+            newDeployedApis.put(apiKey, deployedApi);
+            newApis.put(apiKey, deployedApi.api);
         }
+        List<API> removedApis = new ArrayList<>();
+        for (Map.Entry<String, API> entry : this.apis.entrySet()) {
+            if (!newApis.containsKey(entry.getKey())) {
+                removedApis.add(entry.getValue());
+            }
+        }
+        int removedCount = removedApis.size();
 
         if (logger.isDebugEnabled()) {
-            logger.debug("Total APIs in new cache: {}", newApis.size());
+            logger.debug("Total APIs in new cache: {}, rebuilt: {}, reused: {}, removed: {}", newApis.size(),
+                    rebuiltCount, reusedCount, removedCount);
         }
+        APIRouteTable newRouteTable = APIRouteTable.build(newApis.values());
         this.apis = newApis;
+        this.deployedApis = newDeployedApis;
+        this.routeTable = newRouteTable;
+        removedApis.forEach(this::removeAPIMetrics);
+        recordUpdateMetrics(rebuiltCount, reusedCount, removedCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
     }
 
-    public void removeApi(API api) {
+    public synchronized void removeApi(API api) {
         String apiKey = getApiKey(api);
         apis.remove(apiKey);
+        deployedApis.remove(apiKey);
+        this.routeTable = APIRouteTable.build(apis.values());
+        removeAPIMetrics(api);
     }
 
     public API getMatchedAPI(CheckRequest request) {
         String vHost = request.getAttributes().getContextExtensionsMap().get(APIConstants.GW_VHOST_PARAM);
         String basePath = request.getAttributes().getContextExtensionsMap().get(APIConstants.GW_BASE_PATH_PARAM);
         String version = request.getAttributes().getContextExtensionsMap().get(APIConstants.GW_VERSION_PARAM);
-        String apiKey = getApiKey(vHost, basePath, version);
         if (logger.isDebugEnabled()) {
             logger.debug("Looking for matching API with basepath: {} and version: {}", basePath, version);
         }
 
-        return apis.get(apiKey);
+        return routeTable.getAPI(vHost, basePath, version);
     }
     public byte[] getAPIDefinition(final String basePath, final String version, final String vHost) {
-        String apiKey = getApiKey(vHost, basePath, version);
-        API api = apis.get(apiKey);
+        API api = routeTable.getAPI(vHost, basePath, version);
         if(api == null) {
             return null;
         }
@@ -127,11 +187,7 @@ public class APIFactory {
 //    }
 
     public ResourceConfig getMatchedResource(API api, String matchedResourcePath, String method) {
-        List<ResourceConfig> resourceConfigList = api.getAPIConfig().getResources();
-        return resourceConfigList.stream()
-                .filter(resourceConfig -> resourceConfig.getPath().equals(matchedResourcePath)).
-                filter(resourceConfig -> (method == null) || resourceConfig.getMethod()
-                        .equals(ResourceConfig.HttpMethods.valueOf(method))).findFirst().orElse(null);
+        return routeTable.getResource(api, matchedResourcePath, method);
     }
 
 //    // For WebSocket APIs since there are no resources in WebSocket APIs.
@@ -145,6 +201,21 @@ public class APIFactory {
 //        return resourceConfig;
 //    }
 
+    private static API buildApi(Api api) {
+//        if (APIConstants.ApiType.WEB_SOCKET.equals(api.getApiType())) {
+//            WebSocketAPI webSocketAPI = new WebSocketAPI();
+//            webSocketAPI.init(api);
+//            return webSocketAPI;
+//        } else if (APIConstants.ApiType.GRAPHQL.equals(api.getApiType())) {
+//            GraphQLAPI graphQLAPI = new GraphQLAPI();
+//            graphQLAPI.init(api);
+//            return graphQLAPI;
+//        }
+        RestAPI enforcerApi = new RestAPI();
+        enforcerApi.init(api);
+        return enforcerApi;
+    }
+
     private String getApiKey(API api) {
         APIConfig apiConfig = api.getAPIConfig();
         return getApiKey(apiConfig.getVhost(), apiConfig.getBasePath(), apiConfig.getVersion());
@@ -153,4 +224,44 @@ public class APIFactory {
     private String getApiKey(String vhost, String basePath, String version) {
         return String.format("%s:%s:%s", vhost, basePath, version);
     }
+
+    private void recordUpdateMetrics(int rebuiltCount, int reusedCount, int removedCount, long durationMillis) {
+        if (updateMetrics != null) {
+            updateMetrics.recordUpdate(rebuiltCount, reusedCount, removedCount, durationMillis);
+        }
+        if (MetricsManager.isMetricsEnabled()) {
+            MetricsExporter metricsExporter = MetricsManager.getInstance();
+            metricsExporter.trackMetric(MetricsConstants.API_REBUILD_COUNT, rebuiltCount);
+            metricsExporter.trackMetric(MetricsConstants.API_REMOVE_COUNT, removedCount);
+            metricsExporter.trackMetric(MetricsConstants.API_UPDATE_DURATION, durationMillis);
+        }
+    }
+
+    private void removeAPIMetrics(API api) {
+        if (JMXUtils.isJMXMetricsEnabled() || MetricsManager.isMetricsEnabled()) {
+            ExtAuthMetrics.getInstance().removeAPIMetrics(api.getAPIConfig().getUuid());
+        }
+    }
+
+    /**
+     * An API built from a discovery resource, along with the resource and the configuration generation it was built
+     * from.
+     */
+    private static class DeployedApi {
+        private final Api resource;
+        private final API api;
+        private final long configGeneration;
+
+        private DeployedApi(Api resource, API api, long configGeneration) {
+            this.resource = resource;
+            this.api = api;
+            this.configGeneration = configGeneration;
+        }
+
+        private boolean isSameAs(Api other, long otherConfigGeneration) {
+            // hashCode is memoized by the generated message, hence the full comparison only runs on a hash match.
+            return configGeneration == otherConfigGeneration && resource.hashCode() == other.hashCode()
+                    && resource.equals(other);
+        }
+    }
 }
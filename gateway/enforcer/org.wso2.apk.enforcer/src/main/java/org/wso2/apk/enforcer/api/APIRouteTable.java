@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.api;
+
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable routing index of the deployed APIs, organized as vhost -> basePath -> version -> API routes. Each API
+ * route further indexes its resources by path template and HTTP method. The table is compiled once whenever the
+ * deployed API set changes and is only read afterwards, hence lookups neither lock nor allocate.
+ */
+final class APIRouteTable {
+
+    static final APIRouteTable EMPTY = new APIRouteTable(Collections.emptyMap(), 0);
+
+    private static final ResourceConfig.HttpMethods[] HTTP_METHODS = ResourceConfig.HttpMethods.values();
+    private static final Map<String, ResourceConfig.HttpMethods> HTTP_METHODS_BY_NAME = new HashMap<>();
+
+    static {
+        for (ResourceConfig.HttpMethods httpMethod : HTTP_METHODS) {
+            HTTP_METHODS_BY_NAME.put(httpMethod.name(), httpMethod);
+        }
+    }
+
+    private final Map<String, Map<String, Map<String, APIRoute>>> routes;
+    private final int size;
+
+    private APIRouteTable(Map<String, Map<String, Map<String, APIRoute>>> routes, int size) {
+        this.routes = routes;
+        this.size = size;
+    }
+
+    /**
+     * Compile a route table for the given set of APIs.
+     *
+     * @param apis APIs deployed in the gateway
+     * @return compiled route table
+     */
+    static APIRouteTable build(Collection<API> apis) {
+        Map<String, Map<String, Map<String, APIRoute>>> routes = new HashMap<>();
+        int size = 0;
+        for (API api : apis) {
+            APIConfig apiConfig = api.getAPIConfig();
+            Map<String, APIRoute> versions = routes.computeIfAbsent(apiConfig.getVhost(), k -> new HashMap<>())
+                    .computeIfAbsent(apiConfig.getBasePath(), k -> new HashMap<>());
+            if (versions.put(apiConfig.getVersion(), new APIRoute(api)) == null) {
+                size++;
+            }
+        }
+        return new APIRouteTable(routes, size);
+    }
+
+    /**
+     * Get the API deployed under the given vhost, base path and version.
+     *
+     * @param vHost    vhost of the API
+     * @param basePath base path of the API
+     * @param version  version of the API
+     * @return matched API or null if there is no such API
+     */
+    API getAPI(String vHost, String basePath, String version) {
+        APIRoute route = getRoute(vHost, basePath, version);
+        return route == null ? null : route.api;
+    }
+
+    /**
+     * Get the resource of the given API matching the path template and the method.
+     *
+     * @param api          matched API
+     * @param pathTemplate matched path template (or the operation name for GraphQL APIs)
+     * @param method       HTTP method (or the operation type for GraphQL APIs). If null, the first resource
+     *                     under the path template is returned regardless of the method.
+     * @return matched resource or null if the API does not have such a resource
+     */
+    ResourceConfig getResource(API api, String pathTemplate, String method) {
+        APIConfig apiConfig = api.getAPIConfig();
+        APIRoute route = getRoute(apiConfig.getVhost(), apiConfig.getBasePath(), apiConfig.getVersion());
+        if (route == null || route.api != api) {
+            // The API has been replaced after it was matched for the request. Hence, the resources are resolved
+            // from the API itself.
+            return findResource(apiConfig, pathTemplate, method);
+        }
+        ResourceConfig[] resourcesByMethod = route.resources.get(pathTemplate);
+        if (resourcesByMethod == null) {
+            return null;
+        }
+        if (method == null) {
+            return resourcesByMethod[HTTP_METHODS.length];
+        }
+        ResourceConfig.HttpMethods httpMethod = HTTP_METHODS_BY_NAME.get(method);
+        return httpMethod == null ? null : resourcesByMethod[httpMethod.ordinal()];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private APIRoute getRoute(String vHost, String basePath, String version) {
+        Map<String, Map<String, APIRoute>> basePaths = routes.get(vHost);
+        if (basePaths == null) {
+            return null;
+        }
+        Map<String, APIRoute> versions = basePaths.get(basePath);
+        if (versions == null) {
+            return null;
+        }
+        return versions.get(version);
+    }
+
+    private static ResourceConfig findResource(APIConfig apiConfig, String pathTemplate, String method) {
+        ResourceConfig.HttpMethods httpMethod = null;
+        if (method != null) {
+            httpMethod = HTTP_METHODS_BY_NAME.get(method);
+            if (httpMethod == null) {
+                return null;
+            }
+        }
+        for (ResourceConfig resourceConfig : apiConfig.getResources()) {
+            if (resourceConfig.getPath().equals(pathTemplate)
+                    && (httpMethod == null || httpMethod == resourceConfig.getMethod())) {
+                return resourceConfig;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Routing entry of a single API. Resources are indexed by the path template, and each path template maps to
+     * an array indexed by the {@link ResourceConfig.HttpMethods} ordinal. The last slot of the array holds the
+     * first resource declared under the path template, which is used when the method is not specified.
+     */
+    private static final class APIRoute {
+        private final API api;
+        private final Map<String, ResourceConfig[]> resources;
+
+        private APIRoute(API api) {
+            this.api = api;
+            this.resources = new HashMap<>();
+            for (ResourceConfig resourceConfig : api.getAPIConfig().getResources()) {
+                ResourceConfig[] resourcesByMethod = resources.computeIfAbsent(resourceConfig.getPath(),
+                        k -> new ResourceConfig[HTTP_METHODS.length + 1]);
+                if (resourcesByMethod[HTTP_METHODS.length] == null) {
+                    resourcesByMethod[HTTP_METHODS.length] = resourceConfig;
+                }
+                if (resourceConfig.getMethod() != null
+                        && resourcesByMethod[resourceConfig.getMethod().ordinal()] == null) {
+                    resourcesByMethod[resourceConfig.getMethod().ordinal()] = resourceConfig;
+                }
+            }
+        }
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.wso2.apk.enforcer.api;
 
+import com.google.protobuf.Struct;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -42,6 +44,7 @@ public class ResponseObject {
     private String requestPath;
     private String responseContent;
     private String organizationId;
+    private Struct apiMetadata;
 
     public String getOrganizationId() {
         return organizationId;
@@ -50,6 +53,20 @@ public class ResponseObject {
     public void setOrganizationId(String organizationId) {
         this.organizationId = organizationId;
     }
+
+    /**
+     * Get the metadata which is the same for every request of the matched API.
+     *
+     * @return API metadata, or null if the API does not provide such metadata
+     */
+    public Struct getApiMetadata() {
+        return apiMetadata;
+    }
+
+    public void setApiMetadata(Struct apiMetadata) {
+        this.apiMetadata = apiMetadata;
+    }
+
     public ArrayList<String> getRemoveHeaderMap() {
         return removeHeaderMap;
     }
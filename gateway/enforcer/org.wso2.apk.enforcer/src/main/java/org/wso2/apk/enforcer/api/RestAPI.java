@@ -17,6 +17,8 @@
  */
 package org.wso2.apk.enforcer.api;
 
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.commons.dto.ClaimValueDTO;
@@ -41,6 +43,7 @@ import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.config.dto.FilterDTO;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.HttpConstants;
+import org.wso2.apk.enforcer.constants.MetadataConstants;
 import org.wso2.apk.enforcer.cors.CorsFilter;
 import org.wso2.apk.enforcer.interceptor.MediationPolicyFilter;
 import org.wso2.apk.enforcer.security.AuthFilter;
@@ -67,6 +70,8 @@ public class RestAPI implements API {
     private final List<Filter> filters = new ArrayList<>();
     private APIConfig apiConfig;
     private String apiLifeCycleState;
+    // Metadata added to the response of every request allowed to this API.
+    private Struct apiMetadata;
 
     @Override
     public List<Filter> getFilters() {
@@ -91,6 +96,7 @@ public class RestAPI implements API {
                         APIProcessUtils.convertProtoEndpointSecurity(res.getEndpointSecurityList()));
                 resConfig.setPolicyConfig(Utils.genPolicyConfig(operation.getPolicies()));
                 resConfig.setEndpoints(Utils.processEndpoints(res.getEndpoints()));
+                resConfig.compilePathTemplate(basePath);
 //                resConfig.setMockApiConfig(getMockedApiOperationConfig(operation.getMockedApiConfig(),
 //                        operation.getMethod()));
                 resources.add(resConfig);
@@ -98,8 +104,10 @@ public class RestAPI implements API {
         }
 
         KeyStore trustStore;
+        Map<String, String> mtlsCertificateAliases;
         try {
             trustStore = MtlsUtils.createTrustStore(api.getClientCertificatesList());
+            mtlsCertificateAliases = MtlsUtils.createCertificateAliasIndex(trustStore);
         } catch (KeyStoreException e) {
             throw new SecurityException(e);
         }
@@ -138,10 +146,18 @@ public class RestAPI implements API {
                 .resources(resources).apiType(apiType).apiLifeCycleState(apiLifeCycleState).tier(api.getTier())
                 .envType(api.getEnvType()).disableAuthentication(api.getDisableAuthentications())
                 .disableScopes(api.getDisableScopes()).trustStore(trustStore).organizationId(api.getOrganizationId())
-                .mtlsCertificateTiers(mtlsCertificateTiers).mutualSSL(mutualSSL).systemAPI(api.getSystemAPI())
+                .mtlsCertificateTiers(mtlsCertificateTiers).mtlsCertificateAliases(mtlsCertificateAliases)
+                .mutualSSL(mutualSSL).systemAPI(api.getSystemAPI())
                 .applicationSecurity(applicationSecurity).jwtConfigurationDto(jwtConfigurationDto)
                 .apiDefinition(apiDefinition).build();
 
+        this.apiMetadata = Struct.newBuilder()
+                .putFields(MetadataConstants.RATELIMIT_WSO2_ORG_PREFIX,
+                        Value.newBuilder().setStringValue(api.getOrganizationId()).build())
+                .putFields(MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY,
+                        Value.newBuilder().setStringValue(MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY_OK).build())
+                .build();
+
         initFilters();
         return basePath;
     }
@@ -171,6 +187,7 @@ public class RestAPI implements API {
         if ((isExistsMatchedResourcePath || isOptionCall) && executeFilterChain(requestContext)) {
             EndpointUtils.updateClusterHeaderAndCheckEnv(requestContext);
             responseObject.setOrganizationId(requestContext.getMatchedAPI().getOrganizationId());
+            responseObject.setApiMetadata(apiMetadata);
             responseObject.setRemoveHeaderMap(requestContext.getRemoveHeaders());
             responseObject.setQueryParamsToRemove(requestContext.getQueryParamsToRemove());
             responseObject.setRemoveAllQueryParams(requestContext.isRemoveAllQueryParams());
@@ -18,32 +18,38 @@
 
 package org.wso2.apk.enforcer.common;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.config.dto.CacheDto;
-import org.wso2.apk.enforcer.security.jwt.SignedJWTInfo;
-import org.wso2.apk.enforcer.security.jwt.validator.JWTConstants;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.MetricsManager;
+import org.wso2.apk.enforcer.metrics.jmx.impl.CacheMetrics;
+import org.wso2.apk.enforcer.util.FilterUtils;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Class for initiating and returning caches.
+ * Provides the token caches of the gateway. Each cache holds a single {@link TokenCacheEntry} per token. Entries of
+ * valid tokens expire along with the token itself, while entries of invalid tokens are kept for the configured cache
+ * expiry time. See {@link TokenCacheExpiry}.
  */
 public class CacheProvider {
-    private static LoadingCache<String, SignedJWTInfo> gatewaySignedJWTParseCache;
-    private static LoadingCache<String, String> gatewayTokenCache;
-    private static LoadingCache<String, JWTValidationInfo> gatewayKeyCache;
-    private static LoadingCache<String, Boolean> invalidTokenCache;
-    private static LoadingCache<String, JWTValidationInfo> gatewayJWTTokenCache;
-    private static LoadingCache<String, String> getGatewayInternalKeyCache;
-    private static LoadingCache<String, String> getInvalidGatewayInternalKeyCache;
-    private static LoadingCache<String, JWTValidationInfo> getGatewayInternalKeyDataCache;
-    private static LoadingCache<String, String> getGatewayAPIKeyCache;
-    private static LoadingCache<String, String> getInvalidGatewayAPIKeyCache;
-    private static LoadingCache<String, JWTValidationInfo> getGatewayAPIKeyDataCache;
+    private static final Logger log = LogManager.getLogger(CacheProvider.class);
+
+    public static final String GATEWAY_TOKEN_CACHE = "gatewayTokenCache";
+    public static final String GATEWAY_INTERNAL_KEY_CACHE = "gatewayInternalKeyCache";
+    public static final String GATEWAY_API_KEY_CACHE = "gatewayAPIKeyCache";
+    private static final long METRICS_PUBLISH_INTERVAL_SECONDS = 60;
+
+    private static Cache<String, TokenCacheEntry> gatewayTokenCache;
+    private static Cache<String, TokenCacheEntry> gatewayInternalKeyCache;
+    private static Cache<String, TokenCacheEntry> gatewayAPIKeyCache;
+    private static ScheduledExecutorService metricsPublisher;
 
     private static boolean cacheEnabled = true;
     public static void init() {
@@ -51,108 +57,61 @@ public class CacheProvider {
         cacheEnabled = cacheDto.isEnabled();
         int maxSize = cacheDto.getMaximumSize();
         int expiryTime = cacheDto.getExpiryTime();
-        gatewaySignedJWTParseCache = initCache(maxSize, expiryTime);
-        gatewayTokenCache = initCache(maxSize, expiryTime);
-        gatewayKeyCache = initCache(maxSize, expiryTime);
-        invalidTokenCache = initCache(maxSize, expiryTime);
-        gatewayJWTTokenCache = initCache(maxSize, expiryTime);
-        getGatewayInternalKeyCache = initCache(maxSize, expiryTime);
-        getGatewayInternalKeyDataCache = initCache(maxSize, expiryTime);
-        getInvalidGatewayInternalKeyCache = initCache(maxSize, expiryTime);
-        getGatewayAPIKeyCache = initCache(maxSize, expiryTime);
-        getInvalidGatewayAPIKeyCache = initCache(maxSize, expiryTime);
-        getGatewayAPIKeyDataCache = initCache(maxSize, expiryTime);
-
-    }
-
-    private static LoadingCache initCache(int maxSize, int expiryTime) {
-        return CacheBuilder.newBuilder()
-                .maximumSize(maxSize)                                  // maximum 10000 tokens can be cached
-                .expireAfterAccess(expiryTime, TimeUnit.MINUTES)      // cache will expire after 15 minutes of access
-                .build(new CacheLoader<String, String>() {            // build the cacheloader
-                    @Override public String load(String s) throws Exception {
-                        return JWTConstants.UNAVAILABLE;
-                    }
-
-                });
-    }
-
-
-    /**
-     * @return Gateway Internal Key cache
-     */
-    public static LoadingCache getGatewayInternalKeyCache() {
-        return getGatewayInternalKeyCache;
+        gatewayTokenCache = initCache(GATEWAY_TOKEN_CACHE, maxSize, expiryTime);
+        gatewayInternalKeyCache = initCache(GATEWAY_INTERNAL_KEY_CACHE, maxSize, expiryTime);
+        gatewayAPIKeyCache = initCache(GATEWAY_API_KEY_CACHE, maxSize, expiryTime);
+
+        if (MetricsManager.isMetricsEnabled() && metricsPublisher == null) {
+            metricsPublisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cache-metrics-publisher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            metricsPublisher.scheduleAtFixedRate(CacheProvider::publishMetrics, METRICS_PUBLISH_INTERVAL_SECONDS,
+                    METRICS_PUBLISH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
     }
 
-    /**
-     * @return Gateway Internal Key data cache
-     */
-    public static LoadingCache getGatewayInternalKeyDataCache() {
-        return getGatewayInternalKeyDataCache;
+    private static Cache<String, TokenCacheEntry> initCache(String name, int maxSize, int expiryTime) {
+        // Caffeine uses W-TinyLFU admission, hence a burst of one-off tokens does not flush the frequently used ones.
+        Cache<String, TokenCacheEntry> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenCacheExpiry(TimeUnit.MINUTES.toNanos(expiryTime),
+                        TimeUnit.SECONDS.toMillis(FilterUtils.getTimeStampSkewInSeconds())))
+                .recordStats()
+                .build();
+        if (JMXUtils.isJMXMetricsEnabled() || MetricsManager.isMetricsEnabled()) {
+            CacheMetrics.getInstance().registerCache(name, cache);
+        }
+        return cache;
     }
 
-    /**
-     * @return Gateway Internal Key invalid data cache
-     */
-    public static LoadingCache getInvalidGatewayInternalKeyCache() {
-        return getInvalidGatewayInternalKeyCache;
+    private static void publishMetrics() {
+        try {
+            CacheMetrics.getInstance().publishMetrics(MetricsManager.getInstance());
+        } catch (RuntimeException e) {
+            log.error("Error while publishing cache metrics", e);
+        }
     }
 
     /**
-     *
-     * @return SignedJWT ParsedCache
+     * @return Gateway Internal Key cache, keyed by the raw internal key
      */
-    public static LoadingCache getGatewaySignedJWTParseCache() {
-        return gatewaySignedJWTParseCache;
+    public static Cache<String, TokenCacheEntry> getGatewayInternalKeyCache() {
+        return gatewayInternalKeyCache;
     }
 
     /**
      * @return gateway token cache
      */
-    public static LoadingCache getGatewayTokenCache() {
+    public static Cache<String, TokenCacheEntry> getGatewayTokenCache() {
         return gatewayTokenCache;
     }
 
     /**
-     * @return gateway key cache
-     */
-    public static LoadingCache getGatewayKeyCache() {
-        return gatewayKeyCache;
-    }
-
-    /**
-     * @return gateway invalid token cache
-     */
-    public static LoadingCache getInvalidTokenCache() {
-        return invalidTokenCache;
-    }
-
-    /**
-     * @return JWT token cache
-     */
-    public static LoadingCache getGatewayJWTTokenCache() {
-        return gatewayJWTTokenCache;
-    }
-
-    /**
-     * @return Gateway API key cache
-     */
-    public static LoadingCache getGatewayAPIKeyCache() {
-        return getGatewayAPIKeyCache;
-    }
-
-    /**
-     * @return Gateway API key data cache
-     */
-    public static LoadingCache getGatewayAPIKeyDataCache() {
-        return getGatewayAPIKeyDataCache;
-    }
-
-    /**
-     * @return Gateway API key invalid data cache
+     * @return Gateway API key cache, keyed by the raw API key
      */
-    public static LoadingCache getInvalidGatewayAPIKeyCache() {
-        return getInvalidGatewayAPIKeyCache;
+    public static Cache<String, TokenCacheEntry> getGatewayAPIKeyCache() {
+        return gatewayAPIKeyCache;
     }
 }
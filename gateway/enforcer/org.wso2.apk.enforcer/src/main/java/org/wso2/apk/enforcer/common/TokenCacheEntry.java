@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.common;
+
+import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
+import org.wso2.apk.enforcer.security.jwt.APIKeyRestrictions;
+import org.wso2.apk.enforcer.security.jwt.SignedJWTInfo;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache entry of a token (JWT, API key or internal key) presented to the gateway. A single entry holds everything
+ * the gateway derives from the token: the parsed token, the outcome of its validation and the backend JWTs
+ * generated for it. The entry lives until the token itself expires.
+ */
+public class TokenCacheEntry {
+
+    private final SignedJWTInfo signedJWTInfo;
+    private final long expiryTime;
+    private volatile SignedJWTInfo.ValidationStatus validationStatus = SignedJWTInfo.ValidationStatus.NOT_VALIDATED;
+    private volatile JWTValidationInfo validationInfo;
+    private volatile APIKeyRestrictions apiKeyRestrictions;
+    // Backend JWTs generated for the token, keyed by the API (context:version) they were generated for.
+    private final Map<String, BackendToken> backendTokens = new ConcurrentHashMap<>();
+
+    public TokenCacheEntry(SignedJWTInfo signedJWTInfo) {
+        this.signedJWTInfo = signedJWTInfo;
+        Date expirationTime = signedJWTInfo.getJwtClaimsSet().getExpirationTime();
+        this.expiryTime = expirationTime != null ? expirationTime.getTime() : 0;
+    }
+
+    /**
+     * Get the raw token this entry is created for.
+     *
+     * @return raw token
+     */
+    public String getToken() {
+        return signedJWTInfo.getToken();
+    }
+
+    public SignedJWTInfo getSignedJWTInfo() {
+        return signedJWTInfo;
+    }
+
+    /**
+     * Get the expiry time of the token in milliseconds since the epoch.
+     *
+     * @return token expiry time, or 0 if the token does not expire
+     */
+    public long getExpiryTime() {
+        return expiryTime;
+    }
+
+    /**
+     * Check whether the token is expired.
+     *
+     * @param skewMillis the token is considered expired this many milliseconds after its expiry time
+     * @return true if the token is expired, false if it is not or it does not expire
+     */
+    public boolean isExpired(long skewMillis) {
+        return expiryTime != 0 && expiryTime + skewMillis < System.currentTimeMillis();
+    }
+
+    public SignedJWTInfo.ValidationStatus getValidationStatus() {
+        return validationStatus;
+    }
+
+    public JWTValidationInfo getValidationInfo() {
+        return validationInfo;
+    }
+
+    /**
+     * Record the outcome of the token validation.
+     *
+     * @param valid          whether the token is valid
+     * @param validationInfo validation information of the token. Can be null if the validation does not produce
+     *                       such information (i.e. API keys).
+     */
+    public void setValidationResult(boolean valid, JWTValidationInfo validationInfo) {
+        this.validationInfo = validationInfo;
+        this.validationStatus = valid ? SignedJWTInfo.ValidationStatus.VALID : SignedJWTInfo.ValidationStatus.INVALID;
+    }
+
+    /**
+     * Mark the token as invalid, i.e. when it is found to be expired after it was validated.
+     */
+    public void invalidate() {
+        this.validationStatus = SignedJWTInfo.ValidationStatus.INVALID;
+        this.backendTokens.clear();
+    }
+
+    /**
+     * Get the compiled IP and referer restrictions of the token, if the token is an API key.
+     *
+     * @return compiled restrictions, or null if they are not compiled yet
+     */
+    public APIKeyRestrictions getApiKeyRestrictions() {
+        return apiKeyRestrictions;
+    }
+
+    public void setApiKeyRestrictions(APIKeyRestrictions apiKeyRestrictions) {
+        this.apiKeyRestrictions = apiKeyRestrictions;
+    }
+
+    /**
+     * Get the backend JWT generated for the given API, unless it is about to expire.
+     *
+     * @param apiKey     API (context:version) the backend JWT is generated for
+     * @param skewMillis the backend JWT is considered expired this many milliseconds before its expiry time
+     * @return backend JWT, or null if there is no backend JWT for the API or it is about to expire
+     */
+    public String getBackendToken(String apiKey, long skewMillis) {
+        BackendToken backendToken = backendTokens.get(apiKey);
+        if (backendToken == null || backendToken.expiryTime - skewMillis < System.currentTimeMillis()) {
+            return null;
+        }
+        return backendToken.token;
+    }
+
+    /**
+     * Cache a backend JWT generated for the given API.
+     *
+     * @param apiKey       API (context:version) the backend JWT is generated for
+     * @param backendToken backend JWT
+     * @param expiryTime   expiry time of the backend JWT in milliseconds since the epoch
+     */
+    public void putBackendToken(String apiKey, String backendToken, long expiryTime) {
+        backendTokens.put(apiKey, new BackendToken(backendToken, expiryTime));
+    }
+
+    /**
+     * Backend JWT along with its expiry time, so that the expiry can be checked without parsing the JWT.
+     */
+    private static final class BackendToken {
+        private final String token;
+        private final long expiryTime;
+
+        private BackendToken(String token, long expiryTime) {
+            this.token = token;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.common;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.wso2.apk.enforcer.security.jwt.SignedJWTInfo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expiry policy of the token caches.
+ * <ul>
+ *     <li>An entry of a valid or not yet validated token expires when the token expires (allowing the clock skew),
+ *     but not later than the configured cache expiry time.</li>
+ *     <li>An entry of an invalid token, including a token which has already expired, is kept for the configured cache
+ *     expiry time. Hence a replayed invalid token is rejected from the cache instead of being verified again.</li>
+ * </ul>
+ * An entry is added to the cache again when its token is found to be invalid, so that the expiry is recalculated.
+ */
+class TokenCacheExpiry implements Expiry<String, TokenCacheEntry> {
+
+    private final long maxDurationNanos;
+    private final long skewMillis;
+
+    TokenCacheExpiry(long maxDurationNanos, long skewMillis) {
+        this.maxDurationNanos = maxDurationNanos;
+        this.skewMillis = skewMillis;
+    }
+
+    @Override
+    public long expireAfterCreate(String key, TokenCacheEntry entry, long currentTime) {
+        if (SignedJWTInfo.ValidationStatus.INVALID.equals(entry.getValidationStatus())
+                || entry.getExpiryTime() <= 0) {
+            return maxDurationNanos;
+        }
+        long remainingMillis = entry.getExpiryTime() + skewMillis - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            // The token has already expired, and stays invalid.
+            return maxDurationNanos;
+        }
+        return Math.min(maxDurationNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, TokenCacheEntry entry, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, entry, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, TokenCacheEntry entry, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
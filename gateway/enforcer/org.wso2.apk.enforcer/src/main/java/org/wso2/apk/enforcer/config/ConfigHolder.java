@@ -25,6 +25,7 @@ import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.KeyUse;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.util.X509CertUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
@@ -50,6 +51,7 @@ import org.wso2.apk.enforcer.constants.JwtConstants;
 import org.wso2.apk.enforcer.discovery.config.enforcer.*;
 import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
 import org.wso2.apk.enforcer.jwks.BackendJWKSDto;
+import org.wso2.apk.enforcer.tracing.TracingConstants;
 import org.wso2.apk.enforcer.util.FilterUtils;
 import org.wso2.apk.enforcer.util.JWTUtils;
 import org.wso2.apk.enforcer.util.TLSUtils;
@@ -85,6 +87,7 @@ public class ConfigHolder {
     private KeyStore opaKeyStore = null;
     private TrustManagerFactory trustManagerFactory = null;
     private static final String dtoPackageName = EnforcerConfig.class.getPackageName();
+    private volatile long generation = 0;
 
     private ConfigHolder() {
 
@@ -110,9 +113,21 @@ public class ConfigHolder {
     public static ConfigHolder load(Config cdsConfig) {
 
         configHolder.parseConfigs(cdsConfig);
+        configHolder.generation++;
         return configHolder;
     }
 
+    /**
+     * Get the number of times the configuration is loaded. The components which copy configuration values when they
+     * are built use this to tell whether they must be built again.
+     *
+     * @return generation of the configuration
+     */
+    public long getGeneration() {
+
+        return generation;
+    }
+
     /**
      * Parse configurations received from the CDS to internal configuration DTO.
      * This is done inorder to prevent complicated code changes during the initial development
@@ -241,9 +256,36 @@ public class ConfigHolder {
         tracingConfig.setTracingEnabled(tracing.getEnabled());
         tracingConfig.setExporterType(tracing.getType());
         tracingConfig.setConfigProperties(tracing.getConfigPropertiesMap());
+        Map<String, String> properties = tracing.getConfigPropertiesMap();
+        tracingConfig.setMaxQueueSize((int) getPositiveTracingProperty(properties,
+                TracingConstants.CONF_MAX_QUEUE_SIZE, TracingConstants.DEFAULT_MAX_QUEUE_SIZE));
+        tracingConfig.setMaxExportBatchSize((int) getPositiveTracingProperty(properties,
+                TracingConstants.CONF_MAX_EXPORT_BATCH_SIZE, TracingConstants.DEFAULT_MAX_EXPORT_BATCH_SIZE));
+        tracingConfig.setScheduleDelay(getPositiveTracingProperty(properties,
+                TracingConstants.CONF_SCHEDULE_DELAY, TracingConstants.DEFAULT_SCHEDULE_DELAY));
+        tracingConfig.setExportTimeout(getPositiveTracingProperty(properties,
+                TracingConstants.CONF_EXPORT_TIMEOUT, TracingConstants.DEFAULT_EXPORT_TIMEOUT));
         config.setTracingConfig(tracingConfig);
     }
 
+    private long getPositiveTracingProperty(Map<String, String> properties, String key, long defaultValue) {
+        String value = properties.get(key);
+        if (StringUtils.isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            long parsedValue = Long.parseLong(value.trim());
+            if (parsedValue > 0 && parsedValue <= Integer.MAX_VALUE) {
+                return parsedValue;
+            }
+        } catch (NumberFormatException e) {
+            // Logged below.
+        }
+        logger.warn("Invalid value: {} for the tracing config: {}. Using the default value: {}", value, key,
+                defaultValue);
+        return defaultValue;
+    }
+
     private void populateMetricsConfig(Metrics metrics) {
 
         MetricsDTO metricsConfig = new MetricsDTO();
@@ -40,6 +40,15 @@ public class EnvVarConfig {
     public static final String XDS_MAX_RETRIES = "XDS_MAX_RETRIES";
     public static final String XDS_RETRY_PERIOD = "XDS_RETRY_PERIOD";
     public static final String HOSTNAME = "HOSTNAME";
+    public static final String JWT_MAX_CONCURRENT_VERIFICATIONS = "JWT_MAX_CONCURRENT_VERIFICATIONS";
+    public static final String ANALYTICS_BUFFER_SIZE = "ANALYTICS_BUFFER_SIZE";
+    public static final String ANALYTICS_DROP_ON_BACK_PRESSURE = "ANALYTICS_DROP_ON_BACK_PRESSURE";
+    public static final String XDS_SNAPSHOT_DIR = "XDS_SNAPSHOT_DIR";
+    public static final String TRACING_CONTEXT_MAX_SIZE = "TRACING_CONTEXT_MAX_SIZE";
+    public static final String TRACING_CONTEXT_TTL_SECONDS = "TRACING_CONTEXT_TTL_SECONDS";
+    public static final String EVENT_LOOP_THREADS = "EVENT_LOOP_THREADS";
+    public static final String AUTH_SERVER_REUSE_PORT = "AUTH_SERVER_REUSE_PORT";
+    public static final String METRICS_MAX_TRACKED_APIS = "METRICS_MAX_TRACKED_APIS";
 
     // Since the container is running in linux container, path separator is not needed.
     private static final String DEFAULT_TRUSTED_CA_CERTS_PATH = "/home/wso2/security/truststore";
@@ -55,6 +64,24 @@ public class EnvVarConfig {
     public static final String DEFAULT_XDS_MAX_RETRIES = Integer.toString(Constants.MAX_XDS_RETRIES);
     public static final String DEFAULT_XDS_RETRY_PERIOD = Integer.toString(Constants.XDS_DEFAULT_RETRY);
     public static final String DEFAULT_HOSTNAME = "Unassigned";
+    // JWT signature verifications are not limited by default.
+    public static final String DEFAULT_JWT_MAX_CONCURRENT_VERIFICATIONS = "0";
+    public static final String DEFAULT_ANALYTICS_BUFFER_SIZE = "4096";
+    // Access log messages are dropped when the analytics buffer is full, rather than handled on the gRPC threads.
+    public static final String DEFAULT_ANALYTICS_DROP_ON_BACK_PRESSURE = "true";
+    // Discovery responses are not persisted unless a directory is given.
+    public static final String DEFAULT_XDS_SNAPSHOT_DIR = "";
+    // Tracing contexts waiting for the ext_authz request of their trace are dropped beyond this many.
+    public static final String DEFAULT_TRACING_CONTEXT_MAX_SIZE = "10000";
+    // Tracing contexts are dropped if the ext_authz request of their trace does not arrive within this time.
+    public static final String DEFAULT_TRACING_CONTEXT_TTL_SECONDS = "60";
+    // One event loop thread per available processor is shared by all the servers of the enforcer.
+    public static final String DEFAULT_EVENT_LOOP_THREADS =
+            Integer.toString(Runtime.getRuntime().availableProcessors());
+    // SO_REUSEPORT is set on the ext_authz listener when the epoll transport is in use.
+    public static final String DEFAULT_AUTH_SERVER_REUSE_PORT = "true";
+    // Response time percentiles are reported per API for at most this many APIs at a time.
+    public static final String DEFAULT_METRICS_MAX_TRACKED_APIS = "1000";
 
     private static EnvVarConfig instance;
     private final String trustedAdapterCertsPath;
@@ -74,6 +101,15 @@ public class EnvVarConfig {
     private final String xdsMaxRetries;
     private final String xdsRetryPeriod;
     private final String instanceIdentifier;
+    private final String jwtMaxConcurrentVerifications;
+    private final String analyticsBufferSize;
+    private final String analyticsDropOnBackPressure;
+    private final String xdsSnapshotDir;
+    private final String tracingContextMaxSize;
+    private final String tracingContextTtlSeconds;
+    private final String eventLoopThreads;
+    private final String authServerReusePort;
+    private final String metricsMaxTrackedApis;
 
     private EnvVarConfig() {
         trustedAdapterCertsPath = retrieveEnvVarOrDefault(TRUSTED_CA_CERTS_PATH,
@@ -99,6 +135,18 @@ public class EnvVarConfig {
         // HOSTNAME environment property is readily available in docker and kubernetes, and it represents the Pod
         // name in Kubernetes context, containerID in docker context.
         instanceIdentifier = retrieveEnvVarOrDefault(HOSTNAME, DEFAULT_HOSTNAME);
+        jwtMaxConcurrentVerifications = retrieveEnvVarOrDefault(JWT_MAX_CONCURRENT_VERIFICATIONS,
+                DEFAULT_JWT_MAX_CONCURRENT_VERIFICATIONS);
+        analyticsBufferSize = retrieveEnvVarOrDefault(ANALYTICS_BUFFER_SIZE, DEFAULT_ANALYTICS_BUFFER_SIZE);
+        analyticsDropOnBackPressure = retrieveEnvVarOrDefault(ANALYTICS_DROP_ON_BACK_PRESSURE,
+                DEFAULT_ANALYTICS_DROP_ON_BACK_PRESSURE);
+        xdsSnapshotDir = retrieveEnvVarOrDefault(XDS_SNAPSHOT_DIR, DEFAULT_XDS_SNAPSHOT_DIR);
+        tracingContextMaxSize = retrieveEnvVarOrDefault(TRACING_CONTEXT_MAX_SIZE, DEFAULT_TRACING_CONTEXT_MAX_SIZE);
+        tracingContextTtlSeconds = retrieveEnvVarOrDefault(TRACING_CONTEXT_TTL_SECONDS,
+                DEFAULT_TRACING_CONTEXT_TTL_SECONDS);
+        eventLoopThreads = retrieveEnvVarOrDefault(EVENT_LOOP_THREADS, DEFAULT_EVENT_LOOP_THREADS);
+        authServerReusePort = retrieveEnvVarOrDefault(AUTH_SERVER_REUSE_PORT, DEFAULT_AUTH_SERVER_REUSE_PORT);
+        metricsMaxTrackedApis = retrieveEnvVarOrDefault(METRICS_MAX_TRACKED_APIS, DEFAULT_METRICS_MAX_TRACKED_APIS);
     }
 
     public static EnvVarConfig getInstance() {
@@ -180,4 +228,40 @@ public class EnvVarConfig {
     public String getInstanceIdentifier() {
         return instanceIdentifier;
     }
+
+    public String getJwtMaxConcurrentVerifications() {
+        return jwtMaxConcurrentVerifications;
+    }
+
+    public String getAnalyticsBufferSize() {
+        return analyticsBufferSize;
+    }
+
+    public boolean isAnalyticsDropOnBackPressure() {
+        return Boolean.parseBoolean(analyticsDropOnBackPressure);
+    }
+
+    public String getXdsSnapshotDir() {
+        return xdsSnapshotDir;
+    }
+
+    public String getTracingContextMaxSize() {
+        return tracingContextMaxSize;
+    }
+
+    public String getTracingContextTtlSeconds() {
+        return tracingContextTtlSeconds;
+    }
+
+    public String getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public boolean isAuthServerReusePort() {
+        return Boolean.parseBoolean(authServerReusePort);
+    }
+
+    public String getMetricsMaxTrackedApis() {
+        return metricsMaxTrackedApis;
+    }
 }
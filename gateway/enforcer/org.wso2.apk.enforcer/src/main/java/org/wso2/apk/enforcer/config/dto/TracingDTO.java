@@ -19,6 +19,8 @@
 
 package org.wso2.apk.enforcer.config.dto;
 
+import org.wso2.apk.enforcer.tracing.TracingConstants;
+
 import java.util.Map;
 
 /**
@@ -29,6 +31,10 @@ public class TracingDTO {
     private boolean isTracingEnabled;
     private String exporterType;
     private Map<String, String> configProperties;
+    private int maxQueueSize = TracingConstants.DEFAULT_MAX_QUEUE_SIZE;
+    private int maxExportBatchSize = TracingConstants.DEFAULT_MAX_EXPORT_BATCH_SIZE;
+    private long scheduleDelay = TracingConstants.DEFAULT_SCHEDULE_DELAY;
+    private long exportTimeout = TracingConstants.DEFAULT_EXPORT_TIMEOUT;
 
     public boolean isTracingEnabled() {
         return isTracingEnabled;
@@ -53,4 +59,46 @@ public class TracingDTO {
     public void setConfigProperties(Map<String, String> configProperties) {
         this.configProperties = configProperties;
     }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public int getMaxExportBatchSize() {
+        return maxExportBatchSize;
+    }
+
+    public void setMaxExportBatchSize(int maxExportBatchSize) {
+        this.maxExportBatchSize = maxExportBatchSize;
+    }
+
+    /**
+     * Get the maximum time in milliseconds between two exports of the ended spans.
+     *
+     * @return schedule delay in milliseconds
+     */
+    public long getScheduleDelay() {
+        return scheduleDelay;
+    }
+
+    public void setScheduleDelay(long scheduleDelay) {
+        this.scheduleDelay = scheduleDelay;
+    }
+
+    /**
+     * Get the maximum time in milliseconds to wait for an export to complete.
+     *
+     * @return export timeout in milliseconds
+     */
+    public long getExportTimeout() {
+        return exportTimeout;
+    }
+
+    public void setExportTimeout(long exportTimeout) {
+        this.exportTimeout = exportTimeout;
+    }
 }
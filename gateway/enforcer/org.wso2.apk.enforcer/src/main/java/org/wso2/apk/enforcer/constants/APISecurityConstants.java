@@ -70,6 +70,11 @@ public class APISecurityConstants {
     public static final int API_AUTH_MISSING_OPEN_API_DEF = 900911;
     public static final String API_AUTH_MISSING_OPEN_API_DEF_ERROR_MESSAGE = "Internal Server Error";
 
+    public static final int API_AUTH_VERIFICATION_OVERLOADED = 900912;
+    public static final String API_AUTH_VERIFICATION_OVERLOADED_MESSAGE = "Service Unavailable";
+    public static final String API_AUTH_VERIFICATION_OVERLOADED_DESCRIPTION = "The access token could not be "
+            + "verified as the gateway is overloaded. Try again later";
+
     // TODO: (renuka) check error codes with APIM: https://github.com/wso2/wso2-synapse/pull/1899/files#r809710868
     public static final int OPA_AUTH_FORBIDDEN = 901101;
     public static final String OPA_AUTH_FORBIDDEN_MESSAGE = "Forbidden";
@@ -105,6 +110,9 @@ public class APISecurityConstants {
         case API_AUTH_MISSING_OPEN_API_DEF:
             errorMessage = API_AUTH_MISSING_OPEN_API_DEF_ERROR_MESSAGE;
             break;
+        case API_AUTH_VERIFICATION_OVERLOADED:
+            errorMessage = API_AUTH_VERIFICATION_OVERLOADED_MESSAGE;
+            break;
         case API_AUTH_INVALID_CREDENTIALS:
             errorMessage = API_AUTH_INVALID_CREDENTIALS_MESSAGE;
             break;
@@ -170,6 +178,9 @@ public class APISecurityConstants {
         case API_AUTH_INVALID_CREDENTIALS:
             errorDescription += DESCRIPTION_SEPARATOR + API_AUTH_INVALID_CREDENTIALS_DESCRIPTION;
             break;
+        case API_AUTH_VERIFICATION_OVERLOADED:
+            errorDescription += DESCRIPTION_SEPARATOR + API_AUTH_VERIFICATION_OVERLOADED_DESCRIPTION;
+            break;
         default:
             // Do nothing since we are anyhow returning the original error description.
         }
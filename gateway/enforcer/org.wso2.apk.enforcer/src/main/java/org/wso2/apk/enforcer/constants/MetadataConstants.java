@@ -54,5 +54,6 @@ public class MetadataConstants {
 
     public static final String ERROR_CODE_KEY = "ErrorCode";
     public static final String CHOREO_CONNECT_ENFORCER_REPLY = "apk-enforcer-reply";
+    public static final String CHOREO_CONNECT_ENFORCER_REPLY_OK = "Ok";
     public static final String RATELIMIT_WSO2_ORG_PREFIX = "customorg";
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.deniedresponse;
+
+import org.json.JSONObject;
+import org.wso2.apk.enforcer.constants.APIConstants;
+import org.wso2.apk.enforcer.constants.APISecurityConstants;
+import org.wso2.apk.enforcer.util.SOAPUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the bodies of the denied responses from templates. A template is built once per response type, error code
+ * and error message, by rendering the body with a placeholder for the error description, and is reused for every
+ * denied response of the same kind. Only the error description, which may differ per request, is escaped and
+ * inserted per request. JSON descriptions are escaped with the same function {@link JSONObject} uses. A SOAP
+ * description that needs escaping, i.e. one with markup, quotes, control or non-ASCII characters, is rare, so such a
+ * response is rendered with SAAJ as a whole rather than reproducing the escaping of its serializer.
+ */
+public class DeniedResponseTemplates {
+
+    private static final String DESCRIPTION_PLACEHOLDER = "__APK_ERROR_DESCRIPTION__";
+    // Error messages are expected to come from a fixed set. The bound only guards against unexpected dynamic ones.
+    private static final int MAX_TEMPLATES = 1024;
+    private static final int[] KNOWN_ERROR_CODES = {
+            APISecurityConstants.API_AUTH_GENERAL_ERROR,
+            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
+            APISecurityConstants.API_AUTH_MISSING_CREDENTIALS,
+            APISecurityConstants.API_AUTH_ACCESS_TOKEN_EXPIRED,
+            APISecurityConstants.API_AUTH_ACCESS_TOKEN_INACTIVE,
+            APISecurityConstants.API_AUTH_INCORRECT_ACCESS_TOKEN_TYPE,
+            APISecurityConstants.API_AUTH_INCORRECT_API_RESOURCE,
+            APISecurityConstants.API_SUBSCRIPTION_BLOCKED,
+            APISecurityConstants.API_AUTH_FORBIDDEN,
+            APISecurityConstants.SUBSCRIPTION_INACTIVE,
+            APISecurityConstants.INVALID_SCOPE,
+            APISecurityConstants.API_AUTH_MISSING_OPEN_API_DEF,
+            APISecurityConstants.OPA_AUTH_FORBIDDEN,
+            APISecurityConstants.OPA_REQUEST_FAILURE,
+            APISecurityConstants.OPA_RESPONSE_FAILURE
+    };
+    private static final String[] RESPONSE_TYPES = {
+            APIConstants.ErrorResponseTypes.JSON,
+            APIConstants.ErrorResponseTypes.SOAP11,
+            APIConstants.ErrorResponseTypes.SOAP12
+    };
+
+    private static final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    private DeniedResponseTemplates() {
+    }
+
+    /**
+     * Build the templates of the authentication and authorization failures ahead of the first request.
+     */
+    public static void init() {
+        for (String responseType : RESPONSE_TYPES) {
+            for (int errorCode : KNOWN_ERROR_CODES) {
+                getTemplate(responseType, String.valueOf(errorCode),
+                        APISecurityConstants.getAuthenticationFailureMessage(errorCode), false);
+            }
+        }
+    }
+
+    /**
+     * Get the body of a denied response.
+     *
+     * @param responseType     response type as per {@link APIConstants.ErrorResponseTypes}
+     * @param errorCode        error code
+     * @param errorMessage     error message
+     * @param errorDescription error description
+     * @return body of the denied response
+     */
+    public static String getBody(String responseType, String errorCode, String errorMessage,
+                                 String errorDescription) {
+        Template template = getTemplate(responseType, errorCode, errorMessage, errorDescription == null);
+        if (template.suffix == null) {
+            return template.prefix;
+        }
+        String escapedDescription;
+        switch (responseType) {
+            case APIConstants.ErrorResponseTypes.SOAP11:
+            case APIConstants.ErrorResponseTypes.SOAP12:
+                if (!isVerbatimInXml(errorDescription)) {
+                    return renderSoapFault(responseType, errorCode, errorMessage, errorDescription);
+                }
+                escapedDescription = errorDescription;
+                break;
+            default:
+                escapedDescription = escapeJson(errorDescription);
+        }
+        return template.prefix + escapedDescription + template.suffix;
+    }
+
+    private static Template getTemplate(String responseType, String errorCode, String errorMessage,
+                                        boolean withoutDescription) {
+        String key = responseType + ':' + withoutDescription + ':' + errorCode + ':' + errorMessage;
+        Template template = templates.get(key);
+        if (template == null) {
+            template = createTemplate(responseType, errorCode, errorMessage, withoutDescription);
+            // An empty body means the SOAP fault could not be rendered, which is retried on the next request.
+            if (!template.prefix.isEmpty() && templates.size() < MAX_TEMPLATES) {
+                templates.put(key, template);
+            }
+        }
+        return template;
+    }
+
+    private static Template createTemplate(String responseType, String errorCode, String errorMessage,
+                                           boolean withoutDescription) {
+        String description = withoutDescription ? null : DESCRIPTION_PLACEHOLDER;
+        String body;
+        switch (responseType) {
+            case APIConstants.ErrorResponseTypes.SOAP11:
+            case APIConstants.ErrorResponseTypes.SOAP12:
+                body = renderSoapFault(responseType, errorCode, errorMessage, description);
+                break;
+            default:
+                JSONObject responseJson = new JSONObject();
+                responseJson.put(APIConstants.MessageFormat.ERROR_CODE, errorCode);
+                responseJson.put(APIConstants.MessageFormat.ERROR_MESSAGE, errorMessage);
+                responseJson.put(APIConstants.MessageFormat.ERROR_DESCRIPTION, description);
+                body = responseJson.toString();
+        }
+        int index = withoutDescription ? -1 : body.lastIndexOf(DESCRIPTION_PLACEHOLDER);
+        if (index < 0) {
+            return new Template(body, null);
+        }
+        return new Template(body.substring(0, index), body.substring(index + DESCRIPTION_PLACEHOLDER.length()));
+    }
+
+    private static String escapeJson(String value) {
+        String quoted = JSONObject.quote(value);
+        return quoted.substring(1, quoted.length() - 1);
+    }
+
+    private static String renderSoapFault(String responseType, String errorCode, String errorMessage,
+                                          String description) {
+        String protocol = APIConstants.ErrorResponseTypes.SOAP11.equals(responseType) ?
+                APIConstants.SOAP11_PROTOCOL : APIConstants.SOAP12_PROTOCOL;
+        return SOAPUtils.getSoapFaultMessage(protocol, errorMessage, description, errorCode);
+    }
+
+    /**
+     * Check whether the value is written as it is in the text of an XML document, i.e. it only has printable ASCII
+     * characters other than the ones that may be escaped.
+     */
+    private static boolean isVerbatimInXml(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7E || c == '&' || c == '<' || c == '>' || c == '"' || c == '\'') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Body of a denied response split around the error description. The suffix is null if the body does not have
+     * a description.
+     */
+    private static final class Template {
+        private final String prefix;
+        private final String suffix;
+
+        private Template(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+    }
+}
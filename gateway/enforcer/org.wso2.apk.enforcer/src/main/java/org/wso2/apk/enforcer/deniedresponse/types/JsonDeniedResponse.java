@@ -21,15 +21,20 @@ package org.wso2.apk.enforcer.deniedresponse.types;
 import io.envoyproxy.envoy.config.core.v3.HeaderValue;
 import io.envoyproxy.envoy.config.core.v3.HeaderValueOption;
 import io.envoyproxy.envoy.service.auth.v3.DeniedHttpResponse;
-import org.json.JSONObject;
 import org.wso2.apk.enforcer.api.ResponseObject;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.deniedresponse.DeniedResponse;
+import org.wso2.apk.enforcer.deniedresponse.DeniedResponseTemplates;
 
 /**
  * generates JSON formatted denied responses.
  */
 public class JsonDeniedResponse extends DeniedResponse {
+    private static final HeaderValueOption CONTENT_TYPE_HEADER = HeaderValueOption.newBuilder()
+            .setHeader(HeaderValue.newBuilder()
+                    .setKey(APIConstants.CONTENT_TYPE_HEADER)
+                    .setValue(APIConstants.APPLICATION_JSON).build())
+            .build();
 
     public JsonDeniedResponse(DeniedHttpResponse.Builder denyResponseBuilder) {
         super(denyResponseBuilder);
@@ -37,15 +42,9 @@ public class JsonDeniedResponse extends DeniedResponse {
 
     @Override
     public void setResponse(ResponseObject responseObject) {
-        JSONObject responseJson = new JSONObject();
-        responseJson.put(APIConstants.MessageFormat.ERROR_CODE, responseObject.getErrorCode());
-        responseJson.put(APIConstants.MessageFormat.ERROR_MESSAGE, responseObject.getErrorMessage());
-        responseJson.put(APIConstants.MessageFormat.ERROR_DESCRIPTION,
-                responseObject.getErrorDescription());
-        denyResponseBuilder.setBody(responseJson.toString());
-        HeaderValueOption headerValueOption = HeaderValueOption.newBuilder().setHeader(HeaderValue.newBuilder()
-                .setKey(APIConstants.CONTENT_TYPE_HEADER)
-                .setValue(APIConstants.APPLICATION_JSON).build()).build();
-        denyResponseBuilder.addHeaders(headerValueOption);
+        denyResponseBuilder.setBody(DeniedResponseTemplates.getBody(APIConstants.ErrorResponseTypes.JSON,
+                responseObject.getErrorCode(), responseObject.getErrorMessage(),
+                responseObject.getErrorDescription()));
+        denyResponseBuilder.addHeaders(CONTENT_TYPE_HEADER);
     }
 }
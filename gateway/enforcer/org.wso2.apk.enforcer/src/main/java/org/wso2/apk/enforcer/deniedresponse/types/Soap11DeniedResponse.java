@@ -24,23 +24,27 @@ import io.envoyproxy.envoy.service.auth.v3.DeniedHttpResponse;
 import org.wso2.apk.enforcer.api.ResponseObject;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.deniedresponse.DeniedResponse;
-import org.wso2.apk.enforcer.util.SOAPUtils;
+import org.wso2.apk.enforcer.deniedresponse.DeniedResponseTemplates;
 
 /**
  * generates SOAP 1.1 formatted denied responses.
  */
 public class Soap11DeniedResponse extends DeniedResponse {
+    private static final HeaderValueOption CONTENT_TYPE_HEADER = HeaderValueOption.newBuilder()
+            .setHeader(HeaderValue.newBuilder()
+                    .setKey(APIConstants.CONTENT_TYPE_HEADER)
+                    .setValue(APIConstants.CONTENT_TYPE_TEXT_XML).build())
+            .build();
+
     public Soap11DeniedResponse(DeniedHttpResponse.Builder denyResponseBuilder) {
         super(denyResponseBuilder);
     }
 
     @Override
     public void setResponse(ResponseObject responseObject) {
-        denyResponseBuilder.setBody(SOAPUtils.getSoapFaultMessage(APIConstants.SOAP11_PROTOCOL,
-                responseObject.getErrorMessage(), responseObject.getErrorDescription(), responseObject.getErrorCode()));
-        HeaderValueOption headerValueOption = HeaderValueOption.newBuilder().setHeader(HeaderValue.newBuilder()
-                .setKey(APIConstants.CONTENT_TYPE_HEADER)
-                .setValue(APIConstants.CONTENT_TYPE_TEXT_XML).build()).build();
-        denyResponseBuilder.addHeaders(headerValueOption);
+        denyResponseBuilder.setBody(DeniedResponseTemplates.getBody(APIConstants.ErrorResponseTypes.SOAP11,
+                responseObject.getErrorCode(), responseObject.getErrorMessage(),
+                responseObject.getErrorDescription()));
+        denyResponseBuilder.addHeaders(CONTENT_TYPE_HEADER);
     }
 }
@@ -24,23 +24,27 @@ import io.envoyproxy.envoy.service.auth.v3.DeniedHttpResponse;
 import org.wso2.apk.enforcer.api.ResponseObject;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.deniedresponse.DeniedResponse;
-import org.wso2.apk.enforcer.util.SOAPUtils;
+import org.wso2.apk.enforcer.deniedresponse.DeniedResponseTemplates;
 
 /**
  * generates SOAP 1.2 formatted denied responses.
  */
 public class Soap12DeniedResponse extends DeniedResponse {
+    private static final HeaderValueOption CONTENT_TYPE_HEADER = HeaderValueOption.newBuilder()
+            .setHeader(HeaderValue.newBuilder()
+                    .setKey(APIConstants.CONTENT_TYPE_HEADER)
+                    .setValue(APIConstants.CONTENT_TYPE_SOAP_XML).build())
+            .build();
+
     public Soap12DeniedResponse(DeniedHttpResponse.Builder denyResponseBuilder) {
         super(denyResponseBuilder);
     }
 
     @Override
     public void setResponse(ResponseObject responseObject) {
-        denyResponseBuilder.setBody(SOAPUtils.getSoapFaultMessage(APIConstants.SOAP12_PROTOCOL,
-                responseObject.getErrorMessage(), responseObject.getErrorDescription(), responseObject.getErrorCode()));
-        HeaderValueOption headerValueOption = HeaderValueOption.newBuilder().setHeader(HeaderValue.newBuilder()
-                .setKey(APIConstants.CONTENT_TYPE_HEADER)
-                .setValue(APIConstants.CONTENT_TYPE_SOAP_XML).build()).build();
-        denyResponseBuilder.addHeaders(headerValueOption);
+        denyResponseBuilder.setBody(DeniedResponseTemplates.getBody(APIConstants.ErrorResponseTypes.SOAP12,
+                responseObject.getErrorCode(), responseObject.getErrorMessage(),
+                responseObject.getErrorDescription()));
+        denyResponseBuilder.addHeaders(CONTENT_TYPE_HEADER);
     }
 }
@@ -24,8 +24,6 @@ import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -35,12 +33,13 @@ import org.wso2.apk.enforcer.api.APIFactory;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Client to communicate with API discovery service at the adapter.
@@ -49,9 +48,6 @@ public class ApiDiscoveryClient implements Runnable {
     private static final Logger logger = LogManager.getLogger(ApiDiscoveryClient.class);
     private static ApiDiscoveryClient instance;
     private final APIFactory apiFactory;
-    private final String host;
-    private final int port;
-    private ManagedChannel channel;
     private ApiDiscoveryServiceGrpc.ApiDiscoveryServiceStub stub;
     private StreamObserver<DiscoveryRequest> reqObserver;
     /**
@@ -61,7 +57,7 @@ public class ApiDiscoveryClient implements Runnable {
      *     latest received DiscoveryResponse which may not have been acked/nacked so far.
      * </p>
      */
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
     /**
      * This is a reference to the latest acked response from the ADS.
      * <p>
@@ -76,39 +72,21 @@ public class ApiDiscoveryClient implements Runnable {
      */
     private final Node node;
 
-    private ApiDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private ApiDiscoveryClient() {
         this.apiFactory = APIFactory.getInstance();
         this.node = XDSCommonUtils.generateXDSNode(ConfigHolder.getInstance().getEnvVarConfig().getEnforcerLabel());
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
         initConnection();
+        XdsSnapshotManager.getInstance().restore(Constants.API_TYPE_URL, this::applyResponse);
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        logger.error("API discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(logger, host, port);
-            this.stub = ApiDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopAPIDiscoveryScheduling();
-        }
+        this.stub = ApiDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static ApiDiscoveryClient getInstance() {
         if (instance == null) {
-            String adsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int adsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new ApiDiscoveryClient(adsHost, adsPort);
+            instance = new ApiDiscoveryClient();
         }
         return instance;
     }
@@ -118,7 +96,7 @@ public class ApiDiscoveryClient implements Runnable {
         watchApis();
     }
 
-    public void watchApis() {
+    public synchronized void watchApis() {
         int maxSize = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getXdsMaxMsgSize());
         reqObserver = stub.withMaxInboundMessageSize(maxSize).streamApis(new StreamObserver<>() {
             @Override
@@ -127,16 +105,16 @@ public class ApiDiscoveryClient implements Runnable {
                 logger.debug("Received API discovery response " + response);
                 XdsSchedulerManager.getInstance().stopAPIDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<Api> apis = handleResponse(response);
-                    apiFactory.addApis(apis);
-                    logger.info("Number of API artifacts received : " + apis.size());
-                    // TODO: (Praminda) fix recursive ack on ack failure
-                    ack();
-                } catch (Exception e) {
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                XdsResponseSequencer.getInstance().apply(Constants.API_TYPE_URL, response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response);
+                        // TODO: (Praminda) fix recursive ack on ack failure
+                        ack(response);
+                    } catch (Exception e) {
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
+                    }
+                });
             }
 
             @Override
@@ -164,21 +142,28 @@ public class ApiDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response) throws InvalidProtocolBufferException {
+        List<Api> apis = handleResponse(response);
+        apiFactory.addApis(apis);
+        logger.info("Number of API artifacts received : " + apis.size());
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server.
      * This is part of the xDS communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.API_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        XdsSnapshotManager.getInstance().save(Constants.API_TYPE_URL, latestACKed);
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
@@ -200,7 +185,4 @@ public class ApiDiscoveryClient implements Runnable {
         return apis;
     }
 
-    public void shutdown() throws InterruptedException {
-        channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
-    }
 }
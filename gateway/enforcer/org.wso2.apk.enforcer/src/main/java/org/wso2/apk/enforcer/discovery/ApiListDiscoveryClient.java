@@ -19,12 +19,11 @@
 package org.wso2.apk.enforcer.discovery;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -34,13 +33,14 @@ import org.wso2.apk.enforcer.discovery.subscription.APIs;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreImpl;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Client to communicate with API list discovery service at the adapter.
@@ -48,12 +48,9 @@ import java.util.concurrent.TimeUnit;
 public class ApiListDiscoveryClient implements Runnable {
     private static final Logger logger = LogManager.getLogger(ApiListDiscoveryClient.class);
     private static ApiListDiscoveryClient instance;
-    private ManagedChannel channel;
     private ApiListDiscoveryServiceGrpc.ApiListDiscoveryServiceStub stub;
     private StreamObserver<DiscoveryRequest> reqObserver;
     private final SubscriptionDataStoreImpl subscriptionDataStore;
-    private final String host;
-    private final int port;
 
     /**
      * This is a reference to the latest received response from the ADS.
@@ -62,7 +59,7 @@ public class ApiListDiscoveryClient implements Runnable {
      * which may not have been acked/nacked so far.
      * </p>
      */
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
 
     /**
      * This is a reference to the latest acked response from the ADS.
@@ -78,39 +75,21 @@ public class ApiListDiscoveryClient implements Runnable {
      */
     private final Node node;
 
-    private ApiListDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private ApiListDiscoveryClient() {
         this.subscriptionDataStore = SubscriptionDataStoreImpl.getInstance();
         initConnection();
         this.node = XDSCommonUtils.generateXDSNode(ConfigHolder.getInstance().getEnvVarConfig().getEnforcerLabel());
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
+        XdsSnapshotManager.getInstance().restore(Constants.API_LIST_TYPE_URL, this::applyResponse);
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        logger.error("API list discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(logger, host, port);
-            this.stub = ApiListDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopAPIListDiscoveryScheduling();
-        }
+        this.stub = ApiListDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static ApiListDiscoveryClient getInstance() {
         if (instance == null) {
-            String sdsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int sdsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new ApiListDiscoveryClient(sdsHost, sdsPort);
+            instance = new ApiListDiscoveryClient();
         }
         return instance;
     }
@@ -120,7 +99,7 @@ public class ApiListDiscoveryClient implements Runnable {
         watchApiList();
     }
 
-    public void watchApiList() {
+    public synchronized void watchApiList() {
         // TODO: (Praminda) implement a deadline with retries
         reqObserver = stub.streamApiList(new StreamObserver<DiscoveryResponse>() {
             @Override
@@ -129,18 +108,16 @@ public class ApiListDiscoveryClient implements Runnable {
                 logger.debug("Received Api list discovery response " + response);
                 XdsSchedulerManager.getInstance().stopAPIListDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<APIs> apiList = new ArrayList<>();
-                    for (Any res : response.getResourcesList()) {
-                        apiList.addAll(res.unpack(APIList.class).getListList());
+                XdsResponseSequencer.getInstance().apply(Constants.API_LIST_TYPE_URL,
+                        response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response);
+                        ack(response);
+                    } catch (Exception e) {
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
                     }
-                    subscriptionDataStore.addApis(apiList);
-                    logger.info("Number of APIs received : " + apiList.size());
-                    ack();
-                } catch (Exception e) {
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                });
             }
 
             @Override
@@ -170,21 +147,31 @@ public class ApiListDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response) throws InvalidProtocolBufferException {
+        List<APIs> apiList = new ArrayList<>();
+        for (Any res : response.getResourcesList()) {
+            apiList.addAll(res.unpack(APIList.class).getListList());
+        }
+        subscriptionDataStore.addApis(apiList);
+        logger.info("Number of APIs received : " + apiList.size());
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server. This is part of the xDS
      * communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.API_LIST_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        XdsSnapshotManager.getInstance().save(Constants.API_LIST_TYPE_URL, latestACKed);
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
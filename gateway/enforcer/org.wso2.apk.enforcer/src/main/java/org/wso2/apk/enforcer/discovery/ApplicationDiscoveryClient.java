@@ -19,29 +19,28 @@
 package org.wso2.apk.enforcer.discovery;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.discovery.service.subscription.ApplicationDiscoveryServiceGrpc;
 import org.wso2.apk.enforcer.discovery.subscription.Application;
 import org.wso2.apk.enforcer.discovery.subscription.ApplicationList;
-import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreImpl;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Client to communicate with Application discovery service at the adapter.
@@ -49,12 +48,9 @@ import java.util.concurrent.TimeUnit;
 public class ApplicationDiscoveryClient implements Runnable {
     private static final Logger logger = LogManager.getLogger(ApplicationDiscoveryClient.class);
     private static ApplicationDiscoveryClient instance;
-    private ManagedChannel channel;
     private ApplicationDiscoveryServiceGrpc.ApplicationDiscoveryServiceStub stub;
     private StreamObserver<DiscoveryRequest> reqObserver;
     private final SubscriptionDataStoreImpl subscriptionDataStore;
-    private final String host;
-    private final int port;
 
     /**
      * This is a reference to the latest received response from the ADS.
@@ -64,7 +60,7 @@ public class ApplicationDiscoveryClient implements Runnable {
      * </p>
      */
 
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
     /**
      * This is a reference to the latest acked response from the ADS.
      * <p>
@@ -73,45 +69,36 @@ public class ApplicationDiscoveryClient implements Runnable {
      * </p>
      */
     private DiscoveryResponse latestACKed;
+    /**
+     * Whether the next response is the first one received on the current stream.
+     * <p>
+     * Usage: The first response replaces all the applications in the store, so that the store is resynced with the
+     * adapter whenever the stream is re-established. Later responses are applied as add, update and remove events.
+     * </p>
+     */
+    private volatile boolean resync = true;
 
     /**
      * Node struct for the discovery client
      */
     private final Node node;
 
-    private ApplicationDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private ApplicationDiscoveryClient() {
         this.subscriptionDataStore = SubscriptionDataStoreImpl.getInstance();
         initConnection();
         this.node = XDSCommonUtils.generateXDSNode(AdapterConstants.COMMON_ENFORCER_LABEL);
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
+        XdsSnapshotManager.getInstance().restore(Constants.APPLICATION_LIST_TYPE_URL,
+                response -> applyResponse(response, true));
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        logger.error("Application discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(logger, host, port);
-            this.stub = ApplicationDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopApplicationDiscoveryScheduling();
-        }
+        this.stub = ApplicationDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static ApplicationDiscoveryClient getInstance() {
         if (instance == null) {
-            String sdsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int sdsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new ApplicationDiscoveryClient(sdsHost, sdsPort);
+            instance = new ApplicationDiscoveryClient();
         }
         return instance;
     }
@@ -121,7 +108,8 @@ public class ApplicationDiscoveryClient implements Runnable {
         watchApplications();
     }
 
-    public void watchApplications() {
+    public synchronized void watchApplications() {
+        resync = true;
         // TODO: (Praminda) implement a deadline with retries
         reqObserver = stub.streamApplications(new StreamObserver<DiscoveryResponse>() {
             @Override
@@ -130,18 +118,17 @@ public class ApplicationDiscoveryClient implements Runnable {
                 logger.debug("Received Application discovery response " + response);
                 XdsSchedulerManager.getInstance().stopApplicationDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<Application> applicationList = new ArrayList<>();
-                    for (Any res : response.getResourcesList()) {
-                        applicationList.addAll(res.unpack(ApplicationList.class).getListList());
+                XdsResponseSequencer.getInstance().apply(Constants.APPLICATION_LIST_TYPE_URL,
+                        response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response, resync);
+                        resync = false;
+                        ack(response);
+                    } catch (Exception e) {
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
                     }
-                    subscriptionDataStore.addApplications(applicationList);
-                    logger.info("Number of applications received : " + applicationList.size());
-                    ack();
-                } catch (Exception e) {
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                });
             }
 
             @Override
@@ -171,21 +158,35 @@ public class ApplicationDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response, boolean replace) throws InvalidProtocolBufferException {
+        List<Application> applicationList = new ArrayList<>();
+        for (Any res : response.getResourcesList()) {
+            applicationList.addAll(res.unpack(ApplicationList.class).getListList());
+        }
+        if (replace) {
+            subscriptionDataStore.addApplications(applicationList);
+        } else {
+            subscriptionDataStore.updateApplications(applicationList);
+        }
+        logger.info("Number of applications received : " + applicationList.size());
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server. This is part of the xDS
      * communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.APPLICATION_LIST_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        XdsSnapshotManager.getInstance().save(Constants.APPLICATION_LIST_TYPE_URL, latestACKed);
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
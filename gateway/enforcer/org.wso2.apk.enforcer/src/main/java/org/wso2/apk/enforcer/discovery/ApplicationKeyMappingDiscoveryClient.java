@@ -19,29 +19,28 @@
 package org.wso2.apk.enforcer.discovery;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.discovery.service.subscription.ApplicationKeyMappingDiscoveryServiceGrpc;
 import org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping;
 import org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMappingList;
-import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreImpl;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Client to communicate with Application Key Mapping discovery service at the adapter.
@@ -49,12 +48,9 @@ import java.util.concurrent.TimeUnit;
 public class ApplicationKeyMappingDiscoveryClient implements Runnable {
     private static final Logger logger = LogManager.getLogger(ApplicationKeyMappingDiscoveryClient.class);
     private static ApplicationKeyMappingDiscoveryClient instance;
-    private ManagedChannel channel;
     private ApplicationKeyMappingDiscoveryServiceGrpc.ApplicationKeyMappingDiscoveryServiceStub stub;
     private StreamObserver<DiscoveryRequest> reqObserver;
     private final SubscriptionDataStoreImpl subscriptionDataStore;
-    private final String host;
-    private final int port;
 
     /**
      * This is a reference to the latest received response from the ADS.
@@ -64,7 +60,7 @@ public class ApplicationKeyMappingDiscoveryClient implements Runnable {
      * </p>
      */
 
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
     /**
      * This is a reference to the latest acked response from the ADS.
      * <p>
@@ -73,45 +69,37 @@ public class ApplicationKeyMappingDiscoveryClient implements Runnable {
      * </p>
      */
     private DiscoveryResponse latestACKed;
+    /**
+     * Whether the next response is the first one received on the current stream.
+     * <p>
+     * Usage: The first response replaces all the application key mappings in the store, so that the store is resynced
+     * with the adapter whenever the stream is re-established. Later responses are applied as add, update and remove
+     * events.
+     * </p>
+     */
+    private volatile boolean resync = true;
 
     /**
      * Node struct for the discovery client
      */
     private final Node node;
 
-    private ApplicationKeyMappingDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private ApplicationKeyMappingDiscoveryClient() {
         this.subscriptionDataStore = SubscriptionDataStoreImpl.getInstance();
         initConnection();
         this.node = XDSCommonUtils.generateXDSNode(AdapterConstants.COMMON_ENFORCER_LABEL);
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
+        XdsSnapshotManager.getInstance().restore(Constants.APPLICATION_KEY_MAPPING_LIST_TYPE_URL,
+                response -> applyResponse(response, true));
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        logger.error("Application key mapping discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(logger, host, port);
-            this.stub = ApplicationKeyMappingDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopApplicationKeyMappingDiscoveryScheduling();
-        }
+        this.stub = ApplicationKeyMappingDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static ApplicationKeyMappingDiscoveryClient getInstance() {
         if (instance == null) {
-            String sdsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int sdsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new ApplicationKeyMappingDiscoveryClient(sdsHost, sdsPort);
+            instance = new ApplicationKeyMappingDiscoveryClient();
         }
         return instance;
     }
@@ -121,7 +109,8 @@ public class ApplicationKeyMappingDiscoveryClient implements Runnable {
         watchApplicationKeyMappings();
     }
 
-    public void watchApplicationKeyMappings() {
+    public synchronized void watchApplicationKeyMappings() {
+        resync = true;
         // TODO: (Praminda) implement a deadline with retries
         reqObserver = stub.streamApplicationKeyMappings(new StreamObserver<DiscoveryResponse>() {
             @Override
@@ -130,18 +119,17 @@ public class ApplicationKeyMappingDiscoveryClient implements Runnable {
                 logger.debug("Received Application Key Mapping discovery response " + response);
                 XdsSchedulerManager.getInstance().stopApplicationKeyMappingDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<ApplicationKeyMapping> applicationKeyMappingLis = new ArrayList<>();
-                    for (Any res : response.getResourcesList()) {
-                        applicationKeyMappingLis.addAll(res.unpack(ApplicationKeyMappingList.class).getListList());
+                XdsResponseSequencer.getInstance().apply(Constants.APPLICATION_KEY_MAPPING_LIST_TYPE_URL,
+                        response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response, resync);
+                        resync = false;
+                        ack(response);
+                    } catch (Exception e) {
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
                     }
-                    subscriptionDataStore.addApplicationKeyMappings(applicationKeyMappingLis);
-                    logger.info("Number of application key mappings received : " + applicationKeyMappingLis.size());
-                    ack();
-                } catch (Exception e) {
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                });
             }
 
             @Override
@@ -171,21 +159,35 @@ public class ApplicationKeyMappingDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response, boolean replace) throws InvalidProtocolBufferException {
+        List<ApplicationKeyMapping> applicationKeyMappingLis = new ArrayList<>();
+        for (Any res : response.getResourcesList()) {
+            applicationKeyMappingLis.addAll(res.unpack(ApplicationKeyMappingList.class).getListList());
+        }
+        if (replace) {
+            subscriptionDataStore.addApplicationKeyMappings(applicationKeyMappingLis);
+        } else {
+            subscriptionDataStore.updateApplicationKeyMappings(applicationKeyMappingLis);
+        }
+        logger.info("Number of application key mappings received : " + applicationKeyMappingLis.size());
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server. This is part of the xDS
      * communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.APPLICATION_KEY_MAPPING_LIST_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        XdsSnapshotManager.getInstance().save(Constants.APPLICATION_KEY_MAPPING_LIST_TYPE_URL, latestACKed);
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
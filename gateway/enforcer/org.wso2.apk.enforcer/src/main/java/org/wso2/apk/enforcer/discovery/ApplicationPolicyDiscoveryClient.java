@@ -19,29 +19,28 @@
 package org.wso2.apk.enforcer.discovery;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.discovery.service.subscription.ApplicationPolicyDiscoveryServiceGrpc;
 import org.wso2.apk.enforcer.discovery.subscription.ApplicationPolicy;
 import org.wso2.apk.enforcer.discovery.subscription.ApplicationPolicyList;
-import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreImpl;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Client to communicate with Application Policy discovery service at the adapter.
@@ -49,12 +48,9 @@ import java.util.concurrent.TimeUnit;
 public class ApplicationPolicyDiscoveryClient implements Runnable {
     private static final Logger logger = LogManager.getLogger(ApplicationPolicyDiscoveryClient.class);
     private static ApplicationPolicyDiscoveryClient instance;
-    private ManagedChannel channel;
     private ApplicationPolicyDiscoveryServiceGrpc.ApplicationPolicyDiscoveryServiceStub stub;
     private StreamObserver<DiscoveryRequest> reqObserver;
     private final SubscriptionDataStoreImpl subscriptionDataStore;
-    private final String host;
-    private final int port;
 
     /**
      * This is a reference to the latest received response from the ADS.
@@ -64,7 +60,7 @@ public class ApplicationPolicyDiscoveryClient implements Runnable {
      * </p>
      */
 
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
     /**
      * This is a reference to the latest acked response from the ADS.
      * <p>
@@ -79,39 +75,21 @@ public class ApplicationPolicyDiscoveryClient implements Runnable {
      */
     private final Node node;
 
-    private ApplicationPolicyDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private ApplicationPolicyDiscoveryClient() {
         this.subscriptionDataStore = SubscriptionDataStoreImpl.getInstance();
         initConnection();
         this.node = XDSCommonUtils.generateXDSNode(AdapterConstants.COMMON_ENFORCER_LABEL);
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
+        XdsSnapshotManager.getInstance().restore(Constants.APPLICATION_POLICY_LIST_TYPE_URL, this::applyResponse);
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        logger.error("Application policy discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(logger, host, port);
-            this.stub = ApplicationPolicyDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopApplicationPolicyDiscoveryScheduling();
-        }
+        this.stub = ApplicationPolicyDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static ApplicationPolicyDiscoveryClient getInstance() {
         if (instance == null) {
-            String sdsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int sdsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new ApplicationPolicyDiscoveryClient(sdsHost, sdsPort);
+            instance = new ApplicationPolicyDiscoveryClient();
         }
         return instance;
     }
@@ -121,7 +99,7 @@ public class ApplicationPolicyDiscoveryClient implements Runnable {
         watchApplicationPolicies();
     }
 
-    public void watchApplicationPolicies() {
+    public synchronized void watchApplicationPolicies() {
         // TODO: (Praminda) implement a deadline with retries
         reqObserver = stub.streamApplicationPolicies(new StreamObserver<DiscoveryResponse>() {
             @Override
@@ -130,18 +108,16 @@ public class ApplicationPolicyDiscoveryClient implements Runnable {
                 logger.debug("Received Application Policy discovery response " + response);
                 XdsSchedulerManager.getInstance().stopApplicationPolicyDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<ApplicationPolicy> applicationPolicyList = new ArrayList<>();
-                    for (Any res : response.getResourcesList()) {
-                        applicationPolicyList.addAll(res.unpack(ApplicationPolicyList.class).getListList());
+                XdsResponseSequencer.getInstance().apply(Constants.APPLICATION_POLICY_LIST_TYPE_URL,
+                        response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response);
+                        ack(response);
+                    } catch (Exception e) {
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
                     }
-                    subscriptionDataStore.addApplicationPolicies(applicationPolicyList);
-                    logger.info("Number of application policies received : " + applicationPolicyList.size());
-                    ack();
-                } catch (Exception e) {
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                });
             }
 
             @Override
@@ -171,21 +147,31 @@ public class ApplicationPolicyDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response) throws InvalidProtocolBufferException {
+        List<ApplicationPolicy> applicationPolicyList = new ArrayList<>();
+        for (Any res : response.getResourcesList()) {
+            applicationPolicyList.addAll(res.unpack(ApplicationPolicyList.class).getListList());
+        }
+        subscriptionDataStore.addApplicationPolicies(applicationPolicyList);
+        logger.info("Number of application policies received : " + applicationPolicyList.size());
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server. This is part of the xDS
      * communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.APPLICATION_POLICY_LIST_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        XdsSnapshotManager.getInstance().save(Constants.APPLICATION_POLICY_LIST_TYPE_URL, latestACKed);
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
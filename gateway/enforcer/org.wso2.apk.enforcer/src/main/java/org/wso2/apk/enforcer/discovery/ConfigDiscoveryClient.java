@@ -21,18 +21,17 @@ package org.wso2.apk.enforcer.discovery;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.wso2.apk.enforcer.discovery.config.enforcer.Config;
 import org.wso2.apk.enforcer.discovery.service.config.ConfigDiscoveryServiceGrpc;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
-import org.wso2.apk.enforcer.util.GRPCUtils;
+import org.wso2.apk.enforcer.server.StartupPhases;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -45,19 +44,15 @@ import javax.validation.constraints.NotNull;
 public class ConfigDiscoveryClient implements Runnable {
     private static final Logger log = LogManager.getLogger(ConfigDiscoveryClient.class);
     private static ConfigDiscoveryClient instance;
-    private final String host;
-    private final int port;
     private final CountDownLatch latch;
     private ConfigDiscoveryServiceGrpc.ConfigDiscoveryServiceBlockingStub blockingStub;
-    private ManagedChannel channel;
     /**
      * Node struct for the discovery client
      */
     private final Node node;
+    private final RestorableConfigLoader configLoader = new RestorableConfigLoader(ConfigHolder::load);
 
-    private ConfigDiscoveryClient(String host, int port, CountDownLatch latch) {
-        this.host = host;
-        this.port = port;
+    private ConfigDiscoveryClient(CountDownLatch latch) {
         this.latch = latch;
         this.node = XDSCommonUtils.generateXDSNode(AdapterConstants.COMMON_ENFORCER_LABEL);
         initConnection();
@@ -72,9 +67,7 @@ public class ConfigDiscoveryClient implements Runnable {
      */
     public static ConfigDiscoveryClient init(@NotNull CountDownLatch latch) {
         if (instance == null) {
-            String adsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int adsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new ConfigDiscoveryClient(adsHost, adsPort, latch);
+            instance = new ConfigDiscoveryClient(latch);
         }
         return instance;
     }
@@ -94,22 +87,7 @@ public class ConfigDiscoveryClient implements Runnable {
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        log.error("Config discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(log, host, port);
-            this.blockingStub = ConfigDiscoveryServiceGrpc.newBlockingStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopConfigDiscoveryScheduling();
-        }
+        this.blockingStub = ConfigDiscoveryServiceGrpc.newBlockingStub(XdsChannelManager.getChannel());
     }
 
     public void requestInitConfig() {
@@ -118,22 +96,48 @@ public class ConfigDiscoveryClient implements Runnable {
                 .setTypeUrl(Constants.CONFIG_TYPE_URL).build();
         try {
             DiscoveryResponse res = blockingStub.withDeadlineAfter(60, TimeUnit.SECONDS).fetchConfigs(req);
-            shutdown();
             XdsSchedulerManager.getInstance().stopConfigDiscoveryScheduling();
 
-            // There's only one config root resource here. Therefore, taking 0 and no need to iterate
-            Config config = res.getResources(0).unpack(Config.class);
-            ConfigHolder.load(config);
-            this.latch.countDown();
+            if (configLoader.load(res)) {
+                configLoaded();
+            }
+            XdsSnapshotManager.getInstance().save(Constants.CONFIG_TYPE_URL, res);
         } catch (Exception e) {
             // Catching generic error here to wrap any gRPC communication errors in the runtime
             log.error("Error occurred during Config discovery", e);
             XdsSchedulerManager.getInstance().startConfigDiscoveryScheduling();
+            restoreConfig();
+        }
+    }
+
+    /**
+     * Start with the configuration persisted by a previous run, if the adapter is not reachable on the first attempt.
+     * Config discovery is retried in the background. The configuration received from the adapter is then only
+     * compared with the restored one, since the components built from the restored configuration are not
+     * re-initialized. The snapshot is updated, so a restart applies the configuration from the adapter.
+     */
+    private void restoreConfig() {
+        if (latch.getCount() == 0) {
+            return;
+        }
+        DiscoveryResponse res = XdsSnapshotManager.getInstance().load(Constants.CONFIG_TYPE_URL);
+        if (res == null) {
+            return;
+        }
+        try {
+            if (configLoader.restore(res)) {
+                log.info("Started with the configuration persisted by a previous run. Version: {}",
+                        res.getVersionInfo());
+                configLoaded();
+            }
+        } catch (Exception e) {
+            log.error("Error occurred while restoring the configuration from the snapshot", e);
         }
     }
 
-    public void shutdown() throws InterruptedException {
-        channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    private void configLoaded() {
+        StartupPhases.complete(StartupPhases.CONFIG_LOADED);
+        this.latch.countDown();
     }
 
     @Override
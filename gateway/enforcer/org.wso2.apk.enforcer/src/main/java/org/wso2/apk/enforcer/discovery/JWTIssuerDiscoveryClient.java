@@ -19,30 +19,29 @@
 package org.wso2.apk.enforcer.discovery;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
 import org.wso2.apk.enforcer.discovery.service.subscription.JWTIssuerDiscoveryServiceGrpc;
 
 import org.wso2.apk.enforcer.discovery.subscription.JWTIssuer;
 import org.wso2.apk.enforcer.discovery.subscription.JWTIssuerList;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreImpl;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Client to communicate with JWTIssuer discovery service at the adapter.
@@ -50,12 +49,9 @@ import java.util.concurrent.TimeUnit;
 public class JWTIssuerDiscoveryClient implements Runnable {
     private static final Logger logger = LogManager.getLogger(JWTIssuerDiscoveryClient.class);
     private static JWTIssuerDiscoveryClient instance;
-    private ManagedChannel channel;
     private JWTIssuerDiscoveryServiceGrpc.JWTIssuerDiscoveryServiceStub stub;
     private StreamObserver<DiscoveryRequest> reqObserver;
     private final SubscriptionDataStoreImpl subscriptionDataStore;
-    private final String host;
-    private final int port;
 
     /**
      * This is a reference to the latest received response from the ADS.
@@ -65,7 +61,7 @@ public class JWTIssuerDiscoveryClient implements Runnable {
      * </p>
      */
 
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
     /**
      * This is a reference to the latest acked response from the ADS.
      * <p>
@@ -80,39 +76,21 @@ public class JWTIssuerDiscoveryClient implements Runnable {
      */
     private final Node node;
 
-    private JWTIssuerDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private JWTIssuerDiscoveryClient() {
         this.subscriptionDataStore = SubscriptionDataStoreImpl.getInstance();
         initConnection();
         this.node = XDSCommonUtils.generateXDSNode(AdapterConstants.COMMON_ENFORCER_LABEL);
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
+        XdsSnapshotManager.getInstance().restore(Constants.JWT_ISSUER_LIST_TYPE_URL, this::applyResponse);
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        logger.error("JWTISsuer discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(logger, host, port);
-            this.stub = JWTIssuerDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopJWTIssuerDiscoveryScheduling();
-        }
+        this.stub = JWTIssuerDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static JWTIssuerDiscoveryClient getInstance() {
         if (instance == null) {
-            String sdsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int sdsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new JWTIssuerDiscoveryClient(sdsHost, sdsPort);
+            instance = new JWTIssuerDiscoveryClient();
         }
         return instance;
     }
@@ -122,7 +100,7 @@ public class JWTIssuerDiscoveryClient implements Runnable {
         watchJWTIssuers();
     }
 
-    public void watchJWTIssuers() {
+    public synchronized void watchJWTIssuers() {
         reqObserver = stub.streamJWTIssuers(new StreamObserver<>() {
             @Override
             public void onNext(DiscoveryResponse response) {
@@ -130,18 +108,16 @@ public class JWTIssuerDiscoveryClient implements Runnable {
                 logger.debug("Received JWTIssuer discovery response " + response);
                 XdsSchedulerManager.getInstance().stopJWTIssuerDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<JWTIssuer> jwtIssuers = new ArrayList<>();
-                    for (Any res : response.getResourcesList()) {
-                        jwtIssuers.addAll(res.unpack(JWTIssuerList.class).getListList());
+                XdsResponseSequencer.getInstance().apply(Constants.JWT_ISSUER_LIST_TYPE_URL,
+                        response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response);
+                        ack(response);
+                    } catch (Exception e) {
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
                     }
-                    subscriptionDataStore.addJWTIssuers(jwtIssuers);
-                    logger.info("Number of jwt issuers received : " + jwtIssuers.size());
-                    ack();
-                } catch (Exception e) {
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                });
             }
 
             @Override
@@ -171,21 +147,31 @@ public class JWTIssuerDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response) throws InvalidProtocolBufferException {
+        List<JWTIssuer> jwtIssuers = new ArrayList<>();
+        for (Any res : response.getResourcesList()) {
+            jwtIssuers.addAll(res.unpack(JWTIssuerList.class).getListList());
+        }
+        subscriptionDataStore.addJWTIssuers(jwtIssuers);
+        logger.info("Number of jwt issuers received : " + jwtIssuers.size());
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server. This is part of the xDS
      * communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.JWT_ISSUER_LIST_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        XdsSnapshotManager.getInstance().save(Constants.JWT_ISSUER_LIST_TYPE_URL, latestACKed);
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
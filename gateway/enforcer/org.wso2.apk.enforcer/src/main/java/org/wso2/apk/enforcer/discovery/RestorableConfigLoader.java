@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.discovery;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.discovery.config.enforcer.Config;
+
+import java.util.function.Consumer;
+
+/**
+ * Loads the enforcer configuration exactly once, either from the adapter or from the snapshot persisted by a previous
+ * run.
+ * <p>
+ * The components built at startup (token caches, TLS, tracing, the server event loops) read the configuration only
+ * once, so the configuration cannot be replaced while the enforcer is running. When the enforcer started from the
+ * snapshot, the configuration later received from the adapter is only compared with the restored one. A difference is
+ * logged, and the enforcer must be restarted to apply it.
+ * </p>
+ */
+class RestorableConfigLoader {
+
+    private static final Logger log = LogManager.getLogger(RestorableConfigLoader.class);
+
+    private final Consumer<Config> configConsumer;
+    private Config loadedConfig;
+    private String loadedVersion;
+    private boolean restored;
+
+    /**
+     * @param configConsumer applies the configuration to the enforcer. It is called at most once.
+     */
+    RestorableConfigLoader(Consumer<Config> configConsumer) {
+        this.configConsumer = configConsumer;
+    }
+
+    /**
+     * Load the configuration received from the adapter.
+     *
+     * @param res config discovery response from the adapter
+     * @return {@code true} if the configuration was applied, {@code false} if a configuration was already loaded
+     * @throws InvalidProtocolBufferException if the response does not hold a {@link Config}
+     */
+    synchronized boolean load(DiscoveryResponse res) throws InvalidProtocolBufferException {
+        Config config = unpack(res);
+        if (loadedConfig == null) {
+            apply(config, res.getVersionInfo());
+            return true;
+        }
+        if (res.getVersionInfo().equals(loadedVersion) || config.equals(loadedConfig)) {
+            log.info("Configuration received from the adapter matches the {} configuration. Version: {}",
+                    restored ? "restored" : "loaded", res.getVersionInfo());
+        } else {
+            log.error("Configuration received from the adapter (version: {}) differs from the {} configuration "
+                            + "(version: {}) the enforcer is running with. Restart the enforcer to apply it.",
+                    res.getVersionInfo(), restored ? "restored" : "loaded", loadedVersion);
+        }
+        return false;
+    }
+
+    /**
+     * Load the configuration persisted by a previous run.
+     *
+     * @param res config discovery response restored from the snapshot
+     * @return {@code true} if the configuration was applied, {@code false} if a configuration was already loaded
+     * @throws InvalidProtocolBufferException if the response does not hold a {@link Config}
+     */
+    synchronized boolean restore(DiscoveryResponse res) throws InvalidProtocolBufferException {
+        if (loadedConfig != null) {
+            return false;
+        }
+        apply(unpack(res), res.getVersionInfo());
+        restored = true;
+        return true;
+    }
+
+    synchronized boolean isRestored() {
+        return restored;
+    }
+
+    private void apply(Config config, String version) {
+        configConsumer.accept(config);
+        loadedConfig = config;
+        loadedVersion = version;
+    }
+
+    private static Config unpack(DiscoveryResponse res) throws InvalidProtocolBufferException {
+        // There's only one config root resource here. Therefore, taking 0 and no need to iterate
+        return res.getResources(0).unpack(Config.class);
+    }
+}
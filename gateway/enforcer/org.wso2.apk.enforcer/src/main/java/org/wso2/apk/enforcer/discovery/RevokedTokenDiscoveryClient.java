@@ -24,8 +24,6 @@ import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -35,13 +33,14 @@ import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
 import org.wso2.apk.enforcer.security.jwt.validator.RevokedJWTDataHolder;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Client to communicate with API discovery service at the adapter.
@@ -49,14 +48,11 @@ import java.util.concurrent.TimeUnit;
 public class RevokedTokenDiscoveryClient implements Runnable {
 
     private static RevokedTokenDiscoveryClient instance;
-    private ManagedChannel channel;
     private RevokedTokenDiscoveryServiceGrpc.RevokedTokenDiscoveryServiceStub stub;
     private static final Logger logger = LogManager.getLogger(RevokedTokenDiscoveryClient.class);
     private final RevokedJWTDataHolder revokedJWTDataHolder;
     private StreamObserver<DiscoveryRequest> reqObserver;
     private static final Logger log = LogManager.getLogger(RevokedTokenDiscoveryClient.class);
-    private final String host;
-    private final int port;
     /**
      * This is a reference to the latest received response from the ADS.
      * <p>
@@ -64,7 +60,7 @@ public class RevokedTokenDiscoveryClient implements Runnable {
      * latest received DiscoveryResponse which may not have been acked/nacked so far.
      * </p>
      */
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
     /**
      * This is a reference to the latest acked response from the ADS.
      * <p>
@@ -79,9 +75,7 @@ public class RevokedTokenDiscoveryClient implements Runnable {
      */
     private final Node node;
 
-    private RevokedTokenDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private RevokedTokenDiscoveryClient() {
         this.revokedJWTDataHolder = RevokedJWTDataHolder.getInstance();
         initConnection();
         // Since revoked tokens should be received by every enforcer, adapter creates a
@@ -89,32 +83,16 @@ public class RevokedTokenDiscoveryClient implements Runnable {
         // common enforcer label to avoid redundent snapshots
         this.node = XDSCommonUtils.generateXDSNode(AdapterConstants.COMMON_ENFORCER_LABEL);
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
+        XdsSnapshotManager.getInstance().restore(Constants.REVOKED_TOKEN_TYPE_URL, this::applyResponse);
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        log.error("Revoked  tokens discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(log, host, port);
-            this.stub = RevokedTokenDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopRevokedTokenDiscoveryScheduling();
-        }
+        this.stub = RevokedTokenDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static RevokedTokenDiscoveryClient getInstance() {
         if (instance == null) {
-            String adsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int adsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new RevokedTokenDiscoveryClient(adsHost, adsPort);
+            instance = new RevokedTokenDiscoveryClient();
         }
         return instance;
     }
@@ -124,7 +102,7 @@ public class RevokedTokenDiscoveryClient implements Runnable {
         watchRevokedTokens();
     }
 
-    public void watchRevokedTokens() {
+    public synchronized void watchRevokedTokens() {
         // TODO: (Praminda) implement a deadline with retries
         int maxSize = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getXdsMaxMsgSize());
         reqObserver = stub.withMaxInboundMessageSize(maxSize).streamTokens(new StreamObserver<>() {
@@ -133,16 +111,18 @@ public class RevokedTokenDiscoveryClient implements Runnable {
                 logger.info("Revoked  token event received with version : " + response.getVersionInfo());
                 XdsSchedulerManager.getInstance().stopRevokedTokenDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<RevokedToken> tokens = handleResponse(response);
-                    handleRevokedTokens(tokens);
-                    // TODO: (Praminda) fix recursive ack on ack failure
-                    ack();
-                } catch (Exception e) {
-                    logger.info(e);
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                XdsResponseSequencer.getInstance().apply(Constants.REVOKED_TOKEN_TYPE_URL,
+                        response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response);
+                        // TODO: (Praminda) fix recursive ack on ack failure
+                        ack(response);
+                    } catch (Exception e) {
+                        logger.info(e);
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
+                    }
+                });
             }
 
             @Override
@@ -172,21 +152,29 @@ public class RevokedTokenDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response) throws InvalidProtocolBufferException {
+        revokedJWTDataHolder.addRevokedJWTs(getRevokedJWTs(response));
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server.
      * This is part of the xDS communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.REVOKED_TOKEN_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        // A response only holds the tokens revoked since the previous one, so the merged revoked JWTs are persisted
+        // rather than the response.
+        XdsSnapshotManager.getInstance().save(Constants.REVOKED_TOKEN_TYPE_URL,
+                createSnapshotResponse(response.getVersionInfo(), revokedJWTDataHolder.getRevokedJWTMap()));
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
@@ -200,21 +188,40 @@ public class RevokedTokenDiscoveryClient implements Runnable {
         reqObserver.onNext(req);
     }
 
-    private void handleRevokedTokens(List<RevokedToken> tokens) {
-        for (RevokedToken revokedToken : tokens) {
-            revokedJWTDataHolder.addRevokedJWTToMap(revokedToken.getJti(), revokedToken.getExpirytime());
-        }
-    }
-
-    private List<RevokedToken> handleResponse(DiscoveryResponse response) throws InvalidProtocolBufferException {
-        List<RevokedToken> apis = new ArrayList<>();
+    /**
+     * Get the revoked JWTs of a discovery response.
+     *
+     * @param response revoked token discovery response
+     * @return map of the JWT ID to the expiry time of the revoked JWTs
+     * @throws InvalidProtocolBufferException if a resource of the response is not a {@link RevokedToken}
+     */
+    public static Map<String, Long> getRevokedJWTs(DiscoveryResponse response) throws InvalidProtocolBufferException {
+        Map<String, Long> revokedJWTs = new HashMap<>(response.getResourcesCount());
         for (Any res : response.getResourcesList()) {
-            apis.add(res.unpack(RevokedToken.class));
+            RevokedToken revokedToken = res.unpack(RevokedToken.class);
+            revokedJWTs.put(revokedToken.getJti(), revokedToken.getExpirytime());
         }
-        return apis;
+        return revokedJWTs;
     }
 
-    public void shutdown() throws InterruptedException {
-        channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    /**
+     * Create a discovery response holding all the given revoked JWTs, to be persisted for a warm start. Restoring it
+     * brings back every revoked JWT, not only the ones of the last response from the adapter.
+     *
+     * @param versionInfo version of the last response applied
+     * @param revokedJWTs map of the JWT ID to the expiry time of the revoked JWTs
+     * @return discovery response with a {@link RevokedToken} per revoked JWT
+     */
+    public static DiscoveryResponse createSnapshotResponse(String versionInfo, Map<String, Long> revokedJWTs) {
+        DiscoveryResponse.Builder response = DiscoveryResponse.newBuilder()
+                .setVersionInfo(versionInfo)
+                .setTypeUrl(Constants.REVOKED_TOKEN_TYPE_URL);
+        for (Map.Entry<String, Long> revokedJWT : revokedJWTs.entrySet()) {
+            response.addResources(Any.pack(RevokedToken.newBuilder()
+                    .setJti(revokedJWT.getKey())
+                    .setExpirytime(revokedJWT.getValue())
+                    .build()));
+        }
+        return response.build();
     }
 }
@@ -19,29 +19,28 @@
 package org.wso2.apk.enforcer.discovery;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.discovery.service.subscription.SubscriptionDiscoveryServiceGrpc;
 import org.wso2.apk.enforcer.discovery.subscription.Subscription;
 import org.wso2.apk.enforcer.discovery.subscription.SubscriptionList;
-import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreImpl;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Client to communicate with Subscription discovery service at the adapter.
@@ -49,12 +48,9 @@ import java.util.concurrent.TimeUnit;
 public class SubscriptionDiscoveryClient implements Runnable {
     private static final Logger logger = LogManager.getLogger(SubscriptionDiscoveryClient.class);
     private static SubscriptionDiscoveryClient instance;
-    private ManagedChannel channel;
     private SubscriptionDiscoveryServiceGrpc.SubscriptionDiscoveryServiceStub stub;
     private StreamObserver<DiscoveryRequest> reqObserver;
     private final SubscriptionDataStoreImpl subscriptionDataStore;
-    private final String host;
-    private final int port;
 
     /**
      * This is a reference to the latest received response from the ADS.
@@ -64,7 +60,7 @@ public class SubscriptionDiscoveryClient implements Runnable {
      * </p>
      */
 
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
     /**
      * This is a reference to the latest acked response from the ADS.
      * <p>
@@ -73,44 +69,35 @@ public class SubscriptionDiscoveryClient implements Runnable {
      * </p>
      */
     private DiscoveryResponse latestACKed;
+    /**
+     * Whether the next response is the first one received on the current stream.
+     * <p>
+     * Usage: The first response replaces all the subscriptions in the store, so that the store is resynced with the
+     * adapter whenever the stream is re-established. Later responses are applied as add, update and remove events.
+     * </p>
+     */
+    private volatile boolean resync = true;
     /**
      * Node struct for the discovery client
      */
     private final Node node;
 
-    private SubscriptionDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private SubscriptionDiscoveryClient() {
         this.subscriptionDataStore = SubscriptionDataStoreImpl.getInstance();
         initConnection();
         this.node = XDSCommonUtils.generateXDSNode(AdapterConstants.COMMON_ENFORCER_LABEL);
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
+        XdsSnapshotManager.getInstance().restore(Constants.SUBSCRIPTION_LIST_TYPE_URL,
+                response -> applyResponse(response, true));
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        logger.error("Subscription discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(logger, host, port);
-            this.stub = SubscriptionDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopSubscriptionDiscoveryScheduling();
-        }
+        this.stub = SubscriptionDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static SubscriptionDiscoveryClient getInstance() {
         if (instance == null) {
-            String sdsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int sdsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new SubscriptionDiscoveryClient(sdsHost, sdsPort);
+            instance = new SubscriptionDiscoveryClient();
         }
         return instance;
     }
@@ -120,7 +107,8 @@ public class SubscriptionDiscoveryClient implements Runnable {
         watchSubscriptions();
     }
 
-    public void watchSubscriptions() {
+    public synchronized void watchSubscriptions() {
+        resync = true;
         // TODO: (Praminda) implement a deadline with retries
         reqObserver = stub.streamSubscriptions(new StreamObserver<DiscoveryResponse>() {
             @Override
@@ -129,19 +117,18 @@ public class SubscriptionDiscoveryClient implements Runnable {
                 logger.debug("Received Subscription discovery response " + response);
                 XdsSchedulerManager.getInstance().stopSubscriptionDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<Subscription> subscriptionList = new ArrayList<>();
-                    for (Any res : response.getResourcesList()) {
-                        subscriptionList.addAll(res.unpack(SubscriptionList.class).getListList());
+                XdsResponseSequencer.getInstance().apply(Constants.SUBSCRIPTION_LIST_TYPE_URL,
+                        response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response, resync);
+                        resync = false;
+                        ack(response);
+
+                    } catch (Exception e) {
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
                     }
-                    subscriptionDataStore.addSubscriptions(subscriptionList);
-                    logger.info("Number of subscriptions received : " + subscriptionList.size());
-                    ack();
-
-                } catch (Exception e) {
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                });
             }
 
             @Override
@@ -171,21 +158,35 @@ public class SubscriptionDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response, boolean replace) throws InvalidProtocolBufferException {
+        List<Subscription> subscriptionList = new ArrayList<>();
+        for (Any res : response.getResourcesList()) {
+            subscriptionList.addAll(res.unpack(SubscriptionList.class).getListList());
+        }
+        if (replace) {
+            subscriptionDataStore.addSubscriptions(subscriptionList);
+        } else {
+            subscriptionDataStore.updateSubscriptions(subscriptionList);
+        }
+        logger.info("Number of subscriptions received : " + subscriptionList.size());
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server. This is part of the xDS
      * communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.SUBSCRIPTION_LIST_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        XdsSnapshotManager.getInstance().save(Constants.SUBSCRIPTION_LIST_TYPE_URL, latestACKed);
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
@@ -19,29 +19,28 @@
 package org.wso2.apk.enforcer.discovery;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
 import io.envoyproxy.envoy.config.core.v3.Node;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
-import io.grpc.ConnectivityState;
-import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.discovery.service.subscription.SubscriptionPolicyDiscoveryServiceGrpc;
 import org.wso2.apk.enforcer.discovery.subscription.SubscriptionPolicy;
 import org.wso2.apk.enforcer.discovery.subscription.SubscriptionPolicyList;
-import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.AdapterConstants;
 import org.wso2.apk.enforcer.constants.Constants;
 import org.wso2.apk.enforcer.discovery.common.XDSCommonUtils;
+import org.wso2.apk.enforcer.discovery.common.XdsChannelManager;
+import org.wso2.apk.enforcer.discovery.common.XdsResponseSequencer;
+import org.wso2.apk.enforcer.discovery.common.XdsSnapshotManager;
 import org.wso2.apk.enforcer.discovery.scheduler.XdsSchedulerManager;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreImpl;
-import org.wso2.apk.enforcer.util.GRPCUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Client to communicate with Subscription Policy discovery service at the adapter.
@@ -49,12 +48,9 @@ import java.util.concurrent.TimeUnit;
 public class SubscriptionPolicyDiscoveryClient implements Runnable {
     private static final Logger logger = LogManager.getLogger(SubscriptionPolicyDiscoveryClient.class);
     private static SubscriptionPolicyDiscoveryClient instance;
-    private ManagedChannel channel;
     private SubscriptionPolicyDiscoveryServiceGrpc.SubscriptionPolicyDiscoveryServiceStub stub;
     private StreamObserver<DiscoveryRequest> reqObserver;
     private final SubscriptionDataStoreImpl subscriptionDataStore;
-    private final String host;
-    private final int port;
 
     /**
      * This is a reference to the latest received response from the ADS.
@@ -64,7 +60,7 @@ public class SubscriptionPolicyDiscoveryClient implements Runnable {
      * </p>
      */
 
-    private DiscoveryResponse latestReceived;
+    private volatile DiscoveryResponse latestReceived;
     /**
      * This is a reference to the latest acked response from the ADS.
      * <p>
@@ -78,39 +74,21 @@ public class SubscriptionPolicyDiscoveryClient implements Runnable {
      */
     private final Node node;
 
-    private SubscriptionPolicyDiscoveryClient(String host, int port) {
-        this.host = host;
-        this.port = port;
+    private SubscriptionPolicyDiscoveryClient() {
         this.subscriptionDataStore = SubscriptionDataStoreImpl.getInstance();
         initConnection();
         this.node = XDSCommonUtils.generateXDSNode(AdapterConstants.COMMON_ENFORCER_LABEL);
         this.latestACKed = DiscoveryResponse.getDefaultInstance();
+        XdsSnapshotManager.getInstance().restore(Constants.SUBSCRIPTION_POLICY_LIST_TYPE_URL, this::applyResponse);
     }
 
     private void initConnection() {
-        if (GRPCUtils.isReInitRequired(channel)) {
-            if (channel != null && !channel.isShutdown()) {
-                channel.shutdownNow();
-                do {
-                    try {
-                        channel.awaitTermination(100, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        logger.error("Subscription policy discovery channel shutdown wait was interrupted", e);
-                    }
-                } while (!channel.isShutdown());
-            }
-            this.channel = GRPCUtils.createSecuredChannel(logger, host, port);
-            this.stub = SubscriptionPolicyDiscoveryServiceGrpc.newStub(channel);
-        } else if (channel.getState(true) == ConnectivityState.READY) {
-            XdsSchedulerManager.getInstance().stopSubscriptionPolicyDiscoveryScheduling();
-        }
+        this.stub = SubscriptionPolicyDiscoveryServiceGrpc.newStub(XdsChannelManager.getChannel());
     }
 
     public static SubscriptionPolicyDiscoveryClient getInstance() {
         if (instance == null) {
-            String sdsHost = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
-            int sdsPort = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
-            instance = new SubscriptionPolicyDiscoveryClient(sdsHost, sdsPort);
+            instance = new SubscriptionPolicyDiscoveryClient();
         }
         return instance;
     }
@@ -120,7 +98,7 @@ public class SubscriptionPolicyDiscoveryClient implements Runnable {
         watchSubscriptionPolicies();
     }
 
-    public void watchSubscriptionPolicies() {
+    public synchronized void watchSubscriptionPolicies() {
         // TODO: (Praminda) implement a deadline with retries
         reqObserver = stub.streamSubscriptionPolicies(new StreamObserver<>() {
             @Override
@@ -129,18 +107,16 @@ public class SubscriptionPolicyDiscoveryClient implements Runnable {
                 logger.debug("Received Subscription  policy discovery response " + response);
                 XdsSchedulerManager.getInstance().stopSubscriptionPolicyDiscoveryScheduling();
                 latestReceived = response;
-                try {
-                    List<SubscriptionPolicy> subscriptionPolicyList = new ArrayList<>();
-                    for (Any res : response.getResourcesList()) {
-                        subscriptionPolicyList.addAll(res.unpack(SubscriptionPolicyList.class).getListList());
+                XdsResponseSequencer.getInstance().apply(Constants.SUBSCRIPTION_POLICY_LIST_TYPE_URL,
+                        response.getSerializedSize(), () -> {
+                    try {
+                        applyResponse(response);
+                        ack(response);
+                    } catch (Exception e) {
+                        // catching generic error here to wrap any grpc communication errors in the runtime
+                        onError(e);
                     }
-                    subscriptionDataStore.addSubscriptionPolicies(subscriptionPolicyList);
-                    logger.info("Number of subscription policies received : " + subscriptionPolicyList.size());
-                    ack();
-                } catch (Exception e) {
-                    // catching generic error here to wrap any grpc communication errors in the runtime
-                    onError(e);
-                }
+                });
             }
 
             @Override
@@ -170,21 +146,31 @@ public class SubscriptionPolicyDiscoveryClient implements Runnable {
         }
     }
 
+    private void applyResponse(DiscoveryResponse response) throws InvalidProtocolBufferException {
+        List<SubscriptionPolicy> subscriptionPolicyList = new ArrayList<>();
+        for (Any res : response.getResourcesList()) {
+            subscriptionPolicyList.addAll(res.unpack(SubscriptionPolicyList.class).getListList());
+        }
+        subscriptionDataStore.addSubscriptionPolicies(subscriptionPolicyList);
+        logger.info("Number of subscription policies received : " + subscriptionPolicyList.size());
+    }
+
     /**
      * Send acknowledgement of successfully processed DiscoveryResponse from the xDS server. This is part of the xDS
      * communication protocol.
      */
-    private void ack() {
+    private synchronized void ack(DiscoveryResponse response) {
         DiscoveryRequest req = DiscoveryRequest.newBuilder()
                 .setNode(node)
-                .setVersionInfo(latestReceived.getVersionInfo())
-                .setResponseNonce(latestReceived.getNonce())
+                .setVersionInfo(response.getVersionInfo())
+                .setResponseNonce(response.getNonce())
                 .setTypeUrl(Constants.SUBSCRIPTION_POLICY_LIST_TYPE_URL).build();
         reqObserver.onNext(req);
-        latestACKed = latestReceived;
+        latestACKed = response;
+        XdsSnapshotManager.getInstance().save(Constants.SUBSCRIPTION_POLICY_LIST_TYPE_URL, latestACKed);
     }
 
-    private void nack(Throwable e) {
+    private synchronized void nack(Throwable e) {
         if (latestReceived == null) {
             return;
         }
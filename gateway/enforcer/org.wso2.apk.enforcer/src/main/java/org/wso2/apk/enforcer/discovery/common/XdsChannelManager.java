@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.discovery.common;
+
+import io.grpc.ManagedChannel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.config.ConfigHolder;
+import org.wso2.apk.enforcer.util.GRPCUtils;
+
+/**
+ * Holds the gRPC channel to the adapter, which is shared by all the discovery clients. The discovery streams of all
+ * the resource types are multiplexed over the single HTTP/2 connection of the channel, instead of each client
+ * opening a TLS connection of its own. The channel is never shut down by the clients; it reconnects on its own when
+ * the connection to the adapter is lost, while the clients only re-open their streams.
+ */
+public class XdsChannelManager {
+
+    private static final Logger logger = LogManager.getLogger(XdsChannelManager.class);
+    private static volatile ManagedChannel channel;
+
+    private XdsChannelManager() {
+    }
+
+    /**
+     * Get the channel to the adapter, creating it if it is not created yet.
+     *
+     * @return channel to the adapter
+     */
+    public static ManagedChannel getChannel() {
+        ManagedChannel current = channel;
+        if (current == null || current.isShutdown()) {
+            synchronized (XdsChannelManager.class) {
+                if (channel == null || channel.isShutdown()) {
+                    String host = ConfigHolder.getInstance().getEnvVarConfig().getAdapterHost();
+                    int port = Integer.parseInt(ConfigHolder.getInstance().getEnvVarConfig().getAdapterXdsPort());
+                    logger.info("Creating the discovery channel to the adapter at {}:{}", host, port);
+                    channel = GRPCUtils.createSecuredChannel(logger, host, port);
+                }
+                current = channel;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.discovery.common;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.constants.Constants;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.XdsMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies the discovery responses of all the resource types in dependency order. Until a resource type has applied
+ * its first response, the responses of the types depending on it (i.e. APIs depend on the JWT issuers) are held back
+ * and applied right after it, so that the enforcer does not serve a resource before the ones it refers to. A held
+ * back response is applied anyway if its dependencies do not arrive within {@link #DEPENDENCY_WAIT_TIMEOUT}, since
+ * the adapter may not have any resources of a type.
+ * <p>
+ * Responses of a type are applied one at a time, in the order they were passed to {@link #apply}. A response that is
+ * released after a newer response of the same type was applied (i.e. a held back response, or a response restored
+ * from the snapshot) is dropped, so it does not overwrite the newer data.
+ * </p>
+ */
+public class XdsResponseSequencer {
+
+    private static final Logger logger = LogManager.getLogger(XdsResponseSequencer.class);
+    private static final long DEPENDENCY_WAIT_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    private static final XdsResponseSequencer instance = new XdsResponseSequencer(createDependencies(),
+            DEPENDENCY_WAIT_TIMEOUT);
+
+    private final Map<String, List<String>> dependencies;
+    private final long dependencyWaitTimeout;
+    private final Set<String> appliedTypes = ConcurrentHashMap.newKeySet();
+    private final Map<String, Runnable> heldBackResponses = new HashMap<>();
+    private final Map<String, TypeState> typeStates = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "xds-response-sequencer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    XdsResponseSequencer(Map<String, List<String>> dependencies, long dependencyWaitTimeout) {
+        this.dependencies = dependencies;
+        this.dependencyWaitTimeout = dependencyWaitTimeout;
+    }
+
+    private static Map<String, List<String>> createDependencies() {
+        Map<String, List<String>> dependencies = new HashMap<>();
+        dependencies.put(Constants.API_TYPE_URL, Collections.singletonList(Constants.JWT_ISSUER_LIST_TYPE_URL));
+        dependencies.put(Constants.SUBSCRIPTION_LIST_TYPE_URL,
+                List.of(Constants.APPLICATION_LIST_TYPE_URL, Constants.API_LIST_TYPE_URL));
+        dependencies.put(Constants.APPLICATION_KEY_MAPPING_LIST_TYPE_URL,
+                Collections.singletonList(Constants.APPLICATION_LIST_TYPE_URL));
+        return dependencies;
+    }
+
+    public static XdsResponseSequencer getInstance() {
+        return instance;
+    }
+
+    /**
+     * Apply a discovery response, or hold it back until the resource types it depends on are applied. A response
+     * held back is replaced by a newer response of the same type.
+     *
+     * @param typeUrl      type URL of the response
+     * @param responseSize serialized size of the response
+     * @param applyTask    task that applies the response and acknowledges it
+     */
+    public void apply(String typeUrl, int responseSize, Runnable applyTask) {
+        TypeState typeState = typeStates.computeIfAbsent(typeUrl, key -> new TypeState());
+        long sequence = typeState.nextSequence();
+        Runnable task = () -> applyInOrder(typeUrl, typeState, sequence, responseSize, applyTask);
+        synchronized (this) {
+            if (!isReady(typeUrl)) {
+                boolean waiting = heldBackResponses.put(typeUrl, task) != null;
+                logger.info("Discovery response of type {} is held back until {} are applied", typeUrl,
+                        dependencies.get(typeUrl));
+                if (!waiting) {
+                    timeoutExecutor.schedule(() -> releaseOnTimeout(typeUrl), dependencyWaitTimeout,
+                            TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            // A newer response supersedes the one held back.
+            heldBackResponses.remove(typeUrl);
+        }
+        task.run();
+    }
+
+    private void applyInOrder(String typeUrl, TypeState typeState, long sequence, int responseSize,
+                              Runnable applyTask) {
+        synchronized (typeState) {
+            if (sequence <= typeState.appliedSequence) {
+                logger.debug("Discovery response of type {} is dropped as a newer response is already applied",
+                        typeUrl);
+                return;
+            }
+            typeState.appliedSequence = sequence;
+            long startTime = System.nanoTime();
+            applyTask.run();
+            if (JMXUtils.isJMXMetricsEnabled()) {
+                XdsMetrics.getInstance().recordResponse(typeUrl, responseSize,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
+        }
+        if (appliedTypes.add(typeUrl)) {
+            releaseReadyResponses();
+        }
+    }
+
+    private void releaseReadyResponses() {
+        List<Runnable> readyTasks = new ArrayList<>();
+        synchronized (this) {
+            heldBackResponses.entrySet().removeIf(entry -> {
+                if (isReady(entry.getKey())) {
+                    readyTasks.add(entry.getValue());
+                    return true;
+                }
+                return false;
+            });
+        }
+        // Each task takes the lock of its type and is dropped if a newer response of the type was applied meanwhile.
+        readyTasks.forEach(Runnable::run);
+    }
+
+    private void releaseOnTimeout(String typeUrl) {
+        Runnable task;
+        synchronized (this) {
+            task = heldBackResponses.remove(typeUrl);
+        }
+        if (task != null) {
+            logger.warn("Applying the discovery response of type {} without waiting further for {}", typeUrl,
+                    dependencies.get(typeUrl));
+            task.run();
+        }
+    }
+
+    private boolean isReady(String typeUrl) {
+        return appliedTypes.contains(typeUrl)
+                || appliedTypes.containsAll(dependencies.getOrDefault(typeUrl, Collections.emptyList()));
+    }
+
+    /**
+     * Order of the responses of a resource type. Also used as the lock the responses of the type are applied with.
+     */
+    private static final class TypeState {
+        private final AtomicLong receivedSequence = new AtomicLong();
+        private long appliedSequence;
+
+        private long nextSequence() {
+            return receivedSequence.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.discovery.common;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot file of a discovery response. The file holds a format version, the xDS version of the response, a CRC32
+ * checksum and the serialized response, and is accessed through a memory mapping.
+ * <p>
+ * A file is written to a temporary file which is then moved in place, so a crash while writing leaves the previous
+ * file intact. Where the file system supports POSIX permissions, the files are readable and writable by the owner
+ * only, as the responses include the enforcer configuration and credentials.
+ * </p>
+ */
+final class XdsSnapshotFile {
+
+    private static final Logger logger = LogManager.getLogger(XdsSnapshotFile.class);
+
+    static final int MAGIC = 0x58445353;
+    static final int FORMAT_VERSION = 1;
+    // magic, format version, checksum, xDS version length and response length
+    static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    private static final String OWNER_ONLY_FILE_PERMISSIONS = "rw-------";
+    private static final String OWNER_ONLY_DIR_PERMISSIONS = "rwx------";
+
+    private final String version;
+    private final ByteBuffer response;
+
+    private XdsSnapshotFile(String version, ByteBuffer response) {
+        this.version = version;
+        this.response = response;
+    }
+
+    /**
+     * Writes the serialized response to the given buffer.
+     */
+    @FunctionalInterface
+    interface ResponseWriter {
+        void write(ByteBuffer buffer) throws IOException;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the serialized response.
+     *
+     * @return read-only view of the serialized response
+     */
+    ByteBuffer getResponse() {
+        return response.asReadOnlyBuffer();
+    }
+
+    /**
+     * Read a snapshot file.
+     *
+     * @param file snapshot file
+     * @return the snapshot, or null if the file has an unknown format, is truncated or is corrupted
+     * @throws IOException if the file cannot be read
+     */
+    static XdsSnapshotFile read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                logger.warn("Ignoring the snapshot {} as its format is not supported", file);
+                return null;
+            }
+            long checksum = buffer.getLong();
+            int versionLength = buffer.getInt();
+            int responseLength = buffer.getInt();
+            if (versionLength < 0 || responseLength < 0
+                    || buffer.remaining() != (long) versionLength + responseLength) {
+                logger.warn("Ignoring the snapshot {} as it is truncated", file);
+                return null;
+            }
+            byte[] version = new byte[versionLength];
+            buffer.get(version);
+            ByteBuffer response = buffer.slice();
+            CRC32 crc = new CRC32();
+            crc.update(response.duplicate());
+            if (crc.getValue() != checksum) {
+                logger.warn("Ignoring the snapshot {} as it is corrupted", file);
+                return null;
+            }
+            return new XdsSnapshotFile(new String(version, StandardCharsets.UTF_8), response);
+        }
+    }
+
+    /**
+     * Write a snapshot file, replacing the existing file if any.
+     *
+     * @param file           snapshot file
+     * @param version        xDS version of the response
+     * @param responseLength length of the serialized response
+     * @param responseWriter writes the serialized response
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, String version, int responseLength, ResponseWriter responseWriter)
+            throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_FILE_EXTENSION);
+        byte[] versionBytes = version.getBytes(StandardCharsets.UTF_8);
+        // A temporary file left by a crash may have other permissions, so the file is always created anew.
+        Files.deleteIfExists(tempFile);
+        Set<StandardOpenOption> options = EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try (FileChannel channel = FileChannel.open(tempFile, options,
+                ownerOnlyPermissions(file, OWNER_ONLY_FILE_PERMISSIONS))) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + versionBytes.length + responseLength);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(0).putInt(versionBytes.length)
+                    .putInt(responseLength).put(versionBytes);
+            ByteBuffer response = buffer.slice();
+            responseWriter.write(response);
+            response.flip();
+            CRC32 crc = new CRC32();
+            crc.update(response);
+            buffer.putLong(8, crc.getValue());
+            buffer.force();
+        }
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Create the snapshot directory, accessible by the owner only, if it does not exist.
+     *
+     * @param dir snapshot directory
+     * @return the directory
+     * @throws IOException if the directory cannot be created
+     */
+    static Path createDirectory(Path dir) throws IOException {
+        return Files.createDirectories(dir, ownerOnlyPermissions(dir, OWNER_ONLY_DIR_PERMISSIONS));
+    }
+
+    private static FileAttribute<?>[] ownerOnlyPermissions(Path path, String permissions) {
+        if (!path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(
+                permissions))};
+    }
+}
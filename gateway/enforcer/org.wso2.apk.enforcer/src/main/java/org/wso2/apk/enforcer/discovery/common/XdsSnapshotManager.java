@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.discovery.common;
+
+import com.google.protobuf.CodedOutputStream;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.config.EnvVarConfig;
+import org.wso2.apk.enforcer.constants.Constants;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.StartupMetrics;
+import org.wso2.apk.enforcer.server.StartupPhases;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persists the last discovery response ACKed for each resource type to a memory-mapped file in XDS_SNAPSHOT_DIR, and
+ * restores them when the enforcer restarts. A restored response is applied like a response from the adapter, so the
+ * enforcer can serve requests before it connects to the adapter. The first response from the adapter then replaces
+ * the restored data. The enforcer configuration is the exception: it is loaded only once, so a restored configuration
+ * is kept until the enforcer restarts.
+ * <p>
+ * Revoked token responses only hold the tokens revoked since the previous response, so the revoked token client saves
+ * a response with all the revoked tokens it holds instead of the last response, and the responses from the adapter
+ * are added to the restored revoked tokens.
+ * </p>
+ * <p>
+ * Files are written on a background thread, to a temporary file which is then moved in place, so a crash while
+ * writing leaves the previous snapshot intact. A file with an unknown format or a checksum mismatch is ignored.
+ * </p>
+ * <p>
+ * The snapshots hold every streamed resource type, including the enforcer configuration, the JWT issuers and the
+ * application key mappings, so they contain credentials in plaintext. The snapshot directory and files are created
+ * readable by the enforcer user only. XDS_SNAPSHOT_DIR must not be on a volume shared with other containers.
+ * </p>
+ * <p>
+ * The first ACK of each type also marks a startup phase (see {@link StartupPhases}).
+ * </p>
+ */
+public class XdsSnapshotManager {
+
+    private static final Logger logger = LogManager.getLogger(XdsSnapshotManager.class);
+    private static final XdsSnapshotManager instance = new XdsSnapshotManager();
+
+    private static final String FILE_EXTENSION = ".snapshot";
+
+    // Resource types streamed from the adapter. The enforcer is synced with the adapter once all of them are ACKed.
+    private static final List<String> STREAMED_TYPES = List.of(Constants.API_TYPE_URL, Constants.API_LIST_TYPE_URL,
+            Constants.SUBSCRIPTION_LIST_TYPE_URL, Constants.APPLICATION_LIST_TYPE_URL,
+            Constants.APPLICATION_KEY_MAPPING_LIST_TYPE_URL, Constants.APPLICATION_POLICY_LIST_TYPE_URL,
+            Constants.SUBSCRIPTION_POLICY_LIST_TYPE_URL, Constants.JWT_ISSUER_LIST_TYPE_URL,
+            Constants.REVOKED_TOKEN_TYPE_URL);
+
+    private final Path snapshotDir;
+    private final Map<String, DiscoveryResponse> pendingWrites = new ConcurrentHashMap<>();
+    private final Set<String> syncedTypes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService writeExecutor;
+
+    private XdsSnapshotManager() {
+        this.snapshotDir = initSnapshotDir(EnvVarConfig.getInstance().getXdsSnapshotDir());
+        this.writeExecutor = snapshotDir == null ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "xds-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static XdsSnapshotManager getInstance() {
+        return instance;
+    }
+
+    /**
+     * Handles a discovery response received from the adapter or restored from the snapshot.
+     */
+    @FunctionalInterface
+    public interface ResponseHandler {
+        void handle(DiscoveryResponse response) throws Exception;
+    }
+
+    /**
+     * Load the persisted response of the given type.
+     *
+     * @param typeUrl type URL of the response
+     * @return persisted response, or null if there is no valid snapshot of the type
+     */
+    public DiscoveryResponse load(String typeUrl) {
+        if (snapshotDir == null) {
+            return null;
+        }
+        Path file = getFile(typeUrl);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            XdsSnapshotFile snapshot = XdsSnapshotFile.read(file);
+            if (snapshot == null) {
+                return null;
+            }
+            DiscoveryResponse response = DiscoveryResponse.parseFrom(snapshot.getResponse());
+            logger.info("Loaded the snapshot of type {} with version {}", typeUrl, snapshot.getVersion());
+            if (JMXUtils.isJMXMetricsEnabled()) {
+                StartupMetrics.getInstance().recordRestoredSnapshot(getTypeName(typeUrl), snapshot.getVersion());
+            }
+            return response;
+        } catch (IOException e) {
+            logger.error("Error occurred while loading the snapshot {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Apply the persisted response of the given type through the {@link XdsResponseSequencer}, as if it was received
+     * from the adapter. This must be called before the stream of the type is opened, so that the sequencer drops the
+     * restored response if it is held back until after a response from the adapter is applied.
+     *
+     * @param typeUrl type URL of the response
+     * @param handler applies the response
+     */
+    public void restore(String typeUrl, ResponseHandler handler) {
+        DiscoveryResponse response = load(typeUrl);
+        if (response == null) {
+            return;
+        }
+        XdsResponseSequencer.getInstance().apply(typeUrl, response.getSerializedSize(), () -> {
+            try {
+                handler.handle(response);
+                StartupPhases.complete(getTypeName(typeUrl) + "Restored");
+            } catch (Exception e) {
+                logger.error("Error occurred while restoring the snapshot of type {}", typeUrl, e);
+            }
+        });
+    }
+
+    /**
+     * Record a response ACKed by the enforcer and persist it in the background. If a newer response of the type is
+     * ACKed before the previous one is written, only the newer one is written.
+     *
+     * @param typeUrl  type URL of the response
+     * @param response ACKed response
+     */
+    public void save(String typeUrl, DiscoveryResponse response) {
+        if (syncedTypes.add(typeUrl)) {
+            StartupPhases.complete(getTypeName(typeUrl) + "Synced");
+            if (syncedTypes.containsAll(STREAMED_TYPES)) {
+                StartupPhases.complete(StartupPhases.ADAPTER_SYNCED);
+            }
+        }
+        if (snapshotDir == null) {
+            return;
+        }
+        if (pendingWrites.put(typeUrl, response) == null) {
+            writeExecutor.execute(() -> write(typeUrl));
+        }
+    }
+
+    private void write(String typeUrl) {
+        DiscoveryResponse response = pendingWrites.remove(typeUrl);
+        if (response == null) {
+            return;
+        }
+        try {
+            XdsSnapshotFile.write(getFile(typeUrl), response.getVersionInfo(), response.getSerializedSize(),
+                    buffer -> {
+                        CodedOutputStream output = CodedOutputStream.newInstance(buffer);
+                        response.writeTo(output);
+                        output.flush();
+                    });
+            logger.debug("Wrote the snapshot of type {} with version {}", typeUrl, response.getVersionInfo());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error occurred while writing the snapshot of type {}", typeUrl, e);
+        }
+    }
+
+    private Path getFile(String typeUrl) {
+        return snapshotDir.resolve(getTypeName(typeUrl) + FILE_EXTENSION);
+    }
+
+    private static String getTypeName(String typeUrl) {
+        return typeUrl.substring(typeUrl.lastIndexOf('.') + 1);
+    }
+
+    private static Path initSnapshotDir(String snapshotDir) {
+        if (StringUtils.isEmpty(snapshotDir)) {
+            logger.debug("{} is not set. Discovery responses are not persisted.", EnvVarConfig.XDS_SNAPSHOT_DIR);
+            return null;
+        }
+        try {
+            Path dir = XdsSnapshotFile.createDirectory(Paths.get(snapshotDir));
+            logger.info("Discovery responses are persisted in {}", dir);
+            return dir;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error occurred while creating the snapshot directory {}. Discovery responses are not "
+                    + "persisted.", snapshotDir, e);
+            return null;
+        }
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.wso2.apk.enforcer.discovery.scheduler;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.config.EnvVarConfig;
 import org.wso2.apk.enforcer.discovery.ApiDiscoveryClient;
 import org.wso2.apk.enforcer.discovery.ApiListDiscoveryClient;
@@ -29,32 +31,35 @@ import org.wso2.apk.enforcer.discovery.JWTIssuerDiscoveryClient;
 import org.wso2.apk.enforcer.discovery.RevokedTokenDiscoveryClient;
 import org.wso2.apk.enforcer.discovery.SubscriptionDiscoveryClient;
 import org.wso2.apk.enforcer.discovery.SubscriptionPolicyDiscoveryClient;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.XdsMetrics;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Manages all the scheduling tasks that runs for retrying discovery requests.
+ * Manages all the scheduling tasks that runs for retrying discovery requests. All the discovery clients share a single
+ * channel to the adapter, hence they also share the back-off: the clients whose streams failed are retried together,
+ * and the delay between the retries grows exponentially until any of the clients receives a response.
  */
 public class XdsSchedulerManager {
+    private static final Logger logger = LogManager.getLogger(XdsSchedulerManager.class);
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private static final double RETRY_JITTER = 0.2;
     private static int retryPeriod;
     private static volatile XdsSchedulerManager instance;
     private static ScheduledExecutorService discoveryClientScheduler;
-    private ScheduledFuture<?> apiDiscoveryScheduledFuture;
-    private ScheduledFuture<?> apiDiscoveryListScheduledFuture;
-    private ScheduledFuture<?> applicationDiscoveryScheduledFuture;
-    private ScheduledFuture<?> jwtIssuerDiscoveryScheduledFuture;
-
-    private ScheduledFuture<?> applicationKeyMappingDiscoveryScheduledFuture;
-    private ScheduledFuture<?> keyManagerDiscoveryScheduledFuture;
-    private ScheduledFuture<?> revokedTokenDiscoveryScheduledFuture;
-    private ScheduledFuture<?> subscriptionDiscoveryScheduledFuture;
-    private ScheduledFuture<?> throttleDataDiscoveryScheduledFuture;
-    private ScheduledFuture<?> configDiscoveryScheduledFuture;
-    private ScheduledFuture<?> applicationPolicyDiscoveryScheduledFuture;
-    private ScheduledFuture<?> subscriptionPolicyDiscoveryScheduledFuture;
+    // Clients to be retried in the next retry, in the order their streams failed.
+    private final Set<Runnable> failedClients = new LinkedHashSet<>();
+    private ScheduledFuture<?> retryScheduledFuture;
+    private int retryAttempt;
 
     public static XdsSchedulerManager getInstance() {
         if (instance == null) {
@@ -69,143 +74,129 @@ public class XdsSchedulerManager {
         return instance;
     }
 
-    public synchronized void startAPIDiscoveryScheduling() {
-        if (apiDiscoveryScheduledFuture == null || apiDiscoveryScheduledFuture.isDone()) {
-            apiDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(ApiDiscoveryClient.getInstance(), 1, retryPeriod, TimeUnit.SECONDS);
-        }
+    public void startAPIDiscoveryScheduling() {
+        startScheduling(ApiDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopAPIDiscoveryScheduling() {
-        if (apiDiscoveryScheduledFuture != null && !apiDiscoveryScheduledFuture.isDone()) {
-            apiDiscoveryScheduledFuture.cancel(false);
-        }
+    public void stopAPIDiscoveryScheduling() {
+        stopScheduling(ApiDiscoveryClient.getInstance());
     }
 
-    public synchronized void startAPIListDiscoveryScheduling() {
-        if (apiDiscoveryListScheduledFuture == null || apiDiscoveryListScheduledFuture.isDone()) {
-            apiDiscoveryListScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(ApiListDiscoveryClient.getInstance(), 1, retryPeriod, TimeUnit.SECONDS);
-        }
+    public void startAPIListDiscoveryScheduling() {
+        startScheduling(ApiListDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopAPIListDiscoveryScheduling() {
-        if (apiDiscoveryListScheduledFuture != null && !apiDiscoveryListScheduledFuture.isDone()) {
-            apiDiscoveryListScheduledFuture.cancel(false);
-        }
+    public void stopAPIListDiscoveryScheduling() {
+        stopScheduling(ApiListDiscoveryClient.getInstance());
     }
 
-    public synchronized void startApplicationDiscoveryScheduling() {
-        if (applicationDiscoveryScheduledFuture == null || applicationDiscoveryScheduledFuture.isDone()) {
-            applicationDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(ApplicationDiscoveryClient.getInstance(), 1, retryPeriod, TimeUnit.SECONDS);
-        }
+    public void startApplicationDiscoveryScheduling() {
+        startScheduling(ApplicationDiscoveryClient.getInstance());
     }
-    public synchronized void startJWTIssuerDiscoveryScheduling(){
-        if (jwtIssuerDiscoveryScheduledFuture == null || jwtIssuerDiscoveryScheduledFuture.isDone()) {
-            jwtIssuerDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(JWTIssuerDiscoveryClient.getInstance(), 1, retryPeriod, TimeUnit.SECONDS);
-        }
+
+    public void stopApplicationDiscoveryScheduling() {
+        stopScheduling(ApplicationDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopApplicationDiscoveryScheduling() {
-        if (applicationDiscoveryScheduledFuture != null && !applicationDiscoveryScheduledFuture.isDone()) {
-            applicationDiscoveryScheduledFuture.cancel(false);
-        }
+    public void startJWTIssuerDiscoveryScheduling() {
+        startScheduling(JWTIssuerDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopJWTIssuerDiscoveryScheduling() {
-        if (jwtIssuerDiscoveryScheduledFuture != null && !jwtIssuerDiscoveryScheduledFuture.isDone()) {
-            jwtIssuerDiscoveryScheduledFuture.cancel(false);
-        }
+    public void stopJWTIssuerDiscoveryScheduling() {
+        stopScheduling(JWTIssuerDiscoveryClient.getInstance());
     }
 
-    public synchronized void startApplicationKeyMappingDiscoveryScheduling() {
-        if (applicationKeyMappingDiscoveryScheduledFuture == null || applicationKeyMappingDiscoveryScheduledFuture
-                .isDone()) {
-            applicationKeyMappingDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(ApplicationKeyMappingDiscoveryClient.getInstance(), 1, retryPeriod,
-                            TimeUnit.SECONDS);
-        }
+    public void startApplicationKeyMappingDiscoveryScheduling() {
+        startScheduling(ApplicationKeyMappingDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopApplicationKeyMappingDiscoveryScheduling() {
-        if (applicationKeyMappingDiscoveryScheduledFuture != null && !applicationKeyMappingDiscoveryScheduledFuture
-                .isDone()) {
-            applicationKeyMappingDiscoveryScheduledFuture.cancel(false);
-        }
+    public void stopApplicationKeyMappingDiscoveryScheduling() {
+        stopScheduling(ApplicationKeyMappingDiscoveryClient.getInstance());
     }
 
+    public void startRevokedTokenDiscoveryScheduling() {
+        startScheduling(RevokedTokenDiscoveryClient.getInstance());
+    }
 
+    public void stopRevokedTokenDiscoveryScheduling() {
+        stopScheduling(RevokedTokenDiscoveryClient.getInstance());
+    }
 
-    public synchronized void startRevokedTokenDiscoveryScheduling() {
-        if (revokedTokenDiscoveryScheduledFuture == null || revokedTokenDiscoveryScheduledFuture.isDone()) {
-            revokedTokenDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(RevokedTokenDiscoveryClient.getInstance(), 1, retryPeriod,
-                            TimeUnit.SECONDS);
-        }
+    public void startSubscriptionDiscoveryScheduling() {
+        startScheduling(SubscriptionDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopRevokedTokenDiscoveryScheduling() {
-        if (revokedTokenDiscoveryScheduledFuture != null && !revokedTokenDiscoveryScheduledFuture.isDone()) {
-            revokedTokenDiscoveryScheduledFuture.cancel(false);
-        }
+    public void stopSubscriptionDiscoveryScheduling() {
+        stopScheduling(SubscriptionDiscoveryClient.getInstance());
     }
 
-    public synchronized void startSubscriptionDiscoveryScheduling() {
-        if (subscriptionDiscoveryScheduledFuture == null || subscriptionDiscoveryScheduledFuture.isDone()) {
-            subscriptionDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(SubscriptionDiscoveryClient.getInstance(), 1, retryPeriod,
-                            TimeUnit.SECONDS);
-        }
+    public void startConfigDiscoveryScheduling() {
+        startScheduling(ConfigDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopSubscriptionDiscoveryScheduling() {
-        if (subscriptionDiscoveryScheduledFuture != null && !subscriptionDiscoveryScheduledFuture.isDone()) {
-            subscriptionDiscoveryScheduledFuture.cancel(false);
-        }
+    public void stopConfigDiscoveryScheduling() {
+        stopScheduling(ConfigDiscoveryClient.getInstance());
     }
 
-    public synchronized void startConfigDiscoveryScheduling() {
-        if (configDiscoveryScheduledFuture == null || configDiscoveryScheduledFuture.isDone()) {
-            configDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(ConfigDiscoveryClient.getInstance(), 1, retryPeriod,
-                            TimeUnit.SECONDS);
-        }
+    public void startApplicationPolicyDiscoveryScheduling() {
+        startScheduling(ApplicationPolicyDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopConfigDiscoveryScheduling() {
-        if (configDiscoveryScheduledFuture != null && !configDiscoveryScheduledFuture.isDone()) {
-            configDiscoveryScheduledFuture.cancel(false);
-        }
+    public void stopApplicationPolicyDiscoveryScheduling() {
+        stopScheduling(ApplicationPolicyDiscoveryClient.getInstance());
     }
 
-    public synchronized void startApplicationPolicyDiscoveryScheduling() {
-        if (applicationPolicyDiscoveryScheduledFuture == null || applicationPolicyDiscoveryScheduledFuture.isDone()) {
-            applicationPolicyDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(ApplicationPolicyDiscoveryClient.getInstance(), 1, retryPeriod,
-                            TimeUnit.SECONDS);
-        }
+    public void startSubscriptionPolicyDiscoveryScheduling() {
+        startScheduling(SubscriptionPolicyDiscoveryClient.getInstance());
     }
 
-    public synchronized void stopApplicationPolicyDiscoveryScheduling() {
-        if (applicationPolicyDiscoveryScheduledFuture != null && !applicationPolicyDiscoveryScheduledFuture.isDone()) {
-            applicationPolicyDiscoveryScheduledFuture.cancel(false);
-        }
+    public void stopSubscriptionPolicyDiscoveryScheduling() {
+        stopScheduling(SubscriptionPolicyDiscoveryClient.getInstance());
     }
 
-    public synchronized void startSubscriptionPolicyDiscoveryScheduling() {
-        if (subscriptionPolicyDiscoveryScheduledFuture == null || subscriptionPolicyDiscoveryScheduledFuture.isDone()) {
-            subscriptionPolicyDiscoveryScheduledFuture = discoveryClientScheduler
-                    .scheduleWithFixedDelay(SubscriptionPolicyDiscoveryClient.getInstance(), 1, retryPeriod,
-                            TimeUnit.SECONDS);
+    private synchronized void startScheduling(Runnable client) {
+        failedClients.add(client);
+        if (retryScheduledFuture == null || retryScheduledFuture.isDone()) {
+            long delay = getRetryDelay(retryAttempt++);
+            logger.debug("Retrying the discovery requests in {} ms", delay);
+            retryScheduledFuture = discoveryClientScheduler.schedule(this::retryFailedClients, delay,
+                    TimeUnit.MILLISECONDS);
         }
     }
 
-    public synchronized void stopSubscriptionPolicyDiscoveryScheduling() {
-        if (subscriptionPolicyDiscoveryScheduledFuture != null && !subscriptionPolicyDiscoveryScheduledFuture
-                .isDone()) {
-            subscriptionPolicyDiscoveryScheduledFuture.cancel(false);
+    private synchronized void stopScheduling(Runnable client) {
+        failedClients.remove(client);
+        // A response from the adapter means that the channel is healthy again.
+        retryAttempt = 0;
+    }
+
+    private void retryFailedClients() {
+        List<Runnable> clients;
+        synchronized (this) {
+            clients = new ArrayList<>(failedClients);
+            failedClients.clear();
         }
+        for (Runnable client : clients) {
+            if (JMXUtils.isJMXMetricsEnabled()) {
+                XdsMetrics.getInstance().recordRetry();
+            }
+            try {
+                client.run();
+            } catch (RuntimeException e) {
+                logger.error("Error occurred while retrying the discovery request", e);
+                startScheduling(client);
+            }
+        }
+    }
+
+    /**
+     * Get the delay before the given retry attempt. The delay starts with the configured retry period and doubles
+     * with each attempt, with a random jitter so that the enforcers do not reconnect to the adapter in lockstep.
+     */
+    private static long getRetryDelay(int attempt) {
+        long baseDelay = TimeUnit.SECONDS.toMillis(retryPeriod);
+        long delay = Math.min(baseDelay << Math.min(attempt, 16), Math.max(baseDelay, MAX_RETRY_DELAY_MILLIS));
+        double jitter = 1 + ThreadLocalRandom.current().nextDouble(-RETRY_JITTER, RETRY_JITTER);
+        return (long) (delay * jitter);
     }
 }
@@ -1,48 +0,0 @@
-/*
- *  Copyright (c) 2021, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
- *
- *  WSO2 LLC. licenses this file to you under the Apache License,
- *  Version 2.0 (the "License"); you may not use this file except
- *  in compliance with the License.
- *  You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing,
- * software distributed under the License is distributed on an
- * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
- * KIND, either express or implied.  See the License for the
- * specific language governing permissions and limitations
- * under the License.
- */
-package org.wso2.apk.enforcer.dto;
-
-import com.nimbusds.jwt.JWTClaimsSet;
-
-import java.io.Serializable;
-
-/**
- * Dto class to store JWT payload information
- */
-public class JWTTokenPayloadInfo implements Serializable {
-
-
-    JWTClaimsSet payload;
-    String accessToken;
-
-    public JWTClaimsSet getPayload() {
-        return payload;
-    }
-
-    public void setPayload(JWTClaimsSet payload) {
-        this.payload = payload;
-    }
-
-    public String getAccessToken() {
-        return accessToken;
-    }
-
-    public void setAccessToken(String accessToken) {
-        this.accessToken = accessToken;
-    }
-}
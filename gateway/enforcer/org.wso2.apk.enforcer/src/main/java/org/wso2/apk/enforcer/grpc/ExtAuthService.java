@@ -41,32 +41,44 @@ import org.wso2.apk.enforcer.constants.MetadataConstants;
 import org.wso2.apk.enforcer.constants.RouterAccessLogConstants;
 import org.wso2.apk.enforcer.deniedresponse.DeniedResponsePreparer;
 import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.MetricsConstants;
 import org.wso2.apk.enforcer.metrics.MetricsExporter;
 import org.wso2.apk.enforcer.metrics.MetricsManager;
 import org.wso2.apk.enforcer.metrics.jmx.impl.ExtAuthMetrics;
 import org.wso2.apk.enforcer.server.HttpRequestHandler;
+import org.wso2.apk.enforcer.server.RequestHandler;
 import org.wso2.apk.enforcer.tracing.TracingConstants;
 import org.wso2.apk.enforcer.tracing.TracingContextHolder;
 import org.wso2.apk.enforcer.tracing.TracingSpan;
 import org.wso2.apk.enforcer.tracing.TracingTracer;
 import org.wso2.apk.enforcer.tracing.Utils;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is the gRPC server written to match with the envoy ext-authz filter proto file. Envoy proxy call this service.
  * This is the entry point to the filter chain process for a request.
  */
 public class ExtAuthService extends AuthorizationGrpc.AuthorizationImplBase {
-    private HttpRequestHandler requestHandler = new HttpRequestHandler();
+    private static final Status OK_STATUS = Status.newBuilder().setCode(Code.OK_VALUE).build();
+    private static final Value ENFORCER_REPLY_OK =
+            Value.newBuilder().setStringValue(MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY_OK).build();
+
+    private final RequestHandler<CheckRequest, ResponseObject> requestHandler;
+
+    public ExtAuthService() {
+        this(new HttpRequestHandler());
+    }
+
+    ExtAuthService(RequestHandler<CheckRequest, ResponseObject> requestHandler) {
+        this.requestHandler = requestHandler;
+    }
 
     @Override
     public void check(CheckRequest request, StreamObserver<CheckResponse> responseObserver) {
         TracingSpan extAuthServiceSpan = null;
         Scope extAuthServiceSpanScope = null;
-        long starTimestamp = System.currentTimeMillis();
+        long startTimeNanos = System.nanoTime();
         try {
             String traceId = request.getAttributes().getRequest().getHttp()
                     .getHeadersOrDefault(HttpConstants.X_REQUEST_ID_HEADER,
@@ -86,6 +98,8 @@ public class ExtAuthService extends AuthorizationGrpc.AuthorizationImplBase {
             // When you are done, you must call onCompleted.
             responseObserver.onCompleted();
         } finally {
+            long responseTimeNanos = System.nanoTime() - startTimeNanos;
+            String apiUUID = ThreadContext.get(APIConstants.API_UUID);
             ThreadContext.remove(APIConstants.LOG_TRACE_ID);
             ThreadContext.remove(APIConstants.API_UUID);
             if (Utils.tracingEnabled()) {
@@ -94,10 +108,11 @@ public class ExtAuthService extends AuthorizationGrpc.AuthorizationImplBase {
             }
             if (MetricsManager.isMetricsEnabled()) {
                 MetricsExporter metricsExporter = MetricsManager.getInstance();
-                metricsExporter.trackMetric("enforcerLatency", System.currentTimeMillis() - starTimestamp);
+                metricsExporter.trackMetric(MetricsConstants.ENFORCER_LATENCY,
+                        TimeUnit.NANOSECONDS.toMillis(responseTimeNanos));
             }
-            if (JMXUtils.isJMXMetricsEnabled()) {
-                ExtAuthMetrics.getInstance().recordMetric(System.currentTimeMillis() - starTimestamp);
+            if (JMXUtils.isJMXMetricsEnabled() || MetricsManager.isMetricsEnabled()) {
+                ExtAuthMetrics.getInstance().recordMetric(apiUUID, responseTimeNanos);
             }
         }
     }
@@ -108,13 +123,8 @@ public class ExtAuthService extends AuthorizationGrpc.AuthorizationImplBase {
             DeniedResponsePreparer deniedResponsePreparer = new DeniedResponsePreparer(DeniedHttpResponse.newBuilder());
             // set headers
             if (responseObject.getHeaderMap() != null) {
-                responseObject.getHeaderMap().forEach((key, value) -> {
-                            HeaderValueOption headerValueOption = HeaderValueOption.newBuilder()
-                                    .setHeader(HeaderValue.newBuilder().setKey(key).setValue(value).build())
-                                    .build();
-                            deniedResponsePreparer.addHeaders(headerValueOption);
-                        }
-                );
+                responseObject.getHeaderMap().forEach((key, value) ->
+                        deniedResponsePreparer.addHeaders(buildHeader(key, value)));
             }
 
             // set status code
@@ -142,7 +152,7 @@ public class ExtAuthService extends AuthorizationGrpc.AuthorizationImplBase {
             }
 
             addMetadata(metadataStructBuilder, "correlationID", responseObject.getCorrelationID());
-            addMetadata(metadataStructBuilder, MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY, "Ok");
+            metadataStructBuilder.putFields(MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY, ENFORCER_REPLY_OK);
 
             return checkResponseBuilder
                     .setDynamicMetadata(metadataStructBuilder.build())
@@ -158,23 +168,15 @@ public class ExtAuthService extends AuthorizationGrpc.AuthorizationImplBase {
             // 'queryParamsToRemove' so that the custom filters also can utilize the method.
             if (responseObject.getQueryParamsToRemove().size() > 0 || responseObject.getQueryParamsToAdd().size() > 0 ||
                     responseObject.isRemoveAllQueryParams()) {
-                String constructedPath = constructQueryParamString(responseObject.isRemoveAllQueryParams(),
+                String constructedPath = RequestPathUtils.constructQueryParamString(responseObject.isRemoveAllQueryParams(),
                         responseObject.getRequestPath(), responseObject.getQueryParamMap(),
                         responseObject.getQueryParamsToRemove(), responseObject.getQueryParamsToAdd());
-                HeaderValueOption headerValueOption = HeaderValueOption.newBuilder()
-                        .setHeader(HeaderValue.newBuilder().setKey(APIConstants.PATH_HEADER).setValue(constructedPath)
-                                .build()).build();
-                okResponseBuilder.addHeaders(headerValueOption);
+                okResponseBuilder.addHeaders(buildHeader(APIConstants.PATH_HEADER, constructedPath));
             }
 
             if (responseObject.getHeaderMap() != null) {
-                responseObject.getHeaderMap().forEach((key, value) -> {
-                            HeaderValueOption headerValueOption = HeaderValueOption.newBuilder()
-                                    .setHeader(HeaderValue.newBuilder().setKey(key).setValue(value).build())
-                                    .build();
-                            okResponseBuilder.addHeaders(headerValueOption);
-                        }
-                );
+                responseObject.getHeaderMap().forEach((key, value) ->
+                        okResponseBuilder.addHeaders(buildHeader(key, value)));
             }
             okResponseBuilder.addAllHeadersToRemove(responseObject.getRemoveHeaderMap());
 
@@ -186,12 +188,18 @@ public class ExtAuthService extends AuthorizationGrpc.AuthorizationImplBase {
 
             //Adds original request path header without params as a metadata for access logging.
             addMetadata(structBuilder, RouterAccessLogConstants.ORIGINAL_PATH_DATA_NAME,
-                    responseObject.getRequestPath().split("\\?")[0]);
-            // adding org level ratelimit key to metadata
-            addMetadata(structBuilder, MetadataConstants.RATELIMIT_WSO2_ORG_PREFIX, responseObject.getOrganizationId());
-            addMetadata(structBuilder, MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY, "Ok");
+                    RequestPathUtils.getPathWithoutQuery(responseObject.getRequestPath()));
+            if (responseObject.getApiMetadata() != null) {
+                // org level ratelimit key and the enforcer reply, which are prebuilt per API
+                structBuilder.putAllFields(responseObject.getApiMetadata().getFieldsMap());
+            } else {
+                // adding org level ratelimit key to metadata
+                addMetadata(structBuilder, MetadataConstants.RATELIMIT_WSO2_ORG_PREFIX,
+                        responseObject.getOrganizationId());
+                structBuilder.putFields(MetadataConstants.CHOREO_CONNECT_ENFORCER_REPLY, ENFORCER_REPLY_OK);
+            }
 
-            return CheckResponse.newBuilder().setStatus(Status.newBuilder().setCode(Code.OK_VALUE).build())
+            return CheckResponse.newBuilder().setStatus(OK_STATUS)
                     .setOkResponse(okResponseBuilder.build())
                     .setDynamicMetadata(structBuilder.build())
                     .build();
@@ -214,41 +222,10 @@ public class ExtAuthService extends AuthorizationGrpc.AuthorizationImplBase {
         return Code.INTERNAL_VALUE;
     }
 
-    private String constructQueryParamString(boolean removeAllQueryParams, String requestPath,
-                                             Map<String, String> currentQueryParamMap, List<String> queryParamsToRemove,
-                                             Map<String, String> queryParamsToAdd) {
-        // If no query parameters needs to be removed/added, then the request path can be applied as it is.
-        if (!removeAllQueryParams && queryParamsToRemove.size() == 0 && queryParamsToAdd.size() == 0) {
-            return requestPath;
-        }
-
-        Map<String, String> queryParamMap = new HashMap<>();
-        if (currentQueryParamMap != null) {
-            queryParamMap.putAll(currentQueryParamMap);
-        }
-        queryParamMap.putAll(queryParamsToAdd);
-
-        String pathWithoutQueryParams = requestPath.split("\\?")[0];
-        StringBuilder requestPathBuilder = new StringBuilder(pathWithoutQueryParams);
-        int count = 0;
-        if (!removeAllQueryParams && queryParamMap.size() > 0) {
-            for (String queryParam : queryParamMap.keySet()) {
-                if (queryParamsToRemove.contains(queryParam)) {
-                    continue;
-                }
-                if (count == 0) {
-                    requestPathBuilder.append("?");
-                } else {
-                    requestPathBuilder.append("&");
-                }
-                requestPathBuilder.append(queryParam);
-                if (queryParamMap.get(queryParam) != null) {
-                    requestPathBuilder.append("=").append(queryParamMap.get(queryParam));
-                }
-                count++;
-            }
-        }
-        return requestPathBuilder.toString();
+    private static HeaderValueOption buildHeader(String key, String value) {
+        return HeaderValueOption.newBuilder()
+                .setHeader(HeaderValue.newBuilder().setKey(key).setValue(value))
+                .build();
     }
 
     /**
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.grpc;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility methods to rewrite the request path sent to the backend.
+ */
+final class RequestPathUtils {
+
+    private RequestPathUtils() {
+    }
+
+    /**
+     * Rewrites the query string of the request path in a single pass. The query parameters of the request are kept
+     * as they are (in order and encoding) unless they are removed or overridden, and the added query parameters
+     * are appended at the end.
+     *
+     * If the filters have added, changed or removed the query parameters of the request in the query parameter map,
+     * the query string is built from the map instead, so that those changes are applied.
+     *
+     * @param removeAllQueryParams whether all the query parameters are removed
+     * @param requestPath          request path including the query string
+     * @param queryParamMap        query parameters of the request, as available to the filters
+     * @param queryParamsToRemove  names of the query parameters to remove
+     * @param queryParamsToAdd     query parameters to add, replacing the query parameters of the request with the
+     *                             same name
+     * @return request path with the rewritten query string
+     */
+    static String constructQueryParamString(boolean removeAllQueryParams, String requestPath,
+                                            Map<String, String> queryParamMap, List<String> queryParamsToRemove,
+                                            Map<String, String> queryParamsToAdd) {
+        // If no query parameters needs to be removed/added, then the request path can be applied as it is.
+        if (!removeAllQueryParams && queryParamsToRemove.isEmpty() && queryParamsToAdd.isEmpty()) {
+            return requestPath;
+        }
+        if (!removeAllQueryParams && queryParamMap != null
+                && !queryParamMap.equals(parseQueryParams(requestPath))) {
+            return constructQueryParamString(requestPath, queryParamMap, queryParamsToRemove, queryParamsToAdd);
+        }
+        int queryIndex = requestPath.indexOf('?');
+        String pathWithoutQueryParams = queryIndex < 0 ? requestPath : requestPath.substring(0, queryIndex);
+        if (removeAllQueryParams) {
+            return pathWithoutQueryParams;
+        }
+
+        // The names are checked once per query parameter, so they are looked up in a set rather than the list.
+        Set<String> namesToRemove = queryParamsToRemove.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(queryParamsToRemove);
+        StringBuilder requestPathBuilder = new StringBuilder(requestPath.length() + 32)
+                .append(pathWithoutQueryParams);
+        char separator = '?';
+        int paramStart = queryIndex + 1;
+        while (queryIndex >= 0 && paramStart <= requestPath.length()) {
+            int paramEnd = requestPath.indexOf('&', paramStart);
+            if (paramEnd < 0) {
+                paramEnd = requestPath.length();
+            }
+            if (paramEnd > paramStart) {
+                int nameEnd = requestPath.indexOf('=', paramStart);
+                if (nameEnd < 0 || nameEnd > paramEnd) {
+                    nameEnd = paramEnd;
+                }
+                String name = decodeQueryParamName(requestPath.substring(paramStart, nameEnd));
+                if (!namesToRemove.contains(name) && !queryParamsToAdd.containsKey(name)) {
+                    requestPathBuilder.append(separator).append(requestPath, paramStart, paramEnd);
+                    separator = '&';
+                }
+            }
+            paramStart = paramEnd + 1;
+        }
+        for (Map.Entry<String, String> queryParam : queryParamsToAdd.entrySet()) {
+            if (namesToRemove.contains(queryParam.getKey())) {
+                continue;
+            }
+            requestPathBuilder.append(separator).append(queryParam.getKey());
+            if (queryParam.getValue() != null) {
+                requestPathBuilder.append('=').append(queryParam.getValue());
+            }
+            separator = '&';
+        }
+        return requestPathBuilder.toString();
+    }
+
+    /**
+     * Builds the query string from the query parameter map, in the same way as the query string was built before
+     * the query parameters of the request were kept as they are.
+     */
+    private static String constructQueryParamString(String requestPath, Map<String, String> currentQueryParamMap,
+                                                    List<String> queryParamsToRemove,
+                                                    Map<String, String> queryParamsToAdd) {
+        Map<String, String> queryParamMap = new HashMap<>(currentQueryParamMap);
+        queryParamMap.putAll(queryParamsToAdd);
+
+        StringBuilder requestPathBuilder = new StringBuilder(getPathWithoutQuery(requestPath));
+        char separator = '?';
+        for (Map.Entry<String, String> queryParam : queryParamMap.entrySet()) {
+            if (queryParamsToRemove.contains(queryParam.getKey())) {
+                continue;
+            }
+            requestPathBuilder.append(separator).append(queryParam.getKey());
+            if (queryParam.getValue() != null) {
+                requestPathBuilder.append('=').append(queryParam.getValue());
+            }
+            separator = '&';
+        }
+        return requestPathBuilder.toString();
+    }
+
+    /**
+     * Parses the query parameters of the request path in the same way as the query parameter map of the request
+     * context is populated, so that the map can be checked for changes made by the filters.
+     */
+    private static Map<String, String> parseQueryParams(String requestPath) {
+        Map<String, String> queryParams = new HashMap<>();
+        int queryIndex = requestPath.indexOf('?');
+        if (queryIndex >= 0) {
+            int queryEnd = requestPath.indexOf('?', queryIndex + 1);
+            String queryParamsString = queryEnd < 0 ? requestPath.substring(queryIndex + 1) :
+                    requestPath.substring(queryIndex + 1, queryEnd);
+            for (NameValuePair param : URLEncodedUtils.parse(queryParamsString, StandardCharsets.UTF_8)) {
+                queryParams.put(param.getName(), param.getValue());
+            }
+        }
+        return queryParams;
+    }
+
+    private static String decodeQueryParamName(String name) {
+        if (name.indexOf('%') < 0 && name.indexOf('+') < 0) {
+            return name;
+        }
+        try {
+            return URLDecoder.decode(name, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return name;
+        }
+    }
+
+    /**
+     * Get the request path without the query string.
+     *
+     * @param requestPath request path including the query string
+     * @return request path without the query string
+     */
+    static String getPathWithoutQuery(String requestPath) {
+        int queryIndex = requestPath.indexOf('?');
+        return queryIndex < 0 ? requestPath : requestPath.substring(0, queryIndex);
+    }
+}
@@ -18,13 +18,20 @@
 
 package org.wso2.apk.enforcer.interceptor.opa;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
+import org.apache.http.NoHttpResponseException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
@@ -36,20 +43,52 @@ import org.wso2.apk.enforcer.commons.opa.OPASecurityException;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
+import org.wso2.apk.enforcer.server.EnforcerThreadPoolExecutor;
+import org.wso2.apk.enforcer.server.NativeThreadFactory;
 import org.wso2.apk.enforcer.util.FilterUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.net.UnknownHostException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * HTTP Client which send requests to OPA server by selecting the implementation of {@link OPARequestGenerator}
  * which is provided with policy attributes.
+ * <p>
+ * An HTTP client, along with its connection pool, is created once per OPA server and client options, and kept alive
+ * while it is used, so that connections to the OPA server are reused across requests. Following optional policy
+ * attributes control the evaluation.
+ * <ul>
+ *     <li>decisionCacheTTL - seconds to cache the response of the OPA server for the same input. The cache key is
+ *     provided by {@link OPARequestGenerator#generateDecisionCacheKey}, which defaults to the whole OPA input.
+ *     Disabled if not set or 0.</li>
+ *     <li>evaluationTimeout - milliseconds to wait for the OPA server. Waits until the socket timeout if not
+ *     set or 0.</li>
+ *     <li>failOpen - allow the request if the OPA server cannot be reached, i.e. connecting to it fails or it does
+ *     not respond in time. Error responses of the OPA server are not affected. Defaults to false.</li>
+ * </ul>
  */
 public class OPAClient {
     private static final Logger log = LogManager.getLogger(OPAClient.class);
@@ -57,10 +96,32 @@ public class OPAClient {
             "org.wso2.apk.enforcer.commons.model.RequestContext.OPADefaultRequestGenerator";
     private static final OPAClient opaClient = new OPAClient();
 
+    private static final String DECISION_CACHE_TTL = "decisionCacheTTL";
+    private static final String EVALUATION_TIMEOUT = "evaluationTimeout";
+    private static final String FAIL_OPEN = "failOpen";
+    private static final long CLIENT_IDLE_TIME_MINUTES = 30;
+    private static final long IDLE_CONNECTION_TIME_SECONDS = 60;
+    private static final int MAX_CACHED_DECISIONS = 10000;
+    private static final int QUEUE_SIZE_PER_THREAD = 64;
+
     private final OPARequestGenerator defaultRequestGenerator = new OPADefaultRequestGenerator();
     private final Map<String, OPARequestGenerator> requestGeneratorMap = new HashMap<>();
 
-    private OPAClient() {
+    // HTTP clients keyed by the OPA server URL and the client options. A client idle for a while is closed once the
+    // calls using it complete.
+    private final Cache<String, OPAHttpClient> httpClients = Caffeine.newBuilder()
+            .expireAfterAccess(CLIENT_IDLE_TIME_MINUTES, TimeUnit.MINUTES)
+            .removalListener(OPAClient::closeHttpClient)
+            .build();
+    // OPA responses keyed by the policy URL and the hash of the decision cache key. Entries expire as per
+    // decisionCacheTTL.
+    private final Cache<String, CachedDecision> decisionCache = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_DECISIONS)
+            .expireAfter(new DecisionExpiry())
+            .build();
+    private volatile ThreadPoolExecutor evaluationExecutor;
+
+    OPAClient() {
     }
 
     public static void init() {
@@ -87,6 +148,9 @@ public class OPAClient {
         String token = policyAttrib.get("accessKey");
         String policyName = policyAttrib.get("policy");
         String ruleName = policyAttrib.get("rule");
+        long decisionCacheTTL = parseLong(policyAttrib.get(DECISION_CACHE_TTL), DECISION_CACHE_TTL);
+        long evaluationTimeout = parseLong(policyAttrib.get(EVALUATION_TIMEOUT), EVALUATION_TIMEOUT);
+        boolean failOpen = Boolean.parseBoolean(policyAttrib.get(FAIL_OPEN));
 
         // additionalParameters - we provide this as a Map<String, String> in the interface
         // policyAttrib should support Map<String, MAP<String, String>>
@@ -98,14 +162,17 @@ public class OPAClient {
         additionalParameters.put(OPAConstants.AdditionalParameters.SEND_ACCESS_TOKEN,
                 policyAttrib.get("sendAccessToken"));
 
-        // client related configs
-        Map<String, String> clientOptions = new HashMap<>();
+        // client related configs, sorted so that they can be part of the client key
+        Map<String, String> clientOptions = new TreeMap<>();
         FilterUtils.putToMapIfNotNull(clientOptions, FilterUtils.HTTPClientOptions.MAX_OPEN_CONNECTIONS,
                 policyAttrib.get("maxOpenConnections"));
         FilterUtils.putToMapIfNotNull(clientOptions, FilterUtils.HTTPClientOptions.MAX_PER_ROUTE,
                 policyAttrib.get("maxPerRoute"));
         FilterUtils.putToMapIfNotNull(clientOptions, FilterUtils.HTTPClientOptions.CONNECT_TIMEOUT,
                 policyAttrib.get("connectionTimeout"));
+        if (evaluationTimeout > 0) {
+            clientOptions.put(FilterUtils.HTTPClientOptions.SOCKET_TIMEOUT, String.valueOf(evaluationTimeout));
+        }
 
         // evaluating server policy URL
         serverURL = StringUtils.removeEnd(serverURL, "/");
@@ -117,14 +184,49 @@ public class OPAClient {
         }
 
         // calling OPA server and validate response
-        String requestBody = requestGenerator.generateRequest(policyName, ruleName, additionalParameters,
-                requestContext);
-        String opaResponse = callOPAServer(evaluatingPolicyUrl, requestBody, token, clientOptions);
+        String requestBody = null;
+        String decisionKey = null;
+        String opaResponse = null;
+        if (decisionCacheTTL > 0) {
+            String decisionCacheKey = requestGenerator.generateDecisionCacheKey(policyName, ruleName,
+                    additionalParameters, requestContext);
+            if (decisionCacheKey == null) {
+                requestBody = requestGenerator.generateRequest(policyName, ruleName, additionalParameters,
+                        requestContext);
+                decisionCacheKey = requestBody;
+            }
+            decisionKey = evaluatingPolicyUrl + ":" + hash(decisionCacheKey);
+            CachedDecision cachedDecision = decisionCache.getIfPresent(decisionKey);
+            if (cachedDecision != null) {
+                opaResponse = cachedDecision.response;
+            }
+        }
+        if (opaResponse == null) {
+            if (requestBody == null) {
+                requestBody = requestGenerator.generateRequest(policyName, ruleName, additionalParameters,
+                        requestContext);
+            }
+            try {
+                opaResponse = evaluate(serverURL, clientOptions, evaluatingPolicyUrl, requestBody, token,
+                        evaluationTimeout);
+            } catch (OPAServerUnreachableException e) {
+                if (failOpen) {
+                    log.warn("Allowing the request since the OPA server: {} cannot be reached and the policy " +
+                            "is configured to fail open", evaluatingPolicyUrl);
+                    return true;
+                }
+                throw e;
+            }
+            if (decisionKey != null) {
+                decisionCache.put(decisionKey,
+                        new CachedDecision(opaResponse, TimeUnit.SECONDS.toNanos(decisionCacheTTL)));
+            }
+        }
         return requestGenerator.handleResponse(policyName, ruleName, opaResponse, additionalParameters,
                 requestContext);
     }
 
-    private void loadRequestGenerators() {
+    void loadRequestGenerators() {
         ServiceLoader<OPARequestGenerator> loader = ServiceLoader.load(OPARequestGenerator.class);
         for (OPARequestGenerator generator : loader) {
             requestGeneratorMap.put(generator.getClass().getName(), generator);
@@ -134,41 +236,279 @@ public class OPAClient {
         requestGeneratorMap.put(DEFAULT_REQUEST_GENERATOR_CLASS, defaultRequestGenerator);
     }
 
-    private static String callOPAServer(String serverEp, String payload, String token,
-                                        Map<String, String> clientOptions) throws OPASecurityException {
+    /**
+     * Get the HTTP client for the OPA server and client options, creating one if there is no such client. The
+     * returned client must be released once the call is completed.
+     */
+    private OPAHttpClient acquireHttpClient(String serverURL, Map<String, String> clientOptions)
+            throws OPASecurityException {
+        String clientKey = serverURL + clientOptions;
+        while (true) {
+            OPAHttpClient httpClient = httpClients.getIfPresent(clientKey);
+            if (httpClient == null) {
+                httpClient = httpClients.get(clientKey, key -> createHttpClient(serverURL, clientOptions));
+            }
+            if (httpClient.acquire()) {
+                return httpClient;
+            }
+            // The client is closed after it was evicted. Retry with a new client.
+        }
+    }
+
+    private static OPAHttpClient createHttpClient(String serverURL, Map<String, String> clientOptions) {
+        String protocol;
+        try {
+            protocol = new URL(serverURL).getProtocol();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+        // The client key store is only used for TLS.
+        KeyStore opaKeyStore = APIConstants.HTTPS_PROTOCOL.equals(protocol)
+                ? ConfigHolder.getInstance().getOpaKeyStore() : null;
+        return new OPAHttpClient(FilterUtils.getHttpClientBuilder(protocol, opaKeyStore, null, clientOptions)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_CONNECTION_TIME_SECONDS, TimeUnit.SECONDS)
+                .build());
+    }
+
+    private String evaluate(String serverURL, Map<String, String> clientOptions, String serverEp, String payload,
+                            String token, long evaluationTimeout) throws OPASecurityException {
+        if (evaluationTimeout <= 0) {
+            return callOPAServer(serverURL, clientOptions, serverEp, payload, token);
+        }
+        Future<String> result;
         try {
-            URL url = new URL(serverEp);
-            KeyStore opaKeyStore = ConfigHolder.getInstance().getOpaKeyStore();
-            try (CloseableHttpClient httpClient = (CloseableHttpClient) FilterUtils.getHttpClient(url.getProtocol(),
-                    opaKeyStore,null, clientOptions)) {
-                HttpPost httpPost = new HttpPost(serverEp);
-                HttpEntity reqEntity = new ByteArrayEntity(payload.getBytes(Charset.defaultCharset()));
-                httpPost.setEntity(reqEntity);
-                httpPost.setHeader(APIConstants.CONTENT_TYPE_HEADER, APIConstants.APPLICATION_JSON);
-                if (StringUtils.isNotEmpty(token)) {
-                    httpPost.setHeader(APIConstants.AUTHORIZATION_HEADER_DEFAULT,
-                            APIConstants.AUTHORIZATION_BEARER + token);
+            result = getEvaluationExecutor().submit(() -> callOPAServer(serverURL, clientOptions, serverEp, payload,
+                    token));
+        } catch (RejectedExecutionException e) {
+            log.error("Too many pending requests to the OPA server: {} {}", serverEp,
+                    ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6104));
+            throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+                    APISecurityConstants.OPA_REQUEST_FAILURE, e);
+        }
+        try {
+            return result.get(evaluationTimeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OPASecurityException) {
+                throw (OPASecurityException) e.getCause();
+            }
+            throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+                    APISecurityConstants.OPA_REQUEST_FAILURE, e.getCause());
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            log.error("Timed out after {} ms calling the OPA server with server endpoint: {} {}", evaluationTimeout,
+                    serverEp, ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6104));
+            throw new OPAServerUnreachableException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+                    APISecurityConstants.OPA_REQUEST_FAILURE, e);
+        }
+    }
+
+    private ThreadPoolExecutor getEvaluationExecutor() {
+        if (evaluationExecutor == null) {
+            synchronized (this) {
+                if (evaluationExecutor == null) {
+                    int threads = Runtime.getRuntime().availableProcessors() * 2;
+                    evaluationExecutor = new EnforcerThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD),
+                            new NativeThreadFactory(new ThreadGroup("OPAClient"), "opa-client"));
+                    evaluationExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
                 }
-                try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-                    int statusCode = response.getStatusLine().getStatusCode();
-                    if (statusCode == 200) {
-                        HttpEntity entity = response.getEntity();
-                        try (InputStream content = entity.getContent()) {
-                            return IOUtils.toString(content, String.valueOf(Charset.defaultCharset()));
-                        }
-                    } else {
-                        log.error("Unexpected HTTP response code responded by the OPA server, HTTP code: {} {}",
-                                statusCode, ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6106));
-                        throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
-                                APISecurityConstants.OPA_REQUEST_FAILURE);
+            }
+        }
+        return evaluationExecutor;
+    }
+
+    private String callOPAServer(String serverURL, Map<String, String> clientOptions, String serverEp,
+                                 String payload, String token) throws OPASecurityException {
+        OPAHttpClient httpClient;
+        try {
+            httpClient = acquireHttpClient(serverURL, clientOptions);
+        } catch (IllegalArgumentException e) {
+            log.error("Error calling the OPA server with server endpoint: {} {} {}", serverURL,
+                    ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6104), e.getMessage());
+            throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+                    APISecurityConstants.OPA_REQUEST_FAILURE, e);
+        }
+        try {
+            HttpPost httpPost = new HttpPost(serverEp);
+            HttpEntity reqEntity = new ByteArrayEntity(payload.getBytes(Charset.defaultCharset()));
+            httpPost.setEntity(reqEntity);
+            httpPost.setHeader(APIConstants.CONTENT_TYPE_HEADER, APIConstants.APPLICATION_JSON);
+            if (StringUtils.isNotEmpty(token)) {
+                httpPost.setHeader(APIConstants.AUTHORIZATION_HEADER_DEFAULT,
+                        APIConstants.AUTHORIZATION_BEARER + token);
+            }
+            // Closing the response releases the connection back to the pool.
+            try (CloseableHttpResponse response = httpClient.client.execute(httpPost)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode == 200) {
+                    HttpEntity entity = response.getEntity();
+                    try (InputStream content = entity.getContent()) {
+                        return IOUtils.toString(content, String.valueOf(Charset.defaultCharset()));
                     }
+                } else {
+                    log.error("Unexpected HTTP response code responded by the OPA server, HTTP code: {} {}",
+                            statusCode, ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6106));
+                    throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+                            APISecurityConstants.OPA_REQUEST_FAILURE);
                 }
             }
         } catch (IOException e) {
             log.error("Error calling the OPA server with server endpoint: {} {} {}", serverEp,
                     ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6104), e.getMessage());
+            if (isUnreachable(e)) {
+                throw new OPAServerUnreachableException(e);
+            }
             throw new OPASecurityException(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
                     APISecurityConstants.OPA_REQUEST_FAILURE, e);
+        } finally {
+            httpClient.release();
+        }
+    }
+
+    /**
+     * Checks whether the OPA server cannot be reached, i.e. connecting to the server failed or timed out, or the
+     * server did not respond in time.
+     */
+    private static boolean isUnreachable(IOException e) {
+        return e instanceof ConnectException || e instanceof ConnectTimeoutException
+                || e instanceof SocketTimeoutException || e instanceof UnknownHostException
+                || e instanceof NoHttpResponseException;
+    }
+
+    private static long parseLong(String value, String name) {
+        if (StringUtils.isEmpty(value)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value: {} for the OPA policy parameter: {}. Ignoring the parameter.", value, name);
+            return 0;
+        }
+    }
+
+    private static String hash(String requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(requestBody.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    long httpClientCount() {
+        httpClients.cleanUp();
+        return httpClients.estimatedSize();
+    }
+
+    void evictHttpClients() {
+        httpClients.invalidateAll();
+        httpClients.cleanUp();
+    }
+
+    private static void closeHttpClient(String key, OPAHttpClient httpClient, RemovalCause cause) {
+        if (httpClient != null) {
+            httpClient.evict();
+        }
+    }
+
+    /**
+     * HTTP client shared by the calls to an OPA server. The client is closed once it is evicted from the client
+     * cache and the calls using it are completed.
+     */
+    static final class OPAHttpClient {
+        private final CloseableHttpClient client;
+        // Number of calls using the client, or -1 once the client is closed.
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile boolean evicted;
+
+        OPAHttpClient(CloseableHttpClient client) {
+            this.client = client;
+        }
+
+        boolean acquire() {
+            while (true) {
+                int current = users.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (users.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            if (users.decrementAndGet() == 0 && evicted) {
+                closeIfUnused();
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            closeIfUnused();
+        }
+
+        boolean isClosed() {
+            return users.get() < 0;
+        }
+
+        private void closeIfUnused() {
+            if (!users.compareAndSet(0, -1)) {
+                return;
+            }
+            try {
+                client.close();
+            } catch (IOException e) {
+                log.debug("Error while closing the OPA client", e);
+            }
+        }
+    }
+
+    /**
+     * Thrown when the OPA server cannot be reached, so that the request can be allowed if the policy fails open.
+     */
+    private static final class OPAServerUnreachableException extends OPASecurityException {
+        private OPAServerUnreachableException(Throwable cause) {
+            super(APIConstants.StatusCodes.INTERNAL_SERVER_ERROR.getCode(), APISecurityConstants.OPA_REQUEST_FAILURE,
+                    cause);
+        }
+    }
+
+    /**
+     * OPA server response cached along with the TTL configured by the policy.
+     */
+    private static final class CachedDecision {
+        private final String response;
+        private final long ttl;
+
+        private CachedDecision(String response, long ttl) {
+            this.response = response;
+            this.ttl = ttl;
+        }
+    }
+
+    private static final class DecisionExpiry implements Expiry<String, CachedDecision> {
+        @Override
+        public long expireAfterCreate(String key, CachedDecision value, long currentTime) {
+            return value.ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedDecision value, long currentTime, long currentDuration) {
+            return value.ttl;
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedDecision value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -21,6 +21,7 @@ package org.wso2.apk.enforcer.interceptor.opa;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
@@ -34,17 +35,72 @@ import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Default implementation of the {@link OPARequestGenerator}.
  */
 public class OPADefaultRequestGenerator implements OPARequestGenerator {
     private static final Logger log = LogManager.getLogger(OPADefaultRequestGenerator.class);
+    // Headers unique to each request, which are left out of the decision cache key.
+    private static final Set<String> PER_REQUEST_HEADERS = new HashSet<>(Arrays.asList("x-request-id",
+            "traceparent", "tracestate", "b3", "x-envoy-expected-rq-timeout-ms", "x-envoy-attempt-count"));
+    private static final String B3_HEADER_PREFIX = "x-b3-";
 
     @Override
     public String generateRequest(String policyName, String rule, Map<String, String> additionalParameters,
                                   RequestContext requestContext) throws OPASecurityException {
+        return generatePayload(additionalParameters, requestContext, false).toString();
+    }
+
+    /**
+     * Generate the decision cache key from the same input sent to the OPA server, leaving out the headers unique to
+     * each request (request ID and tracing headers). Hence the policy must not depend on those headers when the
+     * decision cache is enabled. The keys of the input are sorted, so that the same input always gives the same key.
+     */
+    @Override
+    public String generateDecisionCacheKey(String policyName, String rule, Map<String, String> additionalParameters,
+                                           RequestContext requestContext) throws OPASecurityException {
+        StringBuilder decisionCacheKey = new StringBuilder();
+        appendCanonical(decisionCacheKey, generatePayload(additionalParameters, requestContext, true));
+        return decisionCacheKey.toString();
+    }
+
+    /**
+     * Append the JSON value with the keys of the objects in sorted order, as the order of {@link JSONObject#toString}
+     * depends on the hash map backing the object.
+     */
+    private static void appendCanonical(StringBuilder builder, Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            builder.append('{');
+            String separator = "";
+            for (String key : new TreeSet<>(object.keySet())) {
+                builder.append(separator).append(JSONObject.quote(key)).append(':');
+                appendCanonical(builder, object.opt(key));
+                separator = ",";
+            }
+            builder.append('}');
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            builder.append('[');
+            for (int i = 0; i < array.length(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                appendCanonical(builder, array.opt(i));
+            }
+            builder.append(']');
+        } else {
+            builder.append(JSONObject.valueToString(value));
+        }
+    }
+
+    private JSONObject generatePayload(Map<String, String> additionalParameters, RequestContext requestContext,
+                                       boolean excludePerRequestHeaders) {
         JSONObject requestPayload = new JSONObject();
         JSONObject inputPayload = new JSONObject();
         requestPayload.put("input", inputPayload);
@@ -55,6 +111,7 @@ public class OPADefaultRequestGenerator implements OPARequestGenerator {
         // If "SEND_ACCESS_TOKEN" is enabled, it is sent in auth context only
         requestContext.getHeaders().keySet().stream()
                 .filter(header -> !requestContext.getRemoveHeaders().contains(header))
+                .filter(header -> !excludePerRequestHeaders || !isPerRequestHeader(header))
                 .forEach(header -> transportHeaders.put(header, requestContext.getHeaders().get(header)));
         // changes this
         inputPayload.put("transportHeaders", transportHeaders);
@@ -89,7 +146,11 @@ public class OPADefaultRequestGenerator implements OPARequestGenerator {
                     .forEach(key -> inputPayload.put(key, requestContext.getProperties().get(key)));
         }
 
-        return requestPayload.toString();
+        return requestPayload;
+    }
+
+    private static boolean isPerRequestHeader(String header) {
+        return PER_REQUEST_HEADERS.contains(header) || header.startsWith(B3_HEADER_PREFIX);
     }
 
     @Override
@@ -29,4 +29,10 @@ public class MetricsConstants {
     public static final String REQUEST_MEDIATION_LATENCY = "requestMediationLatency";
     public static final String BACKEND_LATENCY = "backendLatency";
     public static final String RESPONSE_CODE = "responseCode";
+    public static final String API_REBUILD_COUNT = "apiRebuildCount";
+    public static final String API_REMOVE_COUNT = "apiRemoveCount";
+    public static final String API_UPDATE_DURATION = "apiUpdateDuration";
+    public static final String SUBSCRIPTION_SNAPSHOT_GENERATION = "subscriptionSnapshotGeneration";
+    public static final String ENFORCER_LATENCY = "enforcerLatency";
+    public static final String FILTER_LATENCY = "filterLatency";
 }
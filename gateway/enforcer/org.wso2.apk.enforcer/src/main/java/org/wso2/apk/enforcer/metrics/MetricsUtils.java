@@ -31,6 +31,7 @@ import org.wso2.apk.enforcer.analytics.ChoreoAnalyticsProvider;
 import org.wso2.apk.enforcer.constants.AnalyticsConstants;
 
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * Common utility functions to publish metrics.
@@ -46,9 +47,27 @@ public class MetricsUtils {
      */
     public static void handlePublishingMetrics(StreamAccessLogsMessage message) {
 
+        handlePublishingMetrics(MetricsManager.getInstance(), message);
+    }
+
+    /**
+     * Method to process and publish metrics obtained from a batch of access log messages, through a single
+     * exporter lookup.
+     *
+     * @param messages the batch of StreamAccessLogsMessage objects.
+     */
+    public static void handlePublishingMetrics(List<StreamAccessLogsMessage> messages) {
+
+        MetricsExporter metricsExporter = MetricsManager.getInstance();
+        for (StreamAccessLogsMessage message : messages) {
+            handlePublishingMetrics(metricsExporter, message);
+        }
+    }
+
+    private static void handlePublishingMetrics(MetricsExporter metricsExporter, StreamAccessLogsMessage message) {
+
         for (int i = 0; i < message.getHttpLogs().getLogEntryCount(); i++) {
             HTTPAccessLogEntry logEntry = message.getHttpLogs().getLogEntry(i);
-            MetricsExporter metricsExporter = MetricsManager.getInstance();
 
             UInt32Value httpResponseProperties = logEntry.getResponse().getResponseCode();
             metricsExporter.trackMetric(MetricsConstants.RESPONSE_CODE, httpResponseProperties.getValue());
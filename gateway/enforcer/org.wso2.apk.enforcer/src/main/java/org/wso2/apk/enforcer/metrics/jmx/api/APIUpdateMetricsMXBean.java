@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+/**
+ * MBean API for the metrics of API updates received via the discovery service.
+ */
+public interface APIUpdateMetricsMXBean {
+
+    /**
+     * Getter for the number of API updates applied.
+     *
+     * @return long
+     */
+    public long getTotalUpdateCount();
+
+    /**
+     * Getter for the total number of APIs rebuilt across all the updates.
+     *
+     * @return long
+     */
+    public long getTotalRebuiltAPICount();
+
+    /**
+     * Getter for the total number of APIs reused without a rebuild across all the updates.
+     *
+     * @return long
+     */
+    public long getTotalReusedAPICount();
+
+    /**
+     * Getter for the total number of APIs removed across all the updates.
+     *
+     * @return long
+     */
+    public long getTotalRemovedAPICount();
+
+    /**
+     * Getter for the number of APIs rebuilt in the last update.
+     *
+     * @return long
+     */
+    public long getLastRebuiltAPICount();
+
+    /**
+     * Getter for the time taken to apply the last update in milliseconds.
+     *
+     * @return long
+     */
+    public long getLastUpdateDurationMillis();
+
+    /**
+     * Getter for the maximum time taken to apply an update in milliseconds.
+     *
+     * @return long
+     */
+    public long getMaxUpdateDurationMillis();
+
+    /**
+     * Resets all the metrics to their initial values.
+     */
+    public void resetAPIUpdateMetrics();
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+/**
+ * MBean API for the metrics of the access log messages received for analytics and metrics publishing.
+ */
+public interface AccessLogMetricsMXBean {
+
+    /**
+     * Getter for the number of access log messages received from the router.
+     *
+     * @return long
+     */
+    public long getReceivedMessageCount();
+
+    /**
+     * Getter for the number of access log messages dropped since the publishing buffer was full.
+     *
+     * @return long
+     */
+    public long getDroppedMessageCount();
+
+    /**
+     * Getter for the number of access log entries in the dropped messages.
+     *
+     * @return long
+     */
+    public long getDroppedLogEntryCount();
+
+    /**
+     * Getter for the number of access log messages handled on the receiving thread since the publishing buffer was
+     * full.
+     *
+     * @return long
+     */
+    public long getSpilledMessageCount();
+
+    /**
+     * Resets all the metrics to their initial values.
+     */
+    public void resetAccessLogMetrics();
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+import java.util.Map;
+
+/**
+ * MBean API for the metrics of the enforcer caches. Each attribute is a map keyed by the cache name.
+ */
+public interface CacheMetricsMXBean {
+
+    /**
+     * Getter for the number of cache hits.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getHitCounts();
+
+    /**
+     * Getter for the number of cache misses.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getMissCounts();
+
+    /**
+     * Getter for the number of entries evicted due to size or expiry.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getEvictionCounts();
+
+    /**
+     * Getter for the approximate number of entries in the cache.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getEstimatedSizes();
+}
@@ -16,6 +16,8 @@
 
 package org.wso2.apk.enforcer.metrics.jmx.api;
 
+import java.util.Map;
+
 /**
  * MBean API for ExtAuth Service metrics.
  */
@@ -55,8 +57,64 @@ public interface ExtAuthMetricsMXBean {
     public void resetExtAuthMetrics();
 
     /**
-     * Resets all the metrics to thier initial values.
+     * Getter for the request count of the last five minute interval.
+     *
+     * @return long
      */
     public long getRequestCountInLastFiveMinutes();
 
+    /**
+     * Getter for the p50, p90, p99 and p999 response times in milliseconds, over the last five minute interval.
+     *
+     * @return percentile to response time map
+     */
+    public Map<String, Double> getResponseTimePercentilesMillis();
+
+    /**
+     * Getter for the p50, p90, p99 and p999 response times of each API in milliseconds, over the last five minute
+     * interval.
+     *
+     * @return API UUID to percentile map
+     */
+    public Map<String, Map<String, Double>> getAPIResponseTimePercentilesMillis();
+
+    /**
+     * Getter for the maximum number of APIs whose response times are tracked separately.
+     *
+     * @return int
+     */
+    public int getMaxTrackedAPIs();
+
+    /**
+     * Getter for the number of APIs which had requests in the last five minute interval, but were not tracked
+     * separately as the maximum number of tracked APIs was reached.
+     *
+     * @return int
+     */
+    public int getUntrackedAPICountInLastFiveMinutes();
+
+    /**
+     * Getter for the request count of the APIs which were not tracked separately, over the last five minute
+     * interval.
+     *
+     * @return long
+     */
+    public long getUntrackedAPIRequestCountInLastFiveMinutes();
+
+    /**
+     * Getter for the p50, p90, p99 and p999 response times of the APIs which were not tracked separately, together,
+     * in milliseconds, over the last five minute interval.
+     *
+     * @return percentile to response time map
+     */
+    public Map<String, Double> getUntrackedAPIResponseTimePercentilesMillis();
+
+    /**
+     * Getter for the p50, p90, p99 and p999 execution times of each filter in milliseconds, over the last five
+     * minute interval.
+     *
+     * @return filter name to percentile map
+     */
+    public Map<String, Map<String, Double>> getFilterExecutionTimePercentilesMillis();
+
 }
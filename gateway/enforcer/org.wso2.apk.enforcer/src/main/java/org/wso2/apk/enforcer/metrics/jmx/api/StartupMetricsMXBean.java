@@ -0,0 +1,46 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+import java.util.Map;
+
+/**
+ * MBean API for the startup metrics of the enforcer.
+ */
+public interface StartupMetricsMXBean {
+
+    /**
+     * Getter for the time at which each startup phase completed, in milliseconds since the JVM started.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getPhaseCompletionTimeMillis();
+
+    /**
+     * Getter for the versions of the discovery responses restored from the local snapshot per resource type.
+     *
+     * @return Map
+     */
+    public Map<String, String> getRestoredSnapshotVersions();
+
+    /**
+     * Getter for whether any of the discovered data was restored from the local snapshot at startup.
+     *
+     * @return boolean
+     */
+    public boolean isWarmStart();
+}
@@ -0,0 +1,58 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+/**
+ * MBean API for the metrics of the subscription data snapshot.
+ */
+public interface SubscriptionSnapshotMetricsMXBean {
+
+    /**
+     * Getter for the generation of the current snapshot, which is incremented by every update.
+     *
+     * @return long
+     */
+    public long getGeneration();
+
+    /**
+     * Getter for the number of subscriptions in the current snapshot.
+     *
+     * @return long
+     */
+    public long getSubscriptionCount();
+
+    /**
+     * Getter for the number of applications in the current snapshot.
+     *
+     * @return long
+     */
+    public long getApplicationCount();
+
+    /**
+     * Getter for the number of APIs in the current snapshot.
+     *
+     * @return long
+     */
+    public long getAPICount();
+
+    /**
+     * Getter for the number of application key mappings in the current snapshot.
+     *
+     * @return long
+     */
+    public long getApplicationKeyMappingCount();
+}
@@ -0,0 +1,37 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+/**
+ * MBean API for the tracing contexts held until the ext_authz request of their trace arrives.
+ */
+public interface TracingContextMetricsMXBean {
+
+    /**
+     * Getter for the number of tracing contexts currently held.
+     *
+     * @return long
+     */
+    public long getContextCount();
+
+    /**
+     * Getter for the number of tracing contexts dropped as they expired or the holder was full.
+     *
+     * @return long
+     */
+    public long getEvictionCount();
+}
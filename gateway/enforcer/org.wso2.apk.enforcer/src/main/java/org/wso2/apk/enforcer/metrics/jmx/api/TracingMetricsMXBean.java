@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+/**
+ * MBean API for the metrics of the tracing spans exported by the enforcer.
+ */
+public interface TracingMetricsMXBean {
+
+    /**
+     * Getter for the number of spans handed over to the tracing exporter.
+     *
+     * @return long
+     */
+    public long getExportedSpanCount();
+
+    /**
+     * Getter for the number of spans dropped since the export queue was full.
+     *
+     * @return long
+     */
+    public long getDroppedSpanCount();
+
+    /**
+     * Getter for the number of spans waiting in the export queue.
+     *
+     * @return long
+     */
+    public long getQueuedSpanCount();
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.api;
+
+import java.util.Map;
+
+/**
+ * MBean API for the metrics of the discovery responses received from the adapter, keyed by the resource type.
+ */
+public interface XdsMetricsMXBean {
+
+    /**
+     * Getter for the number of discovery responses applied per resource type.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getResponseCount();
+
+    /**
+     * Getter for the size of the last discovery response in bytes per resource type.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getLastResponseSizeBytes();
+
+    /**
+     * Getter for the maximum size of a discovery response in bytes per resource type.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getMaxResponseSizeBytes();
+
+    /**
+     * Getter for the time taken to apply the last discovery response in milliseconds per resource type.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getLastApplyDurationMillis();
+
+    /**
+     * Getter for the maximum time taken to apply a discovery response in milliseconds per resource type.
+     *
+     * @return Map
+     */
+    public Map<String, Long> getMaxApplyDurationMillis();
+
+    /**
+     * Getter for the number of times the discovery streams were retried after a failure.
+     *
+     * @return long
+     */
+    public long getRetryCount();
+
+    /**
+     * Resets all the metrics to their initial values.
+     */
+    public void resetXdsMetrics();
+}
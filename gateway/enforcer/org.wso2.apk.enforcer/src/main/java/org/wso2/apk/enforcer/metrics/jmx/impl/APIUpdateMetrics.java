@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.APIUpdateMetricsMXBean;
+
+/**
+ * Singleton MBean for the metrics of API updates received via the discovery service.
+ */
+public class APIUpdateMetrics implements APIUpdateMetricsMXBean {
+
+    private static APIUpdateMetrics apiUpdateMetricsMBean = null;
+
+    private long totalUpdateCount = 0;
+    private long totalRebuiltAPICount = 0;
+    private long totalReusedAPICount = 0;
+    private long totalRemovedAPICount = 0;
+    private long lastRebuiltAPICount = 0;
+    private long lastUpdateDurationMillis = 0;
+    private long maxUpdateDurationMillis = 0;
+
+    private APIUpdateMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton APIUpdateMetrics instance.
+     *
+     * @return APIUpdateMetrics
+     */
+    public static APIUpdateMetrics getInstance() {
+        if (apiUpdateMetricsMBean == null) {
+            synchronized (APIUpdateMetrics.class) {
+                if (apiUpdateMetricsMBean == null) {
+                    apiUpdateMetricsMBean = new APIUpdateMetrics();
+                }
+            }
+        }
+        return apiUpdateMetricsMBean;
+    }
+
+    @Override
+    public synchronized long getTotalUpdateCount() {
+        return totalUpdateCount;
+    }
+
+    @Override
+    public synchronized long getTotalRebuiltAPICount() {
+        return totalRebuiltAPICount;
+    }
+
+    @Override
+    public synchronized long getTotalReusedAPICount() {
+        return totalReusedAPICount;
+    }
+
+    @Override
+    public synchronized long getTotalRemovedAPICount() {
+        return totalRemovedAPICount;
+    }
+
+    @Override
+    public synchronized long getLastRebuiltAPICount() {
+        return lastRebuiltAPICount;
+    }
+
+    @Override
+    public synchronized long getLastUpdateDurationMillis() {
+        return lastUpdateDurationMillis;
+    }
+
+    @Override
+    public synchronized long getMaxUpdateDurationMillis() {
+        return maxUpdateDurationMillis;
+    }
+
+    /**
+     * Records the outcome of applying an API update.
+     *
+     * @param rebuiltCount   number of APIs (re)built in the update
+     * @param reusedCount    number of APIs reused as they were not changed
+     * @param removedCount   number of APIs removed in the update
+     * @param durationMillis time taken to apply the update
+     */
+    public synchronized void recordUpdate(long rebuiltCount, long reusedCount, long removedCount,
+                                          long durationMillis) {
+        this.totalUpdateCount += 1;
+        this.totalRebuiltAPICount += rebuiltCount;
+        this.totalReusedAPICount += reusedCount;
+        this.totalRemovedAPICount += removedCount;
+        this.lastRebuiltAPICount = rebuiltCount;
+        this.lastUpdateDurationMillis = durationMillis;
+        this.maxUpdateDurationMillis = Math.max(this.maxUpdateDurationMillis, durationMillis);
+    }
+
+    @Override
+    public synchronized void resetAPIUpdateMetrics() {
+        this.totalUpdateCount = 0;
+        this.totalRebuiltAPICount = 0;
+        this.totalReusedAPICount = 0;
+        this.totalRemovedAPICount = 0;
+        this.lastRebuiltAPICount = 0;
+        this.lastUpdateDurationMillis = 0;
+        this.maxUpdateDurationMillis = 0;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.AccessLogMetricsMXBean;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Singleton MBean for the metrics of the access log messages received for analytics and metrics publishing.
+ */
+public class AccessLogMetrics implements AccessLogMetricsMXBean {
+
+    private static AccessLogMetrics accessLogMetricsMBean = null;
+
+    private final LongAdder receivedMessageCount = new LongAdder();
+    private final LongAdder droppedMessageCount = new LongAdder();
+    private final LongAdder droppedLogEntryCount = new LongAdder();
+    private final LongAdder spilledMessageCount = new LongAdder();
+
+    private AccessLogMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton AccessLogMetrics instance.
+     *
+     * @return AccessLogMetrics
+     */
+    public static AccessLogMetrics getInstance() {
+        if (accessLogMetricsMBean == null) {
+            synchronized (AccessLogMetrics.class) {
+                if (accessLogMetricsMBean == null) {
+                    accessLogMetricsMBean = new AccessLogMetrics();
+                }
+            }
+        }
+        return accessLogMetricsMBean;
+    }
+
+    @Override
+    public long getReceivedMessageCount() {
+        return receivedMessageCount.sum();
+    }
+
+    @Override
+    public long getDroppedMessageCount() {
+        return droppedMessageCount.sum();
+    }
+
+    @Override
+    public long getDroppedLogEntryCount() {
+        return droppedLogEntryCount.sum();
+    }
+
+    @Override
+    public long getSpilledMessageCount() {
+        return spilledMessageCount.sum();
+    }
+
+    @Override
+    public void resetAccessLogMetrics() {
+        receivedMessageCount.reset();
+        droppedMessageCount.reset();
+        droppedLogEntryCount.reset();
+        spilledMessageCount.reset();
+    }
+
+    public void recordReceivedMessage() {
+        receivedMessageCount.increment();
+    }
+
+    public void recordDroppedMessage(int logEntryCount) {
+        droppedMessageCount.increment();
+        droppedLogEntryCount.add(logEntryCount);
+    }
+
+    public void recordSpilledMessage() {
+        spilledMessageCount.increment();
+    }
+}
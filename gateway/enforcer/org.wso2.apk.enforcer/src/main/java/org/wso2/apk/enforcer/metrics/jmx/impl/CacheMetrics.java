@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.MetricsExporter;
+import org.wso2.apk.enforcer.metrics.jmx.api.CacheMetricsMXBean;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Singleton MBean for the metrics of the enforcer caches.
+ */
+public class CacheMetrics implements CacheMetricsMXBean {
+
+    private static CacheMetrics cacheMetricsMBean = null;
+
+    private final Map<String, Cache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    private CacheMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton CacheMetrics instance.
+     *
+     * @return CacheMetrics
+     */
+    public static CacheMetrics getInstance() {
+        if (cacheMetricsMBean == null) {
+            synchronized (CacheMetrics.class) {
+                if (cacheMetricsMBean == null) {
+                    cacheMetricsMBean = new CacheMetrics();
+                }
+            }
+        }
+        return cacheMetricsMBean;
+    }
+
+    /**
+     * Register a cache to be monitored. The cache should be built with statistics recording enabled.
+     *
+     * @param name  name of the cache
+     * @param cache cache instance
+     */
+    public void registerCache(String name, Cache<?, ?> cache) {
+        caches.put(name, cache);
+    }
+
+    @Override
+    public Map<String, Long> getHitCounts() {
+        return collect(CacheStats::hitCount);
+    }
+
+    @Override
+    public Map<String, Long> getMissCounts() {
+        return collect(CacheStats::missCount);
+    }
+
+    @Override
+    public Map<String, Long> getEvictionCounts() {
+        return collect(CacheStats::evictionCount);
+    }
+
+    @Override
+    public Map<String, Long> getEstimatedSizes() {
+        Map<String, Long> sizes = new HashMap<>();
+        caches.forEach((name, cache) -> sizes.put(name, cache.estimatedSize()));
+        return sizes;
+    }
+
+    /**
+     * Publish the statistics of all the registered caches via the given metrics exporter.
+     *
+     * @param metricsExporter the exporter instance
+     */
+    public void publishMetrics(MetricsExporter metricsExporter) {
+        HashMap<String, Double> valueMap = new HashMap<>();
+        caches.forEach((name, cache) -> {
+            CacheStats stats = cache.stats();
+            valueMap.put(name + ".hitCount", (double) stats.hitCount());
+            valueMap.put(name + ".missCount", (double) stats.missCount());
+            valueMap.put(name + ".evictionCount", (double) stats.evictionCount());
+            valueMap.put(name + ".size", (double) cache.estimatedSize());
+        });
+        metricsExporter.trackMetrics(valueMap);
+    }
+
+    private Map<String, Long> collect(ToLongFunction<CacheStats> statistic) {
+        Map<String, Long> values = new HashMap<>();
+        caches.forEach((name, cache) -> values.put(name, statistic.applyAsLong(cache.stats())));
+        return values;
+    }
+}
@@ -16,27 +16,77 @@
 
 package org.wso2.apk.enforcer.metrics.jmx.impl;
 
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.config.EnvVarConfig;
 import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.MetricsConstants;
+import org.wso2.apk.enforcer.metrics.MetricsExporter;
+import org.wso2.apk.enforcer.metrics.MetricsManager;
 import org.wso2.apk.enforcer.metrics.jmx.api.ExtAuthMetricsMXBean;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Singleton MBean for ExtAuth Service metrics.
+ * Singleton MBean for ExtAuth Service metrics. Response times are recorded in nanoseconds into HdrHistogram
+ * recorders, which are wait-free for the request threads. Every five minutes the recorders are swapped for an
+ * interval histogram, from which the request count and the percentiles of the last interval are reported. The
+ * histograms of an interval are recycled in the interval after next, so that taking a snapshot does not allocate.
+ * <p>
+ * The per API and per filter breakdowns use a narrower range and a lower precision than the overall response time,
+ * and at most METRICS_MAX_TRACKED_APIS APIs are tracked at a time, which bounds the memory and the number of
+ * published metrics. The APIs are tracked in the order their requests arrive, and an API idle for a full interval is
+ * dropped to make room for the others. The requests of the APIs beyond the cap are recorded together, and the number
+ * of such APIs is reported, so that the gap in the per API breakdown is visible.
  */
-public class ExtAuthMetrics extends TimerTask implements ExtAuthMetricsMXBean {
+public class ExtAuthMetrics implements ExtAuthMetricsMXBean {
+
+    private static final Logger log = LogManager.getLogger(ExtAuthMetrics.class);
 
     private static final long REQUEST_COUNT_INTERVAL_MILLIS = 5 * 60 * 1000;
-    private static ExtAuthMetrics extAuthMetricsMBean = null;
+    private static final long LOWEST_DISCERNIBLE_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final long BREAKDOWN_LOWEST_DISCERNIBLE_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long BREAKDOWN_HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int BREAKDOWN_SIGNIFICANT_DIGITS = 1;
+    static final int DEFAULT_MAX_TRACKED_APIS = Integer.parseInt(EnvVarConfig.DEFAULT_METRICS_MAX_TRACKED_APIS);
+    static final String UNTRACKED_APIS = "untracked";
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private static volatile ExtAuthMetrics extAuthMetricsMBean = null;
 
-    private long requestCountInLastFiveMinutes = 0;
-    private long totalRequestCount = 0;
-    private long averageResponseTimeMillis = 0;
-    private long maxResponseTimeMillis = Long.MIN_VALUE;
-    private long minResponseTimeMillis = Long.MAX_VALUE;
+    private final LatencyRecorder requestLatency = new LatencyRecorder(LOWEST_DISCERNIBLE_NANOS,
+            HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final int maxTrackedAPIs;
+    private final Map<String, LatencyRecorder> apiLatencies = new ConcurrentHashMap<>();
+    private final LatencyRecorder untrackedAPILatency = newBreakdownRecorder();
+    private final Set<String> untrackedAPIs = ConcurrentHashMap.newKeySet();
+    private volatile int untrackedAPICountInLastInterval;
+    private final Map<String, LatencyRecorder> filterLatencies = new ConcurrentHashMap<>();
+    private final LongAdder totalRequestCount = new LongAdder();
+    private final LongAdder totalResponseTimeNanos = new LongAdder();
+    private final LongAccumulator maxResponseTimeNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    private final LongAccumulator minResponseTimeNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
 
-    private ExtAuthMetrics() {
+    ExtAuthMetrics() {
+        this(DEFAULT_MAX_TRACKED_APIS);
+    }
+
+    ExtAuthMetrics(int maxTrackedAPIs) {
+        this.maxTrackedAPIs = maxTrackedAPIs;
         MBeanRegistrator.registerMBean(this);
     }
 
@@ -49,58 +99,265 @@ public class ExtAuthMetrics extends TimerTask implements ExtAuthMetricsMXBean {
         if (extAuthMetricsMBean == null) {
             synchronized (ExtAuthMetrics.class) {
                 if (extAuthMetricsMBean == null) {
-                    Timer timer = new Timer();
-                    extAuthMetricsMBean = new ExtAuthMetrics();
-                    timer.schedule(extAuthMetricsMBean, 0, REQUEST_COUNT_INTERVAL_MILLIS);
+                    ExtAuthMetrics extAuthMetrics = new ExtAuthMetrics(getMaxTrackedAPIsConfig());
+                    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "ext-auth-metrics-snapshot");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.scheduleAtFixedRate(extAuthMetrics::takeIntervalSnapshot,
+                            REQUEST_COUNT_INTERVAL_MILLIS, REQUEST_COUNT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    extAuthMetricsMBean = extAuthMetrics;
                 }
             }
         }
         return extAuthMetricsMBean;
     }
 
+    private static int getMaxTrackedAPIsConfig() {
+        String value = EnvVarConfig.getInstance().getMetricsMaxTrackedApis();
+        try {
+            int maxTrackedAPIs = Integer.parseInt(value);
+            if (maxTrackedAPIs >= 0) {
+                return maxTrackedAPIs;
+            }
+        } catch (NumberFormatException e) {
+            // Falls back to the default below.
+        }
+        log.error("Invalid value for {}. Using the default value {}.", EnvVarConfig.METRICS_MAX_TRACKED_APIS,
+                DEFAULT_MAX_TRACKED_APIS);
+        return DEFAULT_MAX_TRACKED_APIS;
+    }
+
     @Override
     public long getTotalRequestCount() {
-        return totalRequestCount;
-    };
+        return totalRequestCount.sum();
+    }
 
     @Override
     public long getAverageResponseTimeMillis() {
-        return averageResponseTimeMillis;
-    };
+        long count = totalRequestCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalResponseTimeNanos.sum() / count);
+    }
 
     @Override
     public long getMaxResponseTimeMillis() {
-        return maxResponseTimeMillis;
-    };
+        long max = maxResponseTimeNanos.get();
+        return max == Long.MIN_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(max);
+    }
 
     @Override
     public long getMinResponseTimeMillis() {
-        return minResponseTimeMillis;
-    };
+        long min = minResponseTimeNanos.get();
+        return min == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(min);
+    }
 
-    public synchronized void recordMetric(long responseTimeMillis) {
-        this.requestCountInLastFiveMinutes += 1;
-        this.totalRequestCount += 1;
-        this.averageResponseTimeMillis = (this.averageResponseTimeMillis + responseTimeMillis) / totalRequestCount;
-        this.minResponseTimeMillis = Math.min(this.minResponseTimeMillis, responseTimeMillis);
-        this.maxResponseTimeMillis = Math.max(this.maxResponseTimeMillis, responseTimeMillis);
+    /**
+     * Record the response time of a request.
+     *
+     * @param apiUUID           UUID of the API the request is matched to, or null if it is not matched to an API
+     * @param responseTimeNanos response time in nanoseconds
+     */
+    public void recordMetric(String apiUUID, long responseTimeNanos) {
+        totalRequestCount.increment();
+        totalResponseTimeNanos.add(responseTimeNanos);
+        maxResponseTimeNanos.accumulate(responseTimeNanos);
+        minResponseTimeNanos.accumulate(responseTimeNanos);
+        requestLatency.record(responseTimeNanos);
+        if (apiUUID != null) {
+            LatencyRecorder apiLatency = apiLatencies.get(apiUUID);
+            if (apiLatency == null) {
+                if (apiLatencies.size() >= maxTrackedAPIs) {
+                    // The API is tracked once an idle API is dropped at the end of an interval.
+                    if (!untrackedAPIs.contains(apiUUID)) {
+                        untrackedAPIs.add(apiUUID);
+                    }
+                    untrackedAPILatency.record(responseTimeNanos);
+                    return;
+                }
+                apiLatency = apiLatencies.computeIfAbsent(apiUUID, key -> newBreakdownRecorder());
+            }
+            apiLatency.record(responseTimeNanos);
+        }
     }
 
-    @Override
-    public synchronized void resetExtAuthMetrics() {
-        this.totalRequestCount = 0;
-        this.averageResponseTimeMillis = 0;
-        this.maxResponseTimeMillis = Long.MIN_VALUE;
-        this.minResponseTimeMillis = Long.MAX_VALUE;
+    /**
+     * Stop tracking the response time of an API, i.e. when the API is removed from the gateway.
+     *
+     * @param apiUUID UUID of the API
+     */
+    public void removeAPIMetrics(String apiUUID) {
+        if (apiUUID != null) {
+            apiLatencies.remove(apiUUID);
+            untrackedAPIs.remove(apiUUID);
+        }
+    }
+
+    /**
+     * Record the execution time of a filter.
+     *
+     * @param filterName         name of the filter
+     * @param executionTimeNanos execution time in nanoseconds
+     */
+    public void recordFilterMetric(String filterName, long executionTimeNanos) {
+        filterLatencies.computeIfAbsent(filterName, key -> newBreakdownRecorder()).record(executionTimeNanos);
     }
 
     @Override
-    public synchronized void run() {
-        requestCountInLastFiveMinutes = 0;
+    public void resetExtAuthMetrics() {
+        totalRequestCount.reset();
+        totalResponseTimeNanos.reset();
+        maxResponseTimeNanos.reset();
+        minResponseTimeNanos.reset();
     }
 
     @Override
     public long getRequestCountInLastFiveMinutes() {
-        return requestCountInLastFiveMinutes;
+        return requestLatency.lastInterval.getTotalCount();
+    }
+
+    @Override
+    public Map<String, Double> getResponseTimePercentilesMillis() {
+        return getPercentilesMillis(requestLatency.lastInterval);
+    }
+
+    @Override
+    public Map<String, Map<String, Double>> getAPIResponseTimePercentilesMillis() {
+        return getPercentilesMillis(apiLatencies);
+    }
+
+    @Override
+    public int getMaxTrackedAPIs() {
+        return maxTrackedAPIs;
+    }
+
+    @Override
+    public int getUntrackedAPICountInLastFiveMinutes() {
+        return untrackedAPICountInLastInterval;
+    }
+
+    @Override
+    public long getUntrackedAPIRequestCountInLastFiveMinutes() {
+        return untrackedAPILatency.lastInterval.getTotalCount();
+    }
+
+    @Override
+    public Map<String, Double> getUntrackedAPIResponseTimePercentilesMillis() {
+        return getPercentilesMillis(untrackedAPILatency.lastInterval);
+    }
+
+    @Override
+    public Map<String, Map<String, Double>> getFilterExecutionTimePercentilesMillis() {
+        return getPercentilesMillis(filterLatencies);
+    }
+
+    void takeIntervalSnapshot() {
+        try {
+            requestLatency.takeIntervalSnapshot();
+            // APIs idle for a full interval are dropped, which makes room for other APIs within the cap.
+            apiLatencies.values().removeIf(latencyRecorder -> !latencyRecorder.takeIntervalSnapshot());
+            untrackedAPILatency.takeIntervalSnapshot();
+            // The APIs recorded while the count is taken are counted in the next interval, or not at all.
+            untrackedAPICountInLastInterval = untrackedAPIs.size();
+            untrackedAPIs.clear();
+            filterLatencies.values().forEach(LatencyRecorder::takeIntervalSnapshot);
+            if (MetricsManager.isMetricsEnabled()) {
+                publishMetrics();
+            }
+        } catch (RuntimeException e) {
+            // An exception would stop the subsequent snapshots.
+            log.error("Error occurred when taking the ExtAuth Service metrics snapshot", e);
+        }
+    }
+
+    private void publishMetrics() {
+        MetricsExporter metricsExporter = MetricsManager.getInstance();
+        if (metricsExporter == null) {
+            return;
+        }
+        HashMap<String, Double> metrics = new HashMap<>();
+        addPercentiles(metrics, MetricsConstants.ENFORCER_LATENCY, "", requestLatency.lastInterval);
+        apiLatencies.forEach((apiUUID, latencyRecorder) -> addPercentiles(metrics, MetricsConstants.ENFORCER_LATENCY,
+                "." + apiUUID, latencyRecorder.lastInterval));
+        addPercentiles(metrics, MetricsConstants.ENFORCER_LATENCY, "." + UNTRACKED_APIS,
+                untrackedAPILatency.lastInterval);
+        filterLatencies.forEach((filterName, latencyRecorder) -> addPercentiles(metrics,
+                MetricsConstants.FILTER_LATENCY, "." + filterName, latencyRecorder.lastInterval));
+        metricsExporter.trackMetrics(metrics);
+    }
+
+    private static void addPercentiles(Map<String, Double> metrics, String prefix, String suffix,
+                                       Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            // i.e. enforcerLatencyP99.<API UUID>
+            metrics.put(prefix + PERCENTILE_NAMES[i].toUpperCase() + suffix,
+                    toMillis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+    }
+
+    private static Map<String, Map<String, Double>> getPercentilesMillis(Map<String, LatencyRecorder> recorders) {
+        Map<String, Map<String, Double>> percentiles = new HashMap<>();
+        recorders.forEach((key, latencyRecorder) -> percentiles.put(key,
+                getPercentilesMillis(latencyRecorder.lastInterval)));
+        return percentiles;
+    }
+
+    private static Map<String, Double> getPercentilesMillis(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles.put(PERCENTILE_NAMES[i], toMillis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        return percentiles;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static LatencyRecorder newBreakdownRecorder() {
+        return new LatencyRecorder(BREAKDOWN_LOWEST_DISCERNIBLE_NANOS, BREAKDOWN_HIGHEST_TRACKABLE_NANOS,
+                BREAKDOWN_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Recorder of a latency, along with the histogram of its last interval.
+     */
+    private static final class LatencyRecorder {
+
+        private final Recorder recorder;
+        private final long highestTrackableNanos;
+        private volatile Histogram lastInterval;
+        // The histogram of the interval before the last one, which the JMX and the metrics readers are done with.
+        private Histogram spareInterval;
+
+        private LatencyRecorder(long lowestDiscernibleNanos, long highestTrackableNanos, int significantDigits) {
+            this.recorder = new Recorder(lowestDiscernibleNanos, highestTrackableNanos, significantDigits);
+            this.highestTrackableNanos = highestTrackableNanos;
+            // Only the histograms of the recorder can be recycled into it.
+            this.lastInterval = recorder.getIntervalHistogram();
+        }
+
+        private void record(long nanos) {
+            // Values beyond the trackable range would throw, so they are recorded as the highest value instead.
+            recorder.recordValue(Math.max(0, Math.min(nanos, highestTrackableNanos)));
+        }
+
+        /**
+         * Swap the recorder for a new interval.
+         *
+         * @return whether any value was recorded in the interval
+         */
+        private boolean takeIntervalSnapshot() {
+            Histogram interval = recorder.getIntervalHistogram(spareInterval);
+            spareInterval = lastInterval;
+            lastInterval = interval;
+            return interval.getTotalCount() > 0;
+        }
     }
 }
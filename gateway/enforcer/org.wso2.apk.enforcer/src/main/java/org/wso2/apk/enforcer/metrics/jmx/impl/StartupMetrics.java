@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.StartupMetricsMXBean;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton MBean for the startup metrics of the enforcer.
+ */
+public class StartupMetrics implements StartupMetricsMXBean {
+
+    private static StartupMetrics startupMetricsMBean = null;
+
+    private final Map<String, Long> phaseCompletionTimes = new ConcurrentHashMap<>();
+    private final Map<String, String> restoredSnapshotVersions = new ConcurrentHashMap<>();
+
+    private StartupMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton StartupMetrics instance.
+     *
+     * @return StartupMetrics
+     */
+    public static StartupMetrics getInstance() {
+        if (startupMetricsMBean == null) {
+            synchronized (StartupMetrics.class) {
+                if (startupMetricsMBean == null) {
+                    startupMetricsMBean = new StartupMetrics();
+                }
+            }
+        }
+        return startupMetricsMBean;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCompletionTimeMillis() {
+        return new TreeMap<>(phaseCompletionTimes);
+    }
+
+    @Override
+    public Map<String, String> getRestoredSnapshotVersions() {
+        return new TreeMap<>(restoredSnapshotVersions);
+    }
+
+    @Override
+    public boolean isWarmStart() {
+        return !restoredSnapshotVersions.isEmpty();
+    }
+
+    public void recordPhase(String phase, long uptimeMillis) {
+        phaseCompletionTimes.putIfAbsent(phase, uptimeMillis);
+    }
+
+    public void recordRestoredSnapshot(String type, String version) {
+        restoredSnapshotVersions.put(type, version);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.SubscriptionSnapshotMetricsMXBean;
+import org.wso2.apk.enforcer.subscription.SubscriptionDataStoreImpl;
+
+/**
+ * Singleton MBean for the metrics of the subscription data snapshot. The metrics are read from the current snapshot.
+ */
+public class SubscriptionSnapshotMetrics implements SubscriptionSnapshotMetricsMXBean {
+
+    private static volatile SubscriptionSnapshotMetrics subscriptionSnapshotMetricsMBean = null;
+
+    private SubscriptionSnapshotMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton SubscriptionSnapshotMetrics instance.
+     *
+     * @return SubscriptionSnapshotMetrics
+     */
+    public static SubscriptionSnapshotMetrics getInstance() {
+        if (subscriptionSnapshotMetricsMBean == null) {
+            synchronized (SubscriptionSnapshotMetrics.class) {
+                if (subscriptionSnapshotMetricsMBean == null) {
+                    subscriptionSnapshotMetricsMBean = new SubscriptionSnapshotMetrics();
+                }
+            }
+        }
+        return subscriptionSnapshotMetricsMBean;
+    }
+
+    @Override
+    public long getGeneration() {
+        return SubscriptionDataStoreImpl.getInstance().getSnapshot().getGeneration();
+    }
+
+    @Override
+    public long getSubscriptionCount() {
+        return SubscriptionDataStoreImpl.getInstance().getSnapshot().getSubscriptionMap().size();
+    }
+
+    @Override
+    public long getApplicationCount() {
+        return SubscriptionDataStoreImpl.getInstance().getSnapshot().getApplicationMap().size();
+    }
+
+    @Override
+    public long getAPICount() {
+        return SubscriptionDataStoreImpl.getInstance().getSnapshot().getApiMap().size();
+    }
+
+    @Override
+    public long getApplicationKeyMappingCount() {
+        return SubscriptionDataStoreImpl.getInstance().getSnapshot().getApplicationKeyMappingMap().size();
+    }
+}
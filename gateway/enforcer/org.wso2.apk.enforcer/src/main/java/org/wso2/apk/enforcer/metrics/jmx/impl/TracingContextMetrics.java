@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.TracingContextMetricsMXBean;
+import org.wso2.apk.enforcer.tracing.TracingContextHolder;
+
+/**
+ * Singleton MBean for the tracing contexts held by the {@link TracingContextHolder}.
+ */
+public class TracingContextMetrics implements TracingContextMetricsMXBean {
+
+    private static TracingContextMetrics tracingContextMetricsMBean = null;
+
+    private TracingContextMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton TracingContextMetrics instance.
+     *
+     * @return TracingContextMetrics
+     */
+    public static TracingContextMetrics getInstance() {
+        if (tracingContextMetricsMBean == null) {
+            synchronized (TracingContextMetrics.class) {
+                if (tracingContextMetricsMBean == null) {
+                    tracingContextMetricsMBean = new TracingContextMetrics();
+                }
+            }
+        }
+        return tracingContextMetricsMBean;
+    }
+
+    @Override
+    public long getContextCount() {
+        return TracingContextHolder.getContextCount();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return TracingContextHolder.getEvictionCount();
+    }
+}
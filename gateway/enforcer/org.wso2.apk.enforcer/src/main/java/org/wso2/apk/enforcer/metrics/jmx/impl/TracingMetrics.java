@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.TracingMetricsMXBean;
+
+/**
+ * Singleton MBean for the metrics of the tracing spans exported by the enforcer.
+ */
+public class TracingMetrics implements TracingMetricsMXBean {
+
+    private static TracingMetrics tracingMetricsMBean = null;
+
+    private volatile long exportedSpanCount = 0;
+    private volatile long droppedSpanCount = 0;
+    private volatile long queuedSpanCount = 0;
+
+    private TracingMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton TracingMetrics instance.
+     *
+     * @return TracingMetrics
+     */
+    public static TracingMetrics getInstance() {
+        if (tracingMetricsMBean == null) {
+            synchronized (TracingMetrics.class) {
+                if (tracingMetricsMBean == null) {
+                    tracingMetricsMBean = new TracingMetrics();
+                }
+            }
+        }
+        return tracingMetricsMBean;
+    }
+
+    @Override
+    public long getExportedSpanCount() {
+        return exportedSpanCount;
+    }
+
+    @Override
+    public long getDroppedSpanCount() {
+        return droppedSpanCount;
+    }
+
+    @Override
+    public long getQueuedSpanCount() {
+        return queuedSpanCount;
+    }
+
+    public void setProcessedSpanCounts(long exportedSpanCount, long droppedSpanCount) {
+        this.exportedSpanCount = exportedSpanCount;
+        this.droppedSpanCount = droppedSpanCount;
+    }
+
+    public void setQueuedSpanCount(long queuedSpanCount) {
+        this.queuedSpanCount = queuedSpanCount;
+    }
+}
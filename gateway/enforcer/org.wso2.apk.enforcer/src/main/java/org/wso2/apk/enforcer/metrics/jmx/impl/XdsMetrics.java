@@ -0,0 +1,138 @@
+/*
+ *  Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.wso2.apk.enforcer.jmx.MBeanRegistrator;
+import org.wso2.apk.enforcer.metrics.jmx.api.XdsMetricsMXBean;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Singleton MBean for the metrics of the discovery responses received from the adapter.
+ */
+public class XdsMetrics implements XdsMetricsMXBean {
+
+    private static XdsMetrics xdsMetricsMBean = null;
+
+    private final Map<String, TypeMetrics> typeMetrics = new ConcurrentHashMap<>();
+    private final LongAdder retryCount = new LongAdder();
+
+    private XdsMetrics() {
+        MBeanRegistrator.registerMBean(this);
+    }
+
+    /**
+     * Getter for the Singleton XdsMetrics instance.
+     *
+     * @return XdsMetrics
+     */
+    public static XdsMetrics getInstance() {
+        if (xdsMetricsMBean == null) {
+            synchronized (XdsMetrics.class) {
+                if (xdsMetricsMBean == null) {
+                    xdsMetricsMBean = new XdsMetrics();
+                }
+            }
+        }
+        return xdsMetricsMBean;
+    }
+
+    @Override
+    public Map<String, Long> getResponseCount() {
+        return collect(metrics -> metrics.responseCount);
+    }
+
+    @Override
+    public Map<String, Long> getLastResponseSizeBytes() {
+        return collect(metrics -> metrics.lastResponseSize);
+    }
+
+    @Override
+    public Map<String, Long> getMaxResponseSizeBytes() {
+        return collect(metrics -> metrics.maxResponseSize);
+    }
+
+    @Override
+    public Map<String, Long> getLastApplyDurationMillis() {
+        return collect(metrics -> metrics.lastApplyDuration);
+    }
+
+    @Override
+    public Map<String, Long> getMaxApplyDurationMillis() {
+        return collect(metrics -> metrics.maxApplyDuration);
+    }
+
+    @Override
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    @Override
+    public void resetXdsMetrics() {
+        typeMetrics.clear();
+        retryCount.reset();
+    }
+
+    /**
+     * Records a discovery response applied by the enforcer.
+     *
+     * @param typeUrl        type URL of the response
+     * @param responseSize   size of the response in bytes
+     * @param durationMillis time taken to apply the response
+     */
+    public void recordResponse(String typeUrl, long responseSize, long durationMillis) {
+        String type = typeUrl.substring(typeUrl.lastIndexOf('.') + 1);
+        typeMetrics.computeIfAbsent(type, key -> new TypeMetrics()).record(responseSize, durationMillis);
+    }
+
+    public void recordRetry() {
+        retryCount.increment();
+    }
+
+    private Map<String, Long> collect(ToLongFunction<TypeMetrics> metric) {
+        Map<String, Long> values = new TreeMap<>();
+        typeMetrics.forEach((type, metrics) -> {
+            synchronized (metrics) {
+                values.put(type, metric.applyAsLong(metrics));
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Metrics of a single resource type.
+     */
+    private static class TypeMetrics {
+        private long responseCount;
+        private long lastResponseSize;
+        private long maxResponseSize;
+        private long lastApplyDuration;
+        private long maxApplyDuration;
+
+        private synchronized void record(long responseSize, long durationMillis) {
+            responseCount++;
+            lastResponseSize = responseSize;
+            maxResponseSize = Math.max(maxResponseSize, responseSize);
+            lastApplyDuration = durationMillis;
+            maxApplyDuration = Math.max(maxApplyDuration, durationMillis);
+        }
+    }
+}
@@ -22,7 +22,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.commons.Filter;
 import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
-import org.wso2.apk.enforcer.commons.exception.APISecurityException;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 import org.wso2.apk.enforcer.commons.model.APIConfig;
@@ -176,8 +175,9 @@ public class AuthFilter implements Filter {
     }
 
     private AuthenticationResponse authenticate(Authenticator authenticator, RequestContext requestContext) {
-        try {
-            AuthenticationContext authenticate = authenticator.authenticate(requestContext);
+        AuthenticationResult result = authenticator.authenticateForResult(requestContext);
+        if (result.isSuccess()) {
+            AuthenticationContext authenticate = result.getAuthenticationContext();
             requestContext.setAuthenticationContext(authenticate);
             if (authenticator.getName().contains(APIConstants.API_SECURITY_MUTUAL_SSL_NAME)) {
                 // This section is for mTLS authentication
@@ -186,7 +186,7 @@ public class AuthFilter implements Filter {
                             requestContext.getMatchedResourcePaths().get(0).getPath(),
                             requestContext.getMatchedAPI().getName(), requestContext.getMatchedAPI().getVersion(),
                             requestContext.getMatchedAPI().getUuid());
-                    return new AuthenticationResponse(true, isMutualSSLMandatory, true);
+                    return AuthenticationResponse.of(true, isMutualSSLMandatory, true);
                 } else {
                     if (isMutualSSLMandatory) {
                         log.debug("Mandatory mTLS authentication was failed for the request: {} , API: {}:{}, " +
@@ -194,24 +194,24 @@ public class AuthFilter implements Filter {
                                 requestContext.getMatchedResourcePaths().get(0).getPath(),
                                 requestContext.getMatchedAPI().getName(), requestContext.getMatchedAPI().getVersion(),
                                 requestContext.getMatchedAPI().getUuid());
-                        return new AuthenticationResponse(false, true, false);
+                        return AuthenticationResponse.of(false, true, false);
                     } else {
                         log.debug("Optional mTLS authentication was failed for the request: {} , API: {}:{}, " +
                                         "APIUUID: {} ",
                                 requestContext.getMatchedResourcePaths().get(0).getPath(),
                                 requestContext.getMatchedAPI().getName(), requestContext.getMatchedAPI().getVersion(),
                                 requestContext.getMatchedAPI().getUuid());
-                        return new AuthenticationResponse(false, false, true);
+                        return AuthenticationResponse.of(false, false, true);
                     }
                 }
             } else if (authenticate.isAuthenticated()) {
-                return new AuthenticationResponse(true, isOAuthBasicAuthMandatory, false);
+                return AuthenticationResponse.of(true, isOAuthBasicAuthMandatory, false);
             }
-        } catch (APISecurityException e) {
+        } else {
             //TODO: (VirajSalaka) provide the error code properly based on exception (401, 403, 429 etc)
-            FilterUtils.setErrorToContext(requestContext, e);
+            FilterUtils.setErrorToContext(requestContext, result.getError());
         }
-        return new AuthenticationResponse(false, isOAuthBasicAuthMandatory, true);
+        return AuthenticationResponse.of(false, isOAuthBasicAuthMandatory, true);
     }
 
     private String getAuthenticatorsChallengeString() {
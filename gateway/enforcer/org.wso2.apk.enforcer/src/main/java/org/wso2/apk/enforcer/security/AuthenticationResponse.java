@@ -20,6 +20,14 @@ package org.wso2.apk.enforcer.security;
  * through an authenticator.
  */
 public class AuthenticationResponse {
+    private static final AuthenticationResponse[] RESPONSES = new AuthenticationResponse[8];
+
+    static {
+        for (int i = 0; i < RESPONSES.length; i++) {
+            RESPONSES[i] = new AuthenticationResponse((i & 4) != 0, (i & 2) != 0, (i & 1) != 0);
+        }
+    }
+
     private boolean authenticated;
     private boolean mandatoryAuthentication;
     private boolean continueToNextAuthenticator;
@@ -31,6 +39,20 @@ public class AuthenticationResponse {
         this.continueToNextAuthenticator = continueToNextAuthenticator;
     }
 
+    /**
+     * Get the shared instance of the given authentication status.
+     *
+     * @param authenticated               whether the request is authenticated
+     * @param mandatoryAuthentication     whether the authentication is mandatory
+     * @param continueToNextAuthenticator whether the next authenticator should be tried
+     * @return authentication response
+     */
+    public static AuthenticationResponse of(boolean authenticated, boolean mandatoryAuthentication,
+                                            boolean continueToNextAuthenticator) {
+        return RESPONSES[(authenticated ? 4 : 0) | (mandatoryAuthentication ? 2 : 0)
+                | (continueToNextAuthenticator ? 1 : 0)];
+    }
+
     public boolean isAuthenticated() {
         return authenticated;
     }
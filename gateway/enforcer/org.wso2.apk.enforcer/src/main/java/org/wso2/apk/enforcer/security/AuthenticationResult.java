@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security;
+
+import org.wso2.apk.enforcer.commons.exception.APISecurityException;
+import org.wso2.apk.enforcer.commons.model.AuthenticationContext;
+import org.wso2.apk.enforcer.constants.APIConstants;
+import org.wso2.apk.enforcer.constants.APISecurityConstants;
+
+/**
+ * Outcome of an authentication attempt, which is either an {@link AuthenticationContext} or the error to respond
+ * with. The common denials are preallocated with stackless errors, so that an authenticator can reject a request
+ * without creating or throwing an exception.
+ */
+public final class AuthenticationResult {
+
+    public static final AuthenticationResult INVALID_CREDENTIALS = failure(
+            APIConstants.StatusCodes.UNAUTHENTICATED.getCode(), APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
+            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
+    public static final AuthenticationResult EXPIRED_TOKEN = failure(
+            APIConstants.StatusCodes.UNAUTHENTICATED.getCode(), APISecurityConstants.API_AUTH_ACCESS_TOKEN_EXPIRED,
+            APISecurityConstants.API_AUTH_ACCESS_TOKEN_EXPIRED_MESSAGE);
+    public static final AuthenticationResult REVOKED_TOKEN = failure(
+            APIConstants.StatusCodes.UNAUTHENTICATED.getCode(), APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
+            "Invalid JWT token");
+    public static final AuthenticationResult INVALID_SCOPE = failure(
+            APIConstants.StatusCodes.UNAUTHORIZED.getCode(), APISecurityConstants.INVALID_SCOPE,
+            "User is NOT authorized to access the Resource. Scope validation failed.");
+    public static final AuthenticationResult MALFORMED_TOKEN = failure(
+            APIConstants.StatusCodes.UNAUTHENTICATED.getCode(), APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
+            "Not a JWT token. Failed to decode the token header");
+    public static final AuthenticationResult INVALID_API_KEY = failure(
+            APIConstants.StatusCodes.UNAUTHENTICATED.getCode(), APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
+            "API key authentication failed.");
+    public static final AuthenticationResult INVALID_INTERNAL_KEY = failure(
+            APIConstants.StatusCodes.UNAUTHENTICATED.getCode(), APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
+            "Internal key authentication failed.");
+    public static final AuthenticationResult GENERAL_ERROR = failure(
+            APIConstants.StatusCodes.UNAUTHENTICATED.getCode(), APISecurityConstants.API_AUTH_GENERAL_ERROR,
+            APISecurityConstants.API_AUTH_GENERAL_ERROR_MESSAGE);
+    public static final AuthenticationResult VERIFICATION_OVERLOADED = failure(
+            APIConstants.StatusCodes.SERVICE_UNAVAILABLE.getCode(),
+            APISecurityConstants.API_AUTH_VERIFICATION_OVERLOADED, "JWT signature verification is overloaded");
+
+    private final AuthenticationContext authenticationContext;
+    private final APISecurityException error;
+
+    private AuthenticationResult(AuthenticationContext authenticationContext, APISecurityException error) {
+        this.authenticationContext = authenticationContext;
+        this.error = error;
+    }
+
+    public static AuthenticationResult success(AuthenticationContext authenticationContext) {
+        return new AuthenticationResult(authenticationContext, null);
+    }
+
+    public static AuthenticationResult failure(APISecurityException error) {
+        return new AuthenticationResult(null, error);
+    }
+
+    private static AuthenticationResult failure(int statusCode, int errorCode, String message) {
+        return new AuthenticationResult(null, new APISecurityException(statusCode, errorCode, message, false));
+    }
+
+    /**
+     * Get the failure for a token that was rejected by the token validation with the given validation code.
+     *
+     * @param validationCode validation code of the token
+     * @return preallocated failure of the validation code, or a new failure if the code is not a common one
+     */
+    public static AuthenticationResult ofValidationCode(int validationCode) {
+        switch (validationCode) {
+        case APISecurityConstants.API_AUTH_INVALID_CREDENTIALS:
+            return INVALID_CREDENTIALS;
+        case APISecurityConstants.API_AUTH_ACCESS_TOKEN_EXPIRED:
+            return EXPIRED_TOKEN;
+        case APISecurityConstants.API_AUTH_GENERAL_ERROR:
+            return GENERAL_ERROR;
+        default:
+            return failure(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(), validationCode,
+                    APISecurityConstants.getAuthenticationFailureMessage(validationCode));
+        }
+    }
+
+    /**
+     * Checks whether the authenticator produced an authentication context. Note that the context itself may still
+     * denote an unauthenticated request.
+     *
+     * @return true if the authentication did not fail with an error
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public AuthenticationContext getAuthenticationContext() {
+        return authenticationContext;
+    }
+
+    public APISecurityException getError() {
+        return error;
+    }
+
+    /**
+     * Get the authentication context, or throw the error if the authentication failed. This is used to expose a
+     * result through the exception based {@link Authenticator#authenticate} method.
+     *
+     * @return authentication context
+     * @throws APISecurityException if the authentication failed
+     */
+    public AuthenticationContext getAuthenticationContextOrThrow() throws APISecurityException {
+        if (error != null) {
+            throw error;
+        }
+        return authenticationContext;
+    }
+}
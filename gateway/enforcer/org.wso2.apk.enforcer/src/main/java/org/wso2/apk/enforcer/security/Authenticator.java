@@ -29,8 +29,31 @@ public interface Authenticator {
 
     boolean canAuthenticate(RequestContext requestContext);
 
+    /**
+     * Authenticate the request. Authenticators that reject requests often should implement
+     * {@link #authenticateForResult(RequestContext)} instead, and implement this method by delegating to it.
+     *
+     * @param requestContext request context
+     * @return authentication context
+     * @throws APISecurityException if the authentication fails
+     */
     AuthenticationContext authenticate(RequestContext requestContext) throws APISecurityException;
 
+    /**
+     * Authenticate the request without throwing an exception on failure. By default this delegates to
+     * {@link #authenticate(RequestContext)}, so that existing authenticators keep working unchanged.
+     *
+     * @param requestContext request context
+     * @return authentication result
+     */
+    default AuthenticationResult authenticateForResult(RequestContext requestContext) {
+        try {
+            return AuthenticationResult.success(authenticate(requestContext));
+        } catch (APISecurityException e) {
+            return AuthenticationResult.failure(e);
+        }
+    }
+
     /**
      * Returns a string representation of the authentication challenge imposed by this
      * authenticator. In case of an authentication failure this value will be sent back
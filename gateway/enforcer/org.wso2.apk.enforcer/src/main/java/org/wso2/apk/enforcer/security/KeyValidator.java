@@ -58,9 +58,8 @@ public class KeyValidator {
      * Validate the scopes related to the given validationContext.
      *
      * @param validationContext the token validation context
-     * @return true is the scopes are valid
-     * @throws EnforcerException throws if token validation fails.
-     *                           this will indicate the message body for the error response
+     * @return true if the scopes are valid, false if the token does not have a scope required by the resource
+     * @throws APISecurityException if the validation information has not been set
      */
     public static boolean validateScopes(TokenValidationContext validationContext) throws APISecurityException {
 
@@ -106,10 +105,9 @@ public class KeyValidator {
         if (!allScopesValidated) {
             apiKeyValidationInfoDTO.setAuthorized(false);
             apiKeyValidationInfoDTO.setValidationStatus(APIConstants.KeyValidationStatus.INVALID_SCOPE);
-            String message = "User is NOT authorized to access the Resource: " + failedResourcePath
-                    + ". Scope validation failed.";
-            throw new APISecurityException(APIConstants.StatusCodes.UNAUTHORIZED.getCode(),
-                    APISecurityConstants.INVALID_SCOPE, message);
+            log.debug("User is NOT authorized to access the Resource: {}. Scope validation failed.",
+                    failedResourcePath);
+            return false;
         }
         return true;
     }
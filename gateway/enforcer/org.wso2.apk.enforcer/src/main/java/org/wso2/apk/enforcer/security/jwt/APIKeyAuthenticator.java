@@ -26,7 +26,7 @@ import net.minidev.json.JSONObject;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
 import org.wso2.apk.enforcer.commons.constants.GraphQLConstants;
 import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
 import org.wso2.apk.enforcer.commons.dto.JWTInfoDto;
@@ -45,15 +45,12 @@ import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
 import org.wso2.apk.enforcer.constants.GeneralErrorCodeConstants;
 import org.wso2.apk.enforcer.dto.APIKeyValidationInfoDTO;
-import org.wso2.apk.enforcer.dto.JWTTokenPayloadInfo;
+import org.wso2.apk.enforcer.security.AuthenticationResult;
 import org.wso2.apk.enforcer.security.KeyValidator;
 import org.wso2.apk.enforcer.util.BackendJwtUtils;
 import org.wso2.apk.enforcer.util.FilterUtils;
 import org.wso2.apk.enforcer.util.JWTUtils;
 
-import java.math.BigInteger;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.security.cert.Certificate;
 import java.text.ParseException;
 import java.util.Map;
@@ -68,8 +65,6 @@ public class APIKeyAuthenticator extends APIKeyHandler {
     private Certificate certificate;
     private AbstractAPIMgtGatewayJWTGenerator jwtGenerator;
     private final boolean isGatewayTokenCacheEnabled;
-    private static final int IPV4_ADDRESS_BIT_LENGTH = 32;
-    private static final int IPV6_ADDRESS_BIT_LENGTH = 128;
 
     public APIKeyAuthenticator(final JWTConfigurationDto jwtConfigurationDto) {
 
@@ -127,6 +122,21 @@ public class APIKeyAuthenticator extends APIKeyHandler {
     @Override
     public AuthenticationContext authenticate(RequestContext requestContext) throws APISecurityException {
 
+        return authenticateForResult(requestContext).getAuthenticationContextOrThrow();
+    }
+
+    @Override
+    public AuthenticationResult authenticateForResult(RequestContext requestContext) {
+
+        try {
+            return doAuthenticate(requestContext);
+        } catch (APISecurityException e) {
+            return AuthenticationResult.failure(e);
+        }
+    }
+
+    private AuthenticationResult doAuthenticate(RequestContext requestContext) throws APISecurityException {
+
         if (certificate == null) {
             log.error("APIKeyAuthenticator has not been properly initialized. Empty certificate alias.",
                     ErrorDetails.errorLog(LoggingConstants.Severity.CRITICAL, 6604));
@@ -136,22 +146,27 @@ public class APIKeyAuthenticator extends APIKeyHandler {
         }
         if (requestContext.getMatchedAPI() == null) {
             log.debug("API Key Authentication failed");
-            throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                    APISecurityConstants.API_AUTH_GENERAL_ERROR,
-                    APISecurityConstants.API_AUTH_GENERAL_ERROR_MESSAGE);
+            return AuthenticationResult.GENERAL_ERROR;
         }
         String apiKey = getAPIKeyFromRequest(requestContext);
         return processAPIKey(requestContext, apiKey);
     }
 
-    private AuthenticationContext processAPIKey(RequestContext requestContext, String apiKey)
+    private AuthenticationResult processAPIKey(RequestContext requestContext, String apiKey)
             throws APISecurityException {
 
         try {
-            String[] splitToken = apiKey.split("\\.");
-
-            SignedJWT signedJWT = SignedJWT.parse(apiKey);
-            JWTClaimsSet payload = signedJWT.getJWTClaimsSet();
+            // API keys seen before are served from the cache without parsing them again.
+            TokenCacheEntry tokenCacheEntry = getCachedApiKey(apiKey, "API Key");
+            SignedJWT signedJWT;
+            JWTClaimsSet payload;
+            if (tokenCacheEntry != null) {
+                signedJWT = tokenCacheEntry.getSignedJWTInfo().getSignedJWT();
+                payload = tokenCacheEntry.getSignedJWTInfo().getJwtClaimsSet();
+            } else {
+                signedJWT = SignedJWT.parse(apiKey);
+                payload = signedJWT.getJWTClaimsSet();
+            }
 
             String apiVersion = requestContext.getMatchedAPI().getVersion();
             String apiContext = requestContext.getMatchedAPI().getBasePath();
@@ -160,39 +175,30 @@ public class APIKeyAuthenticator extends APIKeyHandler {
 
             // Avoids using internal API keys, when internal key header or queryParam configured as api_key
             if (isInternalKey(payload)) {
-                log.error("Invalid API Key token type. {} ", FilterUtils.getMaskedToken(splitToken[0]));
-                throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
+                log.debug("Invalid API Key token type. {} ", getMaskedHeader(apiKey));
+                return AuthenticationResult.INVALID_CREDENTIALS;
             }
 
             // Gives jti (also used to populate authentication context)
             String tokenIdentifier = payload.getJWTID();
 
             // Checks whether key contains in revoked map.
-            checkInRevokedMap(tokenIdentifier, splitToken);
+            checkInRevokedMap(tokenIdentifier, apiKey);
 
             // Verifies the token if it is found in cache
-            JWTTokenPayloadInfo jwtTokenPayloadInfo = (JWTTokenPayloadInfo)
-                    CacheProvider.getGatewayAPIKeyDataCache().getIfPresent(tokenIdentifier);
-            boolean isVerified = isVerifiedApiKeyInCache(tokenIdentifier, apiKey, payload, splitToken,
-                    "API Key", jwtTokenPayloadInfo);
+            boolean isVerified = isVerifiedApiKeyInCache(apiKey, "API Key", tokenCacheEntry);
 
             // Verifies token when it is not found in cache
             if (!isVerified) {
-                isVerified = verifyTokenWhenNotInCache(certificate, signedJWT, splitToken, payload, "API Key");
+                isVerified = verifyTokenWhenNotInCache(certificate, signedJWT, payload, "API Key");
             }
 
             if (isVerified) {
                 log.debug("API Key signature is verified.");
 
-                if (jwtTokenPayloadInfo == null) {
+                if (tokenCacheEntry == null) {
                     log.debug("API Key payload not found in the cache.");
-
-                    jwtTokenPayloadInfo = new JWTTokenPayloadInfo();
-                    jwtTokenPayloadInfo.setPayload(payload);
-                    jwtTokenPayloadInfo.setAccessToken(apiKey);
-                    CacheProvider.getGatewayAPIKeyDataCache().put(tokenIdentifier, jwtTokenPayloadInfo);
+                    tokenCacheEntry = cacheApiKey(apiKey, signedJWT, payload, "API Key", true);
                 }
                 // Validate token type
                 Object keyType = payload.getClaim("keytype");
@@ -201,7 +207,8 @@ public class APIKeyAuthenticator extends APIKeyHandler {
                     throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
                             APISecurityConstants.API_AUTH_INVALID_CREDENTIALS, "Invalid key type.");
                 }
-                validateAPIKeyRestrictions(payload, requestContext, apiContext, apiVersion);
+                validateAPIKeyRestrictions(getAPIKeyRestrictions(tokenCacheEntry, payload), requestContext, apiContext,
+                        apiVersion);
                 APIKeyValidationInfoDTO validationInfoDto;
                 log.debug("Validating subscription for API Key against subscription store."
                         + " context: {} version: {}", apiContext, apiVersion);
@@ -261,8 +268,7 @@ public class APIKeyAuthenticator extends APIKeyHandler {
                 // TODO: Add analytics data processing
 
                 // Get JWTValidationInfo
-                JWTValidationInfo validationInfo = new JWTValidationInfo();
-                validationInfo.setUser(payload.getSubject());
+                JWTValidationInfo validationInfo = tokenCacheEntry.getValidationInfo();
 
                 // Generate or get backend JWT
                 String endUserToken = null;
@@ -271,7 +277,7 @@ public class APIKeyAuthenticator extends APIKeyHandler {
                 if (jwtConfigurationDto.isEnabled()) {
                     JWTInfoDto jwtInfoDto = FilterUtils
                             .generateJWTInfoDto(null, validationInfo, validationInfoDto, requestContext);
-                    endUserToken = BackendJwtUtils.generateAndRetrieveJWTToken(jwtGenerator, tokenIdentifier,
+                    endUserToken = BackendJwtUtils.generateAndRetrieveJWTToken(jwtGenerator, tokenCacheEntry,
                             jwtInfoDto, isGatewayTokenCacheEnabled);
                     // Set generated jwt token as a response header
                     requestContext.addOrModifyHeaders(jwtConfigurationDto.getJwtHeader(), endUserToken);
@@ -282,19 +288,17 @@ public class APIKeyAuthenticator extends APIKeyHandler {
                         .generateAuthenticationContext(requestContext, tokenIdentifier, validationInfo,
                                 validationInfoDto, endUserToken, apiKey, false);
                 log.debug("Analytics data processing for API Key (jiti) {} was successful", tokenIdentifier);
-                return authenticationContext;
+                return AuthenticationResult.success(authenticationContext);
 
             }
+            log.debug("API Key authentication failed. {}", getMaskedHeader(apiKey));
+            if (tokenCacheEntry == null) {
+                cacheApiKey(apiKey, signedJWT, payload, "API Key", false);
+            }
         } catch (ParseException e) {
-            log.warn("API Key authentication failed. ", e);
-            throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                    APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                    "API key authentication failed.");
+            log.debug("API Key authentication failed. {}", e.getMessage());
         }
-        log.warn("API Key authentication failed.");
-        throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                "API key authentication failed.");
+        return AuthenticationResult.INVALID_API_KEY;
     }
 
     private APIKeyValidationInfoDTO getAPIKeyValidationDTO(RequestContext requestContext, JWTClaimsSet payload)
@@ -363,29 +367,35 @@ public class APIKeyAuthenticator extends APIKeyHandler {
         return validationInfoDTO;
     }
 
-    private void validateAPIKeyRestrictions(JWTClaimsSet payload, RequestContext requestContext, String apiContext,
-                                            String apiVersion) throws APISecurityException {
-
-        String permittedIPList = null;
-        if (payload.getClaim(APIConstants.JwtTokenConstants.PERMITTED_IP) != null) {
-            permittedIPList = (String) payload.getClaim(APIConstants.JwtTokenConstants.PERMITTED_IP);
+    /**
+     * Get the compiled restrictions of the API key. The restrictions are compiled once per API key and cached along
+     * with the API key.
+     */
+    private static APIKeyRestrictions getAPIKeyRestrictions(TokenCacheEntry tokenCacheEntry, JWTClaimsSet payload) {
+        APIKeyRestrictions restrictions = tokenCacheEntry.getApiKeyRestrictions();
+        if (restrictions == null) {
+            restrictions = APIKeyRestrictions.compile(
+                    (String) payload.getClaim(APIConstants.JwtTokenConstants.PERMITTED_IP),
+                    (String) payload.getClaim(APIConstants.JwtTokenConstants.PERMITTED_REFERER));
+            tokenCacheEntry.setApiKeyRestrictions(restrictions);
         }
+        return restrictions;
+    }
+
+    private void validateAPIKeyRestrictions(APIKeyRestrictions restrictions, RequestContext requestContext,
+                                            String apiContext, String apiVersion) throws APISecurityException {
 
-        if (StringUtils.isNotEmpty(permittedIPList)) {
+        if (restrictions.isIpRestricted()) {
             // Validate client IP against permitted IPs
             String clientIP = requestContext.getClientIp();
 
             if (StringUtils.isNotEmpty(clientIP)) {
-                for (String restrictedIP : permittedIPList.split(",")) {
-                    if (isIpInNetwork(clientIP, restrictedIP.trim())) {
-                        // Client IP is allowed
-                        return;
-                    }
-                }
-                if (StringUtils.isNotEmpty(clientIP)) {
-                    log.debug("Invocations to API: {}:{} is not permitted for client with IP: {}",
-                            apiContext, apiVersion, clientIP);
+                if (restrictions.isIpPermitted(clientIP)) {
+                    // Client IP is allowed
+                    return;
                 }
+                log.debug("Invocations to API: {}:{} is not permitted for client with IP: {}",
+                        apiContext, apiVersion, clientIP);
 
                 throw new APISecurityException(APIConstants.StatusCodes.UNAUTHORIZED.getCode(),
                         APISecurityConstants.API_AUTH_FORBIDDEN, APISecurityConstants.API_AUTH_FORBIDDEN_MESSAGE);
@@ -393,28 +403,18 @@ public class APIKeyAuthenticator extends APIKeyHandler {
 
         }
 
-        String permittedRefererList = null;
-        if (payload.getClaim(APIConstants.JwtTokenConstants.PERMITTED_REFERER) != null) {
-            permittedRefererList = (String) payload.getClaim(APIConstants.JwtTokenConstants.PERMITTED_REFERER);
-        }
-        if (StringUtils.isNotEmpty(permittedRefererList)) {
+        if (restrictions.isRefererRestricted()) {
             // Validate http referer against the permitted referrers
             Map<String, String> transportHeaderMap = requestContext.getHeaders();
             if (transportHeaderMap != null) {
                 String referer = transportHeaderMap.get("referer");
                 if (StringUtils.isNotEmpty(referer)) {
-                    for (String restrictedReferer : permittedRefererList.split(",")) {
-                        String restrictedRefererRegExp = restrictedReferer.trim()
-                                .replace("*", "[^ ]*");
-                        if (referer.matches(restrictedRefererRegExp)) {
-                            // Referer is allowed
-                            return;
-                        }
-                    }
-                    if (StringUtils.isNotEmpty(referer)) {
-                        log.debug("Invocations to API: {}:{} is not permitted for referer: {}",
-                                apiContext, apiVersion, referer);
+                    if (restrictions.isRefererPermitted(referer)) {
+                        // Referer is allowed
+                        return;
                     }
+                    log.debug("Invocations to API: {}:{} is not permitted for referer: {}",
+                            apiContext, apiVersion, referer);
                 }
                 throw new APISecurityException(APIConstants.StatusCodes.UNAUTHORIZED.getCode(),
                         APISecurityConstants.API_AUTH_FORBIDDEN, APISecurityConstants.API_AUTH_FORBIDDEN_MESSAGE);
@@ -422,61 +422,6 @@ public class APIKeyAuthenticator extends APIKeyHandler {
         }
     }
 
-    private boolean isIpInNetwork(String ip, String cidr) {
-
-        if (StringUtils.isEmpty(ip) || StringUtils.isEmpty(cidr)) {
-            return false;
-        }
-        ip = ip.trim();
-        cidr = cidr.trim();
-
-        if (cidr.contains("/")) {
-            String[] cidrArr = cidr.split("/");
-            if (cidrArr.length < 2 || (ip.contains(".") && !cidr.contains(".")) ||
-                    (ip.contains(":") && !cidr.contains(":"))) {
-                return false;
-            }
-
-            BigInteger netAddress = ipToBigInteger(cidrArr[0]);
-            int netBits = Integer.parseInt(cidrArr[1]);
-            BigInteger givenIP = ipToBigInteger(ip);
-
-            if (ip.contains(".")) {
-                // IPv4
-                return netAddress.shiftRight(IPV4_ADDRESS_BIT_LENGTH - netBits)
-                        .shiftLeft(IPV4_ADDRESS_BIT_LENGTH - netBits).compareTo(
-                                givenIP.shiftRight(IPV4_ADDRESS_BIT_LENGTH - netBits)
-                                        .shiftLeft(IPV4_ADDRESS_BIT_LENGTH - netBits)) == 0;
-            } else if (ip.contains(":")) {
-                // IPv6
-                return netAddress.shiftRight(IPV6_ADDRESS_BIT_LENGTH - netBits)
-                        .shiftLeft(IPV6_ADDRESS_BIT_LENGTH - netBits).compareTo(
-                                givenIP.shiftRight(IPV6_ADDRESS_BIT_LENGTH - netBits)
-                                        .shiftLeft(IPV6_ADDRESS_BIT_LENGTH - netBits)) == 0;
-            }
-        } else return ip.equals(cidr);
-        return false;
-    }
-
-    private BigInteger ipToBigInteger(String ipAddress) {
-
-        InetAddress address;
-        try {
-            address = getAddress(ipAddress);
-            byte[] bytes = address.getAddress();
-            return new BigInteger(1, bytes);
-        } catch (UnknownHostException e) {
-            //ignore the error and log it
-            log.error("Error while parsing host IP {}", ipAddress, e);
-        }
-        return BigInteger.ZERO;
-    }
-
-    private InetAddress getAddress(String ipAddress) throws UnknownHostException {
-
-        return InetAddress.getByName(ipAddress);
-    }
-
     @Override
     public String getChallengeString() {
 
@@ -18,6 +18,7 @@
 
 package org.wso2.apk.enforcer.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.proc.BadJWTException;
@@ -27,19 +28,21 @@ import net.minidev.json.JSONObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
 import org.wso2.apk.enforcer.commons.exception.APISecurityException;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
 import org.wso2.apk.enforcer.commons.logging.ErrorDetails;
 import org.wso2.apk.enforcer.commons.logging.LoggingConstants;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
-import org.wso2.apk.enforcer.dto.JWTTokenPayloadInfo;
+import org.wso2.apk.enforcer.security.AuthenticationResult;
 import org.wso2.apk.enforcer.security.Authenticator;
 import org.wso2.apk.enforcer.security.jwt.validator.RevokedJWTDataHolder;
 import org.wso2.apk.enforcer.util.FilterUtils;
 import org.wso2.apk.enforcer.util.JWTUtils;
 
 import java.security.cert.Certificate;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An abstract class which can be used to handle API keys.
@@ -55,10 +58,7 @@ public abstract class APIKeyHandler implements Authenticator {
      * @return whether a given string is an API key or not.
      */
     public boolean isAPIKey(String apiKey) {
-        if (apiKey != null && apiKey.split("\\.").length == 3) {
-            return true;
-        }
-        return false;
+        return AuthenticatorUtils.isAPIKey(apiKey);
     }
 
     /**
@@ -79,70 +79,91 @@ public abstract class APIKeyHandler implements Authenticator {
      * Checks the API key in revoked map.
      *
      * @param tokenIdentifier token identifier for the API key
-     * @param splitToken      API key segments
+     * @param apiKey          API key relevant to the request
      * @throws APISecurityException if an invalid API key is passed to the method.
      */
-    public void checkInRevokedMap(String tokenIdentifier, String[] splitToken) throws APISecurityException {
+    public void checkInRevokedMap(String tokenIdentifier, String apiKey) throws APISecurityException {
         if (RevokedJWTDataHolder.isJWTTokenSignatureExistsInRevokedMap(tokenIdentifier)) {
-            log.debug("API key retrieved from the revoked jwt token map. Token: {}",
-                         FilterUtils.getMaskedToken(splitToken[0]));
-            log.error("Invalid API Key. {}", FilterUtils.getMaskedToken(splitToken[0]));
-            throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                    APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                    APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
+            log.debug("API key retrieved from the revoked jwt token map. Token: {}", getMaskedHeader(apiKey));
+            log.error("Invalid API Key. {}", getMaskedHeader(apiKey));
+            throw AuthenticationResult.INVALID_CREDENTIALS.getError();
         }
     }
 
     /**
-     * Ensures whether a given API key is in the cache.
+     * Gets the cache entry of a given API key. The cache is keyed by the raw API key, so an API key seen before is
+     * found without decoding or parsing it. The entry holds the parsed API key and the outcome of its validation.
      *
-     * @param tokenIdentifier     token identifier for the API key
-     * @param apiKey              API key relevant to the request
-     * @param payload             payload in the API key
-     * @param splitToken          API key segments
-     * @param apiKeyType          API key type
-     * @param jwtTokenPayloadInfo payload information
+     * @param apiKey     API key relevant to the request
+     * @param apiKeyType API key type
+     * @return cache entry of the API key or null if the API key is not in the cache
+     */
+    public TokenCacheEntry getCachedApiKey(String apiKey, String apiKeyType) {
+        return getApiKeyCache(apiKeyType).getIfPresent(apiKey);
+    }
+
+    /**
+     * Adds a given API key to the cache along with its verification status.
+     *
+     * @param apiKey     API key relevant to the request
+     * @param signedJWT  Signed JWT for the API key
+     * @param payload    API key payload
+     * @param apiKeyType API key type
+     * @param isVerified whether the API key is verified
+     * @return cache entry of the API key
+     */
+    public TokenCacheEntry cacheApiKey(String apiKey, SignedJWT signedJWT, JWTClaimsSet payload, String apiKeyType,
+                                       boolean isVerified) {
+        TokenCacheEntry tokenCacheEntry = AuthenticatorUtils.createApiKeyCacheEntry(apiKey, signedJWT, payload,
+                isVerified);
+        getApiKeyCache(apiKeyType).put(apiKey, tokenCacheEntry);
+        return tokenCacheEntry;
+    }
+
+    /**
+     * Ensures whether a given API key is in the cache. The expiry of a cached API key is checked against the expiry
+     * time held by the cache entry, without going through the claims of the API key again.
+     *
+     * @param apiKey          API key relevant to the request
+     * @param apiKeyType      API key type
+     * @param tokenCacheEntry cache entry of the API key
      * @return whether a given API key was in the cache or not
      * @throws APISecurityException if there is an error when checking the token in cache
      */
-    public boolean isVerifiedApiKeyInCache(String tokenIdentifier, String apiKey, JWTClaimsSet payload,
-                                           String[] splitToken, String apiKeyType,
-                                           JWTTokenPayloadInfo jwtTokenPayloadInfo) throws APISecurityException {
-        boolean isVerified = false;
-        if (jwtTokenPayloadInfo != null) {
-            String cachedToken = jwtTokenPayloadInfo.getAccessToken();
-            isVerified = cachedToken.equals(apiKey) && !isJwtTokenExpired(payload, apiKeyType);
-        } else {
-            boolean isInvalidInternalAPIKey = CacheProvider.getInvalidGatewayInternalKeyCache()
-                    .getIfPresent(tokenIdentifier) != null &&
-                    apiKey.equals(CacheProvider.getInvalidGatewayInternalKeyCache().getIfPresent(tokenIdentifier));
-            boolean isInvalidAPIKey = CacheProvider.getInvalidGatewayAPIKeyCache()
-                    .getIfPresent(tokenIdentifier) != null &&
-                    apiKey.equals(CacheProvider.getInvalidGatewayAPIKeyCache().getIfPresent(tokenIdentifier));
-            if (isInvalidInternalAPIKey || isInvalidAPIKey) {
-                log.debug("API key found in cache for invalid API keys. " + FilterUtils.getMaskedToken(splitToken[0]),
-                        ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6601));
-                throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
-            }
+    public boolean isVerifiedApiKeyInCache(String apiKey, String apiKeyType, TokenCacheEntry tokenCacheEntry)
+            throws APISecurityException {
+        if (tokenCacheEntry == null) {
+            return false;
         }
-        return isVerified;
+        SignedJWTInfo.ValidationStatus validationStatus = tokenCacheEntry.getValidationStatus();
+        if (SignedJWTInfo.ValidationStatus.INVALID.equals(validationStatus)) {
+            log.debug("API key found in cache for invalid API keys. " + getMaskedHeader(apiKey),
+                    ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6601));
+            throw AuthenticationResult.INVALID_CREDENTIALS.getError();
+        }
+        if (!SignedJWTInfo.ValidationStatus.VALID.equals(validationStatus)) {
+            return false;
+        }
+        if (tokenCacheEntry.isExpired(TimeUnit.SECONDS.toMillis(FilterUtils.getTimeStampSkewInSeconds()))) {
+            log.debug("{} API key is expired.", apiKeyType);
+            tokenCacheEntry.invalidate();
+            throw AuthenticationResult.INVALID_CREDENTIALS.getError();
+        }
+        return true;
     }
 
     /**
      * Handles API key if it's not found in the cache.
      *
-     * @param alias      Certificate alias used to verify the JWT signature
-     * @param signedJWT  Signed JWT for the API key
-     * @param splitToken API key segments.
-     * @param payload    API key payload
-     * @param apiKeyType API key type
+     * @param certificate Certificate used to verify the JWT signature
+     * @param signedJWT   Signed JWT for the API key
+     * @param payload     API key payload
+     * @param apiKeyType  API key type
      * @return verification status if API key not found in the cache
      * @throws APISecurityException if the given API key is not in the cache and able to verify
      */
-    public boolean verifyTokenWhenNotInCache(Certificate certificate, SignedJWT signedJWT, String[] splitToken,
-                                             JWTClaimsSet payload, String apiKeyType) throws APISecurityException {
+    public boolean verifyTokenWhenNotInCache(Certificate certificate, SignedJWT signedJWT, JWTClaimsSet payload,
+                                             String apiKeyType) throws APISecurityException {
         boolean isVerified = false;
         log.debug("{} not found in the cache.", apiKeyType);
 
@@ -166,22 +187,29 @@ public abstract class APIKeyHandler implements Authenticator {
         } catch (BadJWTException e) {
             if ("Expired JWT".equals(e.getMessage())) {
                 log.debug("{} API key is expired.", keyType);
-                if (APIConstants.JwtTokenConstants.INTERNAL_KEY_TOKEN_TYPE.equals(keyType)) {
-                    CacheProvider.getGatewayInternalKeyDataCache().invalidate(payload.getJWTID());
-                    CacheProvider.getInvalidGatewayInternalKeyCache().put(payload.getJWTID(), "carbon.super");
-                } else {
-                    CacheProvider.getGatewayAPIKeyDataCache().invalidate(payload.getJWTID());
-                    CacheProvider.getInvalidGatewayAPIKeyCache().put(payload.getJWTID(), "carbon.super");
-                }
-                throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
+                throw AuthenticationResult.INVALID_CREDENTIALS.getError();
             }
         }
         return false;
     }
 
+    /**
+     * Masks the header segment of the API key for logging.
+     *
+     * @param apiKey API key relevant to the request
+     * @return masked header of the API key
+     */
+    protected static String getMaskedHeader(String apiKey) {
+        int headerEnd = apiKey.indexOf('.');
+        return FilterUtils.getMaskedToken(headerEnd < 0 ? apiKey : apiKey.substring(0, headerEnd));
+    }
 
+    private static Cache<String, TokenCacheEntry> getApiKeyCache(String apiKeyType) {
+        if (APIConstants.JwtTokenConstants.INTERNAL_KEY_TOKEN_TYPE.equals(apiKeyType)) {
+            return CacheProvider.getGatewayInternalKeyCache();
+        }
+        return CacheProvider.getGatewayAPIKeyCache();
+    }
 
     /**
      * Checks for API subscriptions.
@@ -189,13 +217,12 @@ public abstract class APIKeyHandler implements Authenticator {
      * @param apiContext API context
      * @param apiVersion API version
      * @param payload    Payload information
-     * @param splitToken API key segments
      * @param isOauth    indicates OAuth token type
      * @return JSON object for the subscribed API
      * @throws APISecurityException if error happens while validating subscription details
      */
     public static JSONObject validateAPISubscription(String apiContext, String apiVersion, JWTClaimsSet payload,
-                                                     String[] splitToken, boolean isOauth)
+                                                     boolean isOauth)
             throws APISecurityException {
 
         JSONObject api = null;
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * IP and referer restrictions of an API key, compiled once per API key from its permittedIP and permittedReferer
+ * claims. The compiled restrictions are immutable and cached along with the validated API key.
+ * <p>
+ * Permitted IPs are either addresses, which are matched as is, or IPv4/IPv6 CIDR blocks, which are kept in a binary
+ * prefix trie per address family. Matching an address walks the trie for at most the address length. Permitted
+ * referers are either referers, which are matched as is, or patterns where '*' matches any run of characters other
+ * than spaces.
+ */
+public final class APIKeyRestrictions {
+
+    private static final Logger log = LogManager.getLogger(APIKeyRestrictions.class);
+
+    private static final int IPV4_ADDRESS_BIT_LENGTH = 32;
+    private static final int IPV6_ADDRESS_BIT_LENGTH = 128;
+
+    private final IPMatcher ipMatcher;
+    private final RefererMatcher refererMatcher;
+
+    private APIKeyRestrictions(IPMatcher ipMatcher, RefererMatcher refererMatcher) {
+        this.ipMatcher = ipMatcher;
+        this.refererMatcher = refererMatcher;
+    }
+
+    /**
+     * Compile the restrictions of an API key.
+     *
+     * @param permittedIPs      comma separated permitted IPs and CIDR blocks, or null if the key is not restricted
+     *                          by IP
+     * @param permittedReferers comma separated permitted referers, or null if the key is not restricted by referer
+     * @return compiled restrictions
+     */
+    public static APIKeyRestrictions compile(String permittedIPs, String permittedReferers) {
+        return new APIKeyRestrictions(StringUtils.isNotEmpty(permittedIPs) ? new IPMatcher(permittedIPs) : null,
+                StringUtils.isNotEmpty(permittedReferers) ? new RefererMatcher(permittedReferers) : null);
+    }
+
+    public boolean isIpRestricted() {
+        return ipMatcher != null;
+    }
+
+    public boolean isRefererRestricted() {
+        return refererMatcher != null;
+    }
+
+    /**
+     * Checks whether the client IP is permitted to use the API key.
+     *
+     * @param clientIp IP address of the client
+     * @return true if the key is not restricted by IP or the client IP is permitted
+     */
+    public boolean isIpPermitted(String clientIp) {
+        return ipMatcher == null || (clientIp != null && ipMatcher.matches(clientIp.trim()));
+    }
+
+    /**
+     * Checks whether the referer is permitted to use the API key.
+     *
+     * @param referer referer of the request
+     * @return true if the key is not restricted by referer or the referer is permitted
+     */
+    public boolean isRefererPermitted(String referer) {
+        return refererMatcher == null || (referer != null && refererMatcher.matches(referer));
+    }
+
+    /**
+     * Parses an IPv4 address in dotted decimal form.
+     *
+     * @return the address, or -1 if it is not a valid IPv4 address
+     */
+    static long parseIPv4(String address, int from, int to) {
+        long value = 0;
+        int parts = 0;
+        int i = from;
+        while (i <= to) {
+            int part = 0;
+            int digits = 0;
+            while (i < to && address.charAt(i) != '.') {
+                char c = address.charAt(i++);
+                if (c < '0' || c > '9' || ++digits > 3) {
+                    return -1;
+                }
+                part = part * 10 + (c - '0');
+            }
+            if (digits == 0 || part > 255 || ++parts > 4) {
+                return -1;
+            }
+            value = (value << 8) | part;
+            // Skip the separator.
+            i++;
+        }
+        return parts == 4 ? value : -1;
+    }
+
+    /**
+     * Parses an IPv6 address, including the compressed form and the form with an IPv4 address in the last 32 bits.
+     * A zone ID, if any, is ignored.
+     *
+     * @return the high and low 64 bits of the address, or null if it is not a valid IPv6 address
+     */
+    static long[] parseIPv6(String address) {
+        int length = address.indexOf('%');
+        if (length < 0) {
+            length = address.length();
+        }
+        int[] groups = new int[8];
+        int count = 0;
+        int compressAt = -1;
+        int i = 0;
+        if (length >= 2 && address.charAt(0) == ':' && address.charAt(1) == ':') {
+            compressAt = 0;
+            i = 2;
+        }
+        while (i < length) {
+            int end = i;
+            boolean ipv4 = false;
+            while (end < length && address.charAt(end) != ':') {
+                ipv4 |= address.charAt(end) == '.';
+                end++;
+            }
+            if (ipv4) {
+                long value = end == length && count <= 6 ? parseIPv4(address, i, end) : -1;
+                if (value < 0) {
+                    return null;
+                }
+                groups[count++] = (int) (value >>> 16);
+                groups[count++] = (int) (value & 0xffff);
+                break;
+            }
+            if (end == i || end - i > 4 || count == 8) {
+                return null;
+            }
+            int group = 0;
+            for (int j = i; j < end; j++) {
+                int digit = Character.digit(address.charAt(j), 16);
+                if (digit < 0) {
+                    return null;
+                }
+                group = (group << 4) | digit;
+            }
+            groups[count++] = group;
+            if (end == length) {
+                break;
+            }
+            i = end + 1;
+            if (i < length && address.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return null;
+                }
+                compressAt = count;
+                i++;
+            } else if (i == length) {
+                // A single trailing colon.
+                return null;
+            }
+        }
+        if (compressAt >= 0) {
+            if (count == 8) {
+                return null;
+            }
+            int shift = 8 - count;
+            for (int j = count - 1; j >= compressAt; j--) {
+                groups[j + shift] = groups[j];
+                groups[j] = 0;
+            }
+        } else if (count != 8) {
+            return null;
+        }
+        long high = 0;
+        long low = 0;
+        for (int j = 0; j < 4; j++) {
+            high = (high << 16) | groups[j];
+            low = (low << 16) | groups[j + 4];
+        }
+        return new long[]{high, low};
+    }
+
+    /**
+     * Matches IP addresses against a list of addresses and CIDR blocks.
+     */
+    private static final class IPMatcher {
+
+        private final Set<String> addresses = new HashSet<>();
+        private final PrefixTrie ipv4Networks = new PrefixTrie();
+        private final PrefixTrie ipv6Networks = new PrefixTrie();
+
+        private IPMatcher(String permittedIPs) {
+            for (String permittedIP : permittedIPs.split(",")) {
+                permittedIP = permittedIP.trim();
+                if (permittedIP.isEmpty()) {
+                    continue;
+                }
+                int separator = permittedIP.indexOf('/');
+                if (separator < 0) {
+                    addresses.add(permittedIP);
+                } else if (!addNetwork(permittedIP.substring(0, separator).trim(),
+                        permittedIP.substring(separator + 1).trim())) {
+                    log.debug("Ignoring invalid permitted IP {} of the API key", permittedIP);
+                }
+            }
+        }
+
+        private boolean addNetwork(String address, String prefixLength) {
+            int prefix;
+            try {
+                prefix = Integer.parseInt(prefixLength);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (address.indexOf(':') >= 0) {
+                long[] ipv6 = parseIPv6(address);
+                if (ipv6 == null || prefix < 0 || prefix > IPV6_ADDRESS_BIT_LENGTH) {
+                    return false;
+                }
+                ipv6Networks.add(ipv6[0], ipv6[1], prefix);
+                return true;
+            }
+            long ipv4 = parseIPv4(address, 0, address.length());
+            if (ipv4 < 0 || prefix < 0 || prefix > IPV4_ADDRESS_BIT_LENGTH) {
+                return false;
+            }
+            ipv4Networks.add(ipv4 << IPV4_ADDRESS_BIT_LENGTH, 0, prefix);
+            return true;
+        }
+
+        private boolean matches(String ip) {
+            if (addresses.contains(ip)) {
+                return true;
+            }
+            if (ip.indexOf(':') >= 0) {
+                if (ipv6Networks.isEmpty() && ipv4Networks.isEmpty()) {
+                    return false;
+                }
+                long[] ipv6 = parseIPv6(ip);
+                if (ipv6 == null) {
+                    return false;
+                }
+                if (ipv6Networks.matches(ipv6[0], ipv6[1])) {
+                    return true;
+                }
+                // IPv4 clients of a dual stack listener are seen as IPv4-mapped IPv6 addresses.
+                return ipv6[0] == 0 && (ipv6[1] >>> IPV4_ADDRESS_BIT_LENGTH) == 0xffffL
+                        && ipv4Networks.matches(ipv6[1] << IPV4_ADDRESS_BIT_LENGTH, 0);
+            }
+            if (ipv4Networks.isEmpty()) {
+                return false;
+            }
+            long ipv4 = parseIPv4(ip, 0, ip.length());
+            return ipv4 >= 0 && ipv4Networks.matches(ipv4 << IPV4_ADDRESS_BIT_LENGTH, 0);
+        }
+    }
+
+    /**
+     * Binary trie of network prefixes of up to 128 bits. An address matches if any prefix in the trie is a prefix of
+     * the address.
+     */
+    private static final class PrefixTrie {
+
+        private final Node root = new Node();
+        private boolean empty = true;
+
+        private void add(long high, long low, int prefixLength) {
+            Node node = root;
+            for (int bit = 0; bit < prefixLength && !node.terminal; bit++) {
+                if (bitAt(high, low, bit) == 0) {
+                    if (node.zero == null) {
+                        node.zero = new Node();
+                    }
+                    node = node.zero;
+                } else {
+                    if (node.one == null) {
+                        node.one = new Node();
+                    }
+                    node = node.one;
+                }
+            }
+            // A shorter prefix already covers this network.
+            node.terminal = true;
+            node.zero = null;
+            node.one = null;
+            empty = false;
+        }
+
+        private boolean matches(long high, long low) {
+            Node node = root;
+            for (int bit = 0; node != null; bit++) {
+                if (node.terminal) {
+                    return true;
+                }
+                if (bit == IPV6_ADDRESS_BIT_LENGTH) {
+                    return false;
+                }
+                node = bitAt(high, low, bit) == 0 ? node.zero : node.one;
+            }
+            return false;
+        }
+
+        private boolean isEmpty() {
+            return empty;
+        }
+
+        private static long bitAt(long high, long low, int bit) {
+            return bit < 64 ? (high >>> (63 - bit)) & 1 : (low >>> (127 - bit)) & 1;
+        }
+
+        private static final class Node {
+            private Node zero;
+            private Node one;
+            private boolean terminal;
+        }
+    }
+
+    /**
+     * Matches referers against a list of referers and wildcard patterns.
+     */
+    private static final class RefererMatcher {
+
+        private final Set<String> referers = new HashSet<>();
+        // Literal segments of the wildcard patterns, i.e. the pattern split at each '*'.
+        private final List<String[]> patterns = new ArrayList<>();
+        // Wildcard patterns with spaces, where a '*' must not match across a space of the referer.
+        private final List<Pattern> patternsWithSpaces = new ArrayList<>();
+
+        private RefererMatcher(String permittedReferers) {
+            for (String permittedReferer : permittedReferers.split(",")) {
+                permittedReferer = permittedReferer.trim();
+                if (permittedReferer.isEmpty()) {
+                    continue;
+                }
+                if (permittedReferer.indexOf('*') < 0) {
+                    referers.add(permittedReferer);
+                } else if (permittedReferer.indexOf(' ') < 0) {
+                    patterns.add(permittedReferer.split("\\*", -1));
+                } else {
+                    StringBuilder regex = new StringBuilder();
+                    String[] segments = permittedReferer.split("\\*", -1);
+                    for (int i = 0; i < segments.length; i++) {
+                        if (i > 0) {
+                            regex.append("[^ ]*");
+                        }
+                        regex.append(Pattern.quote(segments[i]));
+                    }
+                    patternsWithSpaces.add(Pattern.compile(regex.toString()));
+                }
+            }
+        }
+
+        private boolean matches(String referer) {
+            if (referers.contains(referer)) {
+                return true;
+            }
+            // A '*' does not match spaces and the patterns themselves have none, so such referers cannot match.
+            if (referer.indexOf(' ') < 0) {
+                for (String[] pattern : patterns) {
+                    if (matches(referer, pattern)) {
+                        return true;
+                    }
+                }
+            }
+            for (Pattern pattern : patternsWithSpaces) {
+                if (pattern.matcher(referer).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean matches(String referer, String[] segments) {
+            String first = segments[0];
+            String last = segments[segments.length - 1];
+            if (!referer.startsWith(first) || !referer.endsWith(last)) {
+                return false;
+            }
+            int from = first.length();
+            int to = referer.length() - last.length();
+            if (to < from) {
+                return false;
+            }
+            // Matching each segment at its first occurrence leaves the most room for the rest.
+            for (int i = 1; i < segments.length - 1; i++) {
+                int index = referer.indexOf(segments[i], from);
+                if (index < 0 || index + segments[i].length() > to) {
+                    return false;
+                }
+                from = index + segments[i].length();
+            }
+            return true;
+        }
+    }
+}
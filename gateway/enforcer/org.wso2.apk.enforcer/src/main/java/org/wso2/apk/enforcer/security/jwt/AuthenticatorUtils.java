@@ -19,7 +19,10 @@
 package org.wso2.apk.enforcer.security.jwt;
 
 import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
 import net.minidev.json.JSONObject;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
+import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.dto.APIKeyValidationInfoDTO;
 
@@ -41,4 +44,50 @@ public class AuthenticatorUtils {
             }
         }
     }
+
+    /**
+     * Checks whether a given string has the three segments of an API key, separated by dots. The check scans the
+     * key without splitting it as it runs for every request.
+     *
+     * @param apiKey API key string
+     * @return whether the given string is an API key or not
+     */
+    public static boolean isAPIKey(String apiKey) {
+        if (apiKey == null) {
+            return false;
+        }
+        // Trailing dots are ignored, the same as String#split does.
+        int end = apiKey.length();
+        while (end > 0 && apiKey.charAt(end - 1) == '.') {
+            end--;
+        }
+        int dots = 0;
+        for (int i = 0; i < end; i++) {
+            if (apiKey.charAt(i) == '.' && ++dots > 2) {
+                return false;
+            }
+        }
+        return dots == 2;
+    }
+
+    /**
+     * Creates the cache entry of an API key (or an internal key) along with its verification status.
+     *
+     * @param apiKey     raw API key, which is the key of the entry in the cache
+     * @param signedJWT  Signed JWT for the API key
+     * @param payload    API key payload
+     * @param isVerified whether the API key is verified
+     * @return cache entry of the API key
+     */
+    public static TokenCacheEntry createApiKeyCacheEntry(String apiKey, SignedJWT signedJWT, JWTClaimsSet payload,
+                                                         boolean isVerified) {
+        TokenCacheEntry tokenCacheEntry = new TokenCacheEntry(new SignedJWTInfo(apiKey, signedJWT, payload));
+        JWTValidationInfo validationInfo = null;
+        if (isVerified) {
+            validationInfo = new JWTValidationInfo();
+            validationInfo.setUser(payload.getSubject());
+        }
+        tokenCacheEntry.setValidationResult(isVerified, validationInfo);
+        return tokenCacheEntry;
+    }
 }
@@ -24,7 +24,7 @@ import net.minidev.json.JSONObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
-import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
 import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
 import org.wso2.apk.enforcer.commons.dto.JWTInfoDto;
 import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
@@ -42,8 +42,8 @@ import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
 import org.wso2.apk.enforcer.constants.GeneralErrorCodeConstants;
 import org.wso2.apk.enforcer.dto.APIKeyValidationInfoDTO;
-import org.wso2.apk.enforcer.dto.JWTTokenPayloadInfo;
 import org.wso2.apk.enforcer.models.API;
+import org.wso2.apk.enforcer.security.AuthenticationResult;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataHolder;
 import org.wso2.apk.enforcer.subscription.SubscriptionDataStore;
 import org.wso2.apk.enforcer.tracing.TracingConstants;
@@ -88,6 +88,21 @@ public class InternalAPIKeyAuthenticator extends APIKeyHandler {
     @Override
     public AuthenticationContext authenticate(RequestContext requestContext) throws APISecurityException {
 
+        return authenticateForResult(requestContext).getAuthenticationContextOrThrow();
+    }
+
+    @Override
+    public AuthenticationResult authenticateForResult(RequestContext requestContext) {
+
+        try {
+            return doAuthenticate(requestContext);
+        } catch (APISecurityException e) {
+            return AuthenticationResult.failure(e);
+        }
+    }
+
+    private AuthenticationResult doAuthenticate(RequestContext requestContext) throws APISecurityException {
+
         TracingTracer tracer = null;
         TracingSpan apiKeyAuthenticatorSpan = null;
         Scope apiKeyAuthenticatorSpanScope = null;
@@ -110,13 +125,21 @@ public class InternalAPIKeyAuthenticator extends APIKeyHandler {
                 String internalKey = requestContext.getHeaders().get(requestContext.getMatchedResourcePaths().get(0)
                         .getAuthenticationConfig().getInternalKeyConfig().getHeader());
 
-                String[] splitToken = internalKey.split("\\.");
-                SignedJWT signedJWT = SignedJWT.parse(internalKey);
-                JWTClaimsSet payload = signedJWT.getJWTClaimsSet();
+                // Internal keys seen before are served from the cache without parsing them again.
+                TokenCacheEntry tokenCacheEntry = getCachedApiKey(internalKey, "InternalKey");
+                SignedJWT signedJWT;
+                JWTClaimsSet payload;
+                if (tokenCacheEntry != null) {
+                    signedJWT = tokenCacheEntry.getSignedJWTInfo().getSignedJWT();
+                    payload = tokenCacheEntry.getSignedJWTInfo().getJwtClaimsSet();
+                } else {
+                    signedJWT = SignedJWT.parse(internalKey);
+                    payload = signedJWT.getJWTClaimsSet();
+                }
 
                 // Check if the decoded header contains type as 'InternalKey'.
                 if (!isInternalKey(payload)) {
-                    log.error("Invalid Internal Key token type. " + FilterUtils.getMaskedToken(splitToken[0]));
+                    log.error("Invalid Internal Key token type. " + getMaskedHeader(internalKey));
                     // To provide support for API keys. If internal key name's header name value changed similar
                     // to the API key header name this will enable that support.
                     AuthenticationContext authenticationContext = new AuthenticationContext();
@@ -125,47 +148,34 @@ public class InternalAPIKeyAuthenticator extends APIKeyHandler {
                     // We check the type before verifying the signature. In case the type was incorrect but also not an
                     // API key, this will throw a NPE at RestAPI class setStatusCode method. This prevents it.
                     FilterUtils.setUnauthenticatedErrorToContext(requestContext);
-                    return authenticationContext;
+                    return AuthenticationResult.success(authenticationContext);
                 }
 
                 String tokenIdentifier = payload.getJWTID();
 
-                checkInRevokedMap(tokenIdentifier, splitToken);
+                checkInRevokedMap(tokenIdentifier, internalKey);
 
                 String apiVersion = requestContext.getMatchedAPI().getVersion();
                 String apiContext = requestContext.getMatchedAPI().getBasePath();
 
                 // Verify token when it is found in cache
-                JWTTokenPayloadInfo jwtTokenPayloadInfo = (JWTTokenPayloadInfo)
-                        CacheProvider.getGatewayInternalKeyDataCache().getIfPresent(tokenIdentifier);
-
-                boolean isVerified = isVerifiedApiKeyInCache(tokenIdentifier, internalKey, payload, splitToken,
-                        "InternalKey", jwtTokenPayloadInfo);
+                boolean isVerified = false;
                 Scope verifyTokenInCacheSpanScope = null;
-                if (jwtTokenPayloadInfo != null) {
+                if (tokenCacheEntry != null) {
                     if (Utils.tracingEnabled()) {
                         verifyTokenInCacheSpan = Utils.startSpan(TracingConstants.VERIFY_TOKEN_IN_CACHE_SPAN, tracer);
                         verifyTokenInCacheSpanScope = verifyTokenInCacheSpan.getSpan().makeCurrent();
                         Utils.setTag(verifyTokenInCacheSpan, APIConstants.LOG_TRACE_ID,
                                 ThreadContext.get(APIConstants.LOG_TRACE_ID));
                     }
-                    String cachedToken = jwtTokenPayloadInfo.getAccessToken();
-                    isVerified = cachedToken.equals(internalKey) && !isJwtTokenExpired(payload, "InternalKey");
-                    if (Utils.tracingEnabled()) {
-                        verifyTokenInCacheSpanScope.close();
-                        Utils.finishSpan(verifyTokenInCacheSpan);
+                    try {
+                        isVerified = isVerifiedApiKeyInCache(internalKey, "InternalKey", tokenCacheEntry);
+                    } finally {
+                        if (Utils.tracingEnabled()) {
+                            verifyTokenInCacheSpanScope.close();
+                            Utils.finishSpan(verifyTokenInCacheSpan);
+                        }
                     }
-                } else if (CacheProvider.getInvalidGatewayInternalKeyCache().getIfPresent(tokenIdentifier) != null
-                        && internalKey
-                        .equals(CacheProvider.getInvalidGatewayInternalKeyCache().getIfPresent(tokenIdentifier))) {
-
-                    log.debug("Internal Key retrieved from the invalid internal Key cache. Internal Key: "
-                            + FilterUtils.getMaskedToken(splitToken[0]));
-
-                    log.error("Invalid Internal Key. " + FilterUtils.getMaskedToken(splitToken[0]));
-                    throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
                 }
 
                 Scope verifyTokenWithoutCacheSpanScope = null;
@@ -183,7 +193,7 @@ public class InternalAPIKeyAuthenticator extends APIKeyHandler {
                                 ConfigHolder.getInstance().getConfig().getRuntimeTokenIssuerDto();
                         if (runtimeTokenIssuerDto != null && runtimeTokenIssuerDto.isEnabled()) {
                             isVerified = verifyTokenWhenNotInCache(runtimeTokenIssuerDto.getPublicCertificate(),
-                                    signedJWT, splitToken, payload, "InternalKey");
+                                    signedJWT, payload, "InternalKey");
                         } else {
                             // Logs an error only if Internal Keys are used.
                             log.error("InternalAPIKeyAuthenticator has not been properly initialized. {} {}",
@@ -205,14 +215,10 @@ public class InternalAPIKeyAuthenticator extends APIKeyHandler {
                 if (isVerified) {
                     log.debug("Internal Key signature is verified.");
 
-                    if (jwtTokenPayloadInfo == null) {
+                    if (tokenCacheEntry == null) {
                         // Retrieve payload from InternalKey
                         log.debug("InternalKey payload not found in the cache.");
-
-                        jwtTokenPayloadInfo = new JWTTokenPayloadInfo();
-                        jwtTokenPayloadInfo.setPayload(payload);
-                        jwtTokenPayloadInfo.setAccessToken(internalKey);
-                        CacheProvider.getGatewayInternalKeyDataCache().put(tokenIdentifier, jwtTokenPayloadInfo);
+                        tokenCacheEntry = cacheApiKey(internalKey, signedJWT, payload, "InternalKey", true);
                     }
                     Scope apiKeyValidateSubscriptionSpanScope = null;
                     if (Utils.tracingEnabled()) {
@@ -224,8 +230,7 @@ public class InternalAPIKeyAuthenticator extends APIKeyHandler {
                     }
                     JSONObject api; // kept outside to make this reachable for methods outside the try block
                     try {
-                        api = validateAPISubscription(apiContext, apiVersion, payload, splitToken,
-                                false);
+                        api = validateAPISubscription(apiContext, apiVersion, payload, false);
                         if (api != null) {
                             String context = requestContext.getMatchedAPI().getBasePath();
                             String uuid = requestContext.getMatchedAPI().getUuid();
@@ -263,33 +268,27 @@ public class InternalAPIKeyAuthenticator extends APIKeyHandler {
                     JWTConfigurationDto jwtConfigurationDto = ConfigHolder.getInstance().
                             getConfig().getJwtConfigurationDto();
                     if (jwtConfigurationDto.isEnabled()) {
-                        JWTValidationInfo validationInfo = new JWTValidationInfo();
-                        validationInfo.setUser(payload.getSubject());
+                        JWTValidationInfo validationInfo = tokenCacheEntry.getValidationInfo();
                         JWTInfoDto jwtInfoDto = FilterUtils
                                 .generateJWTInfoDto(null, validationInfo, apiKeyValidationInfoDTO, requestContext);
-                        String endUserToken = BackendJwtUtils.generateAndRetrieveJWTToken(jwtGenerator, tokenIdentifier,
+                        String endUserToken = BackendJwtUtils.generateAndRetrieveJWTToken(jwtGenerator, tokenCacheEntry,
                                 jwtInfoDto, isGatewayTokenCacheEnabled);
                         // Set generated jwt token as a response header
                         requestContext.addOrModifyHeaders(jwtConfigurationDto.getJwtHeader(), endUserToken);
                     }
 
-                    return FilterUtils.generateAuthenticationContext(tokenIdentifier, payload, api,
-                            requestContext.getMatchedAPI().getUuid(), internalKey);
+                    return AuthenticationResult.success(FilterUtils.generateAuthenticationContext(tokenIdentifier,
+                            payload, api, requestContext.getMatchedAPI().getUuid(), internalKey));
                 } else {
-                    log.error("Internal Key authentication failed. " + FilterUtils.getMaskedToken(splitToken[0]),
-                            ErrorDetails.errorLog(LoggingConstants.Severity.MINOR, 6602));
-                    CacheProvider.getGatewayInternalKeyDataCache().invalidate(payload.getJWTID());
-                    CacheProvider.getInvalidGatewayInternalKeyCache().put(payload.getJWTID(), internalKey);
-                    throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS_MESSAGE);
+                    log.debug("Internal Key authentication failed. {}", getMaskedHeader(internalKey));
+                    if (tokenCacheEntry == null) {
+                        cacheApiKey(internalKey, signedJWT, payload, "InternalKey", false);
+                    }
+                    return AuthenticationResult.INVALID_CREDENTIALS;
                 }
             } catch (ParseException e) {
-                log.warn("Internal Key authentication failed. ", e);
-                throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                        "Internal key authentication failed.");
-
+                log.debug("Internal Key authentication failed. {}", e.getMessage());
+                return AuthenticationResult.INVALID_INTERNAL_KEY;
             } finally {
                 if (Utils.tracingEnabled()) {
                     apiKeyAuthenticatorSpanScope.close();
@@ -297,8 +296,7 @@ public class InternalAPIKeyAuthenticator extends APIKeyHandler {
                 }
             }
         }
-        throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                APISecurityConstants.API_AUTH_GENERAL_ERROR, APISecurityConstants.API_AUTH_GENERAL_ERROR_MESSAGE);
+        return AuthenticationResult.GENERAL_ERROR;
     }
 
     private APIKeyValidationInfoDTO getAPIKeyValidationDTO(RequestContext requestContext)
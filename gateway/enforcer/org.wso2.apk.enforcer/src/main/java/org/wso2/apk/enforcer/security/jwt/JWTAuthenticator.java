@@ -32,7 +32,7 @@ import org.wso2.apk.enforcer.commons.dto.JWTConfigurationDto;
 import org.wso2.apk.enforcer.commons.dto.JWTInfoDto;
 import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
 import org.wso2.apk.enforcer.commons.jwtgenerator.AbstractAPIMgtGatewayJWTGenerator;
-import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
 import org.wso2.apk.enforcer.commons.exception.APISecurityException;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
 import org.wso2.apk.enforcer.commons.model.AuthenticationContext;
@@ -44,11 +44,14 @@ import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.constants.APISecurityConstants;
 import org.wso2.apk.enforcer.constants.GeneralErrorCodeConstants;
 import org.wso2.apk.enforcer.dto.APIKeyValidationInfoDTO;
+import org.wso2.apk.enforcer.security.AuthenticationResult;
 import org.wso2.apk.enforcer.security.Authenticator;
 import org.wso2.apk.enforcer.security.KeyValidator;
 import org.wso2.apk.enforcer.security.TokenValidationContext;
 import org.wso2.apk.enforcer.security.jwt.validator.JWTConstants;
 import org.wso2.apk.enforcer.security.jwt.validator.RevokedJWTDataHolder;
+import org.wso2.apk.enforcer.security.jwt.validator.SignatureVerificationOverloadedException;
+import org.wso2.apk.enforcer.security.jwt.validator.SigningKeyNotFoundException;
 import org.wso2.apk.enforcer.tracing.TracingConstants;
 import org.wso2.apk.enforcer.tracing.TracingSpan;
 import org.wso2.apk.enforcer.tracing.TracingTracer;
@@ -109,6 +112,21 @@ public class JWTAuthenticator implements Authenticator {
     @Override
     public AuthenticationContext authenticate(RequestContext requestContext) throws APISecurityException {
 
+        return authenticateForResult(requestContext).getAuthenticationContextOrThrow();
+    }
+
+    @Override
+    public AuthenticationResult authenticateForResult(RequestContext requestContext) {
+
+        try {
+            return doAuthenticate(requestContext);
+        } catch (APISecurityException e) {
+            return AuthenticationResult.failure(e);
+        }
+    }
+
+    private AuthenticationResult doAuthenticate(RequestContext requestContext) throws APISecurityException {
+
         TracingTracer tracer = null;
         TracingSpan decodeTokenHeaderSpan = null;
         TracingSpan jwtAuthenticatorInfoSpan = null;
@@ -137,7 +155,7 @@ public class JWTAuthenticator implements Authenticator {
             String version = requestContext.getMatchedAPI().getVersion();
             String organization = requestContext.getMatchedAPI().getOrganizationId();
             context = context + "/" + version;
-            SignedJWTInfo signedJWTInfo;
+            TokenCacheEntry tokenCacheEntry;
             Scope decodeTokenHeaderSpanScope = null;
             try {
                 if (Utils.tracingEnabled()) {
@@ -146,18 +164,17 @@ public class JWTAuthenticator implements Authenticator {
                     Utils.setTag(decodeTokenHeaderSpan, APIConstants.LOG_TRACE_ID,
                             ThreadContext.get(APIConstants.LOG_TRACE_ID));
                 }
-                signedJWTInfo = JWTUtils.getSignedJwt(jwtToken);
+                tokenCacheEntry = JWTUtils.getTokenCacheEntry(jwtToken, isGatewayTokenCacheEnabled);
             } catch (ParseException | IllegalArgumentException e) {
-                log.error("Failed to decode the token header. {}", e.getMessage());
-                throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                        APISecurityConstants.API_AUTH_INVALID_CREDENTIALS,
-                        "Not a JWT token. Failed to decode the token header", e);
+                log.debug("Failed to decode the token header. {}", e.getMessage());
+                return AuthenticationResult.MALFORMED_TOKEN;
             } finally {
                 if (Utils.tracingEnabled()) {
                     decodeTokenHeaderSpanScope.close();
                     Utils.finishSpan(decodeTokenHeaderSpan);
                 }
             }
+            SignedJWTInfo signedJWTInfo = tokenCacheEntry.getSignedJWTInfo();
             JWTClaimsSet claims = signedJWTInfo.getJwtClaimsSet();
             String jwtTokenIdentifier = getJWTTokenIdentifier(signedJWTInfo);
 
@@ -169,12 +186,11 @@ public class JWTAuthenticator implements Authenticator {
                                 + FilterUtils.getMaskedToken(jwtHeader));
                     }
                     log.debug("Invalid JWT token. " + FilterUtils.getMaskedToken(jwtHeader));
-                    throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                            APISecurityConstants.API_AUTH_INVALID_CREDENTIALS, "Invalid JWT token");
+                    return AuthenticationResult.REVOKED_TOKEN;
                 }
 
             }
-            JWTValidationInfo validationInfo = getJwtValidationInfo(signedJWTInfo, jwtTokenIdentifier, organization);
+            JWTValidationInfo validationInfo = getJwtValidationInfo(tokenCacheEntry, organization);
             if (validationInfo != null) {
                 if (validationInfo.isValid()) {
                     // Validate token type
@@ -277,8 +293,10 @@ public class JWTAuthenticator implements Authenticator {
                             Utils.setTag(validateScopesSpan, APIConstants.LOG_TRACE_ID,
                                     ThreadContext.get(APIConstants.LOG_TRACE_ID));
                         }
-                        validateScopes(context, version, requestContext.getMatchedResourcePaths(), validationInfo,
-                                signedJWTInfo);
+                        if (!validateScopes(context, version, requestContext.getMatchedResourcePaths(),
+                                validationInfo, signedJWTInfo)) {
+                            return AuthenticationResult.INVALID_SCOPE;
+                        }
                     } finally {
                         if (Utils.tracingEnabled()) {
                             validateScopesSpanScope.close();
@@ -307,7 +325,7 @@ public class JWTAuthenticator implements Authenticator {
                         // set custom claims get from the CR
                         jwtInfoDto.setClaims(claimMap);
                         endUserToken = BackendJwtUtils.generateAndRetrieveJWTToken(this.jwtGenerator,
-                                jwtTokenIdentifier,
+                                tokenCacheEntry,
                                 jwtInfoDto, isGatewayTokenCacheEnabled);
                         // Set generated jwt token as a response header
                         // Change the backendJWTConfig to API level
@@ -315,18 +333,14 @@ public class JWTAuthenticator implements Authenticator {
                                 endUserToken);
                     }
 
-                    return FilterUtils
+                    return AuthenticationResult.success(FilterUtils
                             .generateAuthenticationContext(requestContext, jwtTokenIdentifier, validationInfo,
-                                    apiKeyValidationInfoDTO, endUserToken, jwtToken, true);
+                                    apiKeyValidationInfoDTO, endUserToken, jwtToken, true));
                 } else {
-                    throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                            validationInfo.getValidationCode(),
-                            APISecurityConstants.getAuthenticationFailureMessage(validationInfo.getValidationCode()));
+                    return AuthenticationResult.ofValidationCode(validationInfo.getValidationCode());
                 }
             } else {
-                throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                        APISecurityConstants.API_AUTH_GENERAL_ERROR,
-                        APISecurityConstants.API_AUTH_GENERAL_ERROR_MESSAGE);
+                return AuthenticationResult.GENERAL_ERROR;
             }
         } finally {
             if (Utils.tracingEnabled()) {
@@ -371,9 +385,10 @@ public class JWTAuthenticator implements Authenticator {
      * @param matchingResources Accessed API resources
      * @param jwtValidationInfo Validated JWT Information
      * @param jwtToken          JWT Token
-     * @throws APISecurityException in case of scope validation failure
+     * @return true if the token has the scopes required by the resources
+     * @throws APISecurityException if the scopes cannot be validated
      */
-    private void validateScopes(String apiContext, String apiVersion, ArrayList<ResourceConfig> matchingResources,
+    private boolean validateScopes(String apiContext, String apiVersion, ArrayList<ResourceConfig> matchingResources,
                                 JWTValidationInfo jwtValidationInfo, SignedJWTInfo jwtToken)
             throws APISecurityException {
 
@@ -396,6 +411,7 @@ public class JWTAuthenticator implements Authenticator {
         if (valid) {
             log.debug("Scope validation was successful for the resource.");
         }
+        return valid;
     }
 
     private APIKeyValidationInfoDTO validateSubscriptionUsingKeyManager(RequestContext requestContext,
@@ -527,33 +543,27 @@ public class JWTAuthenticator implements Authenticator {
         return api;
     }
 
-    private JWTValidationInfo getJwtValidationInfo(SignedJWTInfo signedJWTInfo, String jti, String organization)
+    private JWTValidationInfo getJwtValidationInfo(TokenCacheEntry tokenCacheEntry, String organization)
             throws APISecurityException {
 
+        SignedJWTInfo signedJWTInfo = tokenCacheEntry.getSignedJWTInfo();
         String jwtHeader = signedJWTInfo.getSignedJWT().getHeader().toString();
         JWTValidationInfo jwtValidationInfo = null;
+        SignedJWTInfo.ValidationStatus validationStatus = tokenCacheEntry.getValidationStatus();
         if (isGatewayTokenCacheEnabled &&
-                !SignedJWTInfo.ValidationStatus.NOT_VALIDATED.equals(signedJWTInfo.getValidationStatus())) {
-            Object cacheToken = CacheProvider.getGatewayTokenCache().getIfPresent(jti);
-            if (cacheToken != null && (Boolean) cacheToken &&
-                    SignedJWTInfo.ValidationStatus.VALID.equals(signedJWTInfo.getValidationStatus())) {
-                if (CacheProvider.getGatewayKeyCache().getIfPresent(jti) != null) {
-                    JWTValidationInfo tempJWTValidationInfo =
-                            (JWTValidationInfo) CacheProvider.getGatewayKeyCache()
-                                    .getIfPresent(jti);
-                    checkTokenExpiration(jti, tempJWTValidationInfo);
-                    jwtValidationInfo = tempJWTValidationInfo;
+                !SignedJWTInfo.ValidationStatus.NOT_VALIDATED.equals(validationStatus)) {
+            jwtValidationInfo = tokenCacheEntry.getValidationInfo();
+            if (SignedJWTInfo.ValidationStatus.VALID.equals(validationStatus)) {
+                if (jwtValidationInfo != null) {
+                    checkTokenExpiration(tokenCacheEntry, jwtValidationInfo);
                 }
-            } else if (SignedJWTInfo.ValidationStatus.INVALID.equals(signedJWTInfo.getValidationStatus()) &&
-                    CacheProvider.getInvalidTokenCache().getIfPresent(jti) != null) {
+            } else {
                 if (log.isDebugEnabled()) {
                     log.debug("Token retrieved from the invalid token cache. Token: "
                             + FilterUtils.getMaskedToken(jwtHeader));
                 }
                 log.debug("Invalid JWT token. " + FilterUtils.getMaskedToken(jwtHeader));
-                if (CacheProvider.getGatewayKeyCache().getIfPresent(jti) != null) {
-                    jwtValidationInfo = (JWTValidationInfo) CacheProvider.getGatewayKeyCache().getIfPresent(jti);
-                } else {
+                if (jwtValidationInfo == null) {
                     log.warn("Token retrieved from the invalid token cache. But the validation info not found "
                             + "in the key cache for the Token: " + FilterUtils.getMaskedToken(jwtHeader));
                     jwtValidationInfo = new JWTValidationInfo();
@@ -569,21 +579,23 @@ public class JWTAuthenticator implements Authenticator {
                 signedJWTInfo.setValidationStatus(jwtValidationInfo.isValid() ?
                         SignedJWTInfo.ValidationStatus.VALID : SignedJWTInfo.ValidationStatus.INVALID);
                 if (isGatewayTokenCacheEnabled) {
-                    // Add token to tenant token cache
-                    if (jwtValidationInfo.isValid()) {
-                        CacheProvider.getGatewayTokenCache().put(jti, true);
-                    } else {
-                        CacheProvider.getInvalidTokenCache().put(jti, true);
+                    tokenCacheEntry.setValidationResult(jwtValidationInfo.isValid(), jwtValidationInfo);
+                    if (!jwtValidationInfo.isValid()) {
+                        // Keep the invalid token in the cache for the cache expiry time instead of until it expires.
+                        JWTUtils.refreshTokenCacheEntry(tokenCacheEntry);
                     }
-                    CacheProvider.getGatewayKeyCache().put(jti, jwtValidationInfo);
-
                 }
                 return jwtValidationInfo;
+            } catch (SignatureVerificationOverloadedException e) {
+                // The token is neither valid nor invalid, so it is not cached and the client may retry.
+                throw AuthenticationResult.VERIFICATION_OVERLOADED.getError();
+            } catch (SigningKeyNotFoundException e) {
+                // Any client can send a token with an unknown key ID, so this is not logged as an error.
+                log.debug("JWT Validation failed. {}", e.getMessage());
+                return null;
             } catch (EnforcerException e) {
                 log.error("JWT Validation failed", e);
-                throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
-                        APISecurityConstants.API_AUTH_GENERAL_ERROR,
-                        APISecurityConstants.API_AUTH_GENERAL_ERROR_MESSAGE);
+                return null;
             }
         }
         return jwtValidationInfo;
@@ -592,11 +604,11 @@ public class JWTAuthenticator implements Authenticator {
     /**
      * Check whether the jwt token is expired or not.
      *
-     * @param tokenIdentifier The token Identifier of JWT.
+     * @param tokenCacheEntry The cache entry of the JWT.
      * @param payload         The payload of the JWT token
      * @return
      */
-    private JWTValidationInfo checkTokenExpiration(String tokenIdentifier, JWTValidationInfo payload) {
+    private JWTValidationInfo checkTokenExpiration(TokenCacheEntry tokenCacheEntry, JWTValidationInfo payload) {
 
         long timestampSkew = FilterUtils.getTimeStampSkewInSeconds();
 
@@ -604,9 +616,7 @@ public class JWTAuthenticator implements Authenticator {
         Date exp = new Date(payload.getExpiryTime());
         if (!DateUtils.isAfter(exp, now, timestampSkew)) {
             if (isGatewayTokenCacheEnabled) {
-                CacheProvider.getGatewayTokenCache().invalidate(tokenIdentifier);
-                CacheProvider.getGatewayJWTTokenCache().invalidate(tokenIdentifier);
-                CacheProvider.getInvalidTokenCache().put(tokenIdentifier, true);
+                tokenCacheEntry.invalidate();
             }
             payload.setValid(false);
             payload.setValidationCode(APISecurityConstants.API_AUTH_INVALID_CREDENTIALS);
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+import org.wso2.apk.enforcer.util.JWKSFetcher;
+import org.wso2.apk.enforcer.util.JWKSResponse;
+
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Signing keys of a token issuer, fetched from its JWKS endpoint. The keys are refreshed in the background on the
+ * schedule allowed by the Cache-Control header of the endpoint, so the request threads only read an immutable
+ * snapshot of the keys. The keys are fetched ahead of schedule only when a token is signed with an unknown key ID
+ * (i.e. the issuer rotated its keys). Such fetches are rate limited and concurrent misses share a single fetch.
+ * The keys are converted to {@link PublicKey} once per fetch.
+ * <p>
+ * The fetches of all the issuers run on a small shared pool, with at most one fetch per issuer at a time, so a slow
+ * JWKS endpoint holds up neither the other issuers nor the request threads. A request thread waits for the fetch of
+ * an unknown key ID for at most {@link #UNKNOWN_KEY_FETCH_TIMEOUT} milliseconds, which is well under the ext_authz
+ * timeout of the router.
+ */
+public class JWKSKeyStore {
+
+    private static final Logger log = LogManager.getLogger(JWKSKeyStore.class);
+
+    private static final long DEFAULT_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+    private static final long MIN_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_REFRESH_INTERVAL = TimeUnit.HOURS.toMillis(24);
+    private static final long UNKNOWN_KEY_REFRESH_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+    static final long UNKNOWN_KEY_FETCH_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+    private static final int REFRESH_THREADS = 4;
+
+    private static final AtomicInteger refreshThreadCount = new AtomicInteger();
+    private static final ScheduledExecutorService refreshExecutor =
+            Executors.newScheduledThreadPool(REFRESH_THREADS, runnable -> {
+                Thread thread = new Thread(runnable,
+                        "jwks-key-store-refresher-" + refreshThreadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final String issuer;
+    private final JWKSFetcher jwksFetcher;
+    private final long unknownKeyRefreshInterval;
+    private volatile Map<String, PublicKey> keys = Collections.emptyMap();
+    private final AtomicReference<CompletableFuture<Map<String, PublicKey>>> ongoingFetch = new AtomicReference<>();
+    private final AtomicLong lastFetchTime;
+    private volatile ScheduledFuture<?> scheduledRefresh;
+    private volatile boolean closed;
+
+    public JWKSKeyStore(String issuer, JWKSFetcher jwksFetcher) {
+        this(issuer, jwksFetcher, UNKNOWN_KEY_REFRESH_INTERVAL);
+    }
+
+    JWKSKeyStore(String issuer, JWKSFetcher jwksFetcher, long unknownKeyRefreshInterval) {
+        this.issuer = issuer;
+        this.jwksFetcher = jwksFetcher;
+        this.unknownKeyRefreshInterval = unknownKeyRefreshInterval;
+        this.lastFetchTime = new AtomicLong(System.nanoTime() - unknownKeyRefreshInterval);
+        // Load the keys ahead of the first request.
+        this.scheduledRefresh = refreshExecutor.schedule(this::refresh, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the signing key of the given key ID. If the key is not known, the keys are fetched from the JWKS endpoint
+     * unless they were fetched recently.
+     *
+     * @param keyID key ID of the signing key
+     * @return signing key or null if the issuer does not have such a key
+     * @throws EnforcerException if an error occurs when fetching the keys, or the fetch does not complete within
+     *                           {@link #UNKNOWN_KEY_FETCH_TIMEOUT} milliseconds
+     */
+    public PublicKey getKey(String keyID) throws EnforcerException {
+        PublicKey key = keys.get(keyID);
+        if (key != null) {
+            return key;
+        }
+        CompletableFuture<Map<String, PublicKey>> fetch = ongoingFetch.get();
+        if (fetch == null) {
+            long lastFetch = lastFetchTime.get();
+            long now = System.nanoTime();
+            if (now - lastFetch < unknownKeyRefreshInterval || !lastFetchTime.compareAndSet(lastFetch, now)) {
+                log.debug("Signing key {} of the issuer {} is not found. Keys were fetched recently.", keyID, issuer);
+                return null;
+            }
+            log.debug("Signing key {} of the issuer {} is not found. Fetching the keys.", keyID, issuer);
+            fetch = fetch();
+        }
+        try {
+            return fetch.get(UNKNOWN_KEY_FETCH_TIMEOUT, TimeUnit.MILLISECONDS).get(keyID);
+        } catch (ExecutionException e) {
+            throw new EnforcerException("Error occurred when fetching the keys of the issuer " + issuer,
+                    e.getCause());
+        } catch (TimeoutException e) {
+            // The fetch carries on in the background, so the key is available to the subsequent requests.
+            throw new EnforcerException("Timed out when fetching the keys of the issuer " + issuer, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EnforcerException("Interrupted when fetching the keys of the issuer " + issuer, e);
+        }
+    }
+
+    /**
+     * Stop refreshing the keys. This is called when the issuer is removed or updated.
+     */
+    public void close() {
+        closed = true;
+        ScheduledFuture<?> refresh = scheduledRefresh;
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+    }
+
+    /**
+     * Check whether the keys are still refreshed in the background, i.e. the key store is not closed.
+     *
+     * @return true if a refresh is scheduled
+     */
+    public boolean isRefreshScheduled() {
+        ScheduledFuture<?> refresh = scheduledRefresh;
+        return !closed && refresh != null && !refresh.isCancelled();
+    }
+
+    private void refresh() {
+        if (closed) {
+            return;
+        }
+        lastFetchTime.set(System.nanoTime());
+        fetch();
+    }
+
+    /**
+     * Start fetching the keys from the JWKS endpoint on the refresh pool. If a fetch is already in progress, that is
+     * returned instead.
+     */
+    private CompletableFuture<Map<String, PublicKey>> fetch() {
+        CompletableFuture<Map<String, PublicKey>> fetch = new CompletableFuture<>();
+        CompletableFuture<Map<String, PublicKey>> ongoing = ongoingFetch.compareAndExchange(null, fetch);
+        if (ongoing != null) {
+            return ongoing;
+        }
+        refreshExecutor.execute(() -> fetchKeys(fetch));
+        return fetch;
+    }
+
+    /**
+     * Fetch the keys from the JWKS endpoint and schedule the next refresh.
+     */
+    private void fetchKeys(CompletableFuture<Map<String, PublicKey>> fetch) {
+        long refreshInterval = MIN_REFRESH_INTERVAL;
+        try {
+            JWKSResponse response = jwksFetcher.fetchJWKSet();
+            Map<String, PublicKey> fetchedKeys = toKeys(response.getJwkSet());
+            keys = fetchedKeys;
+            refreshInterval = getRefreshInterval(response.getMaxAge());
+            log.debug("Fetched {} signing keys of the issuer {}. Next refresh in {} ms.", fetchedKeys.size(),
+                    issuer, refreshInterval);
+            fetch.complete(fetchedKeys);
+        } catch (EnforcerException | RuntimeException e) {
+            log.error("Error occurred when fetching the keys of the issuer {}. Retrying in {} ms.", issuer,
+                    refreshInterval, e);
+            fetch.completeExceptionally(e);
+        } finally {
+            ongoingFetch.set(null);
+            if (!closed) {
+                ScheduledFuture<?> previous = scheduledRefresh;
+                scheduledRefresh = refreshExecutor.schedule(this::refresh, refreshInterval, TimeUnit.MILLISECONDS);
+                if (previous != null) {
+                    previous.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static long getRefreshInterval(long maxAge) {
+        if (maxAge < 0) {
+            return DEFAULT_REFRESH_INTERVAL;
+        }
+        return Math.min(Math.max(TimeUnit.SECONDS.toMillis(maxAge), MIN_REFRESH_INTERVAL), MAX_REFRESH_INTERVAL);
+    }
+
+    private Map<String, PublicKey> toKeys(JWKSet jwkSet) {
+        Map<String, PublicKey> jwksKeys = new HashMap<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyID() == null) {
+                continue;
+            }
+            try {
+                if (jwk instanceof RSAKey) {
+                    jwksKeys.put(jwk.getKeyID(), ((RSAKey) jwk).toRSAPublicKey());
+                } else if (jwk instanceof ECKey) {
+                    jwksKeys.put(jwk.getKeyID(), ((ECKey) jwk).toECPublicKey());
+                } else {
+                    log.debug("Signing key {} of the issuer {} is skipped. Key type {} is not supported.",
+                            jwk.getKeyID(), issuer, jwk.getKeyType());
+                }
+            } catch (JOSEException e) {
+                log.error("Error occurred when loading the signing key {} of the issuer {}", jwk.getKeyID(),
+                        issuer, e);
+            }
+        }
+        return Collections.unmodifiableMap(jwksKeys);
+    }
+}
@@ -18,11 +18,12 @@
 
 package org.wso2.apk.enforcer.security.jwt.validator;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.jwk.ECKey;
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.util.DateUtils;
@@ -38,13 +39,11 @@ import org.wso2.apk.enforcer.config.dto.ExtendedTokenIssuerDto;
 import org.wso2.apk.enforcer.constants.APIConstants;
 import org.wso2.apk.enforcer.security.jwt.SignedJWTInfo;
 import org.wso2.apk.enforcer.util.JWKSClient;
-import org.wso2.apk.enforcer.util.JWTUtils;
 
 import java.io.IOException;
 import java.security.PublicKey;
 import java.security.cert.Certificate;
 import java.security.interfaces.ECPublicKey;
-import java.security.interfaces.RSAPublicKey;
 import java.text.ParseException;
 import java.util.*;
 
@@ -54,22 +53,53 @@ import java.util.*;
  */
 public class JWTValidator {
     private static final Logger logger = LogManager.getLogger(JWTValidator.class);
-    private JWKSet jwkSet;
+    private static final int MAX_CACHED_VERIFIERS = 100;
     JWTTransformer jwtTransformer;
     ExtendedTokenIssuerDto tokenIssuer;
-    JWKSClient jwksClient;
+    JWKSKeyStore jwksKeyStore;
+    private final Cache<String, JWSVerifier> verifierCache =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_VERIFIERS).build();
 
     public JWTValidator(ExtendedTokenIssuerDto tokenIssuer) throws EnforcerException {
-        jwtTransformer = ConfigHolder.getInstance().getConfig().getJwtTransformer(tokenIssuer.getIssuer());
+        this(tokenIssuer, ConfigHolder.getInstance().getConfig().getJwtTransformer(tokenIssuer.getIssuer()),
+                createJWKSKeyStore(tokenIssuer));
+    }
+
+    /**
+     * Create a validator of the given issuer with the given transformer and JWKS key store.
+     *
+     * @param tokenIssuer    token issuer
+     * @param jwtTransformer transformer of the claims of the issuer
+     * @param jwksKeyStore   signing keys of the issuer, or null if the issuer does not have a JWKS endpoint
+     */
+    public JWTValidator(ExtendedTokenIssuerDto tokenIssuer, JWTTransformer jwtTransformer, JWKSKeyStore jwksKeyStore) {
+        this.jwtTransformer = jwtTransformer;
         jwtTransformer.loadConfiguration(tokenIssuer);
         this.tokenIssuer = tokenIssuer;
+        this.jwksKeyStore = jwksKeyStore;
+    }
+
+    private static JWKSKeyStore createJWKSKeyStore(ExtendedTokenIssuerDto tokenIssuer) throws EnforcerException {
         if(tokenIssuer.getJwksConfigurationDTO()!= null && tokenIssuer.getJwksConfigurationDTO().isEnabled() && StringUtils.isNotEmpty(tokenIssuer.getJwksConfigurationDTO().getUrl())){
             Certificate certificate = tokenIssuer.getJwksConfigurationDTO().getCertificate();
+            JWKSClient jwksClient;
             if (certificate != null){
                 jwksClient = new JWKSClient(tokenIssuer.getJwksConfigurationDTO().getUrl(),Arrays.asList(certificate));
             }else{
                 jwksClient = new JWKSClient(tokenIssuer.getJwksConfigurationDTO().getUrl(), Collections.emptyList());
             }
+            return new JWKSKeyStore(tokenIssuer.getIssuer(), jwksClient);
+        }
+        return null;
+    }
+
+    /**
+     * Release the resources held by the validator. This is called when the validator is replaced or its issuer is
+     * removed.
+     */
+    public void close() {
+        if (jwksKeyStore != null) {
+            jwksKeyStore.close();
         }
     }
 
@@ -111,44 +141,59 @@ public class JWTValidator {
 
     protected boolean validateSignature(SignedJWT signedJWT)
             throws EnforcerException {
-        try {
-            String keyID = signedJWT.getHeader().getKeyID();
-            if (jwksClient != null) {
-                // Check JWKSet Available in Cache
-                if (jwkSet == null) {
-                    jwkSet = jwksClient.getJWKSet();
-                }
-                JWK jwkSetKeyByKeyId = jwkSet.getKeyByKeyId(keyID);
-                if (jwkSetKeyByKeyId == null) {
-                    jwkSet = jwksClient.getJWKSet();
-                }
-                jwkSetKeyByKeyId = jwkSet.getKeyByKeyId(keyID);
-                if (jwkSetKeyByKeyId instanceof RSAKey) {
-                    RSAKey keyByKeyId = (RSAKey) jwkSetKeyByKeyId;
-                    RSAPublicKey rsaPublicKey = keyByKeyId.toRSAPublicKey();
-                    if (rsaPublicKey != null) {
-                        return JWTUtils.verifyTokenSignature(signedJWT, rsaPublicKey);
-                    }
-                } else if (jwkSetKeyByKeyId instanceof ECKey) {
-                    ECKey keyByKeyId = (ECKey) jwkSetKeyByKeyId;
-                    ECPublicKey ecPublicKey = keyByKeyId.toECPublicKey();
-                    if (ecPublicKey != null) {
-                        return JWTUtils.verifyTokenSignature(signedJWT, ecPublicKey);
-                    }
-                } else {
-                    throw new EnforcerException("Key Algorithm not supported");
-                }
+        String keyID = signedJWT.getHeader().getKeyID();
+        JWSAlgorithm algorithm = signedJWT.getHeader().getAlgorithm();
+        PublicKey publicKey;
+        if (jwksKeyStore != null) {
+            publicKey = jwksKeyStore.getKey(keyID);
+            if (publicKey == null) {
+                throw new SigningKeyNotFoundException("Signing key not found for the key ID " + keyID);
             }
-            if (tokenIssuer.getCertificate() != null) {
-                logger.debug("Retrieve certificate from Token issuer and validating");
-                PublicKey publicKey = tokenIssuer.getCertificate().getPublicKey();
-                return JWTUtils.verifyTokenSignature(signedJWT, publicKey);
+        } else if (tokenIssuer.getCertificate() != null) {
+            logger.debug("Retrieve certificate from Token issuer and validating");
+            publicKey = tokenIssuer.getCertificate().getPublicKey();
+        } else {
+            throw new EnforcerException("Certificate not found for validation");
+        }
+        JWSVerifier verifier = getVerifier(keyID, algorithm, publicKey);
+        if (verifier == null) {
+            logger.debug("Algorithm {} is not supported for the signing key {}", algorithm, keyID);
+            return false;
+        }
+        return SignatureVerificationLimiter.verify(signedJWT, verifier);
+    }
+
+    /**
+     * Get the verifier for the given signing key and algorithm. Verifiers are cached by the key ID and the
+     * algorithm, and recreated if the issuer replaces the key of a key ID.
+     */
+    JWSVerifier getVerifier(String keyID, JWSAlgorithm algorithm, PublicKey publicKey)
+            throws EnforcerException {
+        String verifierKey = keyID + ":" + algorithm.getName();
+        JWSVerifier verifier = verifierCache.getIfPresent(verifierKey);
+        if (verifier != null && getPublicKey(verifier) == publicKey) {
+            return verifier;
+        }
+        try {
+            if (PooledSignatureVerifier.isSupported(publicKey, algorithm)) {
+                verifier = new PooledSignatureVerifier(publicKey, algorithm);
+            } else if (JWSAlgorithm.ES256K.equals(algorithm) && publicKey instanceof ECPublicKey) {
+                verifier = new ECDSAVerifier((ECPublicKey) publicKey);
             } else {
-                throw new EnforcerException("Certificate not found for validation");
+                return null;
             }
         } catch (JOSEException e) {
-            throw new EnforcerException("JWT Signature verification failed", e);
+            throw new EnforcerException("Error while creating the verifier for the signing key " + keyID, e);
+        }
+        verifierCache.put(verifierKey, verifier);
+        return verifier;
+    }
+
+    private static PublicKey getPublicKey(JWSVerifier verifier) {
+        if (verifier instanceof PooledSignatureVerifier) {
+            return ((PooledSignatureVerifier) verifier).getPublicKey();
         }
+        return ((ECDSAVerifier) verifier).getPublicKey();
     }
 
     protected boolean validateTokenExpiry(JWTClaimsSet jwtClaimsSet) {
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.CriticalHeaderParamsAware;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.impl.CriticalHeaderParamsDeferral;
+import com.nimbusds.jose.crypto.impl.ECDSA;
+import com.nimbusds.jose.crypto.utils.ECChecks;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JWS verifier for RSASSA-PKCS1-v1_5 and ECDSA signatures bound to a single public key and algorithm. Unlike the
+ * Nimbus verifiers, which look up a new {@link Signature} from the JCA providers for every verification, the
+ * {@link Signature} instances are pooled per thread and reused across verifications.
+ * <p>
+ * Otherwise the verifier applies the same checks as the Nimbus verifiers: a JWS with critical header parameters is
+ * rejected, as the enforcer does not process any, and an EC key is only accepted for the algorithm of its curve.
+ * </p>
+ */
+public class PooledSignatureVerifier implements JWSVerifier, CriticalHeaderParamsAware {
+
+    private static final Map<JWSAlgorithm, String> JCA_ALGORITHMS = new HashMap<>();
+    private static final ThreadLocal<Map<String, Signature>> SIGNATURES = ThreadLocal.withInitial(HashMap::new);
+
+    static {
+        JCA_ALGORITHMS.put(JWSAlgorithm.RS256, "SHA256withRSA");
+        JCA_ALGORITHMS.put(JWSAlgorithm.RS384, "SHA384withRSA");
+        JCA_ALGORITHMS.put(JWSAlgorithm.RS512, "SHA512withRSA");
+        JCA_ALGORITHMS.put(JWSAlgorithm.ES256, "SHA256withECDSA");
+        JCA_ALGORITHMS.put(JWSAlgorithm.ES384, "SHA384withECDSA");
+        JCA_ALGORITHMS.put(JWSAlgorithm.ES512, "SHA512withECDSA");
+    }
+
+    private final PublicKey publicKey;
+    private final JWSAlgorithm algorithm;
+    private final String jcaAlgorithm;
+    private final boolean ecdsa;
+    private final JCAContext jcaContext = new JCAContext();
+    private final CriticalHeaderParamsDeferral critPolicy = new CriticalHeaderParamsDeferral();
+
+    public PooledSignatureVerifier(PublicKey publicKey, JWSAlgorithm algorithm) throws JOSEException {
+        if (!isSupported(publicKey, algorithm)) {
+            throw new JOSEException("Unsupported JWS algorithm " + algorithm + " for the key " +
+                    publicKey.getAlgorithm());
+        }
+        this.publicKey = publicKey;
+        this.algorithm = algorithm;
+        this.jcaAlgorithm = JCA_ALGORITHMS.get(algorithm);
+        this.ecdsa = publicKey instanceof ECPublicKey;
+    }
+
+    /**
+     * Checks whether signatures of the given algorithm can be verified with the given key.
+     *
+     * @param publicKey public key to verify the signatures
+     * @param algorithm JWS algorithm of the signatures
+     * @return true if the algorithm is supported for the key
+     */
+    public static boolean isSupported(PublicKey publicKey, JWSAlgorithm algorithm) {
+        if (publicKey instanceof RSAPublicKey) {
+            return JWSAlgorithm.Family.RSA.contains(algorithm) && JCA_ALGORITHMS.containsKey(algorithm);
+        }
+        if (publicKey instanceof ECPublicKey) {
+            return JWSAlgorithm.Family.EC.contains(algorithm) && JCA_ALGORITHMS.containsKey(algorithm)
+                    && isCurveOf((ECPublicKey) publicKey, algorithm);
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the curve of the key is the curve of the algorithm (i.e. P-256 for ES256), and the key is a
+     * point on that curve.
+     */
+    private static boolean isCurveOf(ECPublicKey publicKey, JWSAlgorithm algorithm) {
+        Curve curve = Curve.forECParameterSpec(publicKey.getParams());
+        Set<Curve> algorithmCurves = Curve.forJWSAlgorithm(algorithm);
+        return curve != null && algorithmCurves != null && algorithmCurves.contains(curve)
+                && ECChecks.isPointOnCurve(publicKey, curve.toECParameterSpec());
+    }
+
+    public PublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    @Override
+    public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+        if (!algorithm.equals(header.getAlgorithm())) {
+            throw new JOSEException("Unsupported JWS algorithm " + header.getAlgorithm());
+        }
+        if (!critPolicy.headerPasses(header)) {
+            return false;
+        }
+        byte[] signatureBytes = signature.decode();
+        if (ecdsa) {
+            if (signatureBytes.length != ECDSA.getSignatureByteArrayLength(algorithm)
+                    || !isLegalECDSASignature(signatureBytes)) {
+                return false;
+            }
+            signatureBytes = ECDSA.transcodeSignatureToDER(signatureBytes);
+        }
+        Signature verifier = getSignature(jcaAlgorithm);
+        try {
+            verifier.initVerify(publicKey);
+            verifier.update(signingInput);
+            return verifier.verify(signatureBytes);
+        } catch (InvalidKeyException e) {
+            throw new JOSEException("Invalid public key: " + e.getMessage(), e);
+        } catch (SignatureException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return Collections.singleton(algorithm);
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+
+    @Override
+    public Set<String> getProcessedCriticalHeaderParams() {
+        return critPolicy.getProcessedCriticalHeaderParams();
+    }
+
+    @Override
+    public Set<String> getDeferredCriticalHeaderParams() {
+        return critPolicy.getDeferredCriticalHeaderParams();
+    }
+
+    private static Signature getSignature(String jcaAlgorithm) throws JOSEException {
+        Map<String, Signature> signatures = SIGNATURES.get();
+        Signature signature = signatures.get(jcaAlgorithm);
+        if (signature == null) {
+            try {
+                signature = Signature.getInstance(jcaAlgorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new JOSEException("Unsupported JWS algorithm: " + e.getMessage(), e);
+            }
+            signatures.put(jcaAlgorithm, signature);
+        }
+        return signature;
+    }
+
+    /**
+     * Rejects ECDSA signatures where either R or S is zero, which some JDKs wrongly accept as valid.
+     */
+    private static boolean isLegalECDSASignature(byte[] signature) {
+        int half = signature.length / 2;
+        boolean rIsZero = true;
+        boolean sIsZero = true;
+        for (int i = 0; i < half; i++) {
+            rIsZero &= signature[i] == 0;
+            sIsZero &= signature[half + i] == 0;
+        }
+        return !rIsZero && !sIsZero;
+    }
+}
@@ -18,25 +18,45 @@
 
 package org.wso2.apk.enforcer.security.jwt.validator;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.discovery.RevokedTokenDiscoveryClient;
+import org.wso2.apk.enforcer.util.FilterUtils;
 
+import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  *  Singleton which stores the revoked JWT map.
+ *  <p>
+ *  The revoked JWTs are held in an immutable {@link RevokedJWTSnapshot}, which is replaced as a whole whenever revoked
+ *  JWTs are added or the expired ones are compacted, so lookups do not need to lock.
+ *  </p>
  */
 public class RevokedJWTDataHolder {
 
-    private static final Logger log = LogManager.getLogger(RevokedJWTDataHolder.class);
-    private static Map<String, Long> revokedJWTMap = new ConcurrentHashMap<>();
+    private static final long COMPACTION_INTERVAL_MINUTES = 10;
+
     private static RevokedJWTDataHolder instance = new RevokedJWTDataHolder();
 
-    public void init() {
+    private volatile RevokedJWTSnapshot revokedJWTSnapshot = RevokedJWTSnapshot.EMPTY;
+
+    private ScheduledExecutorService compactionExecutor;
+
+    public synchronized void init() {
         RevokedTokenDiscoveryClient revokedTokenDs = RevokedTokenDiscoveryClient.getInstance();
         revokedTokenDs.watchRevokedTokens();
+        if (compactionExecutor != null) {
+            return;
+        }
+        compactionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revoked-jwt-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactionExecutor.scheduleWithFixedDelay(this::compact,
+                COMPACTION_INTERVAL_MINUTES, COMPACTION_INTERVAL_MINUTES, TimeUnit.MINUTES);
     }
 
     /**
@@ -46,30 +66,50 @@ public class RevokedJWTDataHolder {
      */
     public void addRevokedJWTToMap(String key, Long value) {
         if (key != null && value != null) {
-            log.debug("Adding revoked JWT key, value pair to the revoked map :" + key + " , " + value);
-            revokedJWTMap.put(key, value);
+            addRevokedJWTs(Collections.singletonMap(key, value));
         }
     }
 
+    /**
+     * Adds the given revoked JWTs to the revoke map. The expired JWTs are removed from the map at the same time.
+     * @param revokedJWTs map of the JWT ID to the expiry time of the revoked JWTs, in seconds or milliseconds since
+     *                    the epoch (see {@link RevokedJWTSnapshot}).
+     */
+    public synchronized void addRevokedJWTs(Map<String, Long> revokedJWTs) {
+        revokedJWTSnapshot = revokedJWTSnapshot.merge(revokedJWTs, now());
+    }
+
+    private synchronized void compact() {
+        revokedJWTSnapshot = revokedJWTSnapshot.compact(now());
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(FilterUtils.getTimeStampSkewInSeconds());
+    }
+
     /**
      * Checks whether a given signature is in the map.
      * @param jwtSignature signature to be checked.
      * @return true if it exists and false otherwise.
      */
     public static boolean isJWTTokenSignatureExistsInRevokedMap(String jwtSignature) {
-        return revokedJWTMap.containsKey(jwtSignature);
+        return instance.isRevoked(jwtSignature);
+    }
+
+    boolean isRevoked(String jti) {
+        return jti != null && revokedJWTSnapshot.contains(jti);
     }
 
-    private RevokedJWTDataHolder() {
+    RevokedJWTDataHolder() {
 
     }
 
     /**
      * Fetches the revoke map.
-     * @return
+     * @return the current revoke map, which is immutable. Expiry times are in milliseconds since the epoch.
      */
     public Map<String, Long> getRevokedJWTMap() {
-        return revokedJWTMap;
+        return revokedJWTSnapshot.getRevokedJWTMap();
     }
 
     /**
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of the revoked JWTs, mapping the JWT ID to the expiry time of each revoked JWT in milliseconds
+ * since the epoch.
+ * <p>
+ * Lookups first go through a filter of two bits per JWT ID, taken from the hash code of the JWT ID. The hash code of
+ * a String is cached, so the filter does not hash the JWT ID again. A JWT ID with either bit unset is not revoked,
+ * which answers most lookups from the filter, an eighth of the size of the map table. The map confirms the rest.
+ * </p>
+ * <p>
+ * The {@code RevokedToken} discovery message does not define the unit of its expiry time, and there is no producer in
+ * this repository to take it from. The JWT exp claim is in seconds, while Java producers usually send milliseconds.
+ * Expiry times are therefore converted to milliseconds when they are added: values below
+ * {@link #MAX_EXPIRY_TIME_IN_SECONDS} are read as seconds, since as milliseconds they would be in 1973. All
+ * comparisons are then made in milliseconds.
+ * </p>
+ */
+final class RevokedJWTSnapshot {
+
+    private static final Logger log = LogManager.getLogger(RevokedJWTSnapshot.class);
+
+    // 100,000,000,000 seconds is in the year 5138, and 100,000,000,000 milliseconds is in 1973.
+    static final long MAX_EXPIRY_TIME_IN_SECONDS = 100_000_000_000L;
+    // Filter bits per revoked JWT. With two bits per JWT ID, about 5% of the JWT IDs that are not revoked pass.
+    private static final int FILTER_BITS_PER_JWT = 8;
+    // Beyond this many revoked JWTs the filter stops growing, and lets more JWT IDs through to the map.
+    private static final int MAX_FILTERED_JWTS = 1 << 26;
+
+    static final RevokedJWTSnapshot EMPTY = new RevokedJWTSnapshot(Collections.emptyMap());
+
+    private final Map<String, Long> revokedJWTMap;
+    private final long[] filter;
+    private final int filterMask;
+
+    private RevokedJWTSnapshot(Map<String, Long> revokedJWTMap) {
+        this.revokedJWTMap = Collections.unmodifiableMap(revokedJWTMap);
+        int filteredJWTs = Math.min(revokedJWTMap.size(), MAX_FILTERED_JWTS);
+        int filterBits = Math.max(Long.SIZE,
+                Integer.highestOneBit(Math.max(1, filteredJWTs * FILTER_BITS_PER_JWT - 1)) << 1);
+        this.filter = new long[filterBits / Long.SIZE];
+        this.filterMask = filterBits - 1;
+        for (String jti : revokedJWTMap.keySet()) {
+            long hash = hash(jti);
+            setBit((int) hash);
+            setBit((int) (hash >>> Integer.SIZE));
+        }
+    }
+
+    /**
+     * Creates a snapshot with the revoked JWTs of this snapshot and the given revoked JWTs, leaving out the JWTs
+     * which have expired.
+     *
+     * @param revokedJWTs map of the JWT ID to the expiry time of the revoked JWTs to add, in seconds or milliseconds
+     *                    since the epoch, or 0 if the JWT does not expire
+     * @param now         current time in milliseconds, adjusted for the time stamp skew
+     * @return the new snapshot, or this snapshot if nothing was added or removed
+     */
+    RevokedJWTSnapshot merge(Map<String, Long> revokedJWTs, long now) {
+        Map<String, Long> newRevokedJWTs = new HashMap<>(revokedJWTMap.size() + revokedJWTs.size());
+        for (Map.Entry<String, Long> revokedJWT : revokedJWTMap.entrySet()) {
+            if (!isExpired(revokedJWT.getValue(), now)) {
+                newRevokedJWTs.put(revokedJWT.getKey(), revokedJWT.getValue());
+            }
+        }
+        int compacted = revokedJWTMap.size() - newRevokedJWTs.size();
+        int added = 0;
+        for (Map.Entry<String, Long> revokedJWT : revokedJWTs.entrySet()) {
+            if (revokedJWT.getKey() == null || revokedJWT.getValue() == null) {
+                continue;
+            }
+            log.debug("Adding revoked JWT key, value pair to the revoked map :" + revokedJWT.getKey() + " , "
+                    + revokedJWT.getValue());
+            long expiryTime = toEpochMillis(revokedJWT.getValue());
+            if (!isExpired(expiryTime, now)) {
+                newRevokedJWTs.put(revokedJWT.getKey(), expiryTime);
+                added++;
+            }
+        }
+        if (compacted == 0 && added == 0) {
+            return this;
+        }
+        log.debug("Revoked JWT map updated. Size: {}, expired JWTs removed: {}", newRevokedJWTs.size(), compacted);
+        return new RevokedJWTSnapshot(newRevokedJWTs);
+    }
+
+    /**
+     * Creates a snapshot without the revoked JWTs which have expired.
+     *
+     * @param now current time in milliseconds, adjusted for the time stamp skew
+     * @return the new snapshot, or this snapshot if no revoked JWT has expired
+     */
+    RevokedJWTSnapshot compact(long now) {
+        return merge(Collections.emptyMap(), now);
+    }
+
+    boolean contains(String jti) {
+        long hash = hash(jti);
+        return isBitSet((int) hash) && isBitSet((int) (hash >>> Integer.SIZE)) && revokedJWTMap.containsKey(jti);
+    }
+
+    /**
+     * @return the revoked JWTs, with their expiry times in milliseconds since the epoch
+     */
+    Map<String, Long> getRevokedJWTMap() {
+        return revokedJWTMap;
+    }
+
+    /**
+     * Converts an expiry time in seconds or milliseconds since the epoch to milliseconds.
+     *
+     * @param expiryTime expiry time in seconds or milliseconds since the epoch, or 0 or less if there is none
+     * @return expiry time in milliseconds since the epoch, or 0 if there is none
+     */
+    static long toEpochMillis(long expiryTime) {
+        if (expiryTime <= 0) {
+            return 0;
+        }
+        return expiryTime < MAX_EXPIRY_TIME_IN_SECONDS ? TimeUnit.SECONDS.toMillis(expiryTime) : expiryTime;
+    }
+
+    private static boolean isExpired(long expiryTimeMillis, long now) {
+        return expiryTimeMillis > 0 && expiryTimeMillis < now;
+    }
+
+    private static long hash(String jti) {
+        // Spread the 32 bit hash code over 64 bits, so that each half gives an independent bit index.
+        int hashCode = jti.hashCode();
+        return (hashCode ^ (hashCode >>> 16)) * 0x9E3779B97F4A7C15L;
+    }
+
+    private void setBit(int index) {
+        index &= filterMask;
+        filter[index >>> 6] |= 1L << index;
+    }
+
+    private boolean isBitSet(int index) {
+        index &= filterMask;
+        return (filter[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.SignedJWT;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+import org.wso2.apk.enforcer.config.EnvVarConfig;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the JWT signature verifications that run concurrently. Verifications run on the calling thread, and if
+ * JWT_MAX_CONCURRENT_VERIFICATIONS is set, at most that many run at a time, which bounds the CPU spent on signature
+ * verification when tokens churn and leaves the rest to the request threads. A verification that cannot start within
+ * {@link #PERMIT_TIMEOUT_MILLIS} is shed with a {@link SignatureVerificationOverloadedException}, so the request is
+ * rejected as unavailable without caching the token as invalid.
+ */
+public class SignatureVerificationLimiter {
+
+    private static final Logger log = LogManager.getLogger(SignatureVerificationLimiter.class);
+    static final long PERMIT_TIMEOUT_MILLIS = 100;
+
+    private static final SignatureVerificationLimiter instance = createLimiter();
+
+    private final Semaphore permits;
+    private final int maxConcurrentVerifications;
+    private final long permitTimeoutMillis;
+
+    SignatureVerificationLimiter(int maxConcurrentVerifications, long permitTimeoutMillis) {
+        this.permits = maxConcurrentVerifications > 0 ? new Semaphore(maxConcurrentVerifications) : null;
+        this.maxConcurrentVerifications = maxConcurrentVerifications;
+        this.permitTimeoutMillis = permitTimeoutMillis;
+    }
+
+    /**
+     * Verify the signature of the JWT.
+     *
+     * @param signedJWT signed JWT
+     * @param verifier  verifier for the key the JWT is signed with
+     * @return whether the signature is valid or not
+     * @throws SignatureVerificationOverloadedException if the verification is shed as the verifications are saturated
+     * @throws EnforcerException                         if an error occurs during the verification
+     */
+    public static boolean verify(SignedJWT signedJWT, JWSVerifier verifier) throws EnforcerException {
+        return instance.verifyWithPermit(signedJWT, verifier);
+    }
+
+    boolean verifyWithPermit(SignedJWT signedJWT, JWSVerifier verifier) throws EnforcerException {
+        if (permits == null) {
+            return verifySignature(signedJWT, verifier);
+        }
+        try {
+            if (!permits.tryAcquire(permitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("JWT signature verification is shed as {} verifications are already in progress.",
+                        maxConcurrentVerifications);
+                throw new SignatureVerificationOverloadedException("JWT signature verification is overloaded");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EnforcerException("JWT Signature verification interrupted", e);
+        }
+        try {
+            return verifySignature(signedJWT, verifier);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static boolean verifySignature(SignedJWT signedJWT, JWSVerifier verifier) throws EnforcerException {
+        try {
+            return signedJWT.verify(verifier);
+        } catch (JOSEException e) {
+            throw new EnforcerException("JWT Signature verification failed", e);
+        }
+    }
+
+    private static SignatureVerificationLimiter createLimiter() {
+        int maxConcurrentVerifications;
+        try {
+            maxConcurrentVerifications = Integer.parseInt(
+                    EnvVarConfig.getInstance().getJwtMaxConcurrentVerifications());
+        } catch (NumberFormatException e) {
+            log.error("Invalid value for {}. JWT signature verifications are not limited.",
+                    EnvVarConfig.JWT_MAX_CONCURRENT_VERIFICATIONS);
+            maxConcurrentVerifications = 0;
+        }
+        if (maxConcurrentVerifications > 0) {
+            log.info("At most {} JWT signature verifications run concurrently.", maxConcurrentVerifications);
+        }
+        return new SignatureVerificationLimiter(maxConcurrentVerifications, PERMIT_TIMEOUT_MILLIS);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+
+/**
+ * Thrown when a JWT is signed with a key ID that is not in the JWKS of the token issuer. Any client can send such a
+ * token, so unlike the other validation errors it does not indicate a fault in the gateway.
+ */
+public class SigningKeyNotFoundException extends EnforcerException {
+
+    public SigningKeyNotFoundException(String msg) {
+        super(msg);
+    }
+}
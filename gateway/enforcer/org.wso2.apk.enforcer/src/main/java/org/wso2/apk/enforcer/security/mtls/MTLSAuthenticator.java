@@ -18,6 +18,8 @@
 
 package org.wso2.apk.enforcer.security.mtls;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.opentelemetry.context.Scope;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -41,12 +43,21 @@ import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implements the authenticator interface to authenticate request using MTLS.
  */
 public class MTLSAuthenticator implements Authenticator {
     private static final Logger log = LogManager.getLogger(MTLSAuthenticator.class);
+    private static final int MAX_CACHED_CERTIFICATES = 1000;
+    private static final long CACHED_CERTIFICATE_IDLE_TIME_MINUTES = 60;
+    // Parsed client certificates keyed by the raw certificate as received in the request, so that a client
+    // presenting the same certificate again is not decoded and parsed again.
+    private static final Cache<String, ClientCertificate> clientCertificateCache = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_CERTIFICATES)
+            .expireAfterAccess(CACHED_CERTIFICATE_IDLE_TIME_MINUTES, TimeUnit.MINUTES)
+            .build();
     private final boolean isEnableClientValidation = ConfigHolder.getInstance().getConfig().getMtlsInfo()
                                                         .isEnableClientValidation();
     private final boolean isClientCertificateEncode = ConfigHolder.getInstance().getConfig().getMtlsInfo()
@@ -90,9 +101,14 @@ public class MTLSAuthenticator implements Authenticator {
             boolean authenticated = false;
 
             try {
-                X509Certificate clientCert = getClientCertificate(requestContext);
-                String clientCertificateAlias = MtlsUtils
-                        .getMatchedCertificateAliasFromTrustStore(clientCert, trustStore);
+                ClientCertificate clientCertificate = getClientCertificate(requestContext);
+                X509Certificate clientCert = null;
+                String clientCertificateAlias = null;
+                if (clientCertificate != null) {
+                    clientCert = clientCertificate.certificate;
+                    clientCertificateAlias = MtlsUtils.getCertificateAlias(clientCert, clientCertificate.fingerprint,
+                            requestContext.getMatchedAPI().getMtlsCertificateAliases(), trustStore);
+                }
                 if (StringUtils.isBlank(clientCertificateAlias)) {
                     log.debug("Provided client certificate in request: {} is not in the truststore of the API: {}:{} ",
                             requestContext.getMatchedResourcePaths().get(0).getPath(),
@@ -135,26 +151,32 @@ public class MTLSAuthenticator implements Authenticator {
         }
     }
 
-    private X509Certificate getClientCertificate(RequestContext requestContext) throws CertificateException {
-        String certContent = "";
+    private ClientCertificate getClientCertificate(RequestContext requestContext) throws CertificateException {
+        String rawCert = null;
+        boolean isEncoded = true;
 
         if (isEnableClientValidation) {
-            String encodedCert = requestContext.getClientCertificate();
-            if (StringUtils.isNotBlank(encodedCert)) {
-                certContent = MtlsUtils.getCertContent(encodedCert, true);
-            }
+            rawCert = requestContext.getClientCertificate();
         } else {
             Map<String, String> headers = requestContext.getHeaders();
             if (headers.containsKey(FilterUtils.getCertificateHeaderName())) {
-                String cert = requestContext.getHeaders().get(FilterUtils.getCertificateHeaderName());
-                requestContext.setClientCertificate(cert);
-                if (StringUtils.isNotBlank(cert)) {
-                    certContent = MtlsUtils.getCertContent(cert, isClientCertificateEncode);
-                }
+                rawCert = requestContext.getHeaders().get(FilterUtils.getCertificateHeaderName());
+                requestContext.setClientCertificate(rawCert);
+                isEncoded = isClientCertificateEncode;
             }
         }
-        if (StringUtils.isNotBlank(certContent)) {
-            return MtlsUtils.getX509Cert(certContent);
+        if (StringUtils.isNotBlank(rawCert)) {
+            ClientCertificate clientCertificate = clientCertificateCache.getIfPresent(rawCert);
+            if (clientCertificate != null) {
+                return clientCertificate;
+            }
+            String certContent = MtlsUtils.getCertContent(rawCert, isEncoded);
+            if (StringUtils.isNotBlank(certContent)) {
+                X509Certificate certificate = MtlsUtils.getX509Cert(certContent);
+                clientCertificate = new ClientCertificate(certificate, MtlsUtils.getFingerprint(certificate));
+                clientCertificateCache.put(rawCert, clientCertificate);
+                return clientCertificate;
+            }
         }
         log.debug("Provided client certificate in the request: {} for the API: {}:{} is invalid.",
                 requestContext.getMatchedResourcePaths().get(0).getPath(), requestContext.getMatchedAPI().getName(),
@@ -176,4 +198,17 @@ public class MTLSAuthenticator implements Authenticator {
     public int getPriority() {
         return -15;
     }
+
+    /**
+     * Client certificate parsed from the request along with its fingerprint.
+     */
+    private static final class ClientCertificate {
+        private final X509Certificate certificate;
+        private final String fingerprint;
+
+        private ClientCertificate(X509Certificate certificate, String fingerprint) {
+            this.certificate = certificate;
+            this.fingerprint = fingerprint;
+        }
+    }
 }
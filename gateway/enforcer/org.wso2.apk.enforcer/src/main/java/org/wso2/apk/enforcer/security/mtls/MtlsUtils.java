@@ -19,6 +19,7 @@
 package org.wso2.apk.enforcer.security.mtls;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.discovery.api.Certificate;
@@ -31,10 +32,15 @@ import java.net.URLDecoder;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -91,6 +97,62 @@ public class MtlsUtils {
         return trustStore;
     }
 
+    /**
+     * Index the certificates in the given truststore by their SHA-256 fingerprint, so that the alias of a client
+     * certificate can be found without scanning the truststore.
+     *
+     * @param trustStore truststore of the API
+     * @return aliases of the certificates keyed by the fingerprint
+     * @throws KeyStoreException if the truststore is not initialized
+     */
+    public static Map<String, String> createCertificateAliasIndex(KeyStore trustStore) throws KeyStoreException {
+        Map<String, String> aliases = new HashMap<>();
+        Enumeration<String> aliasEnumeration = trustStore.aliases();
+        while (aliasEnumeration.hasMoreElements()) {
+            String alias = aliasEnumeration.nextElement();
+            java.security.cert.Certificate certificate = trustStore.getCertificate(alias);
+            if (certificate instanceof X509Certificate) {
+                try {
+                    aliases.putIfAbsent(getFingerprint((X509Certificate) certificate), alias);
+                } catch (CertificateEncodingException e) {
+                    throw new SecurityException(e);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(aliases);
+    }
+
+    /**
+     * Returns the SHA-256 fingerprint of the certificate as a hex string.
+     *
+     * @param certificate certificate
+     * @return fingerprint of the certificate
+     * @throws CertificateEncodingException if the certificate cannot be encoded
+     */
+    public static String getFingerprint(X509Certificate certificate) throws CertificateEncodingException {
+        return DigestUtils.sha256Hex(certificate.getEncoded());
+    }
+
+    /**
+     * Returns the alias of the client certificate in the truststore of the API. The alias is looked up in the
+     * fingerprint index of the truststore if the API has one, and the truststore is scanned otherwise.
+     *
+     * @param certificate        client certificate
+     * @param fingerprint        SHA-256 fingerprint of the client certificate
+     * @param certificateAliases aliases of the truststore certificates keyed by the fingerprint, or null
+     * @param trustStore         truststore of the API
+     * @return alias of the certificate, or null if the certificate is not in the truststore
+     * @throws CertificateException if the truststore cannot be read
+     */
+    public static String getCertificateAlias(X509Certificate certificate, String fingerprint,
+                                             Map<String, String> certificateAliases, KeyStore trustStore)
+            throws CertificateException {
+        if (certificateAliases != null) {
+            return certificateAliases.get(fingerprint);
+        }
+        return getMatchedCertificateAliasFromTrustStore(certificate, trustStore);
+    }
+
     public static X509Certificate getX509Cert(String certContent)
             throws CertificateException {
         CertificateFactory cf = CertificateFactory.getInstance("X.509");
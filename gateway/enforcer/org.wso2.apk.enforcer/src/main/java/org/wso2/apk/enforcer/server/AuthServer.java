@@ -21,9 +21,7 @@ package org.wso2.apk.enforcer.server;
 import io.grpc.Server;
 import io.grpc.ServerInterceptors;
 import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
-import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
-import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
-import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollChannelOption;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.analytics.AccessLoggingService;
@@ -35,6 +33,7 @@ import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.config.EnforcerConfig;
 import org.wso2.apk.enforcer.config.dto.AuthServiceConfigurationDto;
 import org.wso2.apk.enforcer.config.dto.ThreadPoolConfig;
+import org.wso2.apk.enforcer.deniedresponse.DeniedResponseTemplates;
 import org.wso2.apk.enforcer.discovery.ConfigDiscoveryClient;
 import org.wso2.apk.enforcer.grpc.ExtAuthService;
 import org.wso2.apk.enforcer.grpc.HealthService;
@@ -121,9 +120,13 @@ public class AuthServer {
             //Initialise cache objects
             CacheProvider.init();
 
+            // Build the denied response templates ahead of the first request
+            DeniedResponseTemplates.init();
+
             // Start the server
             server.start();
             logger.info("Sever started Listening in port : " + 8081);
+            StartupPhases.complete(StartupPhases.SERVER_STARTED);
 
             // Initialize JMX Agent
             JMXAgent.initJMXAgent();
@@ -154,22 +157,26 @@ public class AuthServer {
     }
 
     private static Server initServer() throws SSLException {
-        final EventLoopGroup bossGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors());
-        final EventLoopGroup workerGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors() * 2);
         AuthServiceConfigurationDto authServerConfig = ConfigHolder.getInstance().getConfig().getAuthService();
         ThreadPoolConfig threadPoolConfig = authServerConfig.getThreadPool();
         EnforcerWorkerPool enforcerWorkerPool = new EnforcerWorkerPool(threadPoolConfig.getCoreSize(),
                 threadPoolConfig.getMaxSize(), threadPoolConfig.getKeepAliveTime(), threadPoolConfig.getQueueSize(),
                 Constants.EXTERNAL_AUTHZ_THREAD_GROUP, Constants.EXTERNAL_AUTHZ_THREAD_ID);
-        return NettyServerBuilder.forPort(authServerConfig.getPort())
-                .keepAliveTime(authServerConfig.getKeepAliveTime(), TimeUnit.SECONDS).bossEventLoopGroup(bossGroup)
-                .workerEventLoopGroup(workerGroup)
+        NettyServerBuilder serverBuilder = NettyServerBuilder.forPort(authServerConfig.getPort());
+        if (EventLoops.isEpollAvailable() && ConfigHolder.getInstance().getEnvVarConfig().isAuthServerReusePort()) {
+            serverBuilder.withOption(EpollChannelOption.SO_REUSEPORT, true);
+        }
+        return serverBuilder
+                .keepAliveTime(authServerConfig.getKeepAliveTime(), TimeUnit.SECONDS)
+                .bossEventLoopGroup(EventLoops.getBossGroup())
+                .workerEventLoopGroup(EventLoops.getWorkerGroup())
                 .addService(ServerInterceptors.intercept(new ExtAuthService(), new OpenTelemetryInterceptor(),
                         new AccessLogInterceptor()))
                 .addService(new HealthService())
 //                .addService(ServerInterceptors.intercept(new WebSocketFrameService(), new AccessLogInterceptor()))
                 .maxInboundMessageSize(authServerConfig.getMaxMessageSize())
-                .maxInboundMetadataSize(authServerConfig.getMaxHeaderLimit()).channelType(NioServerSocketChannel.class)
+                .maxInboundMetadataSize(authServerConfig.getMaxHeaderLimit())
+                .channelType(EventLoops.getServerChannelType())
                 .executor(enforcerWorkerPool.getExecutor())
                 .sslContext(TLSUtils.buildGRPCServerSSLContext())
                 .build();
@@ -28,4 +28,7 @@ public class Constants {
 
     public static final String ANALYTICS_THREAD_GROUP = "Analytics Receiver Service Thread Group";
     public static final String ANALYTICS_THREAD_ID = "AnalyticsReceiver";
+
+    public static final String ANALYTICS_PUBLISHER_THREAD_GROUP = "Analytics Publisher Thread Group";
+    public static final String ANALYTICS_PUBLISHER_THREAD_ID = "AnalyticsPublisher";
 }
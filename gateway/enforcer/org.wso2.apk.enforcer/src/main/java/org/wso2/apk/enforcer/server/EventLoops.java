@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.server;
+
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.ServerChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.config.EnvVarConfig;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Event loops shared by all the servers of the enforcer (ext_authz, access log receiver and the REST endpoints).
+ * A single thread accepts the connections of all the servers, and EVENT_LOOP_THREADS threads serve them. The epoll
+ * transport is used when it is available (i.e. on Linux), otherwise NIO.
+ */
+public final class EventLoops {
+
+    private static final Logger log = LogManager.getLogger(EventLoops.class);
+
+    private static final boolean EPOLL_AVAILABLE = Epoll.isAvailable();
+    private static volatile EventLoopGroup bossGroup;
+    private static volatile EventLoopGroup workerGroup;
+
+    private EventLoops() {
+    }
+
+    /**
+     * Get the event loop group that accepts the connections of the servers.
+     *
+     * @return boss event loop group
+     */
+    public static EventLoopGroup getBossGroup() {
+        if (bossGroup == null) {
+            init();
+        }
+        return bossGroup;
+    }
+
+    /**
+     * Get the event loop group that serves the accepted connections of the servers.
+     *
+     * @return worker event loop group
+     */
+    public static EventLoopGroup getWorkerGroup() {
+        if (workerGroup == null) {
+            init();
+        }
+        return workerGroup;
+    }
+
+    /**
+     * Get the server channel type matching the transport of the event loops.
+     *
+     * @return server channel type
+     */
+    public static Class<? extends ServerChannel> getServerChannelType() {
+        return EPOLL_AVAILABLE ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    public static boolean isEpollAvailable() {
+        return EPOLL_AVAILABLE;
+    }
+
+    private static synchronized void init() {
+        if (workerGroup != null) {
+            return;
+        }
+        int threads = getEventLoopThreads();
+        if (EPOLL_AVAILABLE) {
+            log.info("Using the epoll transport with {} event loop threads.", threads);
+        } else {
+            log.info("Using the NIO transport with {} event loop threads. Epoll is not available: {}", threads,
+                    Epoll.unavailabilityCause().getMessage());
+        }
+        bossGroup = createGroup(1, "enforcer-boss");
+        workerGroup = createGroup(threads, "enforcer-worker");
+    }
+
+    private static EventLoopGroup createGroup(int threads, String name) {
+        // Netty threads make the fast thread local lookups of the pipeline possible.
+        ThreadFactory threadFactory = new DefaultThreadFactory(name);
+        return EPOLL_AVAILABLE ? new EpollEventLoopGroup(threads, threadFactory)
+                : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    private static int getEventLoopThreads() {
+        String eventLoopThreads = EnvVarConfig.getInstance().getEventLoopThreads();
+        try {
+            int threads = Integer.parseInt(eventLoopThreads);
+            if (threads > 0) {
+                return threads;
+            }
+        } catch (NumberFormatException e) {
+            // Falls back to the default below.
+        }
+        log.error("Invalid value {} for {}. Using the default value {}.", eventLoopThreads,
+                EnvVarConfig.EVENT_LOOP_THREADS, EnvVarConfig.DEFAULT_EVENT_LOOP_THREADS);
+        return Integer.parseInt(EnvVarConfig.DEFAULT_EVENT_LOOP_THREADS);
+    }
+}
@@ -22,8 +22,6 @@ import io.grpc.netty.shaded.io.netty.bootstrap.ServerBootstrap;
 import io.grpc.netty.shaded.io.netty.channel.Channel;
 import io.grpc.netty.shaded.io.netty.channel.ChannelOption;
 import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
-import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
-import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.grpc.netty.shaded.io.netty.handler.logging.LogLevel;
 import io.grpc.netty.shaded.io.netty.handler.logging.LoggingHandler;
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslContext;
@@ -64,63 +62,65 @@ public class RestServer {
         ssl.trustManager(ConfigHolder.getInstance().getTrustManagerFactory());
         sslCtx = ssl.build();
 
-        // Create the multithreaded event loops for the server
-        final EventLoopGroup bossGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors());
-        final EventLoopGroup workerGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors() * 2);
-        try {
-            // A helper class that simplifies server configuration
-            ServerBootstrap tokenServer = new ServerBootstrap();
+        // The event loops are shared with the other servers of the enforcer.
+        final EventLoopGroup bossGroup = EventLoops.getBossGroup();
+        final EventLoopGroup workerGroup = EventLoops.getWorkerGroup();
+
+        // A helper class that simplifies server configuration
+        ServerBootstrap tokenServer = new ServerBootstrap();
+        // Configure the server
+        tokenServer.option(ChannelOption.SO_BACKLOG, 1024);
+        tokenServer.group(bossGroup, workerGroup)
+                .channel(EventLoops.getServerChannelType())
+                .childHandler(new HttpTokenServerInitializer(sslCtx));
+        addLoggingHandler(tokenServer);
+
+        Channel tokenChannel = tokenServer.bind(TOKEN_PORT).sync().channel();
+        logger.info("Token endpoint started Listening in port : " + TOKEN_PORT);
+
+        ServerBootstrap swaggerServer = new ServerBootstrap();
+        swaggerServer.option(ChannelOption.SO_BACKLOG, 1024);
+        swaggerServer.group(bossGroup, workerGroup)
+                .channel(EventLoops.getServerChannelType())
+                .childHandler(new SwaggerServerInitializer(sslCtx));
+        addLoggingHandler(swaggerServer);
+        Channel swaggerChannel = swaggerServer.bind(8084).sync().channel();
+        logger.info("API Definition endpoint started Listening in port : " + 8084);
+
+        ServerBootstrap jWKSServer = new ServerBootstrap();
+        jWKSServer.option(ChannelOption.SO_BACKLOG, 1024);
+        jWKSServer.group(bossGroup, workerGroup)
+                .channel(EventLoops.getServerChannelType())
+                .handler(new JWKSRequestHandler())
+                .childHandler(new JWKSServerInitializer(sslCtx));
+        Channel jwksChannel = jWKSServer.bind(9092).sync().channel();
+        logger.info("JWKS endpoint started Listening in port : " + 9092);
+        jwksChannel.closeFuture().sync();
+
+
+        if (ConfigHolder.getInstance().getConfig().getRestServer().isEnable()) {
+            ServerBootstrap adminServer = new ServerBootstrap();
             // Configure the server
-            tokenServer.option(ChannelOption.SO_BACKLOG, 1024);
-            tokenServer.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .handler(new LoggingHandler(LogLevel.INFO))
-                    .childHandler(new HttpTokenServerInitializer(sslCtx));
-
-            Channel tokenChannel = tokenServer.bind(TOKEN_PORT).sync().channel();
-            logger.info("Token endpoint started Listening in port : " + TOKEN_PORT);
-
-            ServerBootstrap swaggerServer = new ServerBootstrap();
-            swaggerServer.option(ChannelOption.SO_BACKLOG, 1024);
-            swaggerServer.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .handler(new LoggingHandler(LogLevel.INFO))
-                    .childHandler(new SwaggerServerInitializer(sslCtx));
-            Channel swaggerChannel = swaggerServer.bind(8084).sync().channel();
-            logger.info("API Definition endpoint started Listening in port : " + 8084);
-
-            ServerBootstrap jWKSServer = new ServerBootstrap();
-            jWKSServer.option(ChannelOption.SO_BACKLOG, 1024);
-            jWKSServer.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .handler(new JWKSRequestHandler())
-                    .childHandler(new JWKSServerInitializer(sslCtx));
-            Channel jwksChannel = jWKSServer.bind(9092).sync().channel();
-            logger.info("JWKS endpoint started Listening in port : " + 9092);
-            jwksChannel.closeFuture().sync();
-
-
-            if (ConfigHolder.getInstance().getConfig().getRestServer().isEnable()) {
-                ServerBootstrap adminServer = new ServerBootstrap();
-                // Configure the server
-                adminServer.option(ChannelOption.SO_BACKLOG, 1024);
-                adminServer.group(bossGroup, workerGroup)
-                        .channel(NioServerSocketChannel.class)
-                        .handler(new LoggingHandler(LogLevel.INFO))
-                        .childHandler(new AdminServerInitializer(sslCtx));
-
-                Channel adminChannel = adminServer.bind(ADMIN_PORT).sync().channel();
-                logger.info("Admin endpoint started Listening in port : " + ADMIN_PORT);
-                adminChannel.closeFuture().sync();
-            }
-
-            swaggerChannel.closeFuture().sync();
-            // Wait until server socket is closed
-            tokenChannel.closeFuture().sync();
-
-        } finally {
-            workerGroup.shutdownGracefully();
-            bossGroup.shutdownGracefully();
+            adminServer.option(ChannelOption.SO_BACKLOG, 1024);
+            adminServer.group(bossGroup, workerGroup)
+                    .channel(EventLoops.getServerChannelType())
+                    .childHandler(new AdminServerInitializer(sslCtx));
+            addLoggingHandler(adminServer);
+
+            Channel adminChannel = adminServer.bind(ADMIN_PORT).sync().channel();
+            logger.info("Admin endpoint started Listening in port : " + ADMIN_PORT);
+            adminChannel.closeFuture().sync();
+        }
+
+        swaggerChannel.closeFuture().sync();
+        // Wait until server socket is closed
+        tokenChannel.closeFuture().sync();
+    }
+
+    // Connection level events of the listeners are logged only when debug logs are enabled.
+    private static void addLoggingHandler(ServerBootstrap serverBootstrap) {
+        if (logger.isDebugEnabled()) {
+            serverBootstrap.handler(new LoggingHandler(LogLevel.DEBUG));
         }
     }
 }
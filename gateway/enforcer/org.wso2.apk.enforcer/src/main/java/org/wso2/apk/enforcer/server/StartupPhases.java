@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.StartupMetrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the completion of the enforcer startup phases, i.e. the time from the JVM start until the configuration
+ * is received, the server starts listening and each type of discovered data is first synced with the adapter.
+ * The phases are logged and exposed through {@link StartupMetrics}.
+ */
+public final class StartupPhases {
+
+    private static final Logger logger = LogManager.getLogger(StartupPhases.class);
+
+    public static final String CONFIG_LOADED = "configLoaded";
+    public static final String SERVER_STARTED = "serverStarted";
+    public static final String ADAPTER_SYNCED = "adapterSynced";
+
+    private static final Set<String> completedPhases = ConcurrentHashMap.newKeySet();
+
+    private StartupPhases() {
+    }
+
+    /**
+     * Mark the given phase as completed. Only the first completion of a phase is recorded.
+     *
+     * @param phase name of the phase
+     */
+    public static void complete(String phase) {
+        if (!completedPhases.add(phase)) {
+            return;
+        }
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        logger.info("Startup phase {} completed in {} ms", phase, uptime);
+        if (JMXUtils.isJMXMetricsEnabled()) {
+            StartupMetrics.getInstance().recordPhase(phase, uptime);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.subscription;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Unmodifiable map whose entries are split into buckets by the hash of the key, so that a modified copy of the map
+ * only copies the buckets it changes. The other buckets are shared with the original map.
+ * <p>
+ * The number of buckets is kept close to the square root of the size, so a copy that changes {@code k} entries costs
+ * {@code O(k * sqrt(n))} rather than {@code O(n)}. The buckets are redistributed when the size has moved far enough
+ * from the one the map was built for.
+ * </p>
+ *
+ * @param <K> type of the key
+ * @param <V> type of the value
+ */
+final class BucketedMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int MIN_BUCKETS = 16;
+
+    private final Map<K, V>[] buckets;
+    private final int size;
+    private Set<Entry<K, V>> entrySet;
+
+    private BucketedMap(Map<K, V>[] buckets, int size) {
+        this.buckets = buckets;
+        this.size = size;
+    }
+
+    /**
+     * Create a map with the entries of the given map.
+     *
+     * @param map entries of the new map
+     * @param <K> type of the key
+     * @param <V> type of the value
+     * @return the given map if it is already a {@link BucketedMap}, or a new map with its entries
+     */
+    static <K, V> BucketedMap<K, V> copyOf(Map<K, V> map) {
+        if (map instanceof BucketedMap) {
+            return (BucketedMap<K, V>) map;
+        }
+        Map<K, V>[] buckets = newBuckets(bucketCount(map.size()));
+        for (Entry<K, V> entry : map.entrySet()) {
+            int bucket = bucketOf(entry.getKey(), buckets.length);
+            if (buckets[bucket].isEmpty()) {
+                buckets[bucket] = new HashMap<>();
+            }
+            buckets[bucket].put(entry.getKey(), entry.getValue());
+        }
+        return new BucketedMap<>(buckets, map.size());
+    }
+
+    /**
+     * Start a modified copy of this map. This map is not changed.
+     *
+     * @return updater of the copy
+     */
+    Updater<K, V> update() {
+        return new Updater<>(this);
+    }
+
+    @Override
+    public V get(Object key) {
+        return buckets[bucketOf(key, buckets.length)].get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return buckets[bucketOf(key, buckets.length)].containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private static int bucketCount(int size) {
+        int buckets = MIN_BUCKETS;
+        while ((long) buckets * buckets < size) {
+            buckets <<= 1;
+        }
+        return buckets;
+    }
+
+    private static int bucketOf(Object key, int bucketCount) {
+        int hash = Objects.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (bucketCount - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newBuckets(int bucketCount) {
+        Map<K, V>[] buckets = new Map[bucketCount];
+        Arrays.fill(buckets, Collections.emptyMap());
+        return buckets;
+    }
+
+    /**
+     * Builds a modified copy of a {@link BucketedMap}. A bucket is copied the first time one of its entries is
+     * changed.
+     *
+     * @param <K> type of the key
+     * @param <V> type of the value
+     */
+    static final class Updater<K, V> {
+
+        private final BucketedMap<K, V> original;
+        private final Map<K, V>[] buckets;
+        private final boolean[] copied;
+        private int size;
+
+        private Updater(BucketedMap<K, V> original) {
+            this.original = original;
+            this.buckets = original.buckets.clone();
+            this.copied = new boolean[buckets.length];
+            this.size = original.size;
+        }
+
+        V get(K key) {
+            return buckets[bucketOf(key, buckets.length)].get(key);
+        }
+
+        /**
+         * @return the previous value of the key, or null if there was none
+         */
+        V put(K key, V value) {
+            V previous = writableBucket(key).put(key, value);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+
+        /**
+         * @return the removed value of the key, or null if there was none
+         */
+        V remove(K key) {
+            int bucket = bucketOf(key, buckets.length);
+            if (!buckets[bucket].containsKey(key)) {
+                return null;
+            }
+            V previous = writableBucket(key).remove(key);
+            size--;
+            return previous;
+        }
+
+        /**
+         * @return the modified copy, or the original map if nothing was changed
+         */
+        BucketedMap<K, V> build() {
+            boolean changed = false;
+            for (int i = 0; i < buckets.length; i++) {
+                if (copied[i]) {
+                    changed = true;
+                    if (buckets[i].isEmpty()) {
+                        buckets[i] = Collections.emptyMap();
+                    }
+                }
+            }
+            if (!changed) {
+                return original;
+            }
+            BucketedMap<K, V> map = new BucketedMap<>(buckets, size);
+            int bucketCount = bucketCount(size);
+            if (bucketCount > buckets.length * 2 || bucketCount * 2 < buckets.length) {
+                // Redistribute the entries once the buckets are far from the square root of the size.
+                return copyOf(new HashMap<>(map));
+            }
+            return map;
+        }
+
+        private Map<K, V> writableBucket(K key) {
+            int bucket = bucketOf(key, buckets.length);
+            if (!copied[bucket]) {
+                buckets[bucket] = new HashMap<>(buckets[bucket]);
+                copied[bucket] = true;
+            }
+            return buckets[bucket];
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private int bucket;
+        private Iterator<Entry<K, V>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (bucket == buckets.length) {
+                    return false;
+                }
+                current = buckets[bucket++].entrySet().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = current.next();
+            return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+        }
+    }
+}
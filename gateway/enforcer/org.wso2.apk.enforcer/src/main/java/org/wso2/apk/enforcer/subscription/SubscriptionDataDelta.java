@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Add, update and remove events of a type of subscription related data, i.e. the difference between the data held
+ * by the current snapshot and the data received via the discovery service.
+ *
+ * @param <K> type of the cache key of the data
+ * @param <V> type of the data
+ */
+final class SubscriptionDataDelta<K, V> {
+
+    private final Map<K, V> addedOrUpdated;
+    private final Set<K> removed;
+
+    private SubscriptionDataDelta(Map<K, V> addedOrUpdated, Set<K> removed) {
+        this.addedOrUpdated = addedOrUpdated;
+        this.removed = removed;
+    }
+
+    /**
+     * Compute the events that turn the current data into the received data. Only the added or updated entries are
+     * converted to the model.
+     *
+     * @param received    data received via the discovery service
+     * @param current     data held by the current snapshot, by cache key
+     * @param keyFunction derives the cache key of a received entry
+     * @param unchanged   checks whether a received entry is the same as the current one with the same key
+     * @param converter   converts a received entry to the model
+     * @param <P>         type of the received data
+     * @param <K>         type of the cache key
+     * @param <V>         type of the model
+     * @return events to apply on the current data
+     */
+    static <P, K, V> SubscriptionDataDelta<K, V> compute(Collection<P> received, Map<K, V> current,
+                                                         Function<P, K> keyFunction, BiPredicate<P, V> unchanged,
+                                                         Function<P, V> converter) {
+        Map<K, V> addedOrUpdated = new HashMap<>();
+        Set<K> receivedKeys = new HashSet<>(received.size() * 4 / 3 + 1);
+        int retained = 0;
+        for (P entry : received) {
+            K key = keyFunction.apply(entry);
+            if (!receivedKeys.add(key)) {
+                // Duplicate key. As with a full rebuild, the last entry wins.
+                addedOrUpdated.put(key, converter.apply(entry));
+                continue;
+            }
+            V currentValue = current.get(key);
+            if (currentValue != null) {
+                retained++;
+            }
+            if (currentValue == null || !unchanged.test(entry, currentValue)) {
+                addedOrUpdated.put(key, converter.apply(entry));
+            }
+        }
+        Set<K> removed = new HashSet<>();
+        // Unless some of the current entries were not received, there is nothing to remove.
+        if (retained < current.size()) {
+            for (K key : current.keySet()) {
+                if (!receivedKeys.contains(key)) {
+                    removed.add(key);
+                }
+            }
+        }
+        return new SubscriptionDataDelta<>(Collections.unmodifiableMap(addedOrUpdated),
+                Collections.unmodifiableSet(removed));
+    }
+
+    Map<K, V> getAddedOrUpdated() {
+        return addedOrUpdated;
+    }
+
+    Set<K> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Get the number of entries affected by the events.
+     *
+     * @return number of added, updated and removed entries
+     */
+    int size() {
+        return addedOrUpdated.size() + removed.size();
+    }
+
+    boolean isEmpty() {
+        return addedOrUpdated.isEmpty() && removed.isEmpty();
+    }
+}
@@ -57,8 +57,24 @@ public interface SubscriptionDataStore {
 
     void addSubscriptions(List<org.wso2.apk.enforcer.discovery.subscription.Subscription> subscriptionList);
 
+    /**
+     * Apply the received subscriptions as add, update and remove events on the current subscriptions. Unlike
+     * {@link #addSubscriptions(List)}, only the subscriptions that changed are reloaded.
+     *
+     * @param subscriptionList all the subscriptions received via the discovery service
+     */
+    void updateSubscriptions(List<org.wso2.apk.enforcer.discovery.subscription.Subscription> subscriptionList);
+
     void addApplications(List<org.wso2.apk.enforcer.discovery.subscription.Application> applicationList);
 
+    /**
+     * Apply the received applications as add, update and remove events on the current applications. Unlike
+     * {@link #addApplications(List)}, only the applications that changed are reloaded.
+     *
+     * @param applicationList all the applications received via the discovery service
+     */
+    void updateApplications(List<org.wso2.apk.enforcer.discovery.subscription.Application> applicationList);
+
     void addApis(List<APIs> apisList);
 
     void addApplicationPolicies(
@@ -70,6 +86,15 @@ public interface SubscriptionDataStore {
     void addApplicationKeyMappings(
             List<org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping> applicationKeyMappingList);
 
+    /**
+     * Apply the received key mappings as add, update and remove events on the current key mappings. Unlike
+     * {@link #addApplicationKeyMappings(List)}, only the key mappings that changed are reloaded.
+     *
+     * @param applicationKeyMappingList all the key mappings received via the discovery service
+     */
+    void updateApplicationKeyMappings(
+            List<org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping> applicationKeyMappingList);
+
     /**
      * Filter the API map according to the provided parameters
      * @param name API Name
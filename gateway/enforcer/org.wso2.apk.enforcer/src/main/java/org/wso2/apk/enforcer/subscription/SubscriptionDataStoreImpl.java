@@ -34,8 +34,11 @@ import org.wso2.apk.enforcer.discovery.SubscriptionPolicyDiscoveryClient;
 import org.wso2.apk.enforcer.discovery.subscription.APIs;
 import org.wso2.apk.enforcer.discovery.subscription.Certificate;
 import org.wso2.apk.enforcer.discovery.subscription.JWTIssuer;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.MetricsConstants;
+import org.wso2.apk.enforcer.metrics.MetricsManager;
+import org.wso2.apk.enforcer.metrics.jmx.impl.SubscriptionSnapshotMetrics;
 import org.wso2.apk.enforcer.models.API;
-import org.wso2.apk.enforcer.models.ApiPolicy;
 import org.wso2.apk.enforcer.models.Application;
 import org.wso2.apk.enforcer.models.ApplicationKeyMapping;
 import org.wso2.apk.enforcer.models.ApplicationKeyMappingCacheKey;
@@ -48,9 +51,13 @@ import org.wso2.apk.enforcer.util.TLSUtils;
 import java.io.IOException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 /**
  * Implementation of the subscription data store.
@@ -71,19 +78,32 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
     public static final String DELEM_PERIOD = ":";
 
-    // Maps for keeping Subscription related details.
-    private Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> applicationKeyMappingMap;
-    private Map<String, Application> applicationMap;
-    private Map<String, API> apiMap;
-    private Map<String, ApiPolicy> apiPolicyMap;
-    private Map<String, SubscriptionPolicy> subscriptionPolicyMap;
-    private Map<String, ApplicationPolicy> appPolicyMap;
-    private Map<String, Subscription> subscriptionMap;
+    /**
+     * Creates the JWT validator of a token issuer.
+     */
+    interface JWTValidatorFactory {
+
+        JWTValidator create(ExtendedTokenIssuerDto tokenIssuer) throws EnforcerException;
+    }
+
+    // Subscription related details. Replaced as a whole on every update.
+    private volatile SubscriptionSnapshot snapshot = SubscriptionSnapshot.EMPTY;
+
+    private volatile Map<String, Map<String, JWTValidator>> jwtValidatorMap = new ConcurrentHashMap<>();
 
-    private Map<String, Map<String, JWTValidator>> jwtValidatorMap;
+    // Token issuers of the JWT validators, to find the issuers that are unchanged by a push.
+    private Map<String, Map<String, JWTIssuer>> jwtIssuerMap = new HashMap<>();
+
+    private final JWTValidatorFactory jwtValidatorFactory;
 
     SubscriptionDataStoreImpl() {
 
+        this(JWTValidator::new);
+    }
+
+    SubscriptionDataStoreImpl(JWTValidatorFactory jwtValidatorFactory) {
+
+        this.jwtValidatorFactory = jwtValidatorFactory;
     }
 
     public static SubscriptionDataStoreImpl getInstance() {
@@ -93,33 +113,34 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
     public void initializeStore() {
 
-        this.applicationKeyMappingMap = new ConcurrentHashMap<>();
-        this.applicationMap = new ConcurrentHashMap<>();
-        this.apiMap = new ConcurrentHashMap<>();
-        this.subscriptionPolicyMap = new ConcurrentHashMap<>();
-        this.appPolicyMap = new ConcurrentHashMap<>();
-        this.apiPolicyMap = new ConcurrentHashMap<>();
-        this.subscriptionMap = new ConcurrentHashMap<>();
+        this.snapshot = SubscriptionSnapshot.EMPTY;
         this.jwtValidatorMap = new ConcurrentHashMap<>();
+        synchronized (this) {
+            this.jwtIssuerMap = new HashMap<>();
+        }
+        if (JMXUtils.isJMXMetricsEnabled()) {
+            // The MBean reads the current snapshot on demand, so it only needs to be registered once.
+            SubscriptionSnapshotMetrics.getInstance();
+        }
         initializeLoadingTasks();
     }
 
     @Override
     public Application getApplicationById(String appUUID) {
 
-        return applicationMap.get(appUUID);
+        return snapshot.getApplicationMap().get(appUUID);
     }
 
     @Override
     public API getApiByContextAndVersion(String uuid) {
 
-        return apiMap.get(uuid);
+        return snapshot.getApiMap().get(uuid);
     }
 
     @Override
     public Subscription getSubscriptionById(String appId, String apiId) {
 
-        return subscriptionMap.get(SubscriptionDataStoreUtil.getSubscriptionCacheKey(appId, apiId));
+        return snapshot.getSubscriptionMap().get(SubscriptionDataStoreUtil.getSubscriptionCacheKey(appId, apiId));
     }
 
     private void initializeLoadingTasks() {
@@ -135,49 +156,83 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
     public void addSubscriptions(List<org.wso2.apk.enforcer.discovery.subscription.Subscription> subscriptionList) {
 
-        Map<String, Subscription> newSubscriptionMap = new ConcurrentHashMap<>();
+        Map<String, Subscription> newSubscriptionMap = new HashMap<>();
 
         for (org.wso2.apk.enforcer.discovery.subscription.Subscription subscription : subscriptionList) {
-            Subscription newSubscription = new Subscription();
-            newSubscription.setSubscriptionId(subscription.getUuid());
-            newSubscription.setPolicyId(subscription.getPolicyId());
-            newSubscription.setApiUUID(subscription.getApiRef());
-            newSubscription.setAppUUID(subscription.getApplicationRef());
-            newSubscription.setSubscriptionState(subscription.getSubStatus());
-            //newSubscription.setTimeStamp(Long.parseLong(subscription.getTimeStamp()));
-
+            Subscription newSubscription = toSubscription(subscription);
             newSubscriptionMap.put(newSubscription.getCacheKey(), newSubscription);
         }
 
         if (log.isDebugEnabled()) {
             log.debug("Total Subscriptions in new cache: {}", newSubscriptionMap.size());
         }
-        this.subscriptionMap = newSubscriptionMap;
+        updateSnapshot(current -> current.withSubscriptions(newSubscriptionMap));
+    }
+
+    @Override
+    public void updateSubscriptions(List<org.wso2.apk.enforcer.discovery.subscription.Subscription> subscriptionList) {
+
+        updateSnapshot(current -> {
+            SubscriptionDataDelta<String, Subscription> delta = SubscriptionDataDelta.compute(subscriptionList,
+                    current.getSubscriptionMap(),
+                    subscription -> SubscriptionDataStoreUtil.getSubscriptionCacheKey(
+                            subscription.getApplicationRef(), subscription.getApiRef()),
+                    SubscriptionDataStoreImpl::isSameSubscription, SubscriptionDataStoreImpl::toSubscription);
+            log.debug("Subscription changes received: {} added or updated, {} removed",
+                    delta.getAddedOrUpdated().size(), delta.getRemoved().size());
+            if (delta.isEmpty()) {
+                return current;
+            }
+            if (isRebuildCheaper(delta, current.getSubscriptionMap())) {
+                Map<String, Subscription> newSubscriptionMap = new HashMap<>(current.getSubscriptionMap());
+                newSubscriptionMap.keySet().removeAll(delta.getRemoved());
+                newSubscriptionMap.putAll(delta.getAddedOrUpdated());
+                return current.withSubscriptions(newSubscriptionMap);
+            }
+            return current.withSubscriptionChanges(delta);
+        });
     }
 
     public void addApplications(List<org.wso2.apk.enforcer.discovery.subscription.Application> applicationList) {
 
-        Map<String, Application> newApplicationMap = new ConcurrentHashMap<>();
+        Map<String, Application> newApplicationMap = new HashMap<>();
 
         for (org.wso2.apk.enforcer.discovery.subscription.Application application : applicationList) {
-            Application newApplication = new Application();
-            newApplication.setName(application.getName());
-            newApplication.setPolicy(application.getPolicy());
-            newApplication.setUUID(application.getUuid());
-            newApplication.setTenantDomain(application.getOrganization());
-            application.getAttributesMap().forEach(newApplication::addAttribute);
-
+            Application newApplication = toApplication(application);
             newApplicationMap.put(newApplication.getCacheKey(), newApplication);
         }
         if (log.isDebugEnabled()) {
             log.debug("Total Applications in new cache: {}", newApplicationMap.size());
         }
-        this.applicationMap = newApplicationMap;
+        updateSnapshot(current -> current.withApplications(newApplicationMap));
+    }
+
+    @Override
+    public void updateApplications(List<org.wso2.apk.enforcer.discovery.subscription.Application> applicationList) {
+
+        updateSnapshot(current -> {
+            SubscriptionDataDelta<String, Application> delta = SubscriptionDataDelta.compute(applicationList,
+                    current.getApplicationMap(),
+                    org.wso2.apk.enforcer.discovery.subscription.Application::getUuid,
+                    SubscriptionDataStoreImpl::isSameApplication, SubscriptionDataStoreImpl::toApplication);
+            log.debug("Application changes received: {} added or updated, {} removed",
+                    delta.getAddedOrUpdated().size(), delta.getRemoved().size());
+            if (delta.isEmpty()) {
+                return current;
+            }
+            if (isRebuildCheaper(delta, current.getApplicationMap())) {
+                Map<String, Application> newApplicationMap = new HashMap<>(current.getApplicationMap());
+                newApplicationMap.keySet().removeAll(delta.getRemoved());
+                newApplicationMap.putAll(delta.getAddedOrUpdated());
+                return current.withApplications(newApplicationMap);
+            }
+            return current.withApplicationChanges(delta);
+        });
     }
 
     public void addApis(List<APIs> apisList) {
 
-        Map<String, API> newApiMap = new ConcurrentHashMap<>();
+        Map<String, API> newApiMap = new HashMap<>();
 
         for (APIs api : apisList) {
             API newApi = new API();
@@ -195,13 +250,13 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         if (log.isDebugEnabled()) {
             log.debug("Total Apis in new cache: {}", newApiMap.size());
         }
-        this.apiMap = newApiMap;
+        updateSnapshot(current -> current.withApis(newApiMap));
     }
 
     public void addApplicationPolicies(
             List<org.wso2.apk.enforcer.discovery.subscription.ApplicationPolicy> applicationPolicyList) {
 
-        Map<String, ApplicationPolicy> newAppPolicyMap = new ConcurrentHashMap<>();
+        Map<String, ApplicationPolicy> newAppPolicyMap = new HashMap<>();
 
         for (org.wso2.apk.enforcer.discovery.subscription.ApplicationPolicy applicationPolicy :
                 applicationPolicyList) {
@@ -216,13 +271,13 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         if (log.isDebugEnabled()) {
             log.debug("Total Application Policies in new cache: {}", newAppPolicyMap.size());
         }
-        this.appPolicyMap = newAppPolicyMap;
+        updateSnapshot(current -> current.withApplicationPolicies(newAppPolicyMap));
     }
 
     public void addSubscriptionPolicies(
             List<org.wso2.apk.enforcer.discovery.subscription.SubscriptionPolicy> subscriptionPolicyList) {
 
-        Map<String, SubscriptionPolicy> newSubscriptionPolicyMap = new ConcurrentHashMap<>();
+        Map<String, SubscriptionPolicy> newSubscriptionPolicyMap = new HashMap<>();
 
         for (org.wso2.apk.enforcer.discovery.subscription.SubscriptionPolicy subscriptionPolicy :
                 subscriptionPolicyList) {
@@ -242,37 +297,137 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         if (log.isDebugEnabled()) {
             log.debug("Total Subscription Policies in new cache: {}", newSubscriptionPolicyMap.size());
         }
-        this.subscriptionPolicyMap = newSubscriptionPolicyMap;
+        updateSnapshot(current -> current.withSubscriptionPolicies(newSubscriptionPolicyMap));
     }
 
     public void addApplicationKeyMappings(
             List<org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping> applicationKeyMappingList) {
 
         Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> newApplicationKeyMappingMap =
-                new ConcurrentHashMap<>();
+                new HashMap<>();
 
         for (org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping applicationKeyMapping :
                 applicationKeyMappingList) {
-            ApplicationKeyMapping mapping = new ApplicationKeyMapping();
-            mapping.setApplicationId(applicationKeyMapping.getApplicationId());
-            mapping.setApplicationUUID(applicationKeyMapping.getApplicationUUID());
-            mapping.setConsumerKey(applicationKeyMapping.getConsumerKey());
-            mapping.setKeyType(applicationKeyMapping.getKeyType());
-            mapping.setKeyManager(applicationKeyMapping.getKeyManager());
-
+            ApplicationKeyMapping mapping = toApplicationKeyMapping(applicationKeyMapping);
             newApplicationKeyMappingMap.put(mapping.getCacheKey(), mapping);
         }
         if (log.isDebugEnabled()) {
             log.debug("Total Application Key Mappings in new cache: {}", newApplicationKeyMappingMap.size());
         }
-        this.applicationKeyMappingMap = newApplicationKeyMappingMap;
+        updateSnapshot(current -> current.withApplicationKeyMappings(newApplicationKeyMappingMap));
+    }
+
+    @Override
+    public void updateApplicationKeyMappings(
+            List<org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping> applicationKeyMappingList) {
+
+        updateSnapshot(current -> {
+            SubscriptionDataDelta<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> delta =
+                    SubscriptionDataDelta.compute(applicationKeyMappingList, current.getApplicationKeyMappingMap(),
+                            mapping -> new ApplicationKeyMappingCacheKey(mapping.getConsumerKey(),
+                                    mapping.getKeyManager()),
+                            SubscriptionDataStoreImpl::isSameApplicationKeyMapping,
+                            SubscriptionDataStoreImpl::toApplicationKeyMapping);
+            log.debug("Application Key Mapping changes received: {} added or updated, {} removed",
+                    delta.getAddedOrUpdated().size(), delta.getRemoved().size());
+            if (delta.isEmpty()) {
+                return current;
+            }
+            if (isRebuildCheaper(delta, current.getApplicationKeyMappingMap())) {
+                Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> newApplicationKeyMappingMap =
+                        new HashMap<>(current.getApplicationKeyMappingMap());
+                newApplicationKeyMappingMap.keySet().removeAll(delta.getRemoved());
+                newApplicationKeyMappingMap.putAll(delta.getAddedOrUpdated());
+                return current.withApplicationKeyMappings(newApplicationKeyMappingMap);
+            }
+            return current.withApplicationKeyMappingChanges(delta);
+        });
+    }
+
+    private static Subscription toSubscription(
+            org.wso2.apk.enforcer.discovery.subscription.Subscription subscription) {
+
+        Subscription newSubscription = new Subscription();
+        newSubscription.setSubscriptionId(subscription.getUuid());
+        newSubscription.setPolicyId(subscription.getPolicyId());
+        newSubscription.setApiUUID(subscription.getApiRef());
+        newSubscription.setAppUUID(subscription.getApplicationRef());
+        newSubscription.setSubscriptionState(subscription.getSubStatus());
+        //newSubscription.setTimeStamp(Long.parseLong(subscription.getTimeStamp()));
+        return newSubscription;
+    }
+
+    private static boolean isSameSubscription(org.wso2.apk.enforcer.discovery.subscription.Subscription subscription,
+                                              Subscription current) {
+
+        return subscription.getUuid().equals(current.getSubscriptionId())
+                && subscription.getPolicyId().equals(current.getPolicyId())
+                && subscription.getSubStatus().equals(current.getSubscriptionState());
+    }
+
+    private static Application toApplication(org.wso2.apk.enforcer.discovery.subscription.Application application) {
+
+        Application newApplication = new Application();
+        newApplication.setName(application.getName());
+        newApplication.setPolicy(application.getPolicy());
+        newApplication.setUUID(application.getUuid());
+        newApplication.setTenantDomain(application.getOrganization());
+        application.getAttributesMap().forEach(newApplication::addAttribute);
+        return newApplication;
+    }
+
+    private static boolean isSameApplication(org.wso2.apk.enforcer.discovery.subscription.Application application,
+                                             Application current) {
+
+        return application.getName().equals(current.getName())
+                && application.getPolicy().equals(current.getPolicy())
+                && application.getOrganization().equals(current.getTenantDomain())
+                && application.getAttributesMap().equals(current.getAttributes());
+    }
+
+    private static ApplicationKeyMapping toApplicationKeyMapping(
+            org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping applicationKeyMapping) {
+
+        ApplicationKeyMapping mapping = new ApplicationKeyMapping();
+        mapping.setApplicationId(applicationKeyMapping.getApplicationId());
+        mapping.setApplicationUUID(applicationKeyMapping.getApplicationUUID());
+        mapping.setConsumerKey(applicationKeyMapping.getConsumerKey());
+        mapping.setKeyType(applicationKeyMapping.getKeyType());
+        mapping.setKeyManager(applicationKeyMapping.getKeyManager());
+        return mapping;
+    }
+
+    private static boolean isSameApplicationKeyMapping(
+            org.wso2.apk.enforcer.discovery.subscription.ApplicationKeyMapping applicationKeyMapping,
+            ApplicationKeyMapping current) {
+
+        return applicationKeyMapping.getApplicationId() == current.getApplicationId()
+                && applicationKeyMapping.getApplicationUUID().equals(current.getApplicationUUID())
+                && applicationKeyMapping.getKeyType().equals(current.getKeyType());
+    }
+
+    /**
+     * Patching the indexes entry by entry is slower than rebuilding them once most of the entries have changed.
+     */
+    private static boolean isRebuildCheaper(SubscriptionDataDelta<?, ?> delta, Map<?, ?> current) {
+
+        return delta.size() > current.size() / 2;
     }
 
     @Override
     public List<API> getMatchingAPIs(String name, String context, String version, String uuid) {
 
+        SubscriptionSnapshot currentSnapshot = snapshot;
         List<API> apiList = new ArrayList<>();
-        for (API api : apiMap.values()) {
+        Collection<API> candidates;
+        if (StringUtils.isNotEmpty(uuid)) {
+            candidates = toList(currentSnapshot.getApiMap().get(uuid));
+        } else if (StringUtils.isNotEmpty(context) && StringUtils.isNotEmpty(version)) {
+            candidates = toList(currentSnapshot.getApiByContextAndVersion(context, version));
+        } else {
+            candidates = currentSnapshot.getApiMap().values();
+        }
+        for (API api : candidates) {
             boolean isNameMatching = true;
             boolean isContextMatching = true;
             boolean isVersionMatching = true;
@@ -299,12 +454,8 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public API getMatchingAPI(String context, String version) {
 
-        for (API api : apiMap.values()) {
-            if (StringUtils.isNotEmpty(context) && StringUtils.isNotEmpty(version)) {
-                if (api.getContext().equals(context) && api.getApiVersion().equals(version)) {
-                    return api;
-                }
-            }
+        if (StringUtils.isNotEmpty(context) && StringUtils.isNotEmpty(version)) {
+            return snapshot.getApiByContextAndVersion(context, version);
         }
         return null;
     }
@@ -312,8 +463,17 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public List<Application> getMatchingApplications(String name, String organizationID, String uuid) {
 
+        SubscriptionSnapshot currentSnapshot = snapshot;
         List<Application> applicationList = new ArrayList<>();
-        for (Application application : applicationMap.values()) {
+        Collection<Application> candidates;
+        if (StringUtils.isNotEmpty(uuid)) {
+            candidates = toList(currentSnapshot.getApplicationMap().get(uuid));
+        } else if (StringUtils.isNotEmpty(organizationID)) {
+            candidates = currentSnapshot.getApplicationsByOrganization(organizationID);
+        } else {
+            candidates = currentSnapshot.getApplicationMap().values();
+        }
+        for (Application application : candidates) {
             boolean isNameMatching = true;
             boolean isOrgMatching = true;
             boolean isUUIDMatching = true;
@@ -336,9 +496,18 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public List<ApplicationKeyMapping> getMatchingKeyMapping(String applicationUUID, String consumerKey) {
 
+        SubscriptionSnapshot currentSnapshot = snapshot;
         List<ApplicationKeyMapping> applicationKeyMappingList = new ArrayList<>();
+        Collection<ApplicationKeyMapping> candidates;
+        if (StringUtils.isNotEmpty(consumerKey)) {
+            candidates = currentSnapshot.getKeyMappingsByConsumerKey(consumerKey);
+        } else if (StringUtils.isNotEmpty(applicationUUID)) {
+            candidates = currentSnapshot.getKeyMappingsByAppUUID(applicationUUID);
+        } else {
+            candidates = currentSnapshot.getApplicationKeyMappingMap().values();
+        }
 
-        for (ApplicationKeyMapping applicationKeyMapping : applicationKeyMappingMap.values()) {
+        for (ApplicationKeyMapping applicationKeyMapping : candidates) {
             boolean isConsumerKeyMatching = true;
             boolean isAppUUIDMatching = true;
 
@@ -358,9 +527,18 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public List<Subscription> getMatchingSubscriptions(String applicationUUID, String apiUUID, String state) {
 
+        SubscriptionSnapshot currentSnapshot = snapshot;
         List<Subscription> subscriptionList = new ArrayList<>();
+        Collection<Subscription> candidates;
+        if (StringUtils.isNotEmpty(applicationUUID)) {
+            candidates = currentSnapshot.getSubscriptionsByAppUUID(applicationUUID);
+        } else if (StringUtils.isNotEmpty(apiUUID)) {
+            candidates = currentSnapshot.getSubscriptionsByApiUUID(apiUUID);
+        } else {
+            candidates = currentSnapshot.getSubscriptionMap().values();
+        }
 
-        for (Subscription subscription : subscriptionMap.values()) {
+        for (Subscription subscription : candidates) {
             boolean isApiUUIDMatch = true;
             boolean isAppUUIDMatch = true;
             boolean isStateMatch = true;
@@ -380,45 +558,119 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         return subscriptionList;
     }
 
+    /**
+     * Get the current snapshot of the subscription related data.
+     *
+     * @return current snapshot
+     */
+    public SubscriptionSnapshot getSnapshot() {
+
+        return snapshot;
+    }
+
+    /**
+     * Replace the current snapshot with the one derived from it. Updates are serialized so that an update received
+     * via one discovery stream does not overwrite a concurrent update received via another.
+     */
+    private synchronized void updateSnapshot(UnaryOperator<SubscriptionSnapshot> update) {
+
+        SubscriptionSnapshot newSnapshot = update.apply(snapshot);
+        this.snapshot = newSnapshot;
+        if (MetricsManager.isMetricsEnabled()) {
+            MetricsManager.getInstance().trackMetric(MetricsConstants.SUBSCRIPTION_SNAPSHOT_GENERATION,
+                    newSnapshot.getGeneration());
+        }
+    }
+
+    private static <T> List<T> toList(T value) {
+
+        return value == null ? Collections.emptyList() : Collections.singletonList(value);
+    }
+
+    /**
+     * Replace the JWT validators with the ones of the given issuers. The list holds every issuer, so the validators
+     * of the issuers and organizations that are not in the list are closed, which stops refreshing their keys. The
+     * validators of the issuers that are unchanged are kept, along with the keys they have fetched.
+     */
     @Override
-    public void addJWTIssuers(List<JWTIssuer> jwtIssuers) {
+    public synchronized void addJWTIssuers(List<JWTIssuer> jwtIssuers) {
 
+        Map<String, Map<String, JWTValidator>> previousJWTValidatorMap = jwtValidatorMap;
+        Map<String, Map<String, JWTValidator>> newJWTValidatorMap = new ConcurrentHashMap<>();
+        Map<String, Map<String, JWTIssuer>> newJWTIssuerMap = new HashMap<>();
         for (JWTIssuer jwtIssuer : jwtIssuers) {
-            try {
-                ExtendedTokenIssuerDto tokenIssuerDto = new ExtendedTokenIssuerDto(jwtIssuer.getIssuer());
-                tokenIssuerDto.setName(jwtIssuer.getName());
-                tokenIssuerDto.setConsumerKeyClaim(jwtIssuer.getConsumerKeyClaim());
-                tokenIssuerDto.setScopesClaim(jwtIssuer.getScopesClaim());
-                Certificate certificate = jwtIssuer.getCertificate();
-                if (StringUtils.isNotEmpty(certificate.getJwks().getUrl())) {
-                    JWKSConfigurationDTO jwksConfigurationDTO = new JWKSConfigurationDTO();
-                    if (StringUtils.isNotEmpty(certificate.getJwks().getTls())) {
-                        java.security.cert.Certificate tlsCertificate =
-                                TLSUtils.getCertificateFromContent(certificate.getJwks().getTls());
-                        jwksConfigurationDTO.setCertificate(tlsCertificate);
-                    }
-                    jwksConfigurationDTO.setUrl(certificate.getJwks().getUrl());
-                    jwksConfigurationDTO.setEnabled(true);
-                    tokenIssuerDto.setJwksConfigurationDTO(jwksConfigurationDTO);
-                }
-                if (StringUtils.isNotEmpty(certificate.getCertificate())) {
-                    java.security.cert.Certificate signingCertificate =
-                            TLSUtils.getCertificateFromContent(certificate.getCertificate());
-                    tokenIssuerDto.setCertificate(signingCertificate);
+            JWTValidator previousJWTValidator = getByIssuer(previousJWTValidatorMap, jwtIssuer.getOrganization(),
+                    jwtIssuer.getIssuer());
+            JWTValidator jwtValidator;
+            if (previousJWTValidator != null && jwtIssuer.equals(getByIssuer(jwtIssuerMap,
+                    jwtIssuer.getOrganization(), jwtIssuer.getIssuer()))) {
+                jwtValidator = previousJWTValidator;
+            } else {
+                try {
+                    jwtValidator = jwtValidatorFactory.create(toTokenIssuerDto(jwtIssuer));
+                } catch (EnforcerException | CertificateException | IOException e) {
+                    log.error("Error occurred while configuring JWT Validator for issuer " + jwtIssuer.getIssuer(),
+                            e);
+                    continue;
                 }
-                JWTValidator jwtValidator = new JWTValidator(tokenIssuerDto);
-                Map<String, JWTValidator> orgBasedJWTValidatorMap = new ConcurrentHashMap<>();
-                if (jwtValidatorMap.containsKey(jwtIssuer.getOrganization())) {
-                    orgBasedJWTValidatorMap = jwtValidatorMap.get(jwtIssuer.getOrganization());
+            }
+            JWTValidator duplicateJWTValidator = newJWTValidatorMap
+                    .computeIfAbsent(jwtIssuer.getOrganization(), org -> new ConcurrentHashMap<>())
+                    .put(jwtIssuer.getIssuer(), jwtValidator);
+            newJWTIssuerMap.computeIfAbsent(jwtIssuer.getOrganization(), org -> new HashMap<>())
+                    .put(jwtIssuer.getIssuer(), jwtIssuer);
+            // A kept validator which is replaced by a duplicate is closed along with the other previous validators.
+            if (duplicateJWTValidator != null && duplicateJWTValidator != previousJWTValidator) {
+                duplicateJWTValidator.close();
+            }
+        }
+        jwtValidatorMap = newJWTValidatorMap;
+        jwtIssuerMap = newJWTIssuerMap;
+        for (Map.Entry<String, Map<String, JWTValidator>> orgBasedJWTValidatorMap :
+                previousJWTValidatorMap.entrySet()) {
+            for (Map.Entry<String, JWTValidator> previousJWTValidator :
+                    orgBasedJWTValidatorMap.getValue().entrySet()) {
+                if (previousJWTValidator.getValue() != getByIssuer(newJWTValidatorMap,
+                        orgBasedJWTValidatorMap.getKey(), previousJWTValidator.getKey())) {
+                    previousJWTValidator.getValue().close();
                 }
-                orgBasedJWTValidatorMap.put(jwtIssuer.getIssuer(), jwtValidator);
-                jwtValidatorMap.put(jwtIssuer.getOrganization(), orgBasedJWTValidatorMap);
-            } catch (EnforcerException | CertificateException | IOException e) {
-                log.error("Error occurred while configuring JWT Validator for issuer " + jwtIssuer.getIssuer(), e);
             }
         }
     }
 
+    private static ExtendedTokenIssuerDto toTokenIssuerDto(JWTIssuer jwtIssuer)
+            throws CertificateException, IOException {
+
+        ExtendedTokenIssuerDto tokenIssuerDto = new ExtendedTokenIssuerDto(jwtIssuer.getIssuer());
+        tokenIssuerDto.setName(jwtIssuer.getName());
+        tokenIssuerDto.setConsumerKeyClaim(jwtIssuer.getConsumerKeyClaim());
+        tokenIssuerDto.setScopesClaim(jwtIssuer.getScopesClaim());
+        Certificate certificate = jwtIssuer.getCertificate();
+        if (StringUtils.isNotEmpty(certificate.getJwks().getUrl())) {
+            JWKSConfigurationDTO jwksConfigurationDTO = new JWKSConfigurationDTO();
+            if (StringUtils.isNotEmpty(certificate.getJwks().getTls())) {
+                java.security.cert.Certificate tlsCertificate =
+                        TLSUtils.getCertificateFromContent(certificate.getJwks().getTls());
+                jwksConfigurationDTO.setCertificate(tlsCertificate);
+            }
+            jwksConfigurationDTO.setUrl(certificate.getJwks().getUrl());
+            jwksConfigurationDTO.setEnabled(true);
+            tokenIssuerDto.setJwksConfigurationDTO(jwksConfigurationDTO);
+        }
+        if (StringUtils.isNotEmpty(certificate.getCertificate())) {
+            java.security.cert.Certificate signingCertificate =
+                    TLSUtils.getCertificateFromContent(certificate.getCertificate());
+            tokenIssuerDto.setCertificate(signingCertificate);
+        }
+        return tokenIssuerDto;
+    }
+
+    private static <T> T getByIssuer(Map<String, Map<String, T>> orgBasedMap, String organization, String issuer) {
+
+        Map<String, T> issuerMap = orgBasedMap.get(organization);
+        return issuerMap == null ? null : issuerMap.get(issuer);
+    }
+
     @Override
     public JWTValidator getJWTValidatorByIssuer(String issuer, String organization) {
 
@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import org.wso2.apk.enforcer.common.CacheableEntity;
+import org.wso2.apk.enforcer.models.API;
+import org.wso2.apk.enforcer.models.ApiPolicy;
+import org.wso2.apk.enforcer.models.Application;
+import org.wso2.apk.enforcer.models.ApplicationKeyMapping;
+import org.wso2.apk.enforcer.models.ApplicationKeyMappingCacheKey;
+import org.wso2.apk.enforcer.models.ApplicationPolicy;
+import org.wso2.apk.enforcer.models.Subscription;
+import org.wso2.apk.enforcer.models.SubscriptionPolicy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshot of the subscription related data received via the discovery service, along with the secondary
+ * indexes built for them. An update to any of the data creates a new snapshot with the next generation, which
+ * shares the unchanged data with the previous snapshot. Since a snapshot is never modified once built, the maps are
+ * plain (non-concurrent) maps, and a request that reads a single snapshot sees a consistent view of all the data.
+ * Subscriptions, applications and key mappings can also be updated with a {@link SubscriptionDataDelta}, in which
+ * case only the index entries of the changed data are rebuilt. Their maps and indexes are {@link BucketedMap}s, so
+ * such an update copies only the buckets holding the changed entries instead of the whole map.
+ */
+public final class SubscriptionSnapshot {
+
+    static final SubscriptionSnapshot EMPTY = new SubscriptionSnapshot();
+
+    private final long generation;
+
+    private final Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> applicationKeyMappingMap;
+    private final Map<String, Application> applicationMap;
+    private final Map<String, API> apiMap;
+    private final Map<String, ApiPolicy> apiPolicyMap;
+    private final Map<String, SubscriptionPolicy> subscriptionPolicyMap;
+    private final Map<String, ApplicationPolicy> appPolicyMap;
+    private final Map<String, Subscription> subscriptionMap;
+
+    // Secondary indexes, rebuilt along with the maps above. Each index maps to an unmodifiable list.
+    private final Map<String, List<Subscription>> subscriptionsByAppUUID;
+    private final Map<String, List<Subscription>> subscriptionsByApiUUID;
+    private final Map<String, List<ApplicationKeyMapping>> keyMappingsByConsumerKey;
+    private final Map<String, List<ApplicationKeyMapping>> keyMappingsByAppUUID;
+    private final Map<String, API> apiByContextAndVersion;
+    private final Map<String, List<Application>> applicationsByOrganization;
+
+    private SubscriptionSnapshot() {
+        this.generation = 0;
+        this.applicationKeyMappingMap = Collections.emptyMap();
+        this.applicationMap = Collections.emptyMap();
+        this.apiMap = Collections.emptyMap();
+        this.apiPolicyMap = Collections.emptyMap();
+        this.subscriptionPolicyMap = Collections.emptyMap();
+        this.appPolicyMap = Collections.emptyMap();
+        this.subscriptionMap = Collections.emptyMap();
+        this.subscriptionsByAppUUID = Collections.emptyMap();
+        this.subscriptionsByApiUUID = Collections.emptyMap();
+        this.keyMappingsByConsumerKey = Collections.emptyMap();
+        this.keyMappingsByAppUUID = Collections.emptyMap();
+        this.apiByContextAndVersion = Collections.emptyMap();
+        this.applicationsByOrganization = Collections.emptyMap();
+    }
+
+    private SubscriptionSnapshot(Builder builder) {
+        this.generation = builder.generation;
+        this.applicationKeyMappingMap = builder.applicationKeyMappingMap;
+        this.applicationMap = builder.applicationMap;
+        this.apiMap = builder.apiMap;
+        this.apiPolicyMap = builder.apiPolicyMap;
+        this.subscriptionPolicyMap = builder.subscriptionPolicyMap;
+        this.appPolicyMap = builder.appPolicyMap;
+        this.subscriptionMap = builder.subscriptionMap;
+        this.subscriptionsByAppUUID = builder.subscriptionsByAppUUID;
+        this.subscriptionsByApiUUID = builder.subscriptionsByApiUUID;
+        this.keyMappingsByConsumerKey = builder.keyMappingsByConsumerKey;
+        this.keyMappingsByAppUUID = builder.keyMappingsByAppUUID;
+        this.apiByContextAndVersion = builder.apiByContextAndVersion;
+        this.applicationsByOrganization = builder.applicationsByOrganization;
+    }
+
+    SubscriptionSnapshot withSubscriptions(Map<String, Subscription> subscriptions) {
+        Builder builder = new Builder(this);
+        builder.subscriptionMap = BucketedMap.copyOf(subscriptions);
+        builder.subscriptionsByAppUUID = buildIndex(subscriptions.values(), Subscription::getAppUUID);
+        builder.subscriptionsByApiUUID = buildIndex(subscriptions.values(), Subscription::getApiUUID);
+        return new SubscriptionSnapshot(builder);
+    }
+
+    SubscriptionSnapshot withApplications(Map<String, Application> applications) {
+        Builder builder = new Builder(this);
+        builder.applicationMap = BucketedMap.copyOf(applications);
+        builder.applicationsByOrganization = buildIndex(applications.values(), Application::getTenantDomain);
+        return new SubscriptionSnapshot(builder);
+    }
+
+    SubscriptionSnapshot withSubscriptionChanges(SubscriptionDataDelta<String, Subscription> delta) {
+        Builder builder = new Builder(this);
+        List<Subscription> replaced = new ArrayList<>();
+        builder.subscriptionMap = applyDelta(subscriptionMap, delta, replaced);
+        Collection<Subscription> added = delta.getAddedOrUpdated().values();
+        builder.subscriptionsByAppUUID = updateIndex(subscriptionsByAppUUID, replaced, added,
+                Subscription::getAppUUID);
+        builder.subscriptionsByApiUUID = updateIndex(subscriptionsByApiUUID, replaced, added,
+                Subscription::getApiUUID);
+        return new SubscriptionSnapshot(builder);
+    }
+
+    SubscriptionSnapshot withApplicationChanges(SubscriptionDataDelta<String, Application> delta) {
+        Builder builder = new Builder(this);
+        List<Application> replaced = new ArrayList<>();
+        builder.applicationMap = applyDelta(applicationMap, delta, replaced);
+        builder.applicationsByOrganization = updateIndex(applicationsByOrganization, replaced,
+                delta.getAddedOrUpdated().values(), Application::getTenantDomain);
+        return new SubscriptionSnapshot(builder);
+    }
+
+    SubscriptionSnapshot withApis(Map<String, API> apis) {
+        Builder builder = new Builder(this);
+        builder.apiMap = Collections.unmodifiableMap(apis);
+        Map<String, API> newApiByContextAndVersion = new HashMap<>();
+        for (API api : apis.values()) {
+            newApiByContextAndVersion.putIfAbsent(getContextAndVersionKey(api.getContext(), api.getApiVersion()), api);
+        }
+        builder.apiByContextAndVersion = newApiByContextAndVersion;
+        return new SubscriptionSnapshot(builder);
+    }
+
+    SubscriptionSnapshot withApplicationPolicies(Map<String, ApplicationPolicy> applicationPolicies) {
+        Builder builder = new Builder(this);
+        builder.appPolicyMap = Collections.unmodifiableMap(applicationPolicies);
+        return new SubscriptionSnapshot(builder);
+    }
+
+    SubscriptionSnapshot withSubscriptionPolicies(Map<String, SubscriptionPolicy> subscriptionPolicies) {
+        Builder builder = new Builder(this);
+        builder.subscriptionPolicyMap = Collections.unmodifiableMap(subscriptionPolicies);
+        return new SubscriptionSnapshot(builder);
+    }
+
+    SubscriptionSnapshot withApplicationKeyMappings(
+            Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> applicationKeyMappings) {
+        Builder builder = new Builder(this);
+        builder.applicationKeyMappingMap = BucketedMap.copyOf(applicationKeyMappings);
+        builder.keyMappingsByConsumerKey = buildIndex(applicationKeyMappings.values(),
+                ApplicationKeyMapping::getConsumerKey);
+        builder.keyMappingsByAppUUID = buildIndex(applicationKeyMappings.values(),
+                ApplicationKeyMapping::getApplicationUUID);
+        return new SubscriptionSnapshot(builder);
+    }
+
+    SubscriptionSnapshot withApplicationKeyMappingChanges(
+            SubscriptionDataDelta<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> delta) {
+        Builder builder = new Builder(this);
+        List<ApplicationKeyMapping> replaced = new ArrayList<>();
+        builder.applicationKeyMappingMap = applyDelta(applicationKeyMappingMap, delta, replaced);
+        Collection<ApplicationKeyMapping> added = delta.getAddedOrUpdated().values();
+        builder.keyMappingsByConsumerKey = updateIndex(keyMappingsByConsumerKey, replaced, added,
+                ApplicationKeyMapping::getConsumerKey);
+        builder.keyMappingsByAppUUID = updateIndex(keyMappingsByAppUUID, replaced, added,
+                ApplicationKeyMapping::getApplicationUUID);
+        return new SubscriptionSnapshot(builder);
+    }
+
+    /**
+     * Get the generation of the snapshot, which is incremented by every update.
+     *
+     * @return generation of the snapshot
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> getApplicationKeyMappingMap() {
+        return applicationKeyMappingMap;
+    }
+
+    public Map<String, Application> getApplicationMap() {
+        return applicationMap;
+    }
+
+    public Map<String, API> getApiMap() {
+        return apiMap;
+    }
+
+    public Map<String, ApiPolicy> getApiPolicyMap() {
+        return apiPolicyMap;
+    }
+
+    public Map<String, SubscriptionPolicy> getSubscriptionPolicyMap() {
+        return subscriptionPolicyMap;
+    }
+
+    public Map<String, ApplicationPolicy> getAppPolicyMap() {
+        return appPolicyMap;
+    }
+
+    public Map<String, Subscription> getSubscriptionMap() {
+        return subscriptionMap;
+    }
+
+    public List<Subscription> getSubscriptionsByAppUUID(String appUUID) {
+        return subscriptionsByAppUUID.getOrDefault(appUUID, Collections.emptyList());
+    }
+
+    public List<Subscription> getSubscriptionsByApiUUID(String apiUUID) {
+        return subscriptionsByApiUUID.getOrDefault(apiUUID, Collections.emptyList());
+    }
+
+    public List<ApplicationKeyMapping> getKeyMappingsByConsumerKey(String consumerKey) {
+        return keyMappingsByConsumerKey.getOrDefault(consumerKey, Collections.emptyList());
+    }
+
+    public List<ApplicationKeyMapping> getKeyMappingsByAppUUID(String appUUID) {
+        return keyMappingsByAppUUID.getOrDefault(appUUID, Collections.emptyList());
+    }
+
+    public API getApiByContextAndVersion(String context, String version) {
+        return apiByContextAndVersion.get(getContextAndVersionKey(context, version));
+    }
+
+    public List<Application> getApplicationsByOrganization(String organization) {
+        return applicationsByOrganization.getOrDefault(organization, Collections.emptyList());
+    }
+
+    private static String getContextAndVersionKey(String context, String version) {
+        return context + CacheableEntity.DELEM_PERIOD + version;
+    }
+
+    /**
+     * Group the given values by the given key. Values with a null key are not indexed.
+     */
+    private static <T> Map<String, List<T>> buildIndex(Collection<T> values, Function<T, String> keyFunction) {
+        Map<String, List<T>> index = new HashMap<>();
+        for (T value : values) {
+            String key = keyFunction.apply(value);
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+            }
+        }
+        index.replaceAll((key, list) -> Collections.unmodifiableList(list));
+        return BucketedMap.copyOf(index);
+    }
+
+    /**
+     * Apply the delta on a copy of the given map. Only the buckets of the changed keys are copied. The values removed
+     * or replaced by the delta are added to the given list, so that they can be removed from the indexes.
+     */
+    private static <K, V> Map<K, V> applyDelta(Map<K, V> map, SubscriptionDataDelta<K, V> delta, List<V> replaced) {
+        BucketedMap.Updater<K, V> newMap = BucketedMap.copyOf(map).update();
+        for (K key : delta.getRemoved()) {
+            V previous = newMap.remove(key);
+            if (previous != null) {
+                replaced.add(previous);
+            }
+        }
+        for (Map.Entry<K, V> entry : delta.getAddedOrUpdated().entrySet()) {
+            V previous = newMap.put(entry.getKey(), entry.getValue());
+            if (previous != null) {
+                replaced.add(previous);
+            }
+        }
+        return newMap.build();
+    }
+
+    /**
+     * Copy the given index, rebuilding only the lists of the keys the removed or added values belong to. The lists
+     * of the other keys, and the buckets not holding any of the rebuilt lists, are shared with the given index.
+     */
+    private static <T> Map<String, List<T>> updateIndex(Map<String, List<T>> index, Collection<T> removed,
+                                                        Collection<T> added, Function<T, String> keyFunction) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return index;
+        }
+        // Values are removed by identity, as the models do not implement equals.
+        Set<T> removedValues = Collections.newSetFromMap(new IdentityHashMap<>());
+        removedValues.addAll(removed);
+        Map<String, List<T>> changedLists = new HashMap<>();
+        for (T value : removed) {
+            String key = keyFunction.apply(value);
+            if (key != null) {
+                changedLists.computeIfAbsent(key, k -> copyWithout(index.get(k), removedValues));
+            }
+        }
+        for (T value : added) {
+            String key = keyFunction.apply(value);
+            if (key != null) {
+                changedLists.computeIfAbsent(key, k -> copyWithout(index.get(k), removedValues)).add(value);
+            }
+        }
+        BucketedMap.Updater<String, List<T>> newIndex = BucketedMap.copyOf(index).update();
+        for (Map.Entry<String, List<T>> entry : changedLists.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                newIndex.remove(entry.getKey());
+            } else {
+                newIndex.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+        }
+        return newIndex.build();
+    }
+
+    private static <T> List<T> copyWithout(List<T> list, Set<T> removed) {
+        List<T> copy = new ArrayList<>();
+        if (list != null) {
+            for (T value : list) {
+                if (!removed.contains(value)) {
+                    copy.add(value);
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the data of a snapshot so that a part of it can be replaced.
+     */
+    private static final class Builder {
+        private final long generation;
+        private Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> applicationKeyMappingMap;
+        private Map<String, Application> applicationMap;
+        private Map<String, API> apiMap;
+        private final Map<String, ApiPolicy> apiPolicyMap;
+        private Map<String, SubscriptionPolicy> subscriptionPolicyMap;
+        private Map<String, ApplicationPolicy> appPolicyMap;
+        private Map<String, Subscription> subscriptionMap;
+        private Map<String, List<Subscription>> subscriptionsByAppUUID;
+        private Map<String, List<Subscription>> subscriptionsByApiUUID;
+        private Map<String, List<ApplicationKeyMapping>> keyMappingsByConsumerKey;
+        private Map<String, List<ApplicationKeyMapping>> keyMappingsByAppUUID;
+        private Map<String, API> apiByContextAndVersion;
+        private Map<String, List<Application>> applicationsByOrganization;
+
+        private Builder(SubscriptionSnapshot snapshot) {
+            this.generation = snapshot.generation + 1;
+            this.applicationKeyMappingMap = snapshot.applicationKeyMappingMap;
+            this.applicationMap = snapshot.applicationMap;
+            this.apiMap = snapshot.apiMap;
+            this.apiPolicyMap = snapshot.apiPolicyMap;
+            this.subscriptionPolicyMap = snapshot.subscriptionPolicyMap;
+            this.appPolicyMap = snapshot.appPolicyMap;
+            this.subscriptionMap = snapshot.subscriptionMap;
+            this.subscriptionsByAppUUID = snapshot.subscriptionsByAppUUID;
+            this.subscriptionsByApiUUID = snapshot.subscriptionsByApiUUID;
+            this.keyMappingsByConsumerKey = snapshot.keyMappingsByConsumerKey;
+            this.keyMappingsByAppUUID = snapshot.keyMappingsByAppUUID;
+            this.apiByContextAndVersion = snapshot.apiByContextAndVersion;
+            this.applicationsByOrganization = snapshot.applicationsByOrganization;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.tracing;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessorBuilder;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.config.ConfigHolder;
+import org.wso2.apk.enforcer.config.dto.TracingDTO;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the span processors of the tracing exporters. The spans are exported in batches on the worker thread of
+ * the OpenTelemetry {@link BatchSpanProcessor}, so that the threads ending the spans (i.e. the ext_authz request
+ * threads) never wait for the tracing collector. When the queue of the processor is full, the spans are dropped
+ * instead of blocking the request.
+ * <p>
+ * When JMX metrics are enabled, each processor reports its span counts through its own {@link SdkMeterProvider}.
+ * The meter provider is shut down along with the processor, so that its metric reader thread does not outlive the
+ * tracer provider.
+ * </p>
+ */
+public class BatchSpanProcessorFactory {
+
+    private static final Logger log = LogManager.getLogger(BatchSpanProcessorFactory.class);
+    private static final long METRICS_READ_INTERVAL_SECONDS = 10;
+
+    private BatchSpanProcessorFactory() {
+    }
+
+    /**
+     * Create a span processor for the given exporter with the batching configuration of the enforcer.
+     *
+     * @param spanExporter exporter to export the spans
+     * @return span processor
+     */
+    public static SpanProcessor create(SpanExporter spanExporter) {
+        TracingDTO tracingConfig = ConfigHolder.getInstance().getConfig().getTracingConfig();
+        if (tracingConfig == null) {
+            // Tracing config is not received yet. Use the default batching configuration.
+            tracingConfig = new TracingDTO();
+        }
+        return create(spanExporter, tracingConfig,
+                JMXUtils.isJMXMetricsEnabled() ? new TracingMetricsExporter() : null);
+    }
+
+    /**
+     * Create a span processor for the given exporter.
+     *
+     * @param spanExporter   exporter to export the spans
+     * @param tracingConfig  batching configuration
+     * @param metricExporter exporter of the span metrics of the processor, or null if they are not reported
+     * @return span processor
+     */
+    static SpanProcessor create(SpanExporter spanExporter, TracingDTO tracingConfig, MetricExporter metricExporter) {
+        log.debug("Exporting spans in batches of {} every {} ms with a queue of {} spans",
+                tracingConfig.getMaxExportBatchSize(), tracingConfig.getScheduleDelay(),
+                tracingConfig.getMaxQueueSize());
+        BatchSpanProcessorBuilder builder = BatchSpanProcessor.builder(spanExporter)
+                .setMaxQueueSize(tracingConfig.getMaxQueueSize())
+                .setMaxExportBatchSize(Math.min(tracingConfig.getMaxExportBatchSize(),
+                        tracingConfig.getMaxQueueSize()))
+                .setScheduleDelay(tracingConfig.getScheduleDelay(), TimeUnit.MILLISECONDS)
+                .setExporterTimeout(tracingConfig.getExportTimeout(), TimeUnit.MILLISECONDS);
+        if (metricExporter == null) {
+            return builder.build();
+        }
+        // The processor reports the processed, dropped and queued spans as OpenTelemetry metrics. They are
+        // read periodically into the tracing MBean.
+        SdkMeterProvider meterProvider = SdkMeterProvider.builder()
+                .registerMetricReader(PeriodicMetricReader.builder(metricExporter)
+                        .setInterval(METRICS_READ_INTERVAL_SECONDS, TimeUnit.SECONDS).build())
+                .build();
+        return new MeteredSpanProcessor(builder.setMeterProvider(meterProvider).build(), meterProvider);
+    }
+
+    /**
+     * Span processor which shuts down the meter provider of the batch span processor along with it.
+     */
+    private static final class MeteredSpanProcessor implements SpanProcessor {
+
+        private final BatchSpanProcessor spanProcessor;
+        private final SdkMeterProvider meterProvider;
+
+        private MeteredSpanProcessor(BatchSpanProcessor spanProcessor, SdkMeterProvider meterProvider) {
+            this.spanProcessor = spanProcessor;
+            this.meterProvider = meterProvider;
+        }
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+            spanProcessor.onStart(parentContext, span);
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return spanProcessor.isStartRequired();
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            spanProcessor.onEnd(span);
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return spanProcessor.isEndRequired();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            // Shut down the span processor first, so that its final metrics are still read by the meter provider.
+            CompletableResultCode result = new CompletableResultCode();
+            CompletableResultCode spanProcessorResult = spanProcessor.shutdown();
+            spanProcessorResult.whenComplete(() -> {
+                CompletableResultCode meterProviderResult = meterProvider.shutdown();
+                meterProviderResult.whenComplete(() -> {
+                    if (spanProcessorResult.isSuccess() && meterProviderResult.isSuccess()) {
+                        result.succeed();
+                    } else {
+                        result.fail();
+                    }
+                });
+            });
+            return result;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofAll(Arrays.asList(spanProcessor.forceFlush(), meterProvider.forceFlush()));
+        }
+    }
+}
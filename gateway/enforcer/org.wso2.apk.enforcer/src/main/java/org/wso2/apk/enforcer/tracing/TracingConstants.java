@@ -71,7 +71,15 @@ public class TracingConstants {
     public static final String CONF_PORT = "port";
     public static final String CONF_AUTH_HEADER_NAME = "authHeaderName";
     public static final String CONF_AUTH_HEADER_VALUE = "authHeaderValue";
+    public static final String CONF_MAX_QUEUE_SIZE = "maxQueueSize";
+    public static final String CONF_MAX_EXPORT_BATCH_SIZE = "maxExportBatchSize";
+    public static final String CONF_SCHEDULE_DELAY = "scheduleDelay";
+    public static final String CONF_EXPORT_TIMEOUT = "exportTimeout";
     public static final int DEFAULT_MAX_TRACES_PER_SEC = 2;
     public static final String DEFAULT_INSTRUMENTATION_NAME = "APK";
     public static final long DEFAULT_TRACING_READ_TIMEOUT = 15;
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 2048;
+    public static final int DEFAULT_MAX_EXPORT_BATCH_SIZE = 512;
+    public static final long DEFAULT_SCHEDULE_DELAY = 5000;
+    public static final long DEFAULT_EXPORT_TIMEOUT = 30000;
 }
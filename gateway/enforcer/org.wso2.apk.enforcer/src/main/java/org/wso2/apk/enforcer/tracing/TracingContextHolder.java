@@ -18,22 +18,117 @@
 
 package org.wso2.apk.enforcer.tracing;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
 import io.opentelemetry.context.Context;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.config.EnvVarConfig;
+import org.wso2.apk.enforcer.jmx.JMXUtils;
+import org.wso2.apk.enforcer.metrics.jmx.impl.TracingContextMetrics;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Holds an instance of Tracing context per thread.
+ * Holds the tracing context of a request from the time the gRPC call is intercepted until the ext_authz service picks
+ * it up, keyed by the trace ID. A context is dropped if it is not picked up within TRACING_CONTEXT_TTL_SECONDS (i.e.
+ * the call failed before reaching the service), and at most TRACING_CONTEXT_MAX_SIZE contexts are held. Adding and
+ * taking a context do not lock the store.
  */
 public class TracingContextHolder {
-    private static final Map<String, Context> contextMap = new ConcurrentHashMap<>();
+
+    private static final Logger log = LogManager.getLogger(TracingContextHolder.class);
+
+    private static final TracingContextHolder instance = create();
+
+    private final ConcurrentMap<String, Context> contextMap;
+    private final Cache<String, Context> contextCache;
+    private final LongAdder evictionCount = new LongAdder();
+
+    TracingContextHolder(long maxSize, long ttlMillis, Ticker ticker) {
+        this.contextCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .evictionListener((String traceId, Context context, RemovalCause cause) -> evictionCount.increment())
+                .build();
+        this.contextMap = contextCache.asMap();
+    }
 
     public static void setContext(String traceId, Context context) {
-        contextMap.putIfAbsent(traceId, context);
+        instance.put(traceId, context);
     }
 
     public static Context getContext(String traceId) {
+        return instance.take(traceId);
+    }
+
+    /**
+     * Get the number of tracing contexts currently held.
+     *
+     * @return approximate number of tracing contexts
+     */
+    public static long getContextCount() {
+        return instance.size();
+    }
+
+    /**
+     * Get the number of tracing contexts dropped as they expired or the holder was full.
+     *
+     * @return number of dropped tracing contexts
+     */
+    public static long getEvictionCount() {
+        return instance.evictions();
+    }
+
+    void put(String traceId, Context context) {
+        contextMap.putIfAbsent(traceId, context);
+    }
+
+    Context take(String traceId) {
         return contextMap.remove(traceId);
     }
+
+    long size() {
+        return contextCache.estimatedSize();
+    }
+
+    long evictions() {
+        return evictionCount.sum();
+    }
+
+    void cleanUp() {
+        contextCache.cleanUp();
+    }
+
+    private static TracingContextHolder create() {
+        EnvVarConfig envVarConfig = EnvVarConfig.getInstance();
+        long maxSize = parse(EnvVarConfig.TRACING_CONTEXT_MAX_SIZE, envVarConfig.getTracingContextMaxSize(),
+                EnvVarConfig.DEFAULT_TRACING_CONTEXT_MAX_SIZE);
+        long ttlSeconds = parse(EnvVarConfig.TRACING_CONTEXT_TTL_SECONDS, envVarConfig.getTracingContextTtlSeconds(),
+                EnvVarConfig.DEFAULT_TRACING_CONTEXT_TTL_SECONDS);
+        TracingContextHolder holder = new TracingContextHolder(maxSize, TimeUnit.SECONDS.toMillis(ttlSeconds),
+                Ticker.systemTicker());
+        if (JMXUtils.isJMXMetricsEnabled()) {
+            TracingContextMetrics.getInstance();
+        }
+        return holder;
+    }
+
+    private static long parse(String name, String value, String defaultValue) {
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Falls back to the default below.
+        }
+        log.error("Invalid value for {}. Using the default value {}.", name, defaultValue);
+        return Long.parseLong(defaultValue);
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.MetricDataType;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import org.wso2.apk.enforcer.metrics.jmx.impl.TracingMetrics;
+
+import java.util.Collection;
+
+/**
+ * Metric exporter which copies the span metrics reported by the OpenTelemetry batch span processor to the tracing
+ * MBean.
+ */
+class TracingMetricsExporter implements MetricExporter {
+
+    static final String PROCESSED_SPANS = "processedSpans";
+    static final String QUEUE_SIZE = "queueSize";
+    static final AttributeKey<Boolean> DROPPED = AttributeKey.booleanKey("dropped");
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+        return AggregationTemporality.CUMULATIVE;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<MetricData> metrics) {
+        TracingMetrics tracingMetrics = TracingMetrics.getInstance();
+        for (MetricData metric : metrics) {
+            if (PROCESSED_SPANS.equals(metric.getName()) && metric.getType() == MetricDataType.LONG_SUM) {
+                long exported = 0;
+                long dropped = 0;
+                for (LongPointData point : metric.getLongSumData().getPoints()) {
+                    if (Boolean.TRUE.equals(point.getAttributes().get(DROPPED))) {
+                        dropped += point.getValue();
+                    } else {
+                        exported += point.getValue();
+                    }
+                }
+                tracingMetrics.setProcessedSpanCounts(exported, dropped);
+            } else if (QUEUE_SIZE.equals(metric.getName()) && metric.getType() == MetricDataType.LONG_GAUGE) {
+                long queued = 0;
+                for (LongPointData point : metric.getLongGaugeData().getPoints()) {
+                    queued += point.getValue();
+                }
+                tracingMetrics.setQueuedSpanCount(queued);
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
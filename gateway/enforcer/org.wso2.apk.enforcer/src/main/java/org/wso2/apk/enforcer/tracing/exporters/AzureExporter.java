@@ -22,11 +22,11 @@ import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
 import io.opentelemetry.context.propagation.ContextPropagators;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
-import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.wso2.apk.enforcer.tracing.BatchSpanProcessorFactory;
 import org.wso2.apk.enforcer.tracing.RateLimitingSampler;
 import org.wso2.apk.enforcer.tracing.TracerBuilder;
 import org.wso2.apk.enforcer.tracing.TracingConstants;
@@ -70,7 +70,7 @@ public class AzureExporter implements TracerBuilder {
                 .connectionString(connectionString).buildTraceExporter();
         SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
                 .setSampler(new RateLimitingSampler(maxTracesPerSecond))
-                .addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+                .addSpanProcessor(BatchSpanProcessorFactory.create(exporter)).build();
 
         OpenTelemetrySdk ot = OpenTelemetrySdk.builder()
                 .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
@@ -24,12 +24,12 @@ import io.opentelemetry.exporter.jaeger.thrift.JaegerThriftSpanExporter;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
-import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
 import io.opentelemetry.semconv.resource.attributes.ResourceAttributes;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.config.ConfigHolder;
+import org.wso2.apk.enforcer.tracing.BatchSpanProcessorFactory;
 import org.wso2.apk.enforcer.tracing.RateLimitingSampler;
 import org.wso2.apk.enforcer.tracing.TracerBuilder;
 import org.wso2.apk.enforcer.tracing.TracingConstants;
@@ -84,7 +84,7 @@ public class JaegerExporter implements TracerBuilder {
 
         // Set to process the spans by the Jaeger Exporter
         SdkTracerProvider provider = SdkTracerProvider.builder()
-                .addSpanProcessor(SimpleSpanProcessor.create(jaegerExporter))
+                .addSpanProcessor(BatchSpanProcessorFactory.create(jaegerExporter))
                 .setSampler(new RateLimitingSampler(maxTracesPerSecond))
                 .setResource(Resource.getDefault().merge(serviceNameResource))
                 .build();
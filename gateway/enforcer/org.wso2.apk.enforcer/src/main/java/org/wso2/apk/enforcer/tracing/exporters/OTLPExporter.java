@@ -26,13 +26,13 @@ import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporterBuilder;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
-import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
 import io.opentelemetry.semconv.resource.attributes.ResourceAttributes;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.config.ConfigHolder;
+import org.wso2.apk.enforcer.tracing.BatchSpanProcessorFactory;
 import org.wso2.apk.enforcer.tracing.RateLimitingSampler;
 import org.wso2.apk.enforcer.tracing.TracerBuilder;
 import org.wso2.apk.enforcer.tracing.TracingConstants;
@@ -101,7 +101,7 @@ public class OTLPExporter implements TracerBuilder {
         int maxTracesPerSecond = StringUtils.isEmpty(maxTracesPerSecondString) ?
                 TracingConstants.DEFAULT_MAX_TRACES_PER_SEC : Integer.parseInt(maxTracesPerSecondString);
 
-        SdkTracerProvider provider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor
+        SdkTracerProvider provider = SdkTracerProvider.builder().addSpanProcessor(BatchSpanProcessorFactory
                         .create(otlpGrpcSpanExporter)).setSampler(new RateLimitingSampler(maxTracesPerSecond))
                         .setResource(Resource.getDefault().merge(serviceNameResource)).build();
         OpenTelemetrySdk openTelemetrySdk = OpenTelemetrySdk.builder().setTracerProvider(provider)
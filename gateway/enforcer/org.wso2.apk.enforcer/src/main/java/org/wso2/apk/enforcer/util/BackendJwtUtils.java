@@ -27,7 +27,7 @@ import org.wso2.apk.enforcer.commons.exception.JWTGeneratorException;
 import org.wso2.apk.enforcer.commons.jwtgenerator.APIMgtGatewayJWTGeneratorImpl;
 import org.wso2.apk.enforcer.commons.jwtgenerator.AbstractAPIMgtGatewayJWTGenerator;
 import org.wso2.apk.enforcer.commons.jwttransformer.JWTTransformer;
-import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
 import org.wso2.apk.enforcer.commons.exception.APISecurityException;
 import org.wso2.apk.enforcer.config.ConfigHolder;
 import org.wso2.apk.enforcer.constants.APIConstants;
@@ -42,6 +42,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Contains Util methods related to backend JWT generation.
@@ -53,38 +54,36 @@ public class BackendJwtUtils {
      * Generates or gets the Cached Backend JWT token.
      *
      * @param jwtGenerator the jwtGenerator instance to use if generating the token
-     * @param tokenSignature token signature to use in the cache key
+     * @param tokenCacheEntry cache entry of the token the backend JWT is generated for
      * @param jwtInfoDto information to include in the jwt
      * @param isGatewayTokenCacheEnabled whether gateway token cache is enabled
      * @return backend jwt token
      * @throws APISecurityException if an error occurs while generating the token
      */
     public static String generateAndRetrieveJWTToken(AbstractAPIMgtGatewayJWTGenerator jwtGenerator,
-                                                     String tokenSignature, JWTInfoDto jwtInfoDto,
+                                                     TokenCacheEntry tokenCacheEntry, JWTInfoDto jwtInfoDto,
                                                boolean isGatewayTokenCacheEnabled) throws APISecurityException {
         log.debug("Inside generateAndRetrieveJWTToken");
         String endUserToken = null;
-        boolean valid = false;
-        String jwtTokenCacheKey = jwtInfoDto.getApiContext().concat(":").concat(jwtInfoDto.getVersion()).concat(":")
-                .concat(tokenSignature); // TODO: (suksw) Check if to add tenantName or label also
+        // TODO: (suksw) Check if to add tenantName or label also
+        String jwtTokenCacheKey = jwtInfoDto.getApiContext().concat(":").concat(jwtInfoDto.getVersion());
 
         if (jwtGenerator != null) {
-            if (isGatewayTokenCacheEnabled) {
-                try {
-                    Object token = CacheProvider.getGatewayJWTTokenCache().get(jwtTokenCacheKey);
-                    if (token != null && !JWTConstants.UNAVAILABLE.equals(token)) {
-                        endUserToken = (String) token;
-                        valid = !JWTUtils.isExpired(endUserToken);
+            if (isGatewayTokenCacheEnabled && tokenCacheEntry != null) {
+                endUserToken = tokenCacheEntry.getBackendToken(jwtTokenCacheKey,
+                        TimeUnit.SECONDS.toMillis(FilterUtils.getTimeStampSkewInSeconds()));
+                if (StringUtils.isEmpty(endUserToken)) {
+                    endUserToken = generateToken(jwtGenerator, jwtInfoDto);
+                    // The expiry time is read once here, so that cache hits do not need to parse the token.
+                    try {
+                        tokenCacheEntry.putBackendToken(jwtTokenCacheKey, endUserToken,
+                                JWTUtils.getExpiryTime(endUserToken));
+                    } catch (RuntimeException e) {
+                        log.error("Error while reading the expiry time of the backend JWT. It is not cached.", e);
                     }
-                } catch (Exception e) {
-                    log.error("Error while getting token from the cache", e);
-                }
-
-                if (StringUtils.isEmpty(endUserToken) || !valid) {
-                    endUserToken = generateToken(jwtGenerator, jwtInfoDto, true, jwtTokenCacheKey);
                 }
             } else {
-                endUserToken = generateToken(jwtGenerator, jwtInfoDto, false, jwtTokenCacheKey);
+                endUserToken = generateToken(jwtGenerator, jwtInfoDto);
             }
         } else {
             log.debug("Error while loading JWTGenerator");
@@ -92,16 +91,11 @@ public class BackendJwtUtils {
         return endUserToken;
     }
 
-    private static String generateToken(AbstractAPIMgtGatewayJWTGenerator jwtGenerator, JWTInfoDto jwtInfoDto,
-                   boolean isGatewayTokenCacheEnabled, String jwtTokenCacheKey) throws APISecurityException {
+    private static String generateToken(AbstractAPIMgtGatewayJWTGenerator jwtGenerator, JWTInfoDto jwtInfoDto)
+            throws APISecurityException {
         String endUserToken;
-        JWTConfigurationDto jwtConfigurationDto = jwtGenerator.getJWTConfigurationDto();
-        jwtGenerator.setJWTConfigurationDto(jwtConfigurationDto);
         try {
             endUserToken = jwtGenerator.generateToken(jwtInfoDto);
-            if (isGatewayTokenCacheEnabled) {
-                CacheProvider.getGatewayJWTTokenCache().put(jwtTokenCacheKey, endUserToken);
-            }
         } catch (JWTGeneratorException e) {
             log.error("Error while Generating Backend JWT", e);
             throw new APISecurityException(APIConstants.StatusCodes.UNAUTHENTICATED.getCode(),
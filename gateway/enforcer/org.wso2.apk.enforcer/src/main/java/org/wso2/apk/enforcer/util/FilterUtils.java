@@ -31,6 +31,7 @@ import org.apache.http.conn.ssl.SSLContextBuilder;
 import org.apache.http.conn.ssl.SSLContexts;
 import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.logging.log4j.LogManager;
@@ -114,6 +115,20 @@ public class FilterUtils {
      * @return HTTP client
      */
     public static HttpClient getHttpClient(String protocol, KeyStore clientKeyStore, KeyStore clientTrustStore, Map<String, String> options) {
+        return getHttpClientBuilder(protocol, clientKeyStore, clientTrustStore, options).build();
+    }
+
+    /**
+     * Return a http client builder with the connection pool and the request configs set, so that the caller can
+     * customize the client further.
+     *
+     * @param protocol       - service endpoint protocol http/https
+     * @param clientKeyStore - keystore with key and cert for client
+     * @param options        - HTTP client options
+     * @return HTTP client builder
+     */
+    public static HttpClientBuilder getHttpClientBuilder(String protocol, KeyStore clientKeyStore,
+                                                         KeyStore clientTrustStore, Map<String, String> options) {
 
         //        APIManagerConfiguration configuration = ServiceReferenceHolder.getInstance().
         //                getAPIManagerConfigurationService().getAPIManagerConfiguration();
@@ -144,7 +159,7 @@ public class FilterUtils {
             pramsBuilder.setSocketTimeout(Integer.parseInt(options.get(HTTPClientOptions.SOCKET_TIMEOUT)));
         }
         RequestConfig params = pramsBuilder.build();
-        return HttpClients.custom().setConnectionManager(pool).setDefaultRequestConfig(params).build();
+        return HttpClients.custom().setConnectionManager(pool).setDefaultRequestConfig(params);
     }
 
     public static KeyStore createClientKeyStore(String certPath, String keyPath) {
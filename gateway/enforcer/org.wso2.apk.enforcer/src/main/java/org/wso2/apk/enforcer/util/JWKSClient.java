@@ -21,7 +21,11 @@ import com.nimbusds.jose.jwk.JWKSet;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -33,13 +37,18 @@ import java.io.InputStream;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.text.ParseException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class used to create JWKS Client.
  */
-public class JWKSClient {
+public class JWKSClient implements JWKSFetcher {
     private static final Log log = LogFactory.getLog(JWKSClient.class.getName());
+    // The keys are fetched in the background, so these only bound how long a slow endpoint holds a refresh thread.
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int SOCKET_TIMEOUT_MILLIS = 5000;
     private HttpClient httpClient;
     private String jwksEndpoint;
 
@@ -51,7 +60,10 @@ public class JWKSClient {
                 trustStore = TLSUtils.getDefaultCertTrustStore();
             }
             TLSUtils.convertAndAddCertificatesToTrustStore(trustStore, certificates);
-            httpClient = FilterUtils.getHttpClient("https", null, trustStore, null);
+            Map<String, String> clientOptions = new HashMap<>();
+            clientOptions.put(FilterUtils.HTTPClientOptions.CONNECT_TIMEOUT, String.valueOf(CONNECT_TIMEOUT_MILLIS));
+            clientOptions.put(FilterUtils.HTTPClientOptions.SOCKET_TIMEOUT, String.valueOf(SOCKET_TIMEOUT_MILLIS));
+            httpClient = FilterUtils.getHttpClient("https", null, trustStore, clientOptions);
         } catch (EnforcerException e) {
             log.error("Error occured while inializing JWKS Client", e);
             throw new EnforcerException("Error occured while inializing JWKS Client", e);
@@ -59,6 +71,17 @@ public class JWKSClient {
     }
 
     public JWKSet getJWKSet() throws EnforcerException {
+        return fetchJWKSet().getJwkSet();
+    }
+
+    /**
+     * Fetch the JWKS from the endpoint along with how long the endpoint allows it to be cached.
+     *
+     * @return JWKS along with its max age
+     * @throws EnforcerException if an error occurs when calling the JWKS endpoint
+     */
+    @Override
+    public JWKSResponse fetchJWKSet() throws EnforcerException {
         try {
             HttpGet httpGet = new HttpGet(jwksEndpoint);
             try (CloseableHttpResponse response = (CloseableHttpResponse) httpClient.execute(httpGet)) {
@@ -66,7 +89,7 @@ public class JWKSClient {
                     HttpEntity entity = response.getEntity();
                     try (InputStream content = entity.getContent()) {
                         String stringContent = IOUtils.toString(content);
-                        return JWKSet.parse(stringContent);
+                        return new JWKSResponse(JWKSet.parse(stringContent), getMaxAge(response));
                     }
                 } else {
                     throw new EnforcerException("Error occurred when calling JWKS Endpoint");
@@ -76,4 +99,32 @@ public class JWKSClient {
             throw new EnforcerException("Error occurred when calling JWKS Endpoint", e);
         }
     }
+
+    /**
+     * Read the max age (in seconds) from the Cache-Control header of the response.
+     *
+     * @param response JWKS endpoint response
+     * @return max age, 0 if the response must not be cached, or -1 if the response does not specify it
+     */
+    private static long getMaxAge(HttpResponse response) {
+        Header cacheControl = response.getFirstHeader(HttpHeaders.CACHE_CONTROL);
+        if (cacheControl == null) {
+            return -1;
+        }
+        long maxAge = -1;
+        for (HeaderElement element : cacheControl.getElements()) {
+            String directive = element.getName();
+            if ("no-cache".equalsIgnoreCase(directive) || "no-store".equalsIgnoreCase(directive)) {
+                return 0;
+            }
+            if ("max-age".equalsIgnoreCase(directive) && element.getValue() != null) {
+                try {
+                    maxAge = Long.parseLong(element.getValue().trim());
+                } catch (NumberFormatException e) {
+                    log.debug("Invalid max-age in the JWKS endpoint Cache-Control header: " + element.getValue());
+                }
+            }
+        }
+        return maxAge;
+    }
 }
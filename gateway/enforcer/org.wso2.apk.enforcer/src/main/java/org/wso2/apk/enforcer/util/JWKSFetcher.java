@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.util;
+
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+
+/**
+ * Fetches the JWKS of a token issuer.
+ */
+public interface JWKSFetcher {
+
+    /**
+     * Fetch the JWKS along with how long it can be cached.
+     *
+     * @return JWKS along with its max age
+     * @throws EnforcerException if an error occurs when fetching the JWKS
+     */
+    JWKSResponse fetchJWKSet() throws EnforcerException;
+}
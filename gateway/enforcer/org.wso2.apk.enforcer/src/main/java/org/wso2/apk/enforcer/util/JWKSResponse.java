@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.util;
+
+import com.nimbusds.jose.jwk.JWKSet;
+
+/**
+ * JWKS returned from a JWKS endpoint along with its max age.
+ */
+public class JWKSResponse {
+    private final JWKSet jwkSet;
+    private final long maxAge;
+
+    public JWKSResponse(JWKSet jwkSet, long maxAge) {
+        this.jwkSet = jwkSet;
+        this.maxAge = maxAge;
+    }
+
+    public JWKSet getJwkSet() {
+        return jwkSet;
+    }
+
+    /**
+     * Get the max age of the JWKS in seconds.
+     *
+     * @return max age, 0 if the JWKS must not be cached, or -1 if the endpoint does not specify it
+     */
+    public long getMaxAge() {
+        return maxAge;
+    }
+}
@@ -18,7 +18,7 @@
 
 package org.wso2.apk.enforcer.util;
 
-import com.google.common.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSVerifier;
@@ -35,6 +35,7 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.apk.enforcer.common.CacheProvider;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
 import org.wso2.apk.enforcer.commons.dto.JWTValidationInfo;
 import org.wso2.apk.enforcer.commons.exception.EnforcerException;
 import org.wso2.apk.enforcer.commons.jwttransformer.JWTTransformer;
@@ -205,6 +206,50 @@ public class JWTUtils {
         }
     }
 
+    /**
+     * Get the token cache entry of the JWT, which holds the internal representation of the JWT along with its
+     * validation results. The entry is looked up from the gateway token cache, and the JWT is parsed only if there
+     * is no such entry.
+     *
+     * @param accessToken                the raw access token
+     * @param isGatewayTokenCacheEnabled whether the gateway token cache is enabled
+     * @return the token cache entry of the JWT
+     * @throws ParseException if an error occurs when decoding the JWT
+     */
+    public static TokenCacheEntry getTokenCacheEntry(String accessToken, boolean isGatewayTokenCacheEnabled)
+            throws ParseException {
+
+        Cache<String, TokenCacheEntry> gatewayTokenCache = CacheProvider.getGatewayTokenCache();
+        if (!isGatewayTokenCacheEnabled || gatewayTokenCache == null) {
+            return new TokenCacheEntry(getSignedJwt(accessToken));
+        }
+        String signature = accessToken.split("\\.")[2];
+        TokenCacheEntry tokenCacheEntry = gatewayTokenCache.getIfPresent(signature);
+        if (tokenCacheEntry == null || !tokenCacheEntry.getToken().equals(accessToken)) {
+            tokenCacheEntry = new TokenCacheEntry(getSignedJwt(accessToken));
+            gatewayTokenCache.put(signature, tokenCacheEntry);
+        }
+        return tokenCacheEntry;
+    }
+
+    /**
+     * Add the token cache entry of the JWT to the gateway token cache again, so that its expiry is recalculated
+     * after the validation status of the entry changes.
+     *
+     * @param tokenCacheEntry the token cache entry of the JWT
+     */
+    public static void refreshTokenCacheEntry(TokenCacheEntry tokenCacheEntry) {
+
+        Cache<String, TokenCacheEntry> gatewayTokenCache = CacheProvider.getGatewayTokenCache();
+        if (gatewayTokenCache == null) {
+            return;
+        }
+        String accessToken = tokenCacheEntry.getToken();
+        String signature = accessToken.substring(accessToken.lastIndexOf('.') + 1);
+        gatewayTokenCache.asMap().computeIfPresent(signature,
+                (key, cachedEntry) -> cachedEntry == tokenCacheEntry ? tokenCacheEntry : cachedEntry);
+    }
+
     /**
      * Get the internal representation of the JWT.
      *
@@ -214,27 +259,9 @@ public class JWTUtils {
      */
     public static SignedJWTInfo getSignedJwt(String accessToken) throws ParseException {
 
-        String signature = accessToken.split("\\.")[2];
-        SignedJWTInfo signedJWTInfo = null;
-        //Check whether GatewaySignedJWTParseCache is correct
-        LoadingCache gatewaySignedJWTParseCache = CacheProvider.getGatewaySignedJWTParseCache();
-        if (gatewaySignedJWTParseCache != null) {
-            Object cachedEntry = gatewaySignedJWTParseCache.getIfPresent(signature);
-            if (cachedEntry != null) {
-                signedJWTInfo = (SignedJWTInfo) cachedEntry;
-            }
-            if (signedJWTInfo == null || !signedJWTInfo.getToken().equals(accessToken)) {
-                SignedJWT signedJWT = SignedJWT.parse(accessToken);
-                JWTClaimsSet jwtClaimsSet = signedJWT.getJWTClaimsSet();
-                signedJWTInfo = new SignedJWTInfo(accessToken, signedJWT, jwtClaimsSet);
-                gatewaySignedJWTParseCache.put(signature, signedJWTInfo);
-            }
-        } else {
-            SignedJWT signedJWT = SignedJWT.parse(accessToken);
-            JWTClaimsSet jwtClaimsSet = signedJWT.getJWTClaimsSet();
-            signedJWTInfo = new SignedJWTInfo(accessToken, signedJWT, jwtClaimsSet);
-        }
-        return signedJWTInfo;
+        SignedJWT signedJWT = SignedJWT.parse(accessToken);
+        JWTClaimsSet jwtClaimsSet = signedJWT.getJWTClaimsSet();
+        return new SignedJWTInfo(accessToken, signedJWT, jwtClaimsSet);
     }
 
     /**
@@ -245,13 +272,24 @@ public class JWTUtils {
      */
     public static boolean isExpired(String token) {
 
-        String[] splitToken = token.split("\\.");
-        org.json.JSONObject payload = new org.json.JSONObject(new String(Base64.getUrlDecoder().decode(splitToken[1])));
-        long exp = payload.getLong(JwtConstants.EXP);
+        long exp = TimeUnit.MILLISECONDS.toSeconds(getExpiryTime(token));
         long timestampSkew = FilterUtils.getTimeStampSkewInSeconds();
         return (exp - TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) < timestampSkew);
     }
 
+    /**
+     * Read the expiry time of a JWT without verifying it.
+     *
+     * @param token JWT
+     * @return expiry time of the JWT in milliseconds since the epoch
+     */
+    public static long getExpiryTime(String token) {
+
+        String[] splitToken = token.split("\\.");
+        org.json.JSONObject payload = new org.json.JSONObject(new String(Base64.getUrlDecoder().decode(splitToken[1])));
+        return TimeUnit.SECONDS.toMillis(payload.getLong(JwtConstants.EXP));
+    }
+
     /**
      * Populate an empty JWT info DTO for anonymous, with no App or API info.
      *
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.analytics;
+
+import io.envoyproxy.envoy.data.accesslog.v3.HTTPAccessLogEntry;
+import io.envoyproxy.envoy.service.accesslog.v3.StreamAccessLogsMessage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.apk.enforcer.metrics.jmx.impl.AccessLogMetrics;
+import org.wso2.apk.enforcer.server.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class AccessLogDispatcherTest {
+
+    private static final int LOG_ENTRIES_PER_MESSAGE = 3;
+
+    private final AccessLogMetrics metrics = AccessLogMetrics.getInstance();
+    private AccessLogDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        metrics.resetAccessLogMetrics();
+    }
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.halt();
+        }
+    }
+
+    @Test
+    public void testMessagesArePublishedInOrderToEachPublisher() throws Exception {
+        int messageCount = 2000;
+        RecordingPublisher first = new RecordingPublisher(messageCount);
+        RecordingPublisher second = new RecordingPublisher(messageCount);
+        dispatcher = new AccessLogDispatcher(List.of(first, second), 4096, true, metrics);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < messageCount; i++) {
+            expected.add("message-" + i);
+            dispatcher.dispatch(message("message-" + i));
+        }
+
+        Assert.assertEquals(expected, first.await());
+        Assert.assertEquals(expected, second.await());
+        Assert.assertTrue(first.maxBatchSize <= AccessLogDispatcher.MAX_BATCH_SIZE);
+        Assert.assertEquals(messageCount, metrics.getReceivedMessageCount());
+        Assert.assertEquals(0, metrics.getDroppedMessageCount());
+        Assert.assertEquals(0, metrics.getSpilledMessageCount());
+    }
+
+    @Test
+    public void testAvailableMessagesArePublishedAsBatch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingPublisher publisher = new RecordingPublisher(11, release);
+        dispatcher = new AccessLogDispatcher(List.of(publisher), 64, true, metrics);
+        dispatcher.dispatch(message("message-0"));
+        Assert.assertTrue(publisher.blocked.await(5, TimeUnit.SECONDS));
+        // The publisher is busy, so these messages wait in the buffer and are handed over together.
+        for (int i = 1; i <= 10; i++) {
+            dispatcher.dispatch(message("message-" + i));
+        }
+        release.countDown();
+
+        Assert.assertEquals(11, publisher.await().size());
+        Assert.assertEquals(List.of(1, 10), publisher.batchSizes);
+    }
+
+    @Test
+    public void testMessagesAreDroppedWhenBufferIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingPublisher publisher = new RecordingPublisher(4, release);
+        dispatcher = new AccessLogDispatcher(List.of(publisher), 4, true, metrics);
+        for (int i = 0; i < 6; i++) {
+            dispatcher.dispatch(message("message-" + i));
+        }
+        release.countDown();
+
+        Assert.assertEquals(List.of("message-0", "message-1", "message-2", "message-3"), publisher.await());
+        Assert.assertEquals(6, metrics.getReceivedMessageCount());
+        Assert.assertEquals(2, metrics.getDroppedMessageCount());
+        Assert.assertEquals(2 * LOG_ENTRIES_PER_MESSAGE, metrics.getDroppedLogEntryCount());
+        Assert.assertEquals(0, metrics.getSpilledMessageCount());
+    }
+
+    @Test
+    public void testMessagesArePublishedOnReceivingThreadWhenBufferIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingPublisher publisher = new RecordingPublisher(6, release);
+        dispatcher = new AccessLogDispatcher(List.of(publisher), 4, false, metrics);
+        for (int i = 0; i < 6; i++) {
+            dispatcher.dispatch(message("message-" + i));
+        }
+        // The messages that do not fit in the buffer are published right away, ahead of the buffered ones.
+        Assert.assertEquals(List.of("message-4", "message-5"), publisher.snapshot());
+        release.countDown();
+
+        Assert.assertEquals(List.of("message-4", "message-5", "message-0", "message-1", "message-2", "message-3"),
+                publisher.await());
+        Assert.assertEquals(6, metrics.getReceivedMessageCount());
+        Assert.assertEquals(0, metrics.getDroppedMessageCount());
+        Assert.assertEquals(2, metrics.getSpilledMessageCount());
+    }
+
+    @Test
+    public void testFailingMessageDoesNotDropRestOfBatch() {
+        List<String> published = new ArrayList<>();
+        AnalyticsEventPublisher publisher = new AnalyticsEventPublisher() {
+            @Override
+            public void handleGRPCLogMsg(StreamAccessLogsMessage message) {
+                if ("message-1".equals(message.getIdentifier().getLogName())) {
+                    throw new IllegalStateException("Failed to publish");
+                }
+                published.add(message.getIdentifier().getLogName());
+            }
+
+            @Override
+            public void init(Map<String, String> configuration) {
+            }
+        };
+        publisher.handleGRPCLogMsg(List.of(message("message-0"), message("message-1"), message("message-2")));
+        Assert.assertEquals(List.of("message-0", "message-2"), published);
+    }
+
+    private static StreamAccessLogsMessage message(String name) {
+        StreamAccessLogsMessage.HTTPAccessLogEntries.Builder logs =
+                StreamAccessLogsMessage.HTTPAccessLogEntries.newBuilder();
+        for (int i = 0; i < LOG_ENTRIES_PER_MESSAGE; i++) {
+            logs.addLogEntry(HTTPAccessLogEntry.getDefaultInstance());
+        }
+        return StreamAccessLogsMessage.newBuilder()
+                .setIdentifier(StreamAccessLogsMessage.Identifier.newBuilder().setLogName(name))
+                .setHttpLogs(logs)
+                .build();
+    }
+
+    /**
+     * Records the published messages. If a latch is given, the first batch published on a publisher thread blocks
+     * until the latch is released.
+     */
+    private static class RecordingPublisher implements Consumer<List<StreamAccessLogsMessage>> {
+
+        private final List<String> published = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch done;
+        private final CountDownLatch release;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final AtomicBoolean first = new AtomicBoolean(true);
+        private volatile int maxBatchSize;
+
+        RecordingPublisher(int expectedMessages) {
+            this(expectedMessages, null);
+        }
+
+        RecordingPublisher(int expectedMessages, CountDownLatch release) {
+            this.done = new CountDownLatch(expectedMessages);
+            this.release = release;
+        }
+
+        @Override
+        public void accept(List<StreamAccessLogsMessage> batch) {
+            boolean publisherThread = Thread.currentThread().getName()
+                    .startsWith(Constants.ANALYTICS_PUBLISHER_THREAD_ID);
+            if (release != null && publisherThread && first.compareAndSet(true, false)) {
+                blocked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batchSizes.add(batch.size());
+            maxBatchSize = Math.max(maxBatchSize, batch.size());
+            for (StreamAccessLogsMessage message : batch) {
+                published.add(message.getIdentifier().getLogName());
+                done.countDown();
+            }
+        }
+
+        List<String> snapshot() {
+            synchronized (published) {
+                return new ArrayList<>(published);
+            }
+        }
+
+        List<String> await() throws InterruptedException {
+            Assert.assertTrue("Messages were not published", done.await(10, TimeUnit.SECONDS));
+            return snapshot();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.api;
+
+import io.envoyproxy.envoy.service.auth.v3.AttributeContext;
+import io.envoyproxy.envoy.service.auth.v3.CheckRequest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.Filter;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.constants.APIConstants;
+import org.wso2.apk.enforcer.discovery.api.Api;
+import org.wso2.apk.enforcer.metrics.jmx.impl.APIUpdateMetrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class APIFactoryTest {
+
+    private final AtomicInteger buildCount = new AtomicInteger();
+    private final AtomicLong configGeneration = new AtomicLong(1);
+    private final APIUpdateMetrics metrics = APIUpdateMetrics.getInstance();
+    private APIFactory apiFactory;
+
+    @Before
+    public void setUp() {
+        metrics.resetAPIUpdateMetrics();
+        apiFactory = new APIFactory(this::build, configGeneration::get, metrics);
+    }
+
+    @Test
+    public void testUnchangedAPIIsReused() {
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore"), api("/owners", "v1", "Owners")));
+        API pets = getMatchedAPI("/pets", "v1");
+        API owners = getMatchedAPI("/owners", "v1");
+
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore"), api("/owners", "v1", "Owners")));
+
+        Assert.assertSame(pets, getMatchedAPI("/pets", "v1"));
+        Assert.assertSame(owners, getMatchedAPI("/owners", "v1"));
+        Assert.assertEquals(2, buildCount.get());
+        Assert.assertEquals(2, metrics.getTotalUpdateCount());
+        Assert.assertEquals(2, metrics.getTotalRebuiltAPICount());
+        Assert.assertEquals(2, metrics.getTotalReusedAPICount());
+        Assert.assertEquals(0, metrics.getLastRebuiltAPICount());
+    }
+
+    @Test
+    public void testChangedAPIIsRebuilt() {
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore"), api("/owners", "v1", "Owners")));
+        API pets = getMatchedAPI("/pets", "v1");
+        API owners = getMatchedAPI("/owners", "v1");
+
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore Updated"), api("/owners", "v1", "Owners")));
+
+        API rebuiltPets = getMatchedAPI("/pets", "v1");
+        Assert.assertNotSame(pets, rebuiltPets);
+        Assert.assertEquals("PetStore Updated", rebuiltPets.getAPIConfig().getName());
+        Assert.assertSame(owners, getMatchedAPI("/owners", "v1"));
+        Assert.assertEquals(3, buildCount.get());
+        Assert.assertEquals(1, metrics.getLastRebuiltAPICount());
+        Assert.assertEquals(3, metrics.getTotalRebuiltAPICount());
+        Assert.assertEquals(1, metrics.getTotalReusedAPICount());
+    }
+
+    @Test
+    public void testRemovedAPIIsDropped() {
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore"), api("/owners", "v1", "Owners")));
+        API pets = getMatchedAPI("/pets", "v1");
+
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore")));
+
+        Assert.assertSame(pets, getMatchedAPI("/pets", "v1"));
+        Assert.assertNull(getMatchedAPI("/owners", "v1"));
+        Assert.assertEquals(1, metrics.getTotalRemovedAPICount());
+        Assert.assertEquals(0, metrics.getLastRebuiltAPICount());
+
+        // An API deployed again after it was removed is built again.
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore"), api("/owners", "v1", "Owners")));
+        Assert.assertNotNull(getMatchedAPI("/owners", "v1"));
+        Assert.assertEquals(3, buildCount.get());
+    }
+
+    @Test
+    public void testAllAPIsAreRebuiltWhenConfigIsLoadedAgain() {
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore"), api("/owners", "v1", "Owners")));
+        API pets = getMatchedAPI("/pets", "v1");
+
+        configGeneration.incrementAndGet();
+        apiFactory.addApis(List.of(api("/pets", "v1", "PetStore"), api("/owners", "v1", "Owners")));
+
+        Assert.assertNotSame(pets, getMatchedAPI("/pets", "v1"));
+        Assert.assertEquals(4, buildCount.get());
+        Assert.assertEquals(2, metrics.getLastRebuiltAPICount());
+        Assert.assertEquals(0, metrics.getTotalReusedAPICount());
+    }
+
+    private API getMatchedAPI(String basePath, String version) {
+        CheckRequest request = CheckRequest.newBuilder().setAttributes(AttributeContext.newBuilder()
+                .putContextExtensions(APIConstants.GW_VHOST_PARAM, "default")
+                .putContextExtensions(APIConstants.GW_BASE_PATH_PARAM, basePath)
+                .putContextExtensions(APIConstants.GW_VERSION_PARAM, version)).build();
+        return apiFactory.getMatchedAPI(request);
+    }
+
+    private static Api api(String basePath, String version, String title) {
+        return Api.newBuilder().setVhost("default").setBasePath(basePath).setVersion(version).setTitle(title).build();
+    }
+
+    private API build(Api api) {
+        buildCount.incrementAndGet();
+        APIConfig apiConfig = new APIConfig.Builder(api.getTitle()).vhost(api.getVhost()).basePath(api.getBasePath())
+                .version(api.getVersion()).resources(Collections.emptyList()).build();
+        return new API() {
+            @Override
+            public List<Filter> getFilters() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public String init(Api api) {
+                return api.getBasePath();
+            }
+
+            @Override
+            public ResponseObject process(RequestContext requestContext) {
+                return null;
+            }
+
+            @Override
+            public APIConfig getAPIConfig() {
+                return apiConfig;
+            }
+        };
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.api;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.Filter;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.model.ResourceConfig;
+import org.wso2.apk.enforcer.discovery.api.Api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class APIRouteTableTest {
+
+    private static final String[] PATH_TEMPLATES = {"/pets", "/pets/{petId}", "/pets/{petId}/tags/{tag}", "/*",
+            "/pets/*"};
+    private static final String[] METHODS = {null, "GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS"};
+
+    @Test
+    public void testAPILookup() {
+        API petsV1 = createAPI("default", "/pets-api", "v1", createResources());
+        API petsV2 = createAPI("default", "/pets-api", "v2", createResources());
+        API otherVhost = createAPI("other", "/pets-api", "v1", createResources());
+        APIRouteTable routeTable = APIRouteTable.build(List.of(petsV1, petsV2, otherVhost));
+
+        Assert.assertEquals(3, routeTable.size());
+        Assert.assertSame(petsV1, routeTable.getAPI("default", "/pets-api", "v1"));
+        Assert.assertSame(petsV2, routeTable.getAPI("default", "/pets-api", "v2"));
+        Assert.assertSame(otherVhost, routeTable.getAPI("other", "/pets-api", "v1"));
+        Assert.assertNull(routeTable.getAPI("default", "/pets-api", "v3"));
+        Assert.assertNull(routeTable.getAPI("default", "/pets", "v1"));
+        Assert.assertNull(routeTable.getAPI("unknown", "/pets-api", "v1"));
+        Assert.assertNull(routeTable.getAPI(null, null, null));
+        Assert.assertNull(APIRouteTable.EMPTY.getAPI("default", "/pets-api", "v1"));
+    }
+
+    @Test
+    public void testRedeployedAPIReplacesPrevious() {
+        API previous = createAPI("default", "/pets-api", "v1", createResources());
+        API current = createAPI("default", "/pets-api", "v1", createResources());
+        APIRouteTable routeTable = APIRouteTable.build(List.of(previous, current));
+
+        Assert.assertEquals(1, routeTable.size());
+        Assert.assertSame(current, routeTable.getAPI("default", "/pets-api", "v1"));
+    }
+
+    @Test
+    public void testResourceLookupMatchesScan() {
+        API api = createAPI("default", "/pets-api", "v1", createResources());
+        APIRouteTable routeTable = APIRouteTable.build(List.of(api));
+        for (String pathTemplate : PATH_TEMPLATES) {
+            for (String method : METHODS) {
+                Assert.assertSame(pathTemplate + " " + method, scan(api, pathTemplate, method),
+                        routeTable.getResource(api, pathTemplate, method));
+            }
+        }
+    }
+
+    @Test
+    public void testResourceLookupWithPathParamsAndWildcards() {
+        API api = createAPI("default", "/pets-api", "v1", createResources());
+        APIRouteTable routeTable = APIRouteTable.build(List.of(api));
+
+        ResourceConfig resource = routeTable.getResource(api, "/pets/{petId}/tags/{tag}", "DELETE");
+        Assert.assertEquals("/pets/{petId}/tags/{tag}", resource.getPath());
+        Assert.assertEquals(ResourceConfig.HttpMethods.DELETE, resource.getMethod());
+        resource = routeTable.getResource(api, "/*", "PATCH");
+        Assert.assertEquals("/*", resource.getPath());
+        Assert.assertEquals(ResourceConfig.HttpMethods.PATCH, resource.getMethod());
+        // Resources are matched by the path template matched by the router, not by the request path.
+        Assert.assertNull(routeTable.getResource(api, "/pets/1", "GET"));
+        Assert.assertNull(routeTable.getResource(api, "/pets/1/tags/a", "DELETE"));
+        Assert.assertNull(routeTable.getResource(api, "/pets/{petId}", "DELETE"));
+    }
+
+    @Test
+    public void testResourceLookupWithoutMethod() {
+        API api = createAPI("default", "/pets-api", "v1", createResources());
+        APIRouteTable routeTable = APIRouteTable.build(List.of(api));
+
+        ResourceConfig resource = routeTable.getResource(api, "/pets/{petId}", null);
+        Assert.assertSame(api.getAPIConfig().getResources().get(1), resource);
+        Assert.assertNull(routeTable.getResource(api, "/unknown", null));
+    }
+
+    @Test
+    public void testResourceLookupWithUnknownMethod() {
+        API api = createAPI("default", "/pets-api", "v1", createResources());
+        APIRouteTable routeTable = APIRouteTable.build(List.of(api));
+
+        Assert.assertNull(routeTable.getResource(api, "/pets", "get"));
+        Assert.assertNull(routeTable.getResource(api, "/pets", "TRACE"));
+    }
+
+    @Test
+    public void testResourceLookupOfReplacedAPI() {
+        API previous = createAPI("default", "/pets-api", "v1", createResources());
+        API current = createAPI("default", "/pets-api", "v1",
+                List.of(createResource("/owners", ResourceConfig.HttpMethods.GET)));
+        APIRouteTable routeTable = APIRouteTable.build(List.of(current));
+
+        // A request matched to the previous API before the redeployment is resolved against the previous API.
+        Assert.assertSame(previous.getAPIConfig().getResources().get(0),
+                routeTable.getResource(previous, "/pets", "GET"));
+        Assert.assertNull(routeTable.getResource(previous, "/owners", "GET"));
+        Assert.assertNotNull(routeTable.getResource(current, "/owners", "GET"));
+        Assert.assertSame(previous.getAPIConfig().getResources().get(0),
+                APIRouteTable.EMPTY.getResource(previous, "/pets", "GET"));
+    }
+
+    private static List<ResourceConfig> createResources() {
+        List<ResourceConfig> resources = new ArrayList<>();
+        resources.add(createResource("/pets", ResourceConfig.HttpMethods.GET));
+        resources.add(createResource("/pets/{petId}", ResourceConfig.HttpMethods.PUT));
+        resources.add(createResource("/pets/{petId}", ResourceConfig.HttpMethods.GET));
+        resources.add(createResource("/pets", ResourceConfig.HttpMethods.POST));
+        resources.add(createResource("/pets/{petId}/tags/{tag}", ResourceConfig.HttpMethods.DELETE));
+        resources.add(createResource("/*", ResourceConfig.HttpMethods.GET));
+        resources.add(createResource("/*", ResourceConfig.HttpMethods.PATCH));
+        // Duplicate of an earlier resource, which is never matched.
+        resources.add(createResource("/pets", ResourceConfig.HttpMethods.GET));
+        return resources;
+    }
+
+    private static ResourceConfig createResource(String path, ResourceConfig.HttpMethods method) {
+        ResourceConfig resourceConfig = new ResourceConfig();
+        resourceConfig.setPath(path);
+        resourceConfig.setMethod(method);
+        return resourceConfig;
+    }
+
+    // The lookup APIFactory used before the route table was introduced.
+    private static ResourceConfig scan(API api, String pathTemplate, String method) {
+        return api.getAPIConfig().getResources().stream()
+                .filter(resourceConfig -> resourceConfig.getPath().equals(pathTemplate))
+                .filter(resourceConfig -> method == null
+                        || resourceConfig.getMethod().equals(ResourceConfig.HttpMethods.valueOf(method)))
+                .findFirst().orElse(null);
+    }
+
+    private static API createAPI(String vhost, String basePath, String version, List<ResourceConfig> resources) {
+        APIConfig apiConfig = new APIConfig.Builder("PetStore").vhost(vhost).basePath(basePath).version(version)
+                .resources(resources).build();
+        return new API() {
+            @Override
+            public List<Filter> getFilters() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public String init(Api api) {
+                return null;
+            }
+
+            @Override
+            public ResponseObject process(RequestContext requestContext) {
+                return null;
+            }
+
+            @Override
+            public APIConfig getAPIConfig() {
+                return apiConfig;
+            }
+        };
+    }
+}
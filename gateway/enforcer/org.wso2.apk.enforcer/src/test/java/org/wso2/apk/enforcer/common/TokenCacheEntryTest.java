@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.common;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.security.jwt.SignedJWTInfo;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class TokenCacheEntryTest {
+
+    private static final long SKEW = TimeUnit.SECONDS.toMillis(5);
+
+    @Test
+    public void testBackendTokenIsCachedPerAPI() {
+        TokenCacheEntry entry = createEntry();
+        long expiryTime = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(15);
+        entry.putBackendToken("/pets:v1", "pets-v1-jwt", expiryTime);
+        entry.putBackendToken("/pets:v2", "pets-v2-jwt", expiryTime);
+
+        Assert.assertEquals("pets-v1-jwt", entry.getBackendToken("/pets:v1", SKEW));
+        Assert.assertEquals("pets-v2-jwt", entry.getBackendToken("/pets:v2", SKEW));
+        Assert.assertNull(entry.getBackendToken("/owners:v1", SKEW));
+
+        entry.putBackendToken("/pets:v1", "pets-v1-jwt-2", expiryTime);
+        Assert.assertEquals("pets-v1-jwt-2", entry.getBackendToken("/pets:v1", SKEW));
+    }
+
+    @Test
+    public void testBackendTokenAboutToExpireIsNotReturned() {
+        TokenCacheEntry entry = createEntry();
+        long now = System.currentTimeMillis();
+        entry.putBackendToken("/expired:v1", "expired-jwt", now - TimeUnit.SECONDS.toMillis(1));
+        entry.putBackendToken("/expiring:v1", "expiring-jwt", now + SKEW / 2);
+        entry.putBackendToken("/valid:v1", "valid-jwt", now + TimeUnit.MINUTES.toMillis(1));
+
+        Assert.assertNull(entry.getBackendToken("/expired:v1", SKEW));
+        Assert.assertNull(entry.getBackendToken("/expiring:v1", SKEW));
+        Assert.assertEquals("expiring-jwt", entry.getBackendToken("/expiring:v1", 0));
+        Assert.assertEquals("valid-jwt", entry.getBackendToken("/valid:v1", SKEW));
+    }
+
+    @Test
+    public void testInvalidateClearsBackendTokens() {
+        TokenCacheEntry entry = createEntry();
+        entry.setValidationResult(true, null);
+        entry.putBackendToken("/pets:v1", "pets-v1-jwt", System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
+
+        entry.invalidate();
+        Assert.assertEquals(SignedJWTInfo.ValidationStatus.INVALID, entry.getValidationStatus());
+        Assert.assertNull(entry.getBackendToken("/pets:v1", SKEW));
+    }
+
+    private static TokenCacheEntry createEntry() {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("admin")
+                .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .build();
+        return new TokenCacheEntry(new SignedJWTInfo("header.payload.signature", null, claims));
+    }
+}
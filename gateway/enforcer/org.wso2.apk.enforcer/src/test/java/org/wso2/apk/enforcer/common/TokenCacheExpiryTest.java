@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.security.jwt.SignedJWTInfo;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenCacheExpiryTest {
+
+    private static final long MAX_DURATION = TimeUnit.MINUTES.toNanos(15);
+    private static final long SKEW = TimeUnit.SECONDS.toMillis(5);
+
+    private final TokenCacheExpiry expiry = new TokenCacheExpiry(MAX_DURATION, SKEW);
+
+    @Test
+    public void testValidTokenExpiresWithToken() {
+        TokenCacheEntry entry = createEntry(TimeUnit.MINUTES.toMillis(1));
+        entry.setValidationResult(true, null);
+        long duration = expiry.expireAfterCreate("key", entry, 0);
+        Assert.assertTrue(duration > TimeUnit.MINUTES.toNanos(1));
+        Assert.assertTrue(duration <= TimeUnit.MILLISECONDS.toNanos(TimeUnit.MINUTES.toMillis(1) + SKEW));
+    }
+
+    @Test
+    public void testValidTokenExpiryIsCapped() {
+        TokenCacheEntry entry = createEntry(TimeUnit.HOURS.toMillis(1));
+        entry.setValidationResult(true, null);
+        Assert.assertEquals(MAX_DURATION, expiry.expireAfterCreate("key", entry, 0));
+    }
+
+    @Test
+    public void testExpiredTokenIsNegativelyCached() {
+        TokenCacheEntry entry = createEntry(-TimeUnit.MINUTES.toMillis(1));
+        Assert.assertEquals(MAX_DURATION, expiry.expireAfterCreate("key", entry, 0));
+    }
+
+    @Test
+    public void testInvalidTokenIsNegativelyCached() {
+        TokenCacheEntry entry = createEntry(TimeUnit.MINUTES.toMillis(1));
+        entry.setValidationResult(false, null);
+        Assert.assertEquals(MAX_DURATION, expiry.expireAfterCreate("key", entry, 0));
+    }
+
+    @Test
+    public void testExpiryIsRecalculatedWhenTokenIsFoundInvalid() {
+        AtomicLong time = new AtomicLong();
+        Cache<String, TokenCacheEntry> cache = Caffeine.newBuilder().expireAfter(expiry).ticker(time::get).build();
+        TokenCacheEntry entry = createEntry(TimeUnit.MINUTES.toMillis(1));
+        cache.put("key", entry);
+        entry.setValidationResult(false, null);
+        cache.asMap().computeIfPresent("key", (key, cachedEntry) -> cachedEntry);
+
+        Duration expiresAfter = cache.policy().expireVariably().get().getExpiresAfter("key").get();
+        Assert.assertEquals(MAX_DURATION, expiresAfter.toNanos());
+        time.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        Assert.assertSame(entry, cache.getIfPresent("key"));
+        time.addAndGet(TimeUnit.MINUTES.toNanos(6));
+        Assert.assertNull(cache.getIfPresent("key"));
+    }
+
+    private static TokenCacheEntry createEntry(long expiresInMillis) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("admin")
+                .expirationTime(new Date(System.currentTimeMillis() + expiresInMillis))
+                .build();
+        return new TokenCacheEntry(new SignedJWTInfo("header.payload.signature", null, claims));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.deniedresponse;
+
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.constants.APIConstants;
+import org.wso2.apk.enforcer.constants.APISecurityConstants;
+import org.wso2.apk.enforcer.util.SOAPUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The bodies rendered from the templates must be the same as the ones rendered with org.json and SAAJ before.
+ */
+public class DeniedResponseTemplatesTest {
+
+    private static final String ERROR_CODE = String.valueOf(APISecurityConstants.API_AUTH_INVALID_CREDENTIALS);
+    private static final String ERROR_MESSAGE =
+            APISecurityConstants.getAuthenticationFailureMessage(APISecurityConstants.API_AUTH_INVALID_CREDENTIALS);
+    private static final List<String> DESCRIPTIONS = Arrays.asList(
+            null,
+            "",
+            "Make sure you have provided the correct security credentials",
+            "Invalid \"token\" in 'Authorization' header",
+            "Path C:\\keys\\public.pem is not found",
+            "Control characters: \u0001\u001f\t\n\r\u007f end",
+            "Tom & Jerry",
+            "<script>alert(1)</script>",
+            "a > b and ]]> end",
+            "Caf\u00e9 \u00fcber \u2603 \u4e2d\u6587 \ud83d\ude00 \u2028 \u0085",
+            "__APK_ERROR_DESCRIPTION__");
+
+    @Test
+    public void testJsonBodyIsUnchanged() {
+        for (String description : DESCRIPTIONS) {
+            JSONObject responseJson = new JSONObject();
+            responseJson.put(APIConstants.MessageFormat.ERROR_CODE, ERROR_CODE);
+            responseJson.put(APIConstants.MessageFormat.ERROR_MESSAGE, ERROR_MESSAGE);
+            responseJson.put(APIConstants.MessageFormat.ERROR_DESCRIPTION, description);
+            assertSameBytes(description, responseJson.toString(),
+                    DeniedResponseTemplates.getBody(APIConstants.ErrorResponseTypes.JSON, ERROR_CODE, ERROR_MESSAGE,
+                            description));
+        }
+    }
+
+    @Test
+    public void testSoap11BodyIsUnchanged() {
+        for (String description : DESCRIPTIONS) {
+            assertSameBytes(description, SOAPUtils.getSoapFaultMessage(APIConstants.SOAP11_PROTOCOL, ERROR_MESSAGE,
+                    description, ERROR_CODE), DeniedResponseTemplates.getBody(
+                    APIConstants.ErrorResponseTypes.SOAP11, ERROR_CODE, ERROR_MESSAGE, description));
+        }
+    }
+
+    @Test
+    public void testSoap12BodyIsUnchanged() {
+        for (String description : DESCRIPTIONS) {
+            assertSameBytes(description, SOAPUtils.getSoapFaultMessage(APIConstants.SOAP12_PROTOCOL, ERROR_MESSAGE,
+                    description, ERROR_CODE), DeniedResponseTemplates.getBody(
+                    APIConstants.ErrorResponseTypes.SOAP12, ERROR_CODE, ERROR_MESSAGE, description));
+        }
+    }
+
+    @Test
+    public void testBodyIsUnchangedForKnownErrors() {
+        DeniedResponseTemplates.init();
+        int[] errorCodes = {APISecurityConstants.API_AUTH_MISSING_CREDENTIALS, APISecurityConstants.INVALID_SCOPE,
+                APISecurityConstants.OPA_AUTH_FORBIDDEN};
+        for (int code : errorCodes) {
+            String errorCode = String.valueOf(code);
+            String errorMessage = APISecurityConstants.getAuthenticationFailureMessage(code);
+            String description = APISecurityConstants.getFailureMessageDetailDescription(code, errorMessage);
+            assertSameBytes(description, SOAPUtils.getSoapFaultMessage(APIConstants.SOAP11_PROTOCOL, errorMessage,
+                    description, errorCode), DeniedResponseTemplates.getBody(
+                    APIConstants.ErrorResponseTypes.SOAP11, errorCode, errorMessage, description));
+        }
+    }
+
+    private static void assertSameBytes(String description, String expected, String actual) {
+        Assert.assertArrayEquals("Description: " + description, expected.getBytes(StandardCharsets.UTF_8),
+                actual.getBytes(StandardCharsets.UTF_8));
+    }
+}
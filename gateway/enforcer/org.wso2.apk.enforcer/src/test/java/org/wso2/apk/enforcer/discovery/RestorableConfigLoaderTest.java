@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.discovery;
+
+import com.google.protobuf.Any;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.discovery.config.enforcer.Cache;
+import org.wso2.apk.enforcer.discovery.config.enforcer.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RestorableConfigLoaderTest {
+
+    private final List<Config> applied = new ArrayList<>();
+    private final RestorableConfigLoader loader = new RestorableConfigLoader(applied::add);
+
+    @Test
+    public void testAdapterConfigIsLoaded() throws Exception {
+        Assert.assertTrue(loader.load(response("1", config(100))));
+        Assert.assertEquals(List.of(config(100)), applied);
+        Assert.assertFalse(loader.isRestored());
+    }
+
+    @Test
+    public void testSameAdapterConfigAfterRestoreIsNotReloaded() throws Exception {
+        Assert.assertTrue(loader.restore(response("1", config(100))));
+        Assert.assertTrue(loader.isRestored());
+
+        Assert.assertFalse(loader.load(response("1", config(100))));
+        // The adapter may serve the same configuration under a new version after it restarts.
+        Assert.assertFalse(loader.load(response("2", config(100))));
+        Assert.assertEquals(List.of(config(100)), applied);
+    }
+
+    @Test
+    public void testChangedAdapterConfigAfterRestoreIsNotApplied() throws Exception {
+        loader.restore(response("1", config(100)));
+
+        Assert.assertFalse(loader.load(response("2", config(200))));
+        Assert.assertEquals(List.of(config(100)), applied);
+        Assert.assertTrue(loader.isRestored());
+    }
+
+    @Test
+    public void testSnapshotIsNotRestoredAfterAdapterConfig() throws Exception {
+        loader.load(response("2", config(200)));
+
+        Assert.assertFalse(loader.restore(response("1", config(100))));
+        Assert.assertEquals(List.of(config(200)), applied);
+        Assert.assertFalse(loader.isRestored());
+    }
+
+    @Test
+    public void testFailedLoadCanBeRetried() throws Exception {
+        List<Config> loaded = new ArrayList<>();
+        RestorableConfigLoader failingOnce = new RestorableConfigLoader(config -> {
+            if (loaded.isEmpty()) {
+                loaded.add(null);
+                throw new IllegalStateException("invalid configuration");
+            }
+            loaded.add(config);
+        });
+        try {
+            failingOnce.restore(response("1", config(100)));
+            Assert.fail("Expected the restored configuration to fail");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertTrue(failingOnce.load(response("2", config(200))));
+        Assert.assertEquals(config(200), loaded.get(1));
+    }
+
+    private static Config config(int maximumCacheSize) {
+        return Config.newBuilder().setCache(Cache.newBuilder().setEnable(true).setMaximumSize(maximumCacheSize))
+                .build();
+    }
+
+    private static DiscoveryResponse response(String version, Config config) {
+        return DiscoveryResponse.newBuilder().setVersionInfo(version).addResources(Any.pack(config)).build();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.discovery.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class XdsResponseSequencerTest {
+
+    private static final String ISSUERS = "issuers";
+    private static final String APIS = "apis";
+    private static final String SUBSCRIPTIONS = "subscriptions";
+
+    private final List<String> applied = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void testResponseIsHeldBackUntilDependencyIsApplied() {
+        XdsResponseSequencer sequencer = createSequencer(TimeUnit.MINUTES.toMillis(1));
+        sequencer.apply(APIS, 0, record("apis-1"));
+        Assert.assertTrue(applied.isEmpty());
+
+        sequencer.apply(ISSUERS, 0, record("issuers-1"));
+        Assert.assertEquals(List.of("issuers-1", "apis-1"), applied);
+
+        // Once a type is applied, its responses are no longer held back.
+        sequencer.apply(APIS, 0, record("apis-2"));
+        Assert.assertEquals(List.of("issuers-1", "apis-1", "apis-2"), applied);
+    }
+
+    @Test
+    public void testNewerHeldBackResponseReplacesOlder() {
+        XdsResponseSequencer sequencer = createSequencer(TimeUnit.MINUTES.toMillis(1));
+        sequencer.apply(APIS, 0, record("apis-restored"));
+        sequencer.apply(APIS, 0, record("apis-1"));
+        sequencer.apply(ISSUERS, 0, record("issuers-1"));
+        Assert.assertEquals(List.of("issuers-1", "apis-1"), applied);
+    }
+
+    @Test
+    public void testHeldBackResponseIsAppliedOnTimeout() throws Exception {
+        XdsResponseSequencer sequencer = createSequencer(50);
+        CountDownLatch done = new CountDownLatch(1);
+        sequencer.apply(APIS, 0, () -> {
+            applied.add("apis-1");
+            done.countDown();
+        });
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(List.of("apis-1"), applied);
+    }
+
+    @Test
+    public void testReleasedResponseOlderThanAppliedIsDropped() throws Exception {
+        XdsResponseSequencer sequencer = new XdsResponseSequencer(Map.of(APIS, List.of(ISSUERS),
+                SUBSCRIPTIONS, List.of(ISSUERS)), TimeUnit.MINUTES.toMillis(1));
+        AtomicReference<String> blocked = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        for (String type : List.of(APIS, SUBSCRIPTIONS)) {
+            sequencer.apply(type, 0, () -> {
+                // The first released response blocks, so the other one waits to be released.
+                if (blocked.compareAndSet(null, type)) {
+                    started.countDown();
+                    await(release);
+                }
+                applied.add(type + "-old");
+            });
+        }
+        Thread issuers = new Thread(() -> sequencer.apply(ISSUERS, 0, record("issuers")));
+        issuers.start();
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // A newer response of the waiting type is applied before its released response runs.
+        String waiting = APIS.equals(blocked.get()) ? SUBSCRIPTIONS : APIS;
+        sequencer.apply(waiting, 0, record(waiting + "-new"));
+        release.countDown();
+        issuers.join();
+
+        Assert.assertTrue(applied.contains(blocked.get() + "-old"));
+        Assert.assertTrue(applied.contains(waiting + "-new"));
+        Assert.assertFalse(applied.contains(waiting + "-old"));
+    }
+
+    @Test
+    public void testResponsesOfTypeAreAppliedOneAtATime() throws Exception {
+        XdsResponseSequencer sequencer = createSequencer(TimeUnit.MINUTES.toMillis(1));
+        sequencer.apply(ISSUERS, 0, record("issuers-1"));
+        int[] running = new int[1];
+        int[] maxRunning = new int[1];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> sequencer.apply(APIS, 0, () -> {
+                synchronized (running) {
+                    running[0]++;
+                    maxRunning[0] = Math.max(maxRunning[0], running[0]);
+                }
+                sleep();
+                synchronized (running) {
+                    running[0]--;
+                }
+            }));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(1, maxRunning[0]);
+    }
+
+    private XdsResponseSequencer createSequencer(long timeout) {
+        return new XdsResponseSequencer(Map.of(APIS, List.of(ISSUERS)), timeout);
+    }
+
+    private Runnable record(String name) {
+        return () -> applied.add(name);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.discovery.common;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+
+public class XdsSnapshotFileTest {
+
+    private static final byte[] RESPONSE = "serialized-response".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("Api.snapshot");
+        write(file, "v1", RESPONSE);
+        write(file, "v2", RESPONSE);
+
+        XdsSnapshotFile snapshot = XdsSnapshotFile.read(file);
+        Assert.assertNotNull(snapshot);
+        Assert.assertEquals("v2", snapshot.getVersion());
+        Assert.assertArrayEquals(RESPONSE, toBytes(snapshot.getResponse()));
+        Assert.assertFalse(Files.exists(file.resolveSibling("Api.snapshot.tmp")));
+    }
+
+    @Test
+    public void testEmptyResponse() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("Api.snapshot");
+        write(file, "", new byte[0]);
+
+        XdsSnapshotFile snapshot = XdsSnapshotFile.read(file);
+        Assert.assertNotNull(snapshot);
+        Assert.assertEquals("", snapshot.getVersion());
+        Assert.assertEquals(0, snapshot.getResponse().remaining());
+    }
+
+    @Test
+    public void testChecksumMismatch() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("Api.snapshot");
+        write(file, "v1", RESPONSE);
+        byte[] content = Files.readAllBytes(file);
+        content[content.length - 1] ^= 1;
+        Files.write(file, content);
+
+        Assert.assertNull(XdsSnapshotFile.read(file));
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("Api.snapshot");
+        write(file, "v1", RESPONSE);
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 1));
+        Assert.assertNull(XdsSnapshotFile.read(file));
+
+        Files.write(file, Arrays.copyOf(content, XdsSnapshotFile.HEADER_SIZE - 1));
+        Assert.assertNull(XdsSnapshotFile.read(file));
+
+        Files.write(file, new byte[0]);
+        Assert.assertNull(XdsSnapshotFile.read(file));
+    }
+
+    @Test
+    public void testUnknownFormat() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("Api.snapshot");
+        write(file, "v1", RESPONSE);
+        byte[] content = Files.readAllBytes(file);
+        ByteBuffer.wrap(content).putInt(4, XdsSnapshotFile.FORMAT_VERSION + 1);
+        Files.write(file, content);
+        Assert.assertNull(XdsSnapshotFile.read(file));
+
+        ByteBuffer.wrap(content).putInt(0, 0);
+        Files.write(file, content);
+        Assert.assertNull(XdsSnapshotFile.read(file));
+    }
+
+    @Test
+    public void testOwnerOnlyPermissions() throws IOException {
+        Path root = folder.getRoot().toPath();
+        Assume.assumeTrue(root.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path dir = XdsSnapshotFile.createDirectory(root.resolve("snapshots"));
+        Path file = dir.resolve("Api.snapshot");
+        // A temporary file left by a crash is replaced rather than reused with its permissions.
+        Files.write(dir.resolve("Api.snapshot.tmp"), RESPONSE);
+        Files.setPosixFilePermissions(dir.resolve("Api.snapshot.tmp"), PosixFilePermissions.fromString("rw-rw-rw-"));
+        write(file, "v1", RESPONSE);
+
+        Assert.assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir)));
+        Assert.assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    }
+
+    private static void write(Path file, String version, byte[] response) throws IOException {
+        XdsSnapshotFile.write(file, version, response.length, buffer -> buffer.put(response));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
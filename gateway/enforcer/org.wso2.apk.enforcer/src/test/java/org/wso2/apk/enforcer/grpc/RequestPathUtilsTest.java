@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.grpc;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RequestPathUtilsTest {
+
+    @Test
+    public void testUnchangedPath() {
+        String path = "/pets/v1/pets?b=2&a=1";
+        Assert.assertSame(path, rewrite(path, Collections.emptyList(), Collections.emptyMap()));
+    }
+
+    @Test
+    public void testRemoveAllQueryParams() {
+        Assert.assertEquals("/pets/v1/pets", RequestPathUtils.constructQueryParamString(true,
+                "/pets/v1/pets?a=1&b=2", queryParamMap("/pets/v1/pets?a=1&b=2"), Collections.emptyList(),
+                Map.of("c", "3")));
+        Assert.assertEquals("/pets/v1/pets", RequestPathUtils.constructQueryParamString(true,
+                "/pets/v1/pets", queryParamMap("/pets/v1/pets"), Collections.emptyList(), Collections.emptyMap()));
+    }
+
+    @Test
+    public void testRemoveQueryParam() {
+        Assert.assertEquals("/pets?b=2&d=4", rewrite("/pets?apikey=secret&b=2&d=4", List.of("apikey"), Map.of()));
+        Assert.assertEquals("/pets?b=2", rewrite("/pets?b=2&apikey=secret", List.of("apikey"), Map.of()));
+        Assert.assertEquals("/pets", rewrite("/pets?apikey=secret", List.of("apikey"), Map.of()));
+        Assert.assertEquals("/pets", rewrite("/pets", List.of("apikey"), Map.of()));
+        Assert.assertEquals("/pets", rewrite("/pets?", List.of("apikey"), Map.of()));
+        // Only whole names are matched.
+        Assert.assertEquals("/pets?apikeys=1&xapikey=2",
+                rewrite("/pets?apikeys=1&xapikey=2&apikey=3", List.of("apikey"), Map.of()));
+    }
+
+    @Test
+    public void testRequestQueryParamsKeepOrderAndEncoding() {
+        Assert.assertEquals("/pets?z=26&a=%2Fb%3Fc&name=J%C3%B6rg&sp=a+b&c=3",
+                rewrite("/pets?z=26&a=%2Fb%3Fc&name=J%C3%B6rg&sp=a+b&c=3", List.of("x"), Map.of()));
+    }
+
+    @Test
+    public void testEncodedQueryParamNames() {
+        // Names are compared after decoding, and the remaining parameters keep their original encoding.
+        Assert.assertEquals("/pets?b%20c=2", rewrite("/pets?api%6Bey=1&b%20c=2", List.of("apikey"), Map.of()));
+        Assert.assertEquals("/pets?x=1", rewrite("/pets?x=1&my+key=2", List.of("my key"), Map.of()));
+        Assert.assertEquals("/pets?x=1", rewrite("/pets?x=1&m%C3%BC=2", List.of("m\u00fc"), Map.of()));
+        // A name which cannot be decoded is compared as it is.
+        Assert.assertEquals("/pets?a%zz=1", rewrite("/pets?a%zz=1&b=2", List.of("b"), Map.of()));
+        Assert.assertEquals("/pets?b=2", rewrite("/pets?a%zz=1&b=2", List.of("a%zz"), Map.of()));
+    }
+
+    @Test
+    public void testRepeatedQueryParams() {
+        Assert.assertEquals("/pets?tag=a&tag=b&x=1", rewrite("/pets?tag=a&tag=b&x=1", List.of("y"), Map.of()));
+        Assert.assertEquals("/pets?x=1", rewrite("/pets?tag=a&x=1&tag=b", List.of("tag"), Map.of()));
+        // Every occurrence of an overridden parameter is replaced by the added one.
+        Assert.assertEquals("/pets?x=1&tag=c", rewrite("/pets?tag=a&x=1&tag=b", List.of(), Map.of("tag", "c")));
+    }
+
+    @Test
+    public void testEmptyQueryParams() {
+        Assert.assertEquals("/pets?a=&b&c=3", rewrite("/pets?a=&b&c=3&d=4", List.of("d"), Map.of()));
+        Assert.assertEquals("/pets?a=1&b=2", rewrite("/pets?a=1&&b=2&", List.of("d"), Map.of()));
+        Assert.assertEquals("/pets?=1", rewrite("/pets?=1&d=4", List.of("d"), Map.of()));
+        Assert.assertEquals("/pets?a", rewrite("/pets?a&b=", List.of("b"), Map.of()));
+    }
+
+    @Test
+    public void testAddQueryParams() {
+        Map<String, String> queryParamsToAdd = new LinkedHashMap<>();
+        queryParamsToAdd.put("b", "20");
+        queryParamsToAdd.put("flag", null);
+        queryParamsToAdd.put("empty", "");
+        Assert.assertEquals("/pets?a=1&c=3&b=20&flag&empty=",
+                rewrite("/pets?a=1&b=2&c=3", List.of(), queryParamsToAdd));
+        Assert.assertEquals("/pets?b=20&flag&empty=", rewrite("/pets", List.of(), queryParamsToAdd));
+        Assert.assertEquals("/pets?b=20&flag&empty=", rewrite("/pets?", List.of(), queryParamsToAdd));
+        // A parameter which is both added and removed is removed.
+        Assert.assertEquals("/pets?a=1&flag&empty=", rewrite("/pets?a=1&b=2", List.of("b"), queryParamsToAdd));
+    }
+
+    @Test
+    public void testQueryParamsChangedByFilter() {
+        String path = "/pets?a=1&b=%2F2&apikey=secret";
+        Map<String, String> queryParamMap = queryParamMap(path);
+        queryParamMap.put("a", "10");
+        Assert.assertEquals(Map.of("a", "10", "b", "/2"),
+                queryParamMap(rewrite(path, queryParamMap, List.of("apikey"), Map.of())));
+
+        queryParamMap = queryParamMap(path);
+        queryParamMap.remove("a");
+        queryParamMap.put("c", "3");
+        Assert.assertEquals(Map.of("b", "/2", "c", "3", "d", "4"),
+                queryParamMap(rewrite(path, queryParamMap, List.of("apikey"), Map.of("d", "4"))));
+    }
+
+    @Test
+    public void testQueryParamsWithoutMap() {
+        // The query parameters of the request are kept when the map is not available.
+        Assert.assertEquals("/pets?b=%2F2", RequestPathUtils.constructQueryParamString(false,
+                "/pets?b=%2F2&apikey=secret", null, List.of("apikey"), Map.of()));
+    }
+
+    @Test
+    public void testPathWithoutQuery() {
+        Assert.assertEquals("/pets", RequestPathUtils.getPathWithoutQuery("/pets?a=1?b=2"));
+        Assert.assertEquals("/pets", RequestPathUtils.getPathWithoutQuery("/pets?"));
+        Assert.assertEquals("/pets", RequestPathUtils.getPathWithoutQuery("/pets"));
+        Assert.assertEquals("", RequestPathUtils.getPathWithoutQuery("?a=1"));
+    }
+
+    private static String rewrite(String requestPath, List<String> queryParamsToRemove,
+                                  Map<String, String> queryParamsToAdd) {
+        return rewrite(requestPath, queryParamMap(requestPath), queryParamsToRemove, queryParamsToAdd);
+    }
+
+    private static String rewrite(String requestPath, Map<String, String> queryParamMap,
+                                  List<String> queryParamsToRemove, Map<String, String> queryParamsToAdd) {
+        return RequestPathUtils.constructQueryParamString(false, requestPath, queryParamMap, queryParamsToRemove,
+                queryParamsToAdd);
+    }
+
+    /**
+     * Query parameter map of the request, populated as in the request context.
+     */
+    private static Map<String, String> queryParamMap(String requestPath) {
+        Map<String, String> queryParamMap = new HashMap<>();
+        int queryIndex = requestPath.indexOf('?');
+        if (queryIndex >= 0) {
+            for (NameValuePair param : URLEncodedUtils.parse(requestPath.substring(queryIndex + 1),
+                    StandardCharsets.UTF_8)) {
+                queryParamMap.put(param.getName(), param.getValue());
+            }
+        }
+        return queryParamMap;
+    }
+}
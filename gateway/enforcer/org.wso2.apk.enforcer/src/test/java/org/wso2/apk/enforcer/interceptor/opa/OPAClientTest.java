@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.interceptor.opa;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.opa.OPASecurityException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OPAClientTest {
+
+    private final AtomicInteger opaCalls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile int responseCode = 200;
+    private volatile String responseBody = "{\"result\": true}";
+    private volatile boolean blockResponses;
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private OPAClient opaClient;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            opaCalls.incrementAndGet();
+            try (InputStream request = exchange.getRequestBody()) {
+                request.readAllBytes();
+            }
+            if (blockResponses) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(responseCode, body.length);
+            try (OutputStream response = exchange.getResponseBody()) {
+                response.write(body);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        opaClient = new OPAClient();
+        opaClient.loadRequestGenerators();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        opaClient.evictHttpClients();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testClientIsSharedPerServerAndOptions() throws OPASecurityException {
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-1", "user-1"), policy()));
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-2", "user-1"), policy()));
+        Assert.assertEquals(2, opaCalls.get());
+        Assert.assertEquals(1, opaClient.httpClientCount());
+
+        Map<String, String> policy = policy();
+        policy.put("maxOpenConnections", "5");
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-3", "user-1"), policy));
+        Assert.assertEquals(2, opaClient.httpClientCount());
+    }
+
+    @Test
+    public void testEvictedClientIsReplaced() throws OPASecurityException {
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-1", "user-1"), policy()));
+        opaClient.evictHttpClients();
+        Assert.assertEquals(0, opaClient.httpClientCount());
+
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-2", "user-1"), policy()));
+        Assert.assertEquals(1, opaClient.httpClientCount());
+    }
+
+    @Test
+    public void testEvictedClientIsClosedOnceUnused() {
+        OPAClient.OPAHttpClient unusedClient = new OPAClient.OPAHttpClient(HttpClients.createDefault());
+        unusedClient.evict();
+        Assert.assertTrue(unusedClient.isClosed());
+        Assert.assertFalse(unusedClient.acquire());
+
+        OPAClient.OPAHttpClient usedClient = new OPAClient.OPAHttpClient(HttpClients.createDefault());
+        Assert.assertTrue(usedClient.acquire());
+        Assert.assertTrue(usedClient.acquire());
+        usedClient.evict();
+        usedClient.release();
+        Assert.assertFalse(usedClient.isClosed());
+        usedClient.release();
+        Assert.assertTrue(usedClient.isClosed());
+        Assert.assertFalse(usedClient.acquire());
+    }
+
+    @Test
+    public void testDecisionCacheHitIgnoresPerRequestHeaders() throws OPASecurityException {
+        Map<String, String> policy = policy();
+        policy.put("decisionCacheTTL", "60");
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-1", "user-1"), policy));
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-2", "user-1"), policy));
+        Assert.assertEquals(1, opaCalls.get());
+
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-3", "user-2"), policy));
+        Assert.assertEquals(2, opaCalls.get());
+    }
+
+    @Test
+    public void testDecisionCacheKeyIsCanonical() throws OPASecurityException {
+        OPADefaultRequestGenerator generator = new OPADefaultRequestGenerator();
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            headers.put("x-header-" + i, "value-" + i);
+        }
+        String key = generator.generateDecisionCacheKey("policy", "allow", new HashMap<>(),
+                createRequestContext(headers));
+        Assert.assertEquals(key, generator.generateDecisionCacheKey("policy", "allow", new HashMap<>(),
+                createRequestContext(new HashMap<>(headers))));
+        // The keys are in sorted order rather than the order of the hash map backing the JSON object.
+        List<String> names = new ArrayList<>(headers.keySet());
+        Collections.sort(names);
+        int previousIndex = -1;
+        for (String name : names) {
+            int index = key.indexOf("\"" + name + "\"");
+            Assert.assertTrue(name, index > previousIndex);
+            previousIndex = index;
+        }
+        Assert.assertTrue(key.indexOf("\"apiContext\"") < key.indexOf("\"method\""));
+    }
+
+    @Test
+    public void testEvaluationTimeout() throws OPASecurityException {
+        blockResponses = true;
+        Map<String, String> policy = policy();
+        policy.put("evaluationTimeout", "200");
+        long start = System.nanoTime();
+        try {
+            opaClient.validateRequest(createRequestContext("request-1", "user-1"), policy);
+            Assert.fail("The evaluation should time out");
+        } catch (OPASecurityException e) {
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        }
+
+        policy.put("failOpen", "true");
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-2", "user-1"), policy));
+    }
+
+    @Test
+    public void testFailOpenWhenServerIsUnreachable() throws IOException, OPASecurityException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = socket.getLocalPort();
+        }
+        Map<String, String> policy = policy();
+        policy.put("serverURL", "http://127.0.0.1:" + closedPort);
+        try {
+            opaClient.validateRequest(createRequestContext("request-1", "user-1"), policy);
+            Assert.fail("The request should fail as the OPA server cannot be reached");
+        } catch (OPASecurityException e) {
+            // expected
+        }
+
+        policy.put("failOpen", "true");
+        Assert.assertTrue(opaClient.validateRequest(createRequestContext("request-2", "user-1"), policy));
+    }
+
+    @Test
+    public void testFailOpenDoesNotAllowDeniedRequest() throws OPASecurityException {
+        responseBody = "{\"result\": false}";
+        Map<String, String> policy = policy();
+        policy.put("failOpen", "true");
+        Assert.assertFalse(opaClient.validateRequest(createRequestContext("request-1", "user-1"), policy));
+    }
+
+    @Test(expected = OPASecurityException.class)
+    public void testFailOpenDoesNotAllowServerError() throws OPASecurityException {
+        responseCode = 500;
+        Map<String, String> policy = policy();
+        policy.put("failOpen", "true");
+        opaClient.validateRequest(createRequestContext("request-1", "user-1"), policy);
+    }
+
+    private Map<String, String> policy() {
+        Map<String, String> policy = new HashMap<>();
+        policy.put("serverURL", "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/data");
+        policy.put("policy", "apk");
+        policy.put("rule", "allow");
+        return policy;
+    }
+
+    private static RequestContext createRequestContext(String requestId, String user) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("x-request-id", requestId);
+        headers.put("traceparent", "00-" + requestId + "-01");
+        headers.put("x-user", user);
+        return createRequestContext(headers);
+    }
+
+    private static RequestContext createRequestContext(Map<String, String> headers) {
+        APIConfig api = new APIConfig.Builder("petstore").version("1.0.0").basePath("/petstore/1.0.0")
+                .vhost("localhost").build();
+        return new RequestContext.Builder("/petstore/1.0.0/pets").matchedAPI(api).requestMethod("GET")
+                .pathTemplate("/pets").headers(headers).build();
+    }
+}
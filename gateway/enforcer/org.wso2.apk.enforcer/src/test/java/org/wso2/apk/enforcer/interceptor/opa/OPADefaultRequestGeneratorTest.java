@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.interceptor.opa;
+
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+import org.wso2.apk.enforcer.commons.model.RequestContext;
+import org.wso2.apk.enforcer.commons.opa.OPASecurityException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class OPADefaultRequestGeneratorTest {
+
+    private final OPADefaultRequestGenerator generator = new OPADefaultRequestGenerator();
+
+    @Test
+    public void testDecisionCacheKeyExcludesPerRequestHeaders() throws OPASecurityException {
+        RequestContext first = createRequestContext("request-1", "00-trace-1-01", "user-1");
+        RequestContext second = createRequestContext("request-2", "00-trace-2-01", "user-1");
+
+        Assert.assertNotEquals(generate(first), generate(second));
+        Assert.assertEquals(generateKey(first), generateKey(second));
+
+        JSONObject headers = new JSONObject(generate(first)).getJSONObject("input")
+                .getJSONObject("transportHeaders");
+        Assert.assertEquals("request-1", headers.getString("x-request-id"));
+        Assert.assertEquals("user-1", headers.getString("x-user"));
+    }
+
+    @Test
+    public void testDecisionCacheKeyIncludesOtherHeaders() throws OPASecurityException {
+        RequestContext first = createRequestContext("request-1", "00-trace-1-01", "user-1");
+        RequestContext second = createRequestContext("request-1", "00-trace-1-01", "user-2");
+
+        Assert.assertNotEquals(generateKey(first), generateKey(second));
+    }
+
+    private String generate(RequestContext requestContext) throws OPASecurityException {
+        return generator.generateRequest("policy", "allow", Collections.emptyMap(), requestContext);
+    }
+
+    private String generateKey(RequestContext requestContext) throws OPASecurityException {
+        return generator.generateDecisionCacheKey("policy", "allow", Collections.emptyMap(), requestContext);
+    }
+
+    private static RequestContext createRequestContext(String requestId, String traceParent, String user) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("x-request-id", requestId);
+        headers.put("traceparent", traceParent);
+        headers.put("x-b3-traceid", requestId);
+        headers.put("x-user", user);
+        APIConfig api = new APIConfig.Builder("petstore").version("1.0.0").basePath("/petstore/1.0.0")
+                .vhost("localhost").build();
+        return new RequestContext.Builder("/petstore/1.0.0/pets").matchedAPI(api).requestMethod("GET")
+                .pathTemplate("/pets").headers(headers).build();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.metrics.jmx.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ExtAuthMetricsTest {
+
+    private static final int MAX_TRACKED_APIS = 3;
+
+    @Test
+    public void testPercentilesOfTheLastInterval() {
+        ExtAuthMetrics metrics = new ExtAuthMetrics();
+        long[] intervalMillis = {5, 20, 1, 40};
+        for (long millis : intervalMillis) {
+            // The histograms are recycled from the third interval onwards, so they must not carry older values.
+            for (int i = 0; i < 10; i++) {
+                metrics.recordMetric("api-1", TimeUnit.MILLISECONDS.toNanos(millis));
+            }
+            metrics.takeIntervalSnapshot();
+            Assert.assertEquals(10, metrics.getRequestCountInLastFiveMinutes());
+            assertMillis(millis, metrics.getResponseTimePercentilesMillis().get("p99"));
+            assertMillis(millis, metrics.getAPIResponseTimePercentilesMillis().get("api-1").get("p99"));
+        }
+        metrics.takeIntervalSnapshot();
+        Assert.assertEquals(0, metrics.getRequestCountInLastFiveMinutes());
+    }
+
+    @Test
+    public void testIdleAPIIsDropped() {
+        ExtAuthMetrics metrics = new ExtAuthMetrics();
+        metrics.recordMetric("api-1", TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.takeIntervalSnapshot();
+        Assert.assertTrue(metrics.getAPIResponseTimePercentilesMillis().containsKey("api-1"));
+        metrics.takeIntervalSnapshot();
+        Assert.assertFalse(metrics.getAPIResponseTimePercentilesMillis().containsKey("api-1"));
+    }
+
+    @Test
+    public void testTrackedAPIsAreCapped() {
+        ExtAuthMetrics metrics = new ExtAuthMetrics(MAX_TRACKED_APIS);
+        for (int i = 0; i <= MAX_TRACKED_APIS; i++) {
+            metrics.recordMetric("api-" + i, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        metrics.recordMetric("api-" + MAX_TRACKED_APIS, TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.takeIntervalSnapshot();
+        Map<String, Map<String, Double>> percentiles = metrics.getAPIResponseTimePercentilesMillis();
+        Assert.assertEquals(MAX_TRACKED_APIS, percentiles.size());
+        Assert.assertFalse(percentiles.containsKey("api-" + MAX_TRACKED_APIS));
+        // All the requests are still counted in the overall response time.
+        Assert.assertEquals(MAX_TRACKED_APIS + 2, metrics.getRequestCountInLastFiveMinutes());
+        // The requests of the untracked API are reported together.
+        Assert.assertEquals(1, metrics.getUntrackedAPICountInLastFiveMinutes());
+        Assert.assertEquals(2, metrics.getUntrackedAPIRequestCountInLastFiveMinutes());
+        assertMillis(20, metrics.getUntrackedAPIResponseTimePercentilesMillis().get("p99"));
+
+        metrics.removeAPIMetrics("api-0");
+        metrics.recordMetric("api-" + MAX_TRACKED_APIS, TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.takeIntervalSnapshot();
+        Assert.assertTrue(metrics.getAPIResponseTimePercentilesMillis().containsKey("api-" + MAX_TRACKED_APIS));
+        Assert.assertEquals(0, metrics.getUntrackedAPICountInLastFiveMinutes());
+        Assert.assertEquals(0, metrics.getUntrackedAPIRequestCountInLastFiveMinutes());
+    }
+
+    @Test
+    public void testMaxTrackedAPIsIsConfigurable() {
+        Assert.assertEquals(ExtAuthMetrics.DEFAULT_MAX_TRACKED_APIS, new ExtAuthMetrics().getMaxTrackedAPIs());
+        ExtAuthMetrics metrics = new ExtAuthMetrics(0);
+        metrics.recordMetric("api-1", TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.recordMetric("api-2", TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.takeIntervalSnapshot();
+        Assert.assertTrue(metrics.getAPIResponseTimePercentilesMillis().isEmpty());
+        Assert.assertEquals(2, metrics.getUntrackedAPICountInLastFiveMinutes());
+    }
+
+    @Test
+    public void testRemovedAPIIsNotReported() {
+        ExtAuthMetrics metrics = new ExtAuthMetrics();
+        metrics.recordMetric("api-1", TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.recordMetric("api-2", TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.removeAPIMetrics("api-1");
+        metrics.removeAPIMetrics(null);
+        metrics.takeIntervalSnapshot();
+        Map<String, Map<String, Double>> percentiles = metrics.getAPIResponseTimePercentilesMillis();
+        Assert.assertFalse(percentiles.containsKey("api-1"));
+        Assert.assertTrue(percentiles.containsKey("api-2"));
+    }
+
+    private static void assertMillis(long expected, double actual) {
+        // The per API histograms keep a single significant digit.
+        Assert.assertEquals(expected, actual, expected * 0.1);
+    }
+}
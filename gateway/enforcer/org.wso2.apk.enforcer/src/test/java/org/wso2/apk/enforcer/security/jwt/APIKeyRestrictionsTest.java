@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class APIKeyRestrictionsTest {
+
+    @Test
+    public void testUnrestricted() {
+        APIKeyRestrictions restrictions = APIKeyRestrictions.compile(null, "");
+        Assert.assertFalse(restrictions.isIpRestricted());
+        Assert.assertFalse(restrictions.isRefererRestricted());
+        Assert.assertTrue(restrictions.isIpPermitted("10.0.0.1"));
+        Assert.assertTrue(restrictions.isRefererPermitted("https://example.com/"));
+    }
+
+    @Test
+    public void testIPv4() {
+        APIKeyRestrictions restrictions = APIKeyRestrictions.compile("192.168.1.10, 10.0.0.0/8,172.16.4.0/22", null);
+        Assert.assertTrue(restrictions.isIpRestricted());
+        Assert.assertTrue(restrictions.isIpPermitted("192.168.1.10"));
+        Assert.assertFalse(restrictions.isIpPermitted("192.168.1.11"));
+        Assert.assertTrue(restrictions.isIpPermitted("10.0.0.1"));
+        Assert.assertTrue(restrictions.isIpPermitted("10.255.255.255"));
+        Assert.assertFalse(restrictions.isIpPermitted("11.0.0.1"));
+        Assert.assertTrue(restrictions.isIpPermitted("172.16.4.1"));
+        Assert.assertTrue(restrictions.isIpPermitted("172.16.7.254"));
+        Assert.assertFalse(restrictions.isIpPermitted("172.16.8.1"));
+        Assert.assertFalse(restrictions.isIpPermitted("172.16.3.255"));
+        Assert.assertFalse(restrictions.isIpPermitted("10.0.0"));
+        Assert.assertFalse(restrictions.isIpPermitted("10.0.0.256"));
+        Assert.assertFalse(restrictions.isIpPermitted("not-an-ip"));
+        Assert.assertFalse(restrictions.isIpPermitted(null));
+    }
+
+    @Test
+    public void testIPv4Boundaries() {
+        Assert.assertTrue(APIKeyRestrictions.compile("0.0.0.0/0", null).isIpPermitted("203.0.113.7"));
+        APIKeyRestrictions host = APIKeyRestrictions.compile("203.0.113.7/32", null);
+        Assert.assertTrue(host.isIpPermitted("203.0.113.7"));
+        Assert.assertFalse(host.isIpPermitted("203.0.113.6"));
+        // Invalid entries are ignored.
+        APIKeyRestrictions invalid = APIKeyRestrictions.compile("10.0.0.0/33,10.0.0.0/x,300.0.0.0/8", null);
+        Assert.assertTrue(invalid.isIpRestricted());
+        Assert.assertFalse(invalid.isIpPermitted("10.0.0.1"));
+    }
+
+    @Test
+    public void testIPv6() {
+        APIKeyRestrictions restrictions = APIKeyRestrictions.compile("2001:db8::/32,fe80::1:0:0:0/80,::1", null);
+        Assert.assertTrue(restrictions.isIpPermitted("2001:db8::1"));
+        Assert.assertTrue(restrictions.isIpPermitted("2001:0db8:ffff:0:0:0:0:1"));
+        Assert.assertFalse(restrictions.isIpPermitted("2001:db9::1"));
+        Assert.assertTrue(restrictions.isIpPermitted("fe80::1:0:abcd:1"));
+        Assert.assertTrue(restrictions.isIpPermitted("fe80:0:0:0:1:0:abcd:1%eth0"));
+        Assert.assertFalse(restrictions.isIpPermitted("fe80::2:0:abcd:1"));
+        Assert.assertTrue(restrictions.isIpPermitted("::1"));
+        Assert.assertFalse(restrictions.isIpPermitted("::2"));
+        Assert.assertFalse(restrictions.isIpPermitted("2001:db8:::1"));
+        Assert.assertFalse(restrictions.isIpPermitted("2001:db8::1::1"));
+        Assert.assertFalse(restrictions.isIpPermitted("2001:db8:1:2:3:4:5:6:7"));
+    }
+
+    @Test
+    public void testMixedIPList() {
+        APIKeyRestrictions restrictions = APIKeyRestrictions.compile("10.1.0.0/16, 2001:db8:abcd::/48, 127.0.0.1",
+                null);
+        Assert.assertTrue(restrictions.isIpPermitted("10.1.2.3"));
+        Assert.assertTrue(restrictions.isIpPermitted("2001:db8:abcd:12::5"));
+        Assert.assertTrue(restrictions.isIpPermitted("127.0.0.1"));
+        Assert.assertFalse(restrictions.isIpPermitted("10.2.0.1"));
+        Assert.assertFalse(restrictions.isIpPermitted("2001:db8:abce::5"));
+        // IPv4 networks do not match IPv6 addresses and the other way around, except IPv4-mapped addresses.
+        Assert.assertFalse(restrictions.isIpPermitted("::a01:203"));
+        Assert.assertTrue(restrictions.isIpPermitted("::ffff:10.1.2.3"));
+        Assert.assertFalse(restrictions.isIpPermitted("::ffff:10.2.2.3"));
+    }
+
+    @Test
+    public void testLargeIPList() {
+        StringBuilder permittedIPs = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            permittedIPs.append("10.").append(i / 256).append('.').append(i % 256).append(".0/24,");
+        }
+        APIKeyRestrictions restrictions = APIKeyRestrictions.compile(permittedIPs.toString(), null);
+        Assert.assertTrue(restrictions.isIpPermitted("10.0.0.1"));
+        Assert.assertTrue(restrictions.isIpPermitted("10.3.231.200"));
+        Assert.assertFalse(restrictions.isIpPermitted("10.3.232.1"));
+    }
+
+    @Test
+    public void testReferers() {
+        APIKeyRestrictions restrictions = APIKeyRestrictions.compile(null,
+                "https://example.com/, *.example.org/*, https://*.example.net/app/*/index.html");
+        Assert.assertTrue(restrictions.isRefererRestricted());
+        Assert.assertTrue(restrictions.isRefererPermitted("https://example.com/"));
+        Assert.assertFalse(restrictions.isRefererPermitted("https://example.com/page"));
+        Assert.assertTrue(restrictions.isRefererPermitted("https://www.example.org/page"));
+        Assert.assertFalse(restrictions.isRefererPermitted("https://www.example.org"));
+        Assert.assertTrue(restrictions.isRefererPermitted("https://api.example.net/app/v1/index.html"));
+        Assert.assertTrue(restrictions.isRefererPermitted("https://api.example.net/app//index.html"));
+        Assert.assertFalse(restrictions.isRefererPermitted("https://api.example.net/app/v1/main.html"));
+        Assert.assertFalse(restrictions.isRefererPermitted("http://api.example.net/app/v1/index.html"));
+        // A wildcard does not match spaces.
+        Assert.assertFalse(restrictions.isRefererPermitted("https://www.example.org/a page"));
+        Assert.assertFalse(restrictions.isRefererPermitted(null));
+    }
+
+    @Test
+    public void testRefererWildcards() {
+        Assert.assertTrue(APIKeyRestrictions.compile(null, "*").isRefererPermitted("https://example.com/"));
+        Assert.assertFalse(APIKeyRestrictions.compile(null, "*").isRefererPermitted("a b"));
+        // Overlapping prefix and suffix.
+        Assert.assertFalse(APIKeyRestrictions.compile(null, "abc*cde").isRefererPermitted("abcde"));
+        Assert.assertTrue(APIKeyRestrictions.compile(null, "abc*cde").isRefererPermitted("abccde"));
+        APIKeyRestrictions withSpaces = APIKeyRestrictions.compile(null, "my app*/home");
+        Assert.assertTrue(withSpaces.isRefererPermitted("my app-v1/home"));
+        Assert.assertFalse(withSpaces.isRefererPermitted("my app v1/home"));
+        // Regular expression characters are matched literally.
+        Assert.assertFalse(APIKeyRestrictions.compile(null, "www.example.com/*")
+                .isRefererPermitted("wwwxexample.com/"));
+    }
+}
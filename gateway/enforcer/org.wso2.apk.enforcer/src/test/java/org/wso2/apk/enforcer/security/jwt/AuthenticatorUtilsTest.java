@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wso2.apk.enforcer.common.TokenCacheEntry;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class AuthenticatorUtilsTest {
+
+    private static final long SKEW = TimeUnit.SECONDS.toMillis(5);
+
+    private static RSASSASigner signer;
+
+    @BeforeClass
+    public static void setUp() throws JOSEException {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).generate();
+        signer = new RSASSASigner(rsaKey);
+    }
+
+    @Test
+    public void testIsAPIKeyMatchesSplit() {
+        String[] keys = {"a.b.c", "a.b.c.", "a.b.c..", "a..c", "..c", ".b.c", "a.b", "a.b.c.d", "a.b..", "abc", "",
+                "...", "a.b.c.d.", ".", "a..", "a.b.c.d.e", "eyJhbGciOiJSUzI1NiJ9.eyJzdWIiOiJhZG1pbiJ9.c2ln"};
+        for (String key : keys) {
+            Assert.assertEquals(key, key.split("\\.").length == 3, AuthenticatorUtils.isAPIKey(key));
+        }
+        Assert.assertFalse(AuthenticatorUtils.isAPIKey(null));
+    }
+
+    @Test
+    public void testCachedAPIKeyIsFoundByRawKey() {
+        Cache<String, TokenCacheEntry> cache = Caffeine.newBuilder().build();
+        SignedJWT signedJWT = createAPIKey("key-1", TimeUnit.MINUTES.toMillis(10));
+        String apiKey = signedJWT.serialize();
+        cache.put(apiKey, AuthenticatorUtils.createApiKeyCacheEntry(apiKey, signedJWT, getClaims(signedJWT), true));
+
+        TokenCacheEntry entry = cache.getIfPresent(apiKey);
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(apiKey, entry.getToken());
+        Assert.assertSame(signedJWT, entry.getSignedJWTInfo().getSignedJWT());
+        Assert.assertEquals("admin", entry.getSignedJWTInfo().getJwtClaimsSet().getSubject());
+        Assert.assertEquals(SignedJWTInfo.ValidationStatus.VALID, entry.getValidationStatus());
+        Assert.assertEquals("admin", entry.getValidationInfo().getUser());
+        Assert.assertFalse(entry.isExpired(SKEW));
+    }
+
+    @Test
+    public void testAPIKeysWithSameJtiAreCachedSeparately() {
+        Cache<String, TokenCacheEntry> cache = Caffeine.newBuilder().build();
+        SignedJWT validKey = createAPIKey("key-1", TimeUnit.MINUTES.toMillis(10));
+        // Same jti, but a different payload, e.g. a forged key.
+        SignedJWT otherKey = createAPIKey("key-1", TimeUnit.MINUTES.toMillis(20));
+        cache.put(validKey.serialize(), AuthenticatorUtils.createApiKeyCacheEntry(validKey.serialize(), validKey,
+                getClaims(validKey), true));
+
+        Assert.assertNull(cache.getIfPresent(otherKey.serialize()));
+        cache.put(otherKey.serialize(), AuthenticatorUtils.createApiKeyCacheEntry(otherKey.serialize(), otherKey,
+                getClaims(otherKey), false));
+        Assert.assertEquals(SignedJWTInfo.ValidationStatus.VALID,
+                cache.getIfPresent(validKey.serialize()).getValidationStatus());
+        Assert.assertEquals(SignedJWTInfo.ValidationStatus.INVALID,
+                cache.getIfPresent(otherKey.serialize()).getValidationStatus());
+    }
+
+    @Test
+    public void testInvalidAPIKeyIsCachedWithoutValidationInfo() {
+        SignedJWT signedJWT = createAPIKey("key-1", TimeUnit.MINUTES.toMillis(10));
+        TokenCacheEntry entry = AuthenticatorUtils.createApiKeyCacheEntry(signedJWT.serialize(), signedJWT,
+                getClaims(signedJWT), false);
+        Assert.assertEquals(SignedJWTInfo.ValidationStatus.INVALID, entry.getValidationStatus());
+        Assert.assertNull(entry.getValidationInfo());
+    }
+
+    @Test
+    public void testCachedAPIKeyExpiry() {
+        SignedJWT expired = createAPIKey("key-1", -TimeUnit.SECONDS.toMillis(10));
+        Assert.assertTrue(AuthenticatorUtils.createApiKeyCacheEntry(expired.serialize(), expired,
+                getClaims(expired), true).isExpired(SKEW));
+        // Within the clock skew
+        SignedJWT justExpired = createAPIKey("key-2", -TimeUnit.SECONDS.toMillis(2));
+        Assert.assertFalse(AuthenticatorUtils.createApiKeyCacheEntry(justExpired.serialize(), justExpired,
+                getClaims(justExpired), true).isExpired(SKEW));
+        // Without an expiry time
+        SignedJWT neverExpires = sign(new JWTClaimsSet.Builder().subject("admin").jwtID("key-3").build());
+        Assert.assertFalse(AuthenticatorUtils.createApiKeyCacheEntry(neverExpires.serialize(), neverExpires,
+                getClaims(neverExpires), true).isExpired(SKEW));
+    }
+
+    private static SignedJWT createAPIKey(String jti, long expiresInMillis) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("admin")
+                .jwtID(jti)
+                .expirationTime(new Date(System.currentTimeMillis() + expiresInMillis))
+                .build();
+        return sign(claims);
+    }
+
+    private static SignedJWT sign(JWTClaimsSet claims) {
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+        try {
+            signedJWT.sign(signer);
+        } catch (JOSEException e) {
+            throw new AssertionError(e);
+        }
+        return signedJWT;
+    }
+
+    private static JWTClaimsSet getClaims(SignedJWT signedJWT) {
+        try {
+            return signedJWT.getJWTClaimsSet();
+        } catch (ParseException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+import org.wso2.apk.enforcer.util.JWKSFetcher;
+import org.wso2.apk.enforcer.util.JWKSResponse;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JWKSKeyStoreTest {
+
+    private JWKSKeyStore keyStore;
+
+    @After
+    public void tearDown() {
+        if (keyStore != null) {
+            keyStore.close();
+        }
+    }
+
+    @Test
+    public void testUnknownKeyIDRefreshesKeys() throws Exception {
+        RSAKey key1 = new RSAKeyGenerator(2048).keyID("key1").generate();
+        ECKey key2 = new ECKeyGenerator(Curve.P_256).keyID("key2").generate();
+        StubFetcher fetcher = new StubFetcher(key1);
+        keyStore = new JWKSKeyStore("https://idp.example.com", fetcher, 0);
+        PublicKey loaded = awaitInitialLoad(fetcher, "key1");
+        Assert.assertEquals(key1.toRSAPublicKey(), loaded);
+        int fetches = fetcher.fetches.get();
+
+        // The issuer rotates its keys. The first token signed with the new key triggers a fetch.
+        fetcher.setKeys(key1, key2);
+        Assert.assertEquals(key2.toECPublicKey(), keyStore.getKey("key2"));
+        Assert.assertEquals(fetches + 1, fetcher.fetches.get());
+
+        // Known keys are served without fetching.
+        Assert.assertNotNull(keyStore.getKey("key1"));
+        Assert.assertNotNull(keyStore.getKey("key2"));
+        Assert.assertEquals(fetches + 1, fetcher.fetches.get());
+    }
+
+    @Test
+    public void testUnknownKeyIDFetchesAreRateLimited() throws Exception {
+        JWK key1 = new RSAKeyGenerator(2048).keyID("key1").generate();
+        JWK key2 = new RSAKeyGenerator(2048).keyID("key2").generate();
+        StubFetcher fetcher = new StubFetcher(key1);
+        keyStore = new JWKSKeyStore("https://idp.example.com", fetcher, TimeUnit.HOURS.toNanos(1));
+        awaitInitialLoad(fetcher, "key1");
+        int fetches = fetcher.fetches.get();
+
+        fetcher.setKeys(key1, key2);
+        // The keys were fetched within the interval, so unknown key IDs do not trigger another fetch.
+        Assert.assertNull(keyStore.getKey("key2"));
+        Assert.assertNull(keyStore.getKey("unknown"));
+        Assert.assertEquals(fetches, fetcher.fetches.get());
+    }
+
+    @Test
+    public void testFetchFailureIsReported() throws Exception {
+        StubFetcher fetcher = new StubFetcher();
+        fetcher.failing = true;
+        keyStore = new JWKSKeyStore("https://idp.example.com", fetcher, 0);
+        try {
+            keyStore.getKey("key1");
+            Assert.fail("Expected the fetch failure to be reported");
+        } catch (EnforcerException e) {
+            Assert.assertTrue(e.getMessage().contains("https://idp.example.com"));
+        }
+    }
+
+    @Test
+    public void testSlowFetchFailsUnknownKeyIDFast() throws Exception {
+        RSAKey key1 = new RSAKeyGenerator(2048).keyID("key1").generate();
+        StubFetcher fetcher = new StubFetcher(key1);
+        fetcher.release = new CountDownLatch(1);
+        keyStore = new JWKSKeyStore("https://idp.example.com", fetcher, 0);
+        long start = System.nanoTime();
+        try {
+            keyStore.getKey("key1");
+            Assert.fail("Expected the fetch to time out");
+        } catch (EnforcerException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Timed out"));
+        }
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue("Waited " + waitedMillis + " ms", waitedMillis < JWKSKeyStore.UNKNOWN_KEY_FETCH_TIMEOUT * 2);
+
+        // The fetch carries on in the background.
+        fetcher.release.countDown();
+        Assert.assertEquals(key1.toRSAPublicKey(), awaitInitialLoad(fetcher, "key1"));
+    }
+
+    @Test
+    public void testSlowIssuerDoesNotBlockOtherIssuers() throws Exception {
+        StubFetcher slowFetcher = new StubFetcher(new RSAKeyGenerator(2048).keyID("key1").generate());
+        slowFetcher.release = new CountDownLatch(1);
+        JWKSKeyStore slowKeyStore = new JWKSKeyStore("https://slow.example.com", slowFetcher, 0);
+        try {
+            RSAKey key2 = new RSAKeyGenerator(2048).keyID("key2").generate();
+            StubFetcher fetcher = new StubFetcher(key2);
+            // Unknown key IDs do not trigger a fetch, so the keys can only be loaded in the background.
+            keyStore = new JWKSKeyStore("https://idp.example.com", fetcher, TimeUnit.HOURS.toNanos(1));
+            Assert.assertEquals(key2.toRSAPublicKey(), awaitInitialLoad(fetcher, "key2"));
+        } finally {
+            slowFetcher.release.countDown();
+            slowKeyStore.close();
+        }
+    }
+
+    @Test
+    public void testCloseCancelsRefresh() throws Exception {
+        RSAKey key1 = new RSAKeyGenerator(2048).keyID("key1").generate();
+        StubFetcher fetcher = new StubFetcher(key1);
+        keyStore = new JWKSKeyStore("https://idp.example.com", fetcher, 0);
+        awaitInitialLoad(fetcher, "key1");
+        Assert.assertTrue(keyStore.isRefreshScheduled());
+
+        keyStore.close();
+        Assert.assertFalse(keyStore.isRefreshScheduled());
+        // The keys fetched before closing are still served to the requests in flight.
+        Assert.assertEquals(key1.toRSAPublicKey(), keyStore.getKey("key1"));
+    }
+
+    private PublicKey awaitInitialLoad(StubFetcher fetcher, String keyID) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        // Wait for the load ahead of the first request, so that it does not race with the fetches of the test.
+        while (fetcher.fetches.get() == 0) {
+            Assert.assertTrue("Keys were not loaded", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        PublicKey key = keyStore.getKey(keyID);
+        while (key == null) {
+            Assert.assertTrue("Keys were not loaded", System.nanoTime() < deadline);
+            Thread.sleep(10);
+            key = keyStore.getKey(keyID);
+        }
+        return key;
+    }
+
+    private static class StubFetcher implements JWKSFetcher {
+
+        private final AtomicInteger fetches = new AtomicInteger();
+        private volatile List<JWK> keys;
+        private volatile boolean failing;
+        private volatile CountDownLatch release;
+
+        StubFetcher(JWK... keys) {
+            setKeys(keys);
+        }
+
+        void setKeys(JWK... keys) {
+            this.keys = new ArrayList<>(Arrays.asList(keys));
+        }
+
+        @Override
+        public JWKSResponse fetchJWKSet() throws EnforcerException {
+            fetches.incrementAndGet();
+            CountDownLatch latch = release;
+            if (latch != null) {
+                try {
+                    latch.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new EnforcerException("Error occurred when calling JWKS Endpoint");
+            }
+            return new JWKSResponse(new JWKSet(keys).toPublicJWKSet(), -1);
+        }
+    }
+}
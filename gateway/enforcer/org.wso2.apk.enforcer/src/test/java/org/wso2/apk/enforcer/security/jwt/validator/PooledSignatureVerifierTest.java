@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PooledSignatureVerifierTest {
+
+    @Test
+    public void testRS256RoundTrip() throws Exception {
+        KeyPair keyPair = generateRSAKeyPair();
+        SignedJWT jwt = sign(new RSASSASigner((RSAPrivateKey) keyPair.getPrivate()), JWSAlgorithm.RS256);
+        JWSVerifier nimbus = new RSASSAVerifier((RSAPublicKey) keyPair.getPublic());
+        JWSVerifier pooled = new PooledSignatureVerifier(keyPair.getPublic(), JWSAlgorithm.RS256);
+
+        Assert.assertTrue(verify(jwt, nimbus));
+        Assert.assertTrue(verify(jwt, pooled));
+        // Verifying again reuses the pooled signature of this thread.
+        Assert.assertTrue(verify(jwt, pooled));
+    }
+
+    @Test
+    public void testRS256WrongKey() throws Exception {
+        SignedJWT jwt = sign(new RSASSASigner((RSAPrivateKey) generateRSAKeyPair().getPrivate()),
+                JWSAlgorithm.RS256);
+        KeyPair other = generateRSAKeyPair();
+
+        Assert.assertFalse(verify(jwt, new RSASSAVerifier((RSAPublicKey) other.getPublic())));
+        Assert.assertFalse(verify(jwt, new PooledSignatureVerifier(other.getPublic(), JWSAlgorithm.RS256)));
+    }
+
+    @Test
+    public void testES256RoundTrip() throws Exception {
+        KeyPair keyPair = generateECKeyPair();
+        SignedJWT jwt = sign(new ECDSASigner((ECPrivateKey) keyPair.getPrivate()), JWSAlgorithm.ES256);
+        JWSVerifier nimbus = new ECDSAVerifier((ECPublicKey) keyPair.getPublic());
+        JWSVerifier pooled = new PooledSignatureVerifier(keyPair.getPublic(), JWSAlgorithm.ES256);
+
+        // The JWS signature is the R || S concatenation, which the pooled verifier transcodes to DER.
+        Assert.assertEquals(64, jwt.getSignature().decode().length);
+        Assert.assertTrue(verify(jwt, nimbus));
+        Assert.assertTrue(verify(jwt, pooled));
+        Assert.assertTrue(verify(jwt, pooled));
+    }
+
+    @Test
+    public void testES256TamperedSignature() throws Exception {
+        KeyPair keyPair = generateECKeyPair();
+        SignedJWT jwt = sign(new ECDSASigner((ECPrivateKey) keyPair.getPrivate()), JWSAlgorithm.ES256);
+        JWSVerifier nimbus = new ECDSAVerifier((ECPublicKey) keyPair.getPublic());
+        JWSVerifier pooled = new PooledSignatureVerifier(keyPair.getPublic(), JWSAlgorithm.ES256);
+
+        byte[] signature = jwt.getSignature().decode();
+        byte[] tampered = signature.clone();
+        tampered[10] ^= 1;
+        assertVerifiersAgree(jwt, tampered, nimbus, pooled, false);
+
+        byte[] zeroR = signature.clone();
+        Arrays.fill(zeroR, 0, 32, (byte) 0);
+        assertVerifiersAgree(jwt, zeroR, nimbus, pooled, false);
+
+        byte[] truncated = Arrays.copyOf(signature, 63);
+        assertVerifiersAgree(jwt, truncated, nimbus, pooled, false);
+    }
+
+    @Test
+    public void testMismatchedHeaderAlgorithmIsRejected() throws Exception {
+        KeyPair keyPair = generateRSAKeyPair();
+        SignedJWT jwt = sign(new RSASSASigner((RSAPrivateKey) keyPair.getPrivate()), JWSAlgorithm.RS384);
+        JWSVerifier pooled = new PooledSignatureVerifier(keyPair.getPublic(), JWSAlgorithm.RS256);
+        try {
+            jwt.verify(pooled);
+            Assert.fail("Expected the RS384 token to be rejected by an RS256 verifier");
+        } catch (JOSEException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCriticalHeaderIsRejected() throws Exception {
+        KeyPair rsa = generateRSAKeyPair();
+        SignedJWT rsaJWT = signWithCriticalHeader(new RSASSASigner((RSAPrivateKey) rsa.getPrivate()),
+                JWSAlgorithm.RS256);
+        Assert.assertFalse(verify(rsaJWT, new RSASSAVerifier((RSAPublicKey) rsa.getPublic())));
+        Assert.assertFalse(verify(rsaJWT, new PooledSignatureVerifier(rsa.getPublic(), JWSAlgorithm.RS256)));
+
+        KeyPair ec = generateECKeyPair();
+        SignedJWT ecJWT = signWithCriticalHeader(new ECDSASigner((ECPrivateKey) ec.getPrivate()),
+                JWSAlgorithm.ES256);
+        Assert.assertFalse(verify(ecJWT, new ECDSAVerifier((ECPublicKey) ec.getPublic())));
+        Assert.assertFalse(verify(ecJWT, new PooledSignatureVerifier(ec.getPublic(), JWSAlgorithm.ES256)));
+    }
+
+    @Test
+    public void testMismatchedCurveIsRejected() throws Exception {
+        KeyPair p384 = generateECKeyPair("secp384r1");
+        Assert.assertFalse(PooledSignatureVerifier.isSupported(p384.getPublic(), JWSAlgorithm.ES256));
+        Assert.assertFalse(PooledSignatureVerifier.isSupported(p384.getPublic(), JWSAlgorithm.ES512));
+        Assert.assertTrue(PooledSignatureVerifier.isSupported(p384.getPublic(), JWSAlgorithm.ES384));
+        try {
+            new PooledSignatureVerifier(p384.getPublic(), JWSAlgorithm.ES256);
+            Assert.fail("Expected a P-384 key to be rejected for ES256");
+        } catch (JOSEException e) {
+            // expected
+        }
+
+        SignedJWT jwt = sign(new ECDSASigner((ECPrivateKey) p384.getPrivate()), JWSAlgorithm.ES384);
+        Assert.assertTrue(verify(jwt, new PooledSignatureVerifier(p384.getPublic(), JWSAlgorithm.ES384)));
+    }
+
+    @Test
+    public void testIsSupported() throws Exception {
+        KeyPair rsa = generateRSAKeyPair();
+        KeyPair ec = generateECKeyPair();
+        Assert.assertTrue(PooledSignatureVerifier.isSupported(rsa.getPublic(), JWSAlgorithm.RS512));
+        Assert.assertFalse(PooledSignatureVerifier.isSupported(rsa.getPublic(), JWSAlgorithm.PS256));
+        Assert.assertFalse(PooledSignatureVerifier.isSupported(rsa.getPublic(), JWSAlgorithm.ES256));
+        Assert.assertTrue(PooledSignatureVerifier.isSupported(ec.getPublic(), JWSAlgorithm.ES256));
+        Assert.assertFalse(PooledSignatureVerifier.isSupported(ec.getPublic(), JWSAlgorithm.RS256));
+    }
+
+    private static void assertVerifiersAgree(SignedJWT jwt, byte[] signature, JWSVerifier nimbus,
+                                             JWSVerifier pooled, boolean expected) throws Exception {
+        SignedJWT modified = new SignedJWT(jwt.getHeader().toBase64URL(), jwt.getPayload().toBase64URL(),
+                Base64URL.encode(signature));
+        Assert.assertEquals(expected, verify(modified, nimbus));
+        Assert.assertEquals(expected, verify(modified, pooled));
+    }
+
+    private static boolean verify(SignedJWT jwt, JWSVerifier verifier) throws Exception {
+        // Parse the serialized token again, as a SignedJWT only verifies once.
+        return SignedJWT.parse(jwt.serialize()).verify(verifier);
+    }
+
+    private static SignedJWT sign(JWSSigner signer, JWSAlgorithm algorithm) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder().subject("admin").issuer("https://localhost:9443")
+                .jwtID("3a6f1d0e").build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(algorithm).keyID("key1").build(), claims);
+        jwt.sign(signer);
+        return jwt;
+    }
+
+    private static SignedJWT signWithCriticalHeader(JWSSigner signer, JWSAlgorithm algorithm) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder().subject("admin").issuer("https://localhost:9443").build();
+        JWSHeader header = new JWSHeader.Builder(algorithm).keyID("key1")
+                .criticalParams(Collections.singleton("example.com/policy"))
+                .customParam("example.com/policy", "strict").build();
+        SignedJWT jwt = new SignedJWT(header, claims);
+        jwt.sign(signer);
+        return jwt;
+    }
+
+    private static KeyPair generateRSAKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static KeyPair generateECKeyPair() throws Exception {
+        return generateECKeyPair("secp256r1");
+    }
+
+    private static KeyPair generateECKeyPair(String curve) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(curve));
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.google.protobuf.Any;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.discovery.RevokedTokenDiscoveryClient;
+import org.wso2.apk.enforcer.discovery.keymgt.RevokedToken;
+
+import java.util.concurrent.TimeUnit;
+
+public class RevokedJWTDataHolderTest {
+
+    private static final long EXPIRY_TIME = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void testWarmStartRestoresEveryBatch() throws Exception {
+        RevokedJWTDataHolder holder = new RevokedJWTDataHolder();
+        DiscoveryResponse firstBatch = response("1", "jti-1", "jti-2");
+        DiscoveryResponse secondBatch = response("2", "jti-3");
+        holder.addRevokedJWTs(RevokedTokenDiscoveryClient.getRevokedJWTs(firstBatch));
+        holder.addRevokedJWTs(RevokedTokenDiscoveryClient.getRevokedJWTs(secondBatch));
+
+        DiscoveryResponse snapshot = RevokedTokenDiscoveryClient.createSnapshotResponse(
+                secondBatch.getVersionInfo(), holder.getRevokedJWTMap());
+        DiscoveryResponse restored = DiscoveryResponse.parseFrom(snapshot.toByteArray());
+        Assert.assertEquals("2", restored.getVersionInfo());
+
+        RevokedJWTDataHolder restarted = new RevokedJWTDataHolder();
+        restarted.addRevokedJWTs(RevokedTokenDiscoveryClient.getRevokedJWTs(restored));
+        Assert.assertTrue(restarted.isRevoked("jti-1"));
+        Assert.assertTrue(restarted.isRevoked("jti-2"));
+        Assert.assertTrue(restarted.isRevoked("jti-3"));
+        Assert.assertFalse(restarted.isRevoked("jti-4"));
+        Assert.assertEquals(holder.getRevokedJWTMap(), restarted.getRevokedJWTMap());
+
+        // The last batch alone would not reject the tokens of the first one.
+        RevokedJWTDataHolder lastBatchOnly = new RevokedJWTDataHolder();
+        lastBatchOnly.addRevokedJWTs(RevokedTokenDiscoveryClient.getRevokedJWTs(secondBatch));
+        Assert.assertFalse(lastBatchOnly.isRevoked("jti-1"));
+    }
+
+    @Test
+    public void testAdapterBatchesAreAddedToTheRestoredTokens() throws Exception {
+        RevokedJWTDataHolder holder = new RevokedJWTDataHolder();
+        DiscoveryResponse restored = RevokedTokenDiscoveryClient.createSnapshotResponse("2",
+                RevokedTokenDiscoveryClient.getRevokedJWTs(response("2", "jti-1")));
+        holder.addRevokedJWTs(RevokedTokenDiscoveryClient.getRevokedJWTs(restored));
+        holder.addRevokedJWTs(RevokedTokenDiscoveryClient.getRevokedJWTs(response("3", "jti-2")));
+        Assert.assertTrue(holder.isRevoked("jti-1"));
+        Assert.assertTrue(holder.isRevoked("jti-2"));
+    }
+
+    @Test
+    public void testNullIsNotRevoked() {
+        Assert.assertFalse(new RevokedJWTDataHolder().isRevoked(null));
+    }
+
+    private static DiscoveryResponse response(String version, String... jtis) {
+        DiscoveryResponse.Builder response = DiscoveryResponse.newBuilder().setVersionInfo(version);
+        for (String jti : jtis) {
+            response.addResources(Any.pack(RevokedToken.newBuilder().setJti(jti).setExpirytime(EXPIRY_TIME).build()));
+        }
+        return response.build();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.discovery.keymgt.RevokedToken;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class RevokedJWTSnapshotTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    public void testRevokedJWTIsFound() {
+        RevokedJWTSnapshot snapshot = RevokedJWTSnapshot.EMPTY.merge(
+                Collections.singletonMap("jti-1", NOW + TimeUnit.HOURS.toMillis(1)), NOW);
+        Assert.assertTrue(snapshot.contains("jti-1"));
+        Assert.assertFalse(snapshot.contains("jti-2"));
+        Assert.assertFalse(RevokedJWTSnapshot.EMPTY.contains("jti-1"));
+    }
+
+    @Test
+    public void testManyRevokedJWTsHaveNoFalsePositives() {
+        Map<String, Long> revokedJWTs = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            revokedJWTs.put("revoked-" + i, 0L);
+        }
+        RevokedJWTSnapshot snapshot = RevokedJWTSnapshot.EMPTY.merge(revokedJWTs, NOW);
+        for (int i = 0; i < 10_000; i++) {
+            Assert.assertTrue(snapshot.contains("revoked-" + i));
+            Assert.assertFalse(snapshot.contains("active-" + i));
+        }
+    }
+
+    @Test
+    public void testMergeKeepsExistingRevokedJWTs() {
+        RevokedJWTSnapshot first = RevokedJWTSnapshot.EMPTY.merge(Collections.singletonMap("jti-1", 0L), NOW);
+        RevokedJWTSnapshot second = first.merge(Collections.singletonMap("jti-2", 0L), NOW);
+        Assert.assertTrue(second.contains("jti-1"));
+        Assert.assertTrue(second.contains("jti-2"));
+        Assert.assertEquals(2, second.getRevokedJWTMap().size());
+        // The previous snapshot is not changed.
+        Assert.assertFalse(first.contains("jti-2"));
+    }
+
+    @Test
+    public void testUnchangedSnapshotIsKept() {
+        RevokedJWTSnapshot snapshot = RevokedJWTSnapshot.EMPTY.merge(Collections.singletonMap("jti-1", 0L), NOW);
+        Assert.assertSame(snapshot, snapshot.compact(NOW));
+        Assert.assertSame(snapshot, snapshot.merge(Collections.singletonMap("jti-2", NOW - 1), NOW));
+    }
+
+    @Test
+    public void testExpiredJWTsAreCompacted() {
+        Map<String, Long> revokedJWTs = new HashMap<>();
+        revokedJWTs.put("expires-soon", NOW + TimeUnit.MINUTES.toMillis(1));
+        revokedJWTs.put("expires-later", NOW + TimeUnit.HOURS.toMillis(1));
+        revokedJWTs.put("never-expires", 0L);
+        RevokedJWTSnapshot snapshot = RevokedJWTSnapshot.EMPTY.merge(revokedJWTs, NOW);
+        Assert.assertEquals(3, snapshot.getRevokedJWTMap().size());
+
+        RevokedJWTSnapshot compacted = snapshot.compact(NOW + TimeUnit.MINUTES.toMillis(2));
+        Assert.assertFalse(compacted.contains("expires-soon"));
+        Assert.assertTrue(compacted.contains("expires-later"));
+        Assert.assertTrue(compacted.contains("never-expires"));
+    }
+
+    @Test
+    public void testExpiryTimeInSecondsOrMilliseconds() {
+        Map<String, Long> revokedJWTs = new HashMap<>();
+        revokedJWTs.put("seconds", TimeUnit.MILLISECONDS.toSeconds(NOW) + 60);
+        revokedJWTs.put("milliseconds", NOW + TimeUnit.SECONDS.toMillis(60));
+        revokedJWTs.put("expired-seconds", TimeUnit.MILLISECONDS.toSeconds(NOW) - 60);
+        RevokedJWTSnapshot snapshot = RevokedJWTSnapshot.EMPTY.merge(revokedJWTs, NOW);
+        Assert.assertTrue(snapshot.contains("seconds"));
+        Assert.assertTrue(snapshot.contains("milliseconds"));
+        Assert.assertFalse(snapshot.contains("expired-seconds"));
+        // Both are held in milliseconds.
+        Assert.assertEquals(NOW + TimeUnit.SECONDS.toMillis(60), (long) snapshot.getRevokedJWTMap().get("seconds"));
+        Assert.assertEquals(NOW + TimeUnit.SECONDS.toMillis(60),
+                (long) snapshot.getRevokedJWTMap().get("milliseconds"));
+
+        Assert.assertEquals(2, snapshot.compact(NOW + TimeUnit.SECONDS.toMillis(59)).getRevokedJWTMap().size());
+        Assert.assertTrue(snapshot.compact(NOW + TimeUnit.SECONDS.toMillis(61)).getRevokedJWTMap().isEmpty());
+    }
+
+    @Test
+    public void testRevocationWithTheExpiryOfARealJWT() throws InvalidProtocolBufferException {
+        long now = System.currentTimeMillis();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .jwtID("2a1f3c4d-revoked")
+                .subject("admin")
+                .expirationTime(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .build();
+        // The expiry time as it is serialized in the payload of the JWT, which is in seconds.
+        long exp = ((Number) claims.toJSONObject().get("exp")).longValue();
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toSeconds(now) + TimeUnit.HOURS.toSeconds(1), exp);
+
+        for (long expiryTime : new long[]{exp, TimeUnit.SECONDS.toMillis(exp)}) {
+            RevokedToken revokedToken = RevokedToken.parseFrom(RevokedToken.newBuilder()
+                    .setJti(claims.getJWTID()).setExpirytime(expiryTime).build().toByteArray());
+            RevokedJWTSnapshot snapshot = RevokedJWTSnapshot.EMPTY.merge(
+                    Collections.singletonMap(revokedToken.getJti(), revokedToken.getExpirytime()), now);
+            // The revocation is kept until the JWT expires, and is compacted afterwards.
+            Assert.assertTrue(snapshot.compact(now + TimeUnit.MINUTES.toMillis(59)).contains("2a1f3c4d-revoked"));
+            Assert.assertFalse(snapshot.compact(now + TimeUnit.MINUTES.toMillis(61)).contains("2a1f3c4d-revoked"));
+        }
+    }
+
+    @Test
+    public void testExpiredJWTsAreNotAdded() {
+        RevokedJWTSnapshot snapshot = RevokedJWTSnapshot.EMPTY.merge(Collections.singletonMap("jti-1", NOW - 1), NOW);
+        Assert.assertFalse(snapshot.contains("jti-1"));
+        Assert.assertTrue(snapshot.getRevokedJWTMap().isEmpty());
+    }
+
+    @Test
+    public void testNullEntriesAreSkipped() {
+        Map<String, Long> revokedJWTs = new HashMap<>();
+        revokedJWTs.put(null, 0L);
+        revokedJWTs.put("jti-1", null);
+        revokedJWTs.put("jti-2", 0L);
+        RevokedJWTSnapshot snapshot = RevokedJWTSnapshot.EMPTY.merge(revokedJWTs, NOW);
+        Assert.assertEquals(Collections.singletonMap("jti-2", 0L), snapshot.getRevokedJWTMap());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRevokedJWTMapIsUnmodifiable() {
+        RevokedJWTSnapshot.EMPTY.merge(Collections.singletonMap("jti-1", 0L), NOW).getRevokedJWTMap()
+                .put("jti-2", 0L);
+    }
+}
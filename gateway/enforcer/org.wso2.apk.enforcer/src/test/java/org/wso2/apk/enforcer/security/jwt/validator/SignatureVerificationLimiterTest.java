@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.jwt.validator;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.exception.EnforcerException;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SignatureVerificationLimiterTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes();
+
+    @Test
+    public void testUnlimitedVerification() throws Exception {
+        SignatureVerificationLimiter limiter = new SignatureVerificationLimiter(0, 0);
+        Assert.assertTrue(limiter.verifyWithPermit(sign(), new MACVerifier(SECRET)));
+    }
+
+    @Test
+    public void testVerificationIsShedWhenSaturated() throws Exception {
+        SignatureVerificationLimiter limiter = new SignatureVerificationLimiter(1, 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SignedJWT blockedJwt = sign();
+        Thread holder = new Thread(() -> {
+            try {
+                limiter.verifyWithPermit(blockedJwt, new BlockingVerifier(started, release));
+            } catch (EnforcerException e) {
+                // ignored
+            }
+        });
+        holder.start();
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        try {
+            limiter.verifyWithPermit(sign(), new MACVerifier(SECRET));
+            Assert.fail("Expected the verification to be shed while the only permit is held");
+        } catch (SignatureVerificationOverloadedException e) {
+            Assert.assertEquals("JWT signature verification is overloaded", e.getMessage());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        // The permit is released once the blocked verification completes.
+        Assert.assertTrue(limiter.verifyWithPermit(sign(), new MACVerifier(SECRET)));
+    }
+
+    private static SignedJWT sign() throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256),
+                new JWTClaimsSet.Builder().subject("admin").build());
+        jwt.sign(new MACSigner(SECRET));
+        return jwt;
+    }
+
+    private static class BlockingVerifier implements JWSVerifier {
+
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingVerifier(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return Collections.singleton(JWSAlgorithm.HS256);
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return new JCAContext();
+        }
+    }
+}
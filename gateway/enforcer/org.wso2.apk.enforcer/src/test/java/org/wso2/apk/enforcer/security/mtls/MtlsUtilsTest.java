@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.security.mtls;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.model.APIConfig;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class MtlsUtilsTest {
+
+    private static X509Certificate trustedCertificate;
+    private static X509Certificate untrustedCertificate;
+    private static KeyStore trustStore;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        List<X509Certificate> certificates = new ArrayList<>();
+        CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+        try (InputStream in = MtlsUtilsTest.class.getResourceAsStream("/certs/certWithTwoCerts.pem")) {
+            for (Certificate certificate : certificateFactory.generateCertificates(in)) {
+                certificates.add((X509Certificate) certificate);
+            }
+        }
+        trustedCertificate = certificates.get(0);
+        untrustedCertificate = certificates.get(1);
+        trustStore = KeyStore.getInstance("JKS");
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry("client1", trustedCertificate);
+    }
+
+    @Test
+    public void testAliasesAreNotIndexedByDefault() {
+        Assert.assertNull(new APIConfig.Builder("PetStore").build().getMtlsCertificateAliases());
+    }
+
+    @Test
+    public void testCertificateAliasFromIndex() throws Exception {
+        Map<String, String> aliases = MtlsUtils.createCertificateAliasIndex(trustStore);
+        Assert.assertEquals(Collections.singletonMap(MtlsUtils.getFingerprint(trustedCertificate), "client1"),
+                aliases);
+        Assert.assertEquals("client1", getCertificateAlias(trustedCertificate, aliases, null));
+        Assert.assertNull(getCertificateAlias(untrustedCertificate, aliases, null));
+        // An index of an empty truststore matches no certificate, without scanning the truststore.
+        Assert.assertNull(getCertificateAlias(trustedCertificate, Collections.emptyMap(), trustStore));
+    }
+
+    @Test
+    public void testCertificateAliasFromTrustStoreWithoutIndex() throws Exception {
+        Assert.assertEquals("client1", getCertificateAlias(trustedCertificate, null, trustStore));
+        Assert.assertNull(getCertificateAlias(untrustedCertificate, null, trustStore));
+        Assert.assertNull(getCertificateAlias(trustedCertificate, null, null));
+    }
+
+    private static String getCertificateAlias(X509Certificate certificate, Map<String, String> aliases,
+                                              KeyStore trustStore) throws Exception {
+        return MtlsUtils.getCertificateAlias(certificate, MtlsUtils.getFingerprint(certificate), aliases,
+                trustStore);
+    }
+}
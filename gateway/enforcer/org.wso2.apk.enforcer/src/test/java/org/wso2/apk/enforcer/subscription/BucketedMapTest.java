@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.subscription;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class BucketedMapTest {
+
+    @Test
+    public void testCopyMatchesSourceMap() {
+        Map<String, Integer> source = createMap(1000);
+        source.put(null, -1);
+        BucketedMap<String, Integer> map = BucketedMap.copyOf(source);
+        Assert.assertEquals(source, map);
+        Assert.assertEquals(source.hashCode(), map.hashCode());
+        Assert.assertEquals(-1, (int) map.get(null));
+        Assert.assertFalse(map.containsKey("key-unknown"));
+        Assert.assertSame(map, BucketedMap.copyOf(map));
+        Assert.assertTrue(BucketedMap.copyOf(Collections.emptyMap()).isEmpty());
+    }
+
+    @Test
+    public void testUpdatesMatchHashMap() {
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+        BucketedMap<String, Integer> map = BucketedMap.copyOf(expected);
+        // Grow well past and shrink back below the sizes the buckets are redistributed at.
+        for (int round = 0; round < 250; round++) {
+            BucketedMap.Updater<String, Integer> updater = map.update();
+            for (int i = 0; i < 100; i++) {
+                String key = "key-" + random.nextInt(5000);
+                if (round >= 100 || random.nextInt(4) == 0) {
+                    Assert.assertEquals(expected.remove(key), updater.remove(key));
+                } else {
+                    Assert.assertEquals(expected.put(key, i), updater.put(key, i));
+                }
+            }
+            map = updater.build();
+            Assert.assertEquals(expected, map);
+            Assert.assertEquals(expected.size(), map.size());
+        }
+    }
+
+    @Test
+    public void testUpdateDoesNotChangeOriginal() {
+        Map<String, Integer> source = createMap(100);
+        BucketedMap<String, Integer> original = BucketedMap.copyOf(source);
+        BucketedMap.Updater<String, Integer> updater = original.update();
+        updater.put("key-new", 1);
+        updater.remove("key-0");
+        updater.put("key-1", -1);
+        BucketedMap<String, Integer> updated = updater.build();
+
+        Assert.assertEquals(source, original);
+        Assert.assertEquals(100, updated.size());
+        Assert.assertEquals(1, (int) updated.get("key-new"));
+        Assert.assertFalse(updated.containsKey("key-0"));
+        Assert.assertEquals(-1, (int) updated.get("key-1"));
+    }
+
+    @Test
+    public void testUnchangedMapIsReused() {
+        BucketedMap<String, Integer> map = BucketedMap.copyOf(createMap(10));
+        BucketedMap.Updater<String, Integer> updater = map.update();
+        Assert.assertNull(updater.remove("key-unknown"));
+        Assert.assertSame(map, updater.build());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMapIsUnmodifiable() {
+        BucketedMap.copyOf(createMap(10)).put("key-new", 1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testEntriesAreUnmodifiable() {
+        BucketedMap.copyOf(createMap(10)).entrySet().iterator().next().setValue(1);
+    }
+
+    private static Map<String, Integer> createMap(int size) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put("key-" + i, i);
+        }
+        return map;
+    }
+}
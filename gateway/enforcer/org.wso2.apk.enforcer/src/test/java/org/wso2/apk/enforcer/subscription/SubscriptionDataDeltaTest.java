@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.models.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class SubscriptionDataDeltaTest {
+
+    @Test
+    public void testAddUpdateAndRemove() {
+        SubscriptionSnapshot current = SubscriptionSnapshot.EMPTY.withSubscriptions(toMap(Arrays.asList(
+                subscription("sub-1", "app-1", "api-1", "ACTIVE"),
+                subscription("sub-2", "app-1", "api-2", "ACTIVE"),
+                subscription("sub-3", "app-2", "api-1", "ACTIVE"))));
+        List<Subscription> received = Arrays.asList(
+                subscription("sub-1", "app-1", "api-1", "ACTIVE"),
+                subscription("sub-2", "app-1", "api-2", "BLOCKED"),
+                subscription("sub-4", "app-3", "api-2", "ACTIVE"));
+
+        SubscriptionDataDelta<String, Subscription> delta = compute(received, current);
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(key("app-1", "api-2"), key("app-3", "api-2"))),
+                delta.getAddedOrUpdated().keySet());
+        Assert.assertEquals(Collections.singleton(key("app-2", "api-1")), delta.getRemoved());
+        Assert.assertEquals(3, delta.size());
+        Assert.assertEquals("BLOCKED", delta.getAddedOrUpdated().get(key("app-1", "api-2")).getSubscriptionState());
+    }
+
+    @Test
+    public void testUnchangedDataHasNoEvents() {
+        List<Subscription> received = Arrays.asList(
+                subscription("sub-1", "app-1", "api-1", "ACTIVE"),
+                subscription("sub-2", "app-1", "api-2", "ACTIVE"));
+        SubscriptionSnapshot current = SubscriptionSnapshot.EMPTY.withSubscriptions(toMap(received));
+        Assert.assertTrue(compute(received, current).isEmpty());
+    }
+
+    @Test
+    public void testEmptyResponseRemovesAll() {
+        SubscriptionSnapshot current = SubscriptionSnapshot.EMPTY.withSubscriptions(toMap(Arrays.asList(
+                subscription("sub-1", "app-1", "api-1", "ACTIVE"),
+                subscription("sub-2", "app-1", "api-2", "ACTIVE"))));
+        SubscriptionDataDelta<String, Subscription> delta = compute(Collections.emptyList(), current);
+        Assert.assertTrue(delta.getAddedOrUpdated().isEmpty());
+        Assert.assertEquals(current.getSubscriptionMap().keySet(), delta.getRemoved());
+    }
+
+    @Test
+    public void testDuplicateKeyLastEntryWins() {
+        SubscriptionSnapshot current = SubscriptionSnapshot.EMPTY.withSubscriptions(toMap(Collections.singletonList(
+                subscription("sub-1", "app-1", "api-1", "ACTIVE"))));
+        List<Subscription> received = Arrays.asList(
+                subscription("sub-1", "app-1", "api-1", "ACTIVE"),
+                subscription("sub-1", "app-1", "api-1", "BLOCKED"));
+        SubscriptionDataDelta<String, Subscription> delta = compute(received, current);
+        Assert.assertEquals("BLOCKED", delta.getAddedOrUpdated().get(key("app-1", "api-1")).getSubscriptionState());
+        Assert.assertEquals("BLOCKED", toMap(received).get(key("app-1", "api-1")).getSubscriptionState());
+    }
+
+    @Test
+    public void testDeltaMatchesFullRebuild() {
+        List<Subscription> initial = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            initial.add(subscription("sub-" + i, "app-" + (i % 7), "api-" + (i % 5), "ACTIVE"));
+        }
+        SubscriptionSnapshot current = SubscriptionSnapshot.EMPTY.withSubscriptions(toMap(initial));
+        List<Subscription> received = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            if (i % 10 == 3) {
+                // removed
+                continue;
+            }
+            received.add(subscription("sub-" + i, "app-" + (i % 7), "api-" + (i % 5),
+                    i % 10 == 5 ? "BLOCKED" : "ACTIVE"));
+        }
+        for (int i = 50; i < 55; i++) {
+            received.add(subscription("sub-" + i, "app-" + (i % 7), "api-new", "ACTIVE"));
+        }
+
+        SubscriptionSnapshot updated = current.withSubscriptionChanges(compute(received, current));
+        SubscriptionSnapshot rebuilt = SubscriptionSnapshot.EMPTY.withSubscriptions(toMap(received));
+
+        Assert.assertEquals(describe(rebuilt.getSubscriptionMap().values()),
+                describe(updated.getSubscriptionMap().values()));
+        for (int i = 0; i < 7; i++) {
+            Assert.assertEquals(describe(rebuilt.getSubscriptionsByAppUUID("app-" + i)),
+                    describe(updated.getSubscriptionsByAppUUID("app-" + i)));
+        }
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(describe(rebuilt.getSubscriptionsByApiUUID("api-" + i)),
+                    describe(updated.getSubscriptionsByApiUUID("api-" + i)));
+        }
+        Assert.assertEquals(5, updated.getSubscriptionsByApiUUID("api-new").size());
+    }
+
+    @Test
+    public void testRemovingLastEntryDropsIndexKey() {
+        SubscriptionSnapshot current = SubscriptionSnapshot.EMPTY.withSubscriptions(toMap(Arrays.asList(
+                subscription("sub-1", "app-1", "api-1", "ACTIVE"),
+                subscription("sub-2", "app-2", "api-1", "ACTIVE"))));
+        SubscriptionSnapshot updated = current.withSubscriptionChanges(compute(Collections.singletonList(
+                subscription("sub-2", "app-2", "api-1", "ACTIVE")), current));
+        Assert.assertTrue(updated.getSubscriptionsByAppUUID("app-1").isEmpty());
+        Assert.assertEquals(1, updated.getSubscriptionsByApiUUID("api-1").size());
+        // The list of the unaffected application is shared with the previous snapshot.
+        Assert.assertSame(current.getSubscriptionsByAppUUID("app-2"), updated.getSubscriptionsByAppUUID("app-2"));
+    }
+
+    private static SubscriptionDataDelta<String, Subscription> compute(List<Subscription> received,
+                                                                       SubscriptionSnapshot current) {
+        return SubscriptionDataDelta.compute(received, current.getSubscriptionMap(), Subscription::getCacheKey,
+                (entry, model) -> Objects.equals(entry.getSubscriptionId(), model.getSubscriptionId())
+                        && Objects.equals(entry.getSubscriptionState(), model.getSubscriptionState()),
+                entry -> subscription(entry.getSubscriptionId(), entry.getAppUUID(), entry.getApiUUID(),
+                        entry.getSubscriptionState()));
+    }
+
+    private static Map<String, Subscription> toMap(List<Subscription> subscriptions) {
+        Map<String, Subscription> map = new HashMap<>();
+        for (Subscription subscription : subscriptions) {
+            map.put(subscription.getCacheKey(), subscription);
+        }
+        return map;
+    }
+
+    private static Subscription subscription(String id, String appUUID, String apiUUID, String state) {
+        return SubscriptionSnapshotTest.createSubscription(id, appUUID, apiUUID, state);
+    }
+
+    private static String key(String appUUID, String apiUUID) {
+        return subscription(null, appUUID, apiUUID, null).getCacheKey();
+    }
+
+    private static List<String> describe(Iterable<Subscription> subscriptions) {
+        List<String> descriptions = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            descriptions.add(subscription.getSubscriptionId() + "/" + subscription.getAppUUID() + "/"
+                    + subscription.getApiUUID() + "/" + subscription.getSubscriptionState());
+        }
+        Collections.sort(descriptions);
+        return descriptions;
+    }
+}
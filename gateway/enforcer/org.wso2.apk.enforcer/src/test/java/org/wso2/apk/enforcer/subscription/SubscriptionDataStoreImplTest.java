@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.commons.jwttransformer.DefaultJWTTransformer;
+import org.wso2.apk.enforcer.discovery.subscription.JWTIssuer;
+import org.wso2.apk.enforcer.security.jwt.validator.JWKSKeyStore;
+import org.wso2.apk.enforcer.security.jwt.validator.JWTValidator;
+import org.wso2.apk.enforcer.util.JWKSResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SubscriptionDataStoreImplTest {
+
+    private static final String ORG_1 = "org-1";
+    private static final String ORG_2 = "org-2";
+    private static final String ISSUER_1 = "https://idp1.example.com";
+    private static final String ISSUER_2 = "https://idp2.example.com";
+
+    private final Map<String, List<JWKSKeyStore>> keyStores = new HashMap<>();
+    private final SubscriptionDataStoreImpl dataStore = new SubscriptionDataStoreImpl(tokenIssuer -> {
+        JWKSKeyStore keyStore = new JWKSKeyStore(tokenIssuer.getIssuer(),
+                () -> new JWKSResponse(new JWKSet(), -1));
+        keyStores.computeIfAbsent(tokenIssuer.getIssuer(), issuer -> new ArrayList<>()).add(keyStore);
+        return new JWTValidator(tokenIssuer, new DefaultJWTTransformer(), keyStore);
+    });
+
+    @After
+    public void tearDown() {
+        dataStore.addJWTIssuers(List.of());
+    }
+
+    @Test
+    public void testRemovedIssuerStopsRefreshingKeys() {
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1), issuer(ORG_1, ISSUER_2)));
+        JWKSKeyStore keyStore1 = keyStores.get(ISSUER_1).get(0);
+        JWKSKeyStore keyStore2 = keyStores.get(ISSUER_2).get(0);
+        Assert.assertTrue(keyStore1.isRefreshScheduled());
+        Assert.assertTrue(keyStore2.isRefreshScheduled());
+
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1)));
+
+        Assert.assertNotNull(dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_1));
+        Assert.assertNull(dataStore.getJWTValidatorByIssuer(ISSUER_2, ORG_1));
+        Assert.assertFalse(keyStore2.isRefreshScheduled());
+        // The remaining issuer is unchanged, so its key store keeps refreshing its keys.
+        Assert.assertTrue(keyStore1.isRefreshScheduled());
+    }
+
+    @Test
+    public void testUnchangedIssuerKeepsValidator() {
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1), issuer(ORG_2, ISSUER_1)));
+        JWTValidator validator1 = dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_1);
+        JWTValidator validator2 = dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_2);
+
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1), issuer(ORG_2, ISSUER_1), issuer(ORG_1, ISSUER_2)));
+
+        Assert.assertSame(validator1, dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_1));
+        Assert.assertSame(validator2, dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_2));
+        Assert.assertEquals(2, keyStores.get(ISSUER_1).size());
+        for (JWKSKeyStore keyStore : keyStores.get(ISSUER_1)) {
+            Assert.assertTrue(keyStore.isRefreshScheduled());
+        }
+    }
+
+    @Test
+    public void testChangedIssuerReplacesValidator() {
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1), issuer(ORG_1, ISSUER_2)));
+        JWTValidator validator1 = dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_1);
+        JWTValidator validator2 = dataStore.getJWTValidatorByIssuer(ISSUER_2, ORG_1);
+        JWKSKeyStore keyStore1 = keyStores.get(ISSUER_1).get(0);
+
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1).toBuilder().setConsumerKeyClaim("azp").build(),
+                issuer(ORG_1, ISSUER_2)));
+
+        Assert.assertNotSame(validator1, dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_1));
+        Assert.assertFalse(keyStore1.isRefreshScheduled());
+        Assert.assertTrue(keyStores.get(ISSUER_1).get(1).isRefreshScheduled());
+        Assert.assertSame(validator2, dataStore.getJWTValidatorByIssuer(ISSUER_2, ORG_1));
+        Assert.assertTrue(keyStores.get(ISSUER_2).get(0).isRefreshScheduled());
+    }
+
+    @Test
+    public void testDuplicateIssuerKeepsOneValidator() {
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1)));
+        JWTValidator validator = dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_1);
+
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1), issuer(ORG_1, ISSUER_1)));
+
+        Assert.assertSame(validator, dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_1));
+        Assert.assertEquals(1, keyStores.get(ISSUER_1).size());
+        Assert.assertTrue(keyStores.get(ISSUER_1).get(0).isRefreshScheduled());
+    }
+
+    @Test
+    public void testRemovedOrganizationStopsRefreshingKeys() {
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1), issuer(ORG_2, ISSUER_2)));
+        JWKSKeyStore keyStore2 = keyStores.get(ISSUER_2).get(0);
+
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1)));
+
+        Assert.assertNull(dataStore.getJWTValidatorByIssuer(ISSUER_2, ORG_2));
+        Assert.assertFalse(keyStore2.isRefreshScheduled());
+    }
+
+    @Test
+    public void testSameIssuerInOrganizationsHasSeparateValidators() {
+        dataStore.addJWTIssuers(List.of(issuer(ORG_1, ISSUER_1), issuer(ORG_2, ISSUER_1)));
+
+        Assert.assertNotSame(dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_1),
+                dataStore.getJWTValidatorByIssuer(ISSUER_1, ORG_2));
+        for (JWKSKeyStore keyStore : keyStores.get(ISSUER_1)) {
+            Assert.assertTrue(keyStore.isRefreshScheduled());
+        }
+    }
+
+    private static JWTIssuer issuer(String organization, String issuer) {
+        return JWTIssuer.newBuilder().setOrganization(organization).setIssuer(issuer).setName(issuer).build();
+    }
+}
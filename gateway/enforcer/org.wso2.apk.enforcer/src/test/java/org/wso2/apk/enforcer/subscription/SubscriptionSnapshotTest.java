@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.subscription;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.models.API;
+import org.wso2.apk.enforcer.models.Application;
+import org.wso2.apk.enforcer.models.ApplicationKeyMapping;
+import org.wso2.apk.enforcer.models.ApplicationKeyMappingCacheKey;
+import org.wso2.apk.enforcer.models.Subscription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class SubscriptionSnapshotTest {
+
+    @Test
+    public void testSubscriptionIndexesMatchScan() {
+        Map<String, Subscription> subscriptions = createSubscriptions(20, 5, 4);
+        SubscriptionSnapshot snapshot = SubscriptionSnapshot.EMPTY.withSubscriptions(subscriptions);
+        for (int app = 0; app < 6; app++) {
+            String appUUID = "app-" + app;
+            assertSameElements(scan(subscriptions.values(), s -> appUUID.equals(s.getAppUUID())),
+                    snapshot.getSubscriptionsByAppUUID(appUUID));
+        }
+        for (int api = 0; api < 5; api++) {
+            String apiUUID = "api-" + api;
+            assertSameElements(scan(subscriptions.values(), s -> apiUUID.equals(s.getApiUUID())),
+                    snapshot.getSubscriptionsByApiUUID(apiUUID));
+        }
+        Assert.assertTrue(snapshot.getSubscriptionsByAppUUID("app-unknown").isEmpty());
+    }
+
+    @Test
+    public void testKeyMappingIndexesMatchScan() {
+        Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> keyMappings = createKeyMappings(10);
+        SubscriptionSnapshot snapshot = SubscriptionSnapshot.EMPTY.withApplicationKeyMappings(keyMappings);
+        for (int i = 0; i < 10; i++) {
+            String consumerKey = "consumer-" + i;
+            String appUUID = "app-" + (i % 3);
+            assertSameElements(scan(keyMappings.values(), m -> consumerKey.equals(m.getConsumerKey())),
+                    snapshot.getKeyMappingsByConsumerKey(consumerKey));
+            assertSameElements(scan(keyMappings.values(), m -> appUUID.equals(m.getApplicationUUID())),
+                    snapshot.getKeyMappingsByAppUUID(appUUID));
+        }
+    }
+
+    @Test
+    public void testApplicationIndexMatchesScan() {
+        Map<String, Application> applications = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            applications.put("app-" + i, createApplication("app-" + i, "org-" + (i % 3)));
+        }
+        applications.put("app-no-org", createApplication("app-no-org", null));
+        SubscriptionSnapshot snapshot = SubscriptionSnapshot.EMPTY.withApplications(applications);
+        for (int org = 0; org < 3; org++) {
+            String organization = "org-" + org;
+            assertSameElements(scan(applications.values(), a -> organization.equals(a.getTenantDomain())),
+                    snapshot.getApplicationsByOrganization(organization));
+        }
+    }
+
+    @Test
+    public void testApiByContextAndVersion() {
+        Map<String, API> apis = new HashMap<>();
+        apis.put("api-1", createAPI("api-1", "/pizza", "1.0.0"));
+        apis.put("api-2", createAPI("api-2", "/pizza", "2.0.0"));
+        apis.put("api-3", createAPI("api-3", "/pizza:1.0", "0"));
+        SubscriptionSnapshot snapshot = SubscriptionSnapshot.EMPTY.withApis(apis);
+        Assert.assertSame(apis.get("api-1"), snapshot.getApiByContextAndVersion("/pizza", "1.0.0"));
+        Assert.assertSame(apis.get("api-2"), snapshot.getApiByContextAndVersion("/pizza", "2.0.0"));
+        Assert.assertNull(snapshot.getApiByContextAndVersion("/pizza", "3.0.0"));
+        Assert.assertNull(snapshot.getApiByContextAndVersion("/burger", "1.0.0"));
+    }
+
+    @Test
+    public void testUpdateCreatesNextGeneration() {
+        SubscriptionSnapshot first = SubscriptionSnapshot.EMPTY.withSubscriptions(createSubscriptions(4, 2, 2));
+        SubscriptionSnapshot second = first.withApplicationKeyMappings(createKeyMappings(3));
+        Assert.assertEquals(0, SubscriptionSnapshot.EMPTY.getGeneration());
+        Assert.assertEquals(1, first.getGeneration());
+        Assert.assertEquals(2, second.getGeneration());
+        // The earlier snapshot is not affected by the update.
+        Assert.assertTrue(first.getApplicationKeyMappingMap().isEmpty());
+        Assert.assertEquals(3, second.getApplicationKeyMappingMap().size());
+    }
+
+    @Test
+    public void testUnchangedDataIsShared() {
+        SubscriptionSnapshot first = SubscriptionSnapshot.EMPTY.withSubscriptions(createSubscriptions(4, 2, 2));
+        SubscriptionSnapshot second = first.withApplicationKeyMappings(createKeyMappings(3));
+        Assert.assertSame(first.getSubscriptionMap(), second.getSubscriptionMap());
+        Assert.assertSame(first.getSubscriptionsByAppUUID("app-0"), second.getSubscriptionsByAppUUID("app-0"));
+        Assert.assertSame(first.getApplicationMap(), second.getApplicationMap());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotMapsAreUnmodifiable() {
+        SubscriptionSnapshot snapshot = SubscriptionSnapshot.EMPTY.withSubscriptions(createSubscriptions(4, 2, 2));
+        snapshot.getSubscriptionMap().clear();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIndexesAreUnmodifiable() {
+        SubscriptionSnapshot snapshot = SubscriptionSnapshot.EMPTY.withSubscriptions(createSubscriptions(4, 2, 2));
+        snapshot.getSubscriptionsByAppUUID("app-0").clear();
+    }
+
+    static Map<String, Subscription> createSubscriptions(int count, int apis, int apps) {
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Subscription subscription = createSubscription("sub-" + i, "app-" + (i % apps), "api-" + (i % apis),
+                    "ACTIVE");
+            subscriptions.put(subscription.getCacheKey(), subscription);
+        }
+        return subscriptions;
+    }
+
+    static Subscription createSubscription(String id, String appUUID, String apiUUID, String state) {
+        Subscription subscription = new Subscription();
+        subscription.setSubscriptionId(id);
+        subscription.setAppUUID(appUUID);
+        subscription.setApiUUID(apiUUID);
+        subscription.setSubscriptionState(state);
+        return subscription;
+    }
+
+    static Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> createKeyMappings(int count) {
+        Map<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> keyMappings = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            ApplicationKeyMapping keyMapping = createKeyMapping("consumer-" + i, "app-" + (i % 3));
+            keyMappings.put(new ApplicationKeyMappingCacheKey(keyMapping.getConsumerKey(),
+                    keyMapping.getKeyManager()), keyMapping);
+        }
+        return keyMappings;
+    }
+
+    static ApplicationKeyMapping createKeyMapping(String consumerKey, String appUUID) {
+        ApplicationKeyMapping keyMapping = new ApplicationKeyMapping();
+        keyMapping.setConsumerKey(consumerKey);
+        keyMapping.setApplicationUUID(appUUID);
+        keyMapping.setKeyManager("Default");
+        keyMapping.setKeyType("PRODUCTION");
+        return keyMapping;
+    }
+
+    static Application createApplication(String uuid, String organization) {
+        Application application = new Application();
+        application.setUUID(uuid);
+        application.setName(uuid);
+        application.setTenantDomain(organization);
+        return application;
+    }
+
+    private static API createAPI(String uuid, String context, String version) {
+        API api = new API();
+        api.setApiUUID(uuid);
+        api.setContext(context);
+        api.setApiVersion(version);
+        return api;
+    }
+
+    /**
+     * Filter all the values, as the lookups did before the indexes were added.
+     */
+    static <T> List<T> scan(Collection<T> values, Predicate<T> filter) {
+        return values.stream().filter(filter).collect(Collectors.toList());
+    }
+
+    static <T> void assertSameElements(Collection<T> expected, Collection<T> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(new HashSet<>(identities(expected)), new HashSet<>(identities(actual)));
+    }
+
+    private static <T> List<Integer> identities(Collection<T> values) {
+        List<Integer> identities = new ArrayList<>();
+        for (T value : values) {
+            identities.add(System.identityHashCode(Objects.requireNonNull(value)));
+        }
+        return identities;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apk.enforcer.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.apk.enforcer.config.dto.TracingDTO;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+public class BatchSpanProcessorFactoryTest {
+
+    @Test
+    public void testShutdownClosesMeterProvider() {
+        RecordingSpanExporter spanExporter = new RecordingSpanExporter();
+        RecordingMetricExporter metricExporter = new RecordingMetricExporter();
+        SpanProcessor processor = BatchSpanProcessorFactory.create(spanExporter, new TracingDTO(), metricExporter);
+
+        CompletableResultCode result = processor.shutdown().join(10, TimeUnit.SECONDS);
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertTrue(spanExporter.shutdown);
+        // The metric reader shuts down its exporter when the meter provider is shut down.
+        Assert.assertTrue(metricExporter.shutdown);
+    }
+
+    @Test
+    public void testProcessorWithoutMetrics() {
+        RecordingSpanExporter spanExporter = new RecordingSpanExporter();
+        SpanProcessor processor = BatchSpanProcessorFactory.create(spanExporter, new TracingDTO(), null);
+        Assert.assertTrue(processor instanceof BatchSpanProcessor);
+
+        Assert.assertTrue(processor.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+        Assert.assertTrue(spanExporter.shutdown);
+    }
+
+    private static final class RecordingSpanExporter implements SpanExporter {
+
+        private volatile boolean shutdown;
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            shutdown = true;
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+
+    private static final class RecordingMetricExporter implements MetricExporter {
+
+        private volatile boolean shutdown;
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<MetricData> metrics) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            shutdown = true;
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
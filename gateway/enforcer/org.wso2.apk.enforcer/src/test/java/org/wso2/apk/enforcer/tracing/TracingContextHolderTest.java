@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2023, WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.enforcer.tracing;
+
+import io.opentelemetry.context.Context;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TracingContextHolderTest {
+
+    @Test
+    public void testTakeContext() {
+        TracingContextHolder holder = new TracingContextHolder(10, TimeUnit.SECONDS.toMillis(60),
+                System::nanoTime);
+        Context context = Context.root();
+        holder.put("trace-1", context);
+        Assert.assertSame(context, holder.take("trace-1"));
+        Assert.assertNull(holder.take("trace-1"));
+        Assert.assertNull(holder.take("trace-2"));
+    }
+
+    @Test
+    public void testContextExpiry() {
+        AtomicLong time = new AtomicLong();
+        TracingContextHolder holder = new TracingContextHolder(10, TimeUnit.SECONDS.toMillis(60), time::get);
+        holder.put("trace-1", Context.root());
+        time.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        holder.put("trace-2", Context.root());
+        time.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        holder.cleanUp();
+        Assert.assertNull(holder.take("trace-1"));
+        Assert.assertNotNull(holder.take("trace-2"));
+        Assert.assertEquals(1, holder.evictions());
+    }
+
+    @Test
+    public void testDroppedCompletions() throws InterruptedException {
+        int maxSize = 1000;
+        int threads = 8;
+        int requestsPerThread = 50000;
+        TracingContextHolder holder = new TracingContextHolder(maxSize, TimeUnit.SECONDS.toMillis(60),
+                System::nanoTime);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String prefix = "thread-" + i + "-";
+            Thread worker = new Thread(() -> {
+                for (int j = 0; j < requestsPerThread; j++) {
+                    String traceId = prefix + j;
+                    holder.put(traceId, Context.root());
+                    // Every other request never reaches the ext_authz service, so its context is not taken.
+                    if (j % 2 == 0) {
+                        holder.take(traceId);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        holder.cleanUp();
+        Assert.assertTrue("Held contexts exceed the limit: " + holder.size(), holder.size() <= maxSize);
+        Assert.assertTrue(holder.evictions() >= (long) threads * requestsPerThread / 2 - maxSize);
+    }
+}